@@ -0,0 +1,82 @@
+package com.molla.analytics;
+
+import com.molla.domain.PaymentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three report shapes over 10M order lines (20 stores of 10 branches, 2000
+ * cashiers, 20k products in 200 categories, two years), scanned on one thread and
+ * on every core (parallelism 0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class OrderLineStoreBenchmark {
+
+    private static final int LINES = 10_000_000;
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private OrderLineStore store;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        store = new OrderLineStore(pool);
+        SplittableRandom random = new SplittableRandom(7);
+        PaymentType[] payments = PaymentType.values();
+        for (int i = 0; i < LINES; i++) {
+            long branch = 1 + random.nextInt(200);
+            long product = 1 + random.nextInt(20_000);
+            store.append(1 + (branch - 1) / 10, branch, 1 + (branch - 1) * 10 + random.nextInt(10), product,
+                    1 + product % 200, payments[random.nextInt(payments.length)],
+                    START.plusDays(random.nextInt(730)).atTime(8 + random.nextInt(14), random.nextInt(60)),
+                    1 + random.nextInt(4), random.nextInt(10_000) / 100.0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public OrderLineStore.Result byHourForStore() {
+        return store.query(new OrderLineStore.Query(7L, null, null, null, null, null, null,
+                OrderLineStore.Dimension.HOUR));
+    }
+
+    @Benchmark
+    public OrderLineStore.Result byCashierForMonth() {
+        return store.query(new OrderLineStore.Query(null, null, null, null, null,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), OrderLineStore.Dimension.CASHIER));
+    }
+
+    @Benchmark
+    public OrderLineStore.Result byCategoryAcrossBranches() {
+        return store.query(new OrderLineStore.Query(null, null, null, null, null, null, null,
+                OrderLineStore.Dimension.CATEGORY));
+    }
+}
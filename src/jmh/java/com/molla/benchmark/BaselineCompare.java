@@ -0,0 +1,167 @@
+package com.molla.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps src/jmh/baseline.json readable and comparable. {@code baseline} writes
+ * a JMH JSON result without what only describes the host (JVM path and
+ * arguments, raw iterations, percentiles): per benchmark and parameter set the
+ * mode, forks, score, error and unit, to four significant digits.
+ * {@code compare} checks a fresh result against it and fails when a benchmark
+ * got worse by more than the tolerance and by more than both errors together;
+ * smaller differences are noise.
+ * <pre>
+ * BaselineCompare baseline target/jmh-result.json src/jmh/baseline.json
+ * BaselineCompare compare src/jmh/baseline.json target/jmh-result.json 0.10
+ * </pre>
+ */
+public final class BaselineCompare {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final MathContext DIGITS = new MathContext(4);
+
+    private record Entry(String benchmark, Map<String, String> params, String mode, int forks,
+                         double score, double error, String unit) {
+
+        String key() {
+            return params.isEmpty() ? benchmark : benchmark + " " + params;
+        }
+
+        /** Positive when {@code current} is worse: slower, or fewer ops in throughput mode. */
+        double worseBy(Entry current) {
+            return "thrpt".equals(mode) ? score - current.score : current.score - score;
+        }
+    }
+
+    private BaselineCompare() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("baseline")) {
+            writeBaseline(Path.of(args[1]), Path.of(args[2]));
+        } else if ((args.length == 3 || args.length == 4) && args[0].equals("compare")) {
+            double tolerance = args.length == 4 ? Double.parseDouble(args[3]) : 0.10;
+            if (!compare(Path.of(args[1]), Path.of(args[2]), tolerance)) {
+                System.exit(1);
+            }
+        } else {
+            System.err.println("usage: BaselineCompare baseline <jmh-result.json> <baseline.json>");
+            System.err.println("       BaselineCompare compare <baseline.json> <jmh-result.json> [tolerance]");
+            System.exit(2);
+        }
+    }
+
+    private static void writeBaseline(Path result, Path baseline) throws IOException {
+        JsonNode runs = MAPPER.readTree(result.toFile());
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("jdk", runs.isEmpty() ? "" : runs.get(0).path("jdkVersion").asText().split("\\.")[0]);
+        ArrayNode benchmarks = root.putArray("benchmarks");
+        for (Entry entry : readResult(runs).values()) {
+            ObjectNode node = benchmarks.addObject();
+            node.put("benchmark", entry.benchmark());
+            if (!entry.params().isEmpty()) {
+                entry.params().forEach(node.putObject("params")::put);
+            }
+            node.put("mode", entry.mode());
+            node.put("forks", entry.forks());
+            node.put("score", round(entry.score()));
+            node.put("error", round(entry.error()));
+            node.put("unit", entry.unit());
+        }
+        Files.writeString(baseline, MAPPER.writeValueAsString(root) + System.lineSeparator());
+        System.out.printf("%d benchmarks written to %s%n", benchmarks.size(), baseline);
+    }
+
+    private static boolean compare(Path baseline, Path result, double tolerance) throws IOException {
+        Map<String, Entry> expected = readBaseline(MAPPER.readTree(baseline.toFile()));
+        Map<String, Entry> actual = readResult(MAPPER.readTree(result.toFile()));
+        int regressions = 0;
+        System.out.printf("%-90s %22s %22s %8s%n", "benchmark", "baseline", "now", "change");
+        for (Entry now : actual.values()) {
+            Entry base = expected.get(now.key());
+            if (base == null) {
+                System.out.printf("%-90s %22s %22s%n", now.key(), "-", format(now));
+                continue;
+            }
+            double worse = base.worseBy(now);
+            String verdict = "";
+            if (!base.unit().equals(now.unit())) {
+                verdict = "unit changed, update the baseline";
+            } else if (worse > tolerance * base.score() && worse > errorOf(base) + errorOf(now)) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (-worse > tolerance * base.score() && -worse > errorOf(base) + errorOf(now)) {
+                verdict = "improved";
+            }
+            System.out.printf("%-90s %22s %22s %+7.1f%% %s%n", now.key(), format(base), format(now),
+                    100 * (now.score() - base.score()) / base.score(), verdict);
+        }
+        for (Entry base : expected.values()) {
+            if (!actual.containsKey(base.key())) {
+                System.out.printf("%-90s %22s %22s%n", base.key(), format(base), "not run");
+            }
+        }
+        System.out.printf("%d regressions beyond %.0f%% and the error%n", regressions, 100 * tolerance);
+        return regressions == 0;
+    }
+
+    private static Map<String, Entry> readResult(JsonNode runs) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            JsonNode metric = run.path("primaryMetric");
+            Entry entry = new Entry(run.path("benchmark").asText(), params(run.path("params")),
+                    run.path("mode").asText(), run.path("forks").asInt(), metric.path("score").asDouble(),
+                    metric.path("scoreError").asDouble(), metric.path("scoreUnit").asText());
+            entries.put(entry.key(), entry);
+        }
+        return entries;
+    }
+
+    private static Map<String, Entry> readBaseline(JsonNode root) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (JsonNode node : root.path("benchmarks")) {
+            Entry entry = new Entry(node.path("benchmark").asText(), params(node.path("params")),
+                    node.path("mode").asText(), node.path("forks").asInt(), node.path("score").asDouble(),
+                    node.path("error").asDouble(), node.path("unit").asText());
+            entries.put(entry.key(), entry);
+        }
+        return entries;
+    }
+
+    private static Map<String, String> params(JsonNode node) {
+        Map<String, String> params = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        return params;
+    }
+
+    /** A single iteration reports no error (NaN); it then counts as none. */
+    private static double errorOf(Entry entry) {
+        return Double.isNaN(entry.error()) ? 0 : entry.error();
+    }
+
+    private static BigDecimal round(double value) {
+        return Double.isFinite(value) ? new BigDecimal(value).round(DIGITS) : BigDecimal.ZERO;
+    }
+
+    private static String format(Entry entry) {
+        return round(entry.score()).toPlainString() + " +- " + round(errorOf(entry)).toPlainString() + " "
+                + entry.unit();
+    }
+}
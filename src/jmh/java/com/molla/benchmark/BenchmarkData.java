@@ -0,0 +1,151 @@
+package com.molla.benchmark;
+
+import com.molla.domain.OrderStatus;
+import com.molla.domain.PaymentType;
+import com.molla.domain.UserRole;
+import com.molla.model.Branch;
+import com.molla.model.Category;
+import com.molla.model.Customer;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic fixtures shared by the benchmarks: one store and branch, a
+ * catalog of products and a shift's worth of orders built from a fixed seed, so
+ * runs on different machines (and the committed baseline) measure the same data.
+ */
+public final class BenchmarkData {
+
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+    private static final String[] BRANDS = {"Amul", "Tata", "Nestle", "Britannia", "Dabur", "Parle", "Haldiram", "ITC"};
+    private static final String[] WORDS = {"milk", "tea", "coffee", "biscuit", "rice", "atta", "sugar", "salt",
+            "soap", "shampoo", "butter", "cheese", "juice", "noodles", "chips", "honey", "oil", "ghee"};
+
+    private BenchmarkData() {
+    }
+
+    public static Store store() {
+        Store store = new Store();
+        store.setId(1L);
+        store.setBrand("Molla Mart");
+        return store;
+    }
+
+    public static Branch branch(Store store) {
+        return Branch.builder()
+                .id(1L)
+                .name("Main Street")
+                .address("12 Main Street")
+                .phone("9800000000")
+                .email("main@molla.test")
+                .workingDays(List.of("MON", "TUE", "WED", "THU", "FRI", "SAT"))
+                .openTime(LocalTime.of(9, 0))
+                .closeTime(LocalTime.of(21, 0))
+                .store(store)
+                .build();
+    }
+
+    public static User cashier(Store store, Branch branch) {
+        User cashier = new User();
+        cashier.setId(7L);
+        cashier.setFullName("Asha Cashier");
+        cashier.setEmail("cashier@molla.test");
+        cashier.setRole(UserRole.ROLE_BRANCH_CASHIER);
+        cashier.setStore(store);
+        cashier.setBranch(branch);
+        return cashier;
+    }
+
+    public static List<Product> products(Store store, int count) {
+        Random random = new Random(42);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setName("Category " + (i + 1));
+            category.setStore(store);
+            categories.add(category);
+        }
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName(capitalize(WORDS[random.nextInt(WORDS.length)]) + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + (100 + random.nextInt(900)) + "g");
+            product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            product.setSku(sku(i));
+            product.setMrp(10.0 + random.nextInt(500));
+            product.setSellingPrice(product.getMrp() * 0.9);
+            product.setQuantity(random.nextInt(200));
+            product.setStore(store);
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * EAN-13 style barcode for the i-th product.
+     */
+    public static String sku(int i) {
+        return String.format("89%011d", i);
+    }
+
+    public static List<Order> orders(int count, int itemsPerOrder, List<Product> products, Branch branch, User cashier) {
+        Random random = new Random(7);
+        LocalDateTime shiftStart = LocalDateTime.of(2024, 1, 15, 9, 0);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Customer customer = null;
+            if (random.nextBoolean()) {
+                customer = new Customer();
+                customer.setId((long) random.nextInt(500) + 1);
+                customer.setName("Customer " + customer.getId());
+                customer.setPhone("98" + String.format("%08d", customer.getId()));
+            }
+            Order order = Order.builder()
+                    .id((long) i + 1)
+                    .branch(branch)
+                    .cashier(cashier)
+                    .customer(customer)
+                    .paymentType(PAYMENT_TYPES[random.nextInt(PAYMENT_TYPES.length)])
+                    .status(OrderStatus.COMPLETED)
+                    .createdAt(shiftStart.plusSeconds(random.nextInt(8 * 3600)))
+                    .build();
+            List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+            double total = 0;
+            for (int j = 0; j < itemsPerOrder; j++) {
+                Product product = products.get(random.nextInt(products.size()));
+                int quantity = 1 + random.nextInt(4);
+                OrderItem item = OrderItem.builder()
+                        .id((long) i * itemsPerOrder + j + 1)
+                        .order(order)
+                        .product(product)
+                        .quantity(quantity)
+                        .price(product.getSellingPrice())
+                        .totalPrice(product.getSellingPrice() * quantity)
+                        .build();
+                total += item.getTotalPrice();
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.setTotalAmount(total);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
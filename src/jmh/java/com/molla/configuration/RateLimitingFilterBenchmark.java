@@ -0,0 +1,77 @@
+package com.molla.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the rate limiter. One client at benchmark rates is over the
+ * per-minute limit after its first 120 calls, so blockedRequest measures the
+ * counter update plus the 429 response. allowedRequest runs the same request
+ * through a filter whose limit is never reached, which is the path almost every
+ * real request takes: counter update, then on down the chain. docsRequest is the
+ * bypass taken by swagger and actuator paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitingFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private RateLimitingFilter filter;
+    private RateLimitingFilter unlimitedFilter;
+    private MockHttpServletRequest apiRequest;
+    private MockHttpServletRequest docsRequest;
+
+    @Setup
+    public void setUp() {
+        filter = new RateLimitingFilter(new SimpleMeterRegistry());
+        unlimitedFilter = new RateLimitingFilter(new SimpleMeterRegistry(), Integer.MAX_VALUE, Integer.MAX_VALUE);
+        apiRequest = request("/api/orders/branch/1");
+        docsRequest = request("/actuator/prometheus");
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    @Benchmark
+    public int blockedRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(apiRequest, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int allowedRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        unlimitedFilter.doFilter(apiRequest, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int docsRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(docsRequest, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,55 @@
+package com.molla.mapper;
+
+import com.molla.benchmark.BenchmarkData;
+import com.molla.model.Branch;
+import com.molla.model.Order;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.payload.dto.OrderDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity → DTO mapping of a full order (branch, cashier, customer, items with
+ * product and category), as done for every order detail and shift report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int items;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Store store = BenchmarkData.store();
+        Branch branch = BenchmarkData.branch(store);
+        User cashier = BenchmarkData.cashier(store, branch);
+        List<Product> products = BenchmarkData.products(store, 500);
+        order = BenchmarkData.orders(1, items, products, branch, cashier).get(0);
+    }
+
+    @Benchmark
+    public OrderDto toDto() {
+        return OrderMapper.toDto(order);
+    }
+}
@@ -0,0 +1,73 @@
+package com.molla.payload.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.molla.benchmark.BenchmarkData;
+import com.molla.mapper.OrderMapper;
+import com.molla.mapper.ProductMapper;
+import com.molla.model.Branch;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON response bodies with the same Jackson setup Spring Boot uses (java.time
+ * support, ISO dates): one order with 10 items, one product, and a 500 product
+ * page as returned by /api/products/all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private OrderDto order;
+    private ProductDto product;
+    private List<ProductDto> catalog;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Store store = BenchmarkData.store();
+        Branch branch = BenchmarkData.branch(store);
+        User cashier = BenchmarkData.cashier(store, branch);
+        List<Product> products = BenchmarkData.products(store, 500);
+        order = OrderMapper.toDto(BenchmarkData.orders(1, 10, products, branch, cashier).get(0));
+        product = ProductMapper.toDto(products.get(0));
+        catalog = products.stream().map(ProductMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public byte[] orderDto() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] productDto() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productCatalog() throws Exception {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+}
@@ -0,0 +1,114 @@
+package com.molla.search;
+
+import com.molla.benchmark.BenchmarkData;
+import com.molla.mapper.ProductMapper;
+import com.molla.model.Product;
+import com.molla.payload.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Till search at 100k products: the in-memory trigram index against the
+ * leading-wildcard LIKE of ProductRepository.searchByKeyword (run on H2 over the
+ * same rows).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private static final String LIKE_QUERY = """
+            SELECT id FROM product
+            WHERE store_id = ?
+            AND (LOWER(name) LIKE LOWER(CONCAT('%', ?, '%'))
+                 OR LOWER(brand) LIKE LOWER(CONCAT('%', ?, '%'))
+                 OR LOWER(sku) LIKE LOWER(CONCAT('%', ?, '%')))
+            """;
+
+    /** A common word, a rare name fragment and a sku fragment. */
+    @Param({"milk", "honey ghee", "0004242"})
+    public String query;
+
+    private ProductSearchIndex.StoreIndex index;
+    private Connection connection;
+    private PreparedStatement like;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Product> products = BenchmarkData.products(BenchmarkData.store(), PRODUCTS);
+        index = new ProductSearchIndex.StoreIndex();
+        for (Product product : products) {
+            index.put(ProductMapper.toDto(product));
+        }
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:search;MODE=MySQL");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, store_id BIGINT, name VARCHAR(255), "
+                    + "brand VARCHAR(255), sku VARCHAR(255) UNIQUE)");
+            ddl.execute("CREATE INDEX idx_product_store ON product (store_id)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO product (id, store_id, name, brand, sku) VALUES (?, ?, ?, ?, ?)")) {
+            for (Product product : products) {
+                insert.setLong(1, product.getId());
+                insert.setLong(2, product.getStore().getId());
+                insert.setString(3, product.getName());
+                insert.setString(4, product.getBrand());
+                insert.setString(5, product.getSku());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        like = connection.prepareStatement(LIKE_QUERY);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        like.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> trigramIndex() {
+        return index.search(ProductSearchIndex.normalize(query));
+    }
+
+    @Benchmark
+    public List<Long> sqlLike() throws Exception {
+        like.setLong(1, 1L);
+        like.setString(2, query);
+        like.setString(3, query);
+        like.setString(4, query);
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = like.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
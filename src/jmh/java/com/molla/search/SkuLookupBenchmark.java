@@ -0,0 +1,73 @@
+package com.molla.search;
+
+import com.molla.benchmark.BenchmarkData;
+import com.molla.mapper.ProductMapper;
+import com.molla.model.Product;
+import com.molla.payload.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barcode scan at 100k products: sku table probe plus the product lookup, under
+ * the store's read lock. Skus are visited in a stride so lookups miss the cache
+ * the way random scans do. findBySkuConcurrent samples single lookups from four
+ * tills at once; read its p0.99 for the scan latency percentile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkuLookupBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private ProductSearchIndex.StoreIndex index;
+    private String[] skus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = BenchmarkData.products(BenchmarkData.store(), PRODUCTS);
+        index = new ProductSearchIndex.StoreIndex();
+        skus = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductDto dto = ProductMapper.toDto(products.get(i));
+            index.put(dto);
+            skus[i] = dto.getSku();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = ThreadLocalRandom.current().nextInt(PRODUCTS);
+    }
+
+    @Benchmark
+    public ProductDto findBySku() {
+        next = (next + 7919) % PRODUCTS;
+        return index.findBySku(skus[next]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @Threads(4)
+    public ProductDto findBySkuConcurrent(Cursor cursor) {
+        cursor.next = (cursor.next + 7919) % PRODUCTS;
+        return index.findBySku(skus[cursor.next]);
+    }
+}
@@ -0,0 +1,130 @@
+package com.molla.service.impl;
+
+import com.molla.MollaPosSystemApplication;
+import com.molla.domain.PaymentType;
+import com.molla.domain.UserRole;
+import com.molla.model.Branch;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.payload.dto.OrderDto;
+import com.molla.payload.dto.OrderItemDto;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.ProductRepository;
+import com.molla.repository.StoreRepository;
+import com.molla.repository.UserRepository;
+import com.molla.service.OrderService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.createOrder end to end (product lookup, order and item inserts)
+ * per basket size, with JDBC insert batching on (batch_size 50, the default) and
+ * off (batch_size 1). The loadtest profile's H2 is served over a loopback TCP
+ * server so every statement or batch is a real round trip, as with MySQL or
+ * PostgreSQL (over a network the gap only grows). Hibernate and Spring need a
+ * longer warmup than the plain benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutInsertBenchmark {
+
+    private static final int CATALOG = 500;
+
+    @Param({"1", "5", "30", "100"})
+    public int basketSize;
+
+    @Param({"50", "1"})
+    public int batchSize;
+
+    private Server database;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderDto basket;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        // DevTools would restart the application in a new class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(MollaPosSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("loadtest")
+                .run("--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort()
+                                + "/mem:checkout;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        orderService = context.getBean(OrderService.class);
+
+        Store store = new Store();
+        store.setBrand("Benchmark Mart");
+        store = context.getBean(StoreRepository.class).save(store);
+        Branch branch = context.getBean(BranchRepository.class)
+                .save(Branch.builder().name("Main").store(store).build());
+        User cashier = new User();
+        cashier.setFullName("Cashier");
+        cashier.setEmail("cashier@benchmark.local");
+        cashier.setPassword("x");
+        cashier.setRole(UserRole.ROLE_BRANCH_CASHIER);
+        cashier.setStore(store);
+        cashier.setBranch(branch);
+        cashier = context.getBean(UserRepository.class).save(cashier);
+
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < CATALOG; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setSku("BENCH-" + i);
+            product.setSellingPrice(10.0 + i % 50);
+            product.setStore(store);
+            catalog.add(product);
+        }
+        catalog = context.getBean(ProductRepository.class).saveAll(catalog);
+
+        List<OrderItemDto> items = new ArrayList<>();
+        for (int i = 0; i < basketSize; i++) {
+            items.add(OrderItemDto.builder()
+                    .productId(catalog.get(i * 7 % CATALOG).getId())
+                    .quantity(1 + i % 3)
+                    .build());
+        }
+        basket = OrderDto.builder()
+                .branchId(branch.getId())
+                .cashierId(cashier.getId())
+                .paymentType(PaymentType.CASH)
+                .orderItems(items)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        database.stop();
+    }
+
+    @Benchmark
+    public OrderDto createOrder() throws Exception {
+        return orderService.createOrder(basket);
+    }
+}
@@ -0,0 +1,67 @@
+package com.molla.service.impl;
+
+import com.molla.benchmark.BenchmarkData;
+import com.molla.model.Branch;
+import com.molla.model.Order;
+import com.molla.model.PaymentSummary;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregation helpers behind endShift and getCurrentShiftProgress, over a
+ * shift's orders (5 items each from a 2,000 product catalog).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShiftReportHelpersBenchmark {
+
+    @Param({"100", "1000"})
+    public int orders;
+
+    private List<Order> shiftOrders;
+    private double totalSales;
+
+    @Setup
+    public void setUp() {
+        Store store = BenchmarkData.store();
+        Branch branch = BenchmarkData.branch(store);
+        User cashier = BenchmarkData.cashier(store, branch);
+        List<Product> products = BenchmarkData.products(store, 2_000);
+        shiftOrders = BenchmarkData.orders(orders, 5, products, branch, cashier);
+        totalSales = shiftOrders.stream().mapToDouble(Order::getTotalAmount).sum();
+    }
+
+    @Benchmark
+    public List<Product> topSellingProducts() {
+        return ShiftReportServiceImpl.getTopSellingProducts(shiftOrders);
+    }
+
+    @Benchmark
+    public List<PaymentSummary> paymentSummaries() {
+        return ShiftReportServiceImpl.getPaymentSummaries(shiftOrders, totalSales);
+    }
+
+    @Benchmark
+    public List<Order> recentOrders() {
+        return ShiftReportServiceImpl.getRecentOrders(shiftOrders);
+    }
+}
@@ -0,0 +1,53 @@
+package com.molla.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense int codes for the ids of one dimension (branch, cashier, product...), so
+ * columns hold 4-byte codes and group-bys index plain arrays. Code 0 stands for
+ * "no id" (an order without a customer, a product without a category).
+ * Codes are only added, by the single writer of the owning store.
+ */
+final class Dictionary {
+
+    static final int NONE = 0;
+
+    private final Map<Long, Integer> codes = new HashMap<>();
+    private volatile long[] ids = new long[64];
+    private volatile int size = 1;
+
+    synchronized int encode(Long id) {
+        if (id == null) {
+            return NONE;
+        }
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size] = id;
+        codes.put(id, size);
+        return size++;
+    }
+
+    /** Code of an id, or -1 when it never occurred. */
+    synchronized int lookup(Long id) {
+        if (id == null) {
+            return NONE;
+        }
+        return codes.getOrDefault(id, -1);
+    }
+
+    Long decode(int code) {
+        return code == NONE ? null : ids[code];
+    }
+
+    /** Number of codes, including NONE. */
+    int size() {
+        return size;
+    }
+}
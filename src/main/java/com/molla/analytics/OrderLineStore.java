@@ -0,0 +1,332 @@
+package com.molla.analytics;
+
+import com.molla.domain.PaymentType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Order lines held column by column in primitive arrays, 64k lines per chunk:
+ * branch, cashier and product as dictionary codes, the hour the order was placed
+ * (hours since 1970-01-01 local time), payment type, quantity and amount in cents,
+ * about 25 bytes a line. Store and category are derived through the branch and
+ * product codes.
+ * <p>
+ * One writer appends (synchronized) and publishes each line by bumping the
+ * volatile size; queries read the size first and scan only the lines below it,
+ * so they never block appends. A query filters, groups by one dimension and sums
+ * sales, quantity and lines; chunks are scanned in parallel as fork-join tasks,
+ * each into its own dense per-group arrays, merged pairwise on the way up.
+ */
+public class OrderLineStore {
+
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /** About ten years of days for a DATE group-by. */
+    static final int MAX_DATE_GROUPS = 3700;
+
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+
+    public enum Dimension {
+        HOUR, DAY_OF_WEEK, DATE, STORE, BRANCH, CASHIER, CATEGORY, PRODUCT, PAYMENT_TYPE
+    }
+
+    /** Filters left null match everything; from and to are whole days, both included. */
+    public record Query(Long storeId, Long branchId, Long cashierId, Long categoryId, PaymentType paymentType,
+                        LocalDate from, LocalDate to, Dimension groupBy) {
+    }
+
+    /**
+     * One group: key is the hour (0-23), DayOfWeek, LocalDate, PaymentType or the
+     * entity id of the grouped dimension (null for lines without one).
+     */
+    public record Group(Object key, double salesAmount, long quantity, long lines) {
+    }
+
+    public record Result(Dimension groupBy, List<Group> groups, long scannedLines, long matchedLines) {
+    }
+
+    private static final class Chunk {
+        final int[] branch = new int[CHUNK_SIZE];
+        final int[] cashier = new int[CHUNK_SIZE];
+        final int[] product = new int[CHUNK_SIZE];
+        final int[] hour = new int[CHUNK_SIZE];
+        final int[] quantity = new int[CHUNK_SIZE];
+        final int[] cents = new int[CHUNK_SIZE];
+        final byte[] payment = new byte[CHUNK_SIZE];
+    }
+
+    private final ForkJoinPool pool;
+    private final Dictionary stores = new Dictionary();
+    private final Dictionary branches = new Dictionary();
+    private final Dictionary cashiers = new Dictionary();
+    private final Dictionary products = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+
+    private volatile int[] branchStore = new int[64];
+    private volatile int[] productCategory = new int[64];
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int minHour = Integer.MAX_VALUE;
+    private volatile int maxHour = Integer.MIN_VALUE;
+    private volatile int size;
+
+    public OrderLineStore(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public synchronized void append(Long storeId, Long branchId, Long cashierId, Long productId, Long categoryId,
+                                    PaymentType paymentType, LocalDateTime createdAt, int quantity, double amount) {
+        int row = size;
+        int chunkIndex = row >>> CHUNK_BITS;
+        if (chunkIndex == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunkIndex + 1);
+            grown[chunkIndex] = new Chunk();
+            chunks = grown;
+        }
+        Chunk chunk = chunks[chunkIndex];
+        int i = row & (CHUNK_SIZE - 1);
+
+        int branch = branches.encode(branchId);
+        branchStore = put(branchStore, branch, stores.encode(storeId));
+        int product = products.encode(productId);
+        productCategory = put(productCategory, product, categories.encode(categoryId));
+        int hour = hourOf(createdAt);
+
+        chunk.branch[i] = branch;
+        chunk.cashier[i] = cashiers.encode(cashierId);
+        chunk.product[i] = product;
+        chunk.hour[i] = hour;
+        chunk.quantity[i] = quantity;
+        chunk.cents[i] = (int) Math.round(amount * 100);
+        chunk.payment[i] = (byte) (paymentType == null ? 0 : paymentType.ordinal() + 1);
+        if (hour < minHour) {
+            minHour = hour;
+        }
+        if (hour > maxHour) {
+            maxHour = hour;
+        }
+        size = row + 1;
+    }
+
+    private static int[] put(int[] array, int index, int value) {
+        if (index >= array.length) {
+            array = Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+        }
+        array[index] = value;
+        return array;
+    }
+
+    static int hourOf(LocalDateTime time) {
+        return (int) (time.toLocalDate().toEpochDay() * 24 + time.getHour());
+    }
+
+    public Result query(Query query) {
+        // Size first: every code and mapping used by the lines below it is already in place
+        int rows = size;
+        Plan plan = plan(query, rows);
+        if (plan == null || rows == 0 || plan.groups == 0) {
+            return new Result(query.groupBy(), List.of(), rows, 0);
+        }
+        Chunk[] snapshot = chunks;
+        long[] totals = pool.invoke(new Scan(plan, snapshot, rows, 0, (rows - 1 >>> CHUNK_BITS) + 1));
+
+        List<Group> groups = new ArrayList<>();
+        long matched = 0;
+        for (int g = 0; g < plan.groups; g++) {
+            long lines = totals[g * 3 + 2];
+            if (lines > 0) {
+                groups.add(new Group(key(plan, g), totals[g * 3] / 100.0, totals[g * 3 + 1], lines));
+                matched += lines;
+            }
+        }
+        if (!plan.ordered) {
+            groups.sort(Comparator.comparingDouble(Group::salesAmount).reversed());
+        }
+        return new Result(query.groupBy(), groups, rows, matched);
+    }
+
+    /** A query resolved to codes; null when a filter names an id that never occurred. */
+    private static final class Plan {
+        Dimension groupBy;
+        int groups;
+        boolean ordered;
+        int hourFrom = Integer.MIN_VALUE;
+        int hourTo = Integer.MAX_VALUE;
+        int dayBase;
+        boolean[] branchAllowed;
+        int cashier = -1;
+        int category = -1;
+        int payment = -1;
+        int[] branchStore;
+        int[] productCategory;
+    }
+
+    private Plan plan(Query query, int rows) {
+        Plan plan = new Plan();
+        plan.groupBy = query.groupBy();
+        plan.branchStore = branchStore;
+        plan.productCategory = productCategory;
+
+        if (query.storeId() != null || query.branchId() != null) {
+            int store = query.storeId() == null ? -1 : stores.lookup(query.storeId());
+            int branch = query.branchId() == null ? -1 : branches.lookup(query.branchId());
+            if ((query.storeId() != null && store < 0) || (query.branchId() != null && branch < 0)) {
+                return null;
+            }
+            plan.branchAllowed = new boolean[branches.size()];
+            for (int b = 1; b < plan.branchAllowed.length; b++) {
+                plan.branchAllowed[b] = (query.storeId() == null || plan.branchStore[b] == store)
+                        && (query.branchId() == null || b == branch);
+            }
+        }
+        if (query.cashierId() != null && (plan.cashier = cashiers.lookup(query.cashierId())) < 0) {
+            return null;
+        }
+        if (query.categoryId() != null && (plan.category = categories.lookup(query.categoryId())) < 0) {
+            return null;
+        }
+        if (query.paymentType() != null) {
+            plan.payment = query.paymentType().ordinal() + 1;
+        }
+        if (query.from() != null) {
+            plan.hourFrom = (int) (query.from().toEpochDay() * 24);
+        }
+        if (query.to() != null) {
+            plan.hourTo = (int) ((query.to().toEpochDay() + 1) * 24);
+        }
+
+        switch (query.groupBy()) {
+            case HOUR -> {
+                plan.groups = 24;
+                plan.ordered = true;
+            }
+            case DAY_OF_WEEK -> {
+                plan.groups = 7;
+                plan.ordered = true;
+            }
+            case DATE -> {
+                if (rows == 0) {
+                    return plan;
+                }
+                long first = query.from() != null ? query.from().toEpochDay() : Math.floorDiv(minHour, 24);
+                long last = query.to() != null ? query.to().toEpochDay() : Math.floorDiv(maxHour, 24);
+                if (last - first + 1 > MAX_DATE_GROUPS) {
+                    throw new IllegalArgumentException("Group by date covers at most " + MAX_DATE_GROUPS + " days");
+                }
+                plan.dayBase = (int) first;
+                plan.groups = (int) Math.max(0, last - first + 1);
+                plan.ordered = true;
+            }
+            case STORE -> plan.groups = stores.size();
+            case BRANCH -> plan.groups = branches.size();
+            case CASHIER -> plan.groups = cashiers.size();
+            case CATEGORY -> plan.groups = categories.size();
+            case PRODUCT -> plan.groups = products.size();
+            case PAYMENT_TYPE -> plan.groups = PAYMENT_TYPES.length + 1;
+        }
+        return plan;
+    }
+
+    private Object key(Plan plan, int group) {
+        return switch (plan.groupBy) {
+            case HOUR -> group;
+            case DAY_OF_WEEK -> DayOfWeek.of(group + 1);
+            case DATE -> LocalDate.ofEpochDay(plan.dayBase + group);
+            case STORE -> stores.decode(group);
+            case BRANCH -> branches.decode(group);
+            case CASHIER -> cashiers.decode(group);
+            case CATEGORY -> categories.decode(group);
+            case PRODUCT -> products.decode(group);
+            case PAYMENT_TYPE -> group == 0 ? null : PAYMENT_TYPES[group - 1];
+        };
+    }
+
+    /** Sums chunks [from, to) into {cents, quantity, lines} per group. */
+    private static final class Scan extends RecursiveTask<long[]> {
+
+        private final Plan plan;
+        private final Chunk[] chunks;
+        private final int rows;
+        private final int from;
+        private final int to;
+
+        Scan(Plan plan, Chunk[] chunks, int rows, int from, int to) {
+            this.plan = plan;
+            this.chunks = chunks;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from == 1) {
+                return scan(chunks[from], Math.min(CHUNK_SIZE, rows - (from << CHUNK_BITS)));
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(plan, chunks, rows, from, middle);
+            left.fork();
+            long[] right = new Scan(plan, chunks, rows, middle, to).compute();
+            long[] totals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += right[i];
+            }
+            return totals;
+        }
+
+        private long[] scan(Chunk chunk, int lines) {
+            Plan p = plan;
+            long[] totals = new long[p.groups * 3];
+            for (int i = 0; i < lines; i++) {
+                int hour = chunk.hour[i];
+                if (hour < p.hourFrom || hour >= p.hourTo) {
+                    continue;
+                }
+                int branch = chunk.branch[i];
+                if (p.branchAllowed != null && (branch >= p.branchAllowed.length || !p.branchAllowed[branch])) {
+                    continue;
+                }
+                if (p.cashier >= 0 && chunk.cashier[i] != p.cashier) {
+                    continue;
+                }
+                if (p.category >= 0 && p.productCategory[chunk.product[i]] != p.category) {
+                    continue;
+                }
+                if (p.payment >= 0 && chunk.payment[i] != p.payment) {
+                    continue;
+                }
+                int group = switch (p.groupBy) {
+                    case HOUR -> Math.floorMod(hour, 24);
+                    // 1970-01-01 was a Thursday
+                    case DAY_OF_WEEK -> Math.floorMod(Math.floorDiv(hour, 24) + 3, 7);
+                    case DATE -> Math.floorDiv(hour, 24) - p.dayBase;
+                    case STORE -> p.branchStore[branch];
+                    case BRANCH -> branch;
+                    case CASHIER -> chunk.cashier[i];
+                    case CATEGORY -> p.productCategory[chunk.product[i]];
+                    case PRODUCT -> chunk.product[i];
+                    case PAYMENT_TYPE -> chunk.payment[i];
+                };
+                if (group < 0 || group >= p.groups) {
+                    continue;
+                }
+                totals[group * 3] += chunk.cents[i];
+                totals[group * 3 + 1] += chunk.quantity[i];
+                totals[group * 3 + 2]++;
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.molla.analytics;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.util.StreamingFetchSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the OrderLineStore behind /api/reports/analytics. The store is loaded from
+ * the database after startup and again every night (a fresh copy swapped in when
+ * complete, so edits, deletes and archival show up), and committed orders are
+ * appended as they come. Off unless pos.analytics.enabled is set: the copy
+ * takes about 25 bytes of heap per order line, twice that during a reload.
+ * <p>
+ * Orders committed while a load runs go to the old copy and are replayed into
+ * the new one: all of those created from the load's start on, which the load
+ * does not read, and those created up to pos.analytics.replay-margin before it
+ * that the load's snapshot did not see (a checkout that was still running).
+ * Loading reads hot and archived orders in one read-only repeatable-read
+ * transaction, so a concurrent archival run neither hides nor doubles orders
+ * (and a read replica serves it when one is configured).
+ */
+@Component
+public class SalesAnalyticsEngine implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalyticsEngine.class);
+
+    private static final String LINES = """
+            SELECT o.created_at, b.store_id, o.branch_id, o.cashier_id, o.payment_type,
+                   i.product_id, p.category_id, i.quantity, i.total_price
+            FROM %s i
+            JOIN %s o ON o.id = i.order_id
+            LEFT JOIN branch b ON b.id = o.branch_id
+            LEFT JOIN product p ON p.id = i.product_id
+            WHERE o.created_at < ?""";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate snapshot;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ForkJoinPool pool;
+    private final boolean enabled;
+    private final int fetchSize;
+    private final Duration replayMargin;
+
+    private final Object feedLock = new Object();
+    private final List<OrderPlacedEvent> pending = new ArrayList<>();
+    private volatile OrderLineStore store;
+    private boolean loading;
+    private final AtomicBoolean loaderRunning = new AtomicBoolean();
+
+    public SalesAnalyticsEngine(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                OrderArchiveRepository orderArchiveRepository,
+                                @Value("${pos.analytics.enabled:false}") boolean enabled,
+                                @Value("${pos.analytics.parallelism:0}") int parallelism,
+                                @Value("${pos.analytics.fetch-size:10000}") int fetchSize,
+                                @Value("${pos.analytics.replay-margin:10m}") Duration replayMargin) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.fetchSize = fetchSize;
+        this.replayMargin = replayMargin;
+        this.snapshot = new TransactionTemplate(transactionManager);
+        this.snapshot.setReadOnly(true);
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshot.setName(SalesAnalyticsEngine.class.getName() + ".reload");
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.enabled = enabled;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAfterStartup() {
+        if (enabled) {
+            reloadInBackground();
+        }
+    }
+
+    /** Starts a reload on the analytics-load thread; false if that thread is still running one. */
+    public boolean reloadInBackground() {
+        if (!loaderRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                reloadQuietly();
+            } finally {
+                loaderRunning.set(false);
+            }
+        }, "analytics-load");
+        loader.setDaemon(true);
+        loader.start();
+        return true;
+    }
+
+    @Scheduled(cron = "${pos.analytics.reload-cron:0 45 3 * * *}")
+    public void reloadNightly() {
+        if (enabled) {
+            reloadQuietly();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.warn("Analytics store not loaded: {}", e.getMessage());
+            synchronized (feedLock) {
+                loading = false;
+                pending.clear();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether the first load has finished. */
+    public boolean isReady() {
+        return store != null;
+    }
+
+    public OrderLineStore.Result query(OrderLineStore.Query query) {
+        OrderLineStore current = store;
+        if (current == null) {
+            throw new IllegalStateException("Sales analytics are still loading");
+        }
+        return current.query(query);
+    }
+
+    /** Builds a new copy from the database and swaps it in; returns its line count. */
+    public synchronized int reload() {
+        LocalDateTime loadStart = LocalDateTime.now();
+        synchronized (feedLock) {
+            loading = true;
+            pending.clear();
+        }
+        long started = System.nanoTime();
+        OrderLineStore fresh = new OrderLineStore(pool);
+        boolean withArchive = orderArchiveRepository.getArchivedUntil().isPresent();
+        LocalDateTime marginStart = loadStart.minus(replayMargin);
+        Set<Long> loadedInMargin = new HashSet<>();
+        snapshot.executeWithoutResult(status -> {
+            StreamingFetchSize.apply(jdbc, fetchSize);
+            RowCallbackHandler append = rs -> appendRow(fresh, rs);
+            Timestamp before = Timestamp.valueOf(loadStart);
+            jdbc.query(LINES.formatted("order_item", "orders"), append, before);
+            if (withArchive) {
+                jdbc.query(LINES.formatted("order_item_archive", "orders_archive"), append, before);
+            }
+            // Same snapshot: exactly the orders of the margin the load has read
+            jdbc.query("SELECT id FROM orders WHERE created_at >= ? AND created_at < ?",
+                    (RowCallbackHandler) rs -> loadedInMargin.add(rs.getLong(1)),
+                    Timestamp.valueOf(marginStart), before);
+        });
+        synchronized (feedLock) {
+            for (OrderPlacedEvent event : pending) {
+                if (!event.createdAt().isBefore(loadStart)
+                        || (!event.createdAt().isBefore(marginStart) && !loadedInMargin.contains(event.orderId()))) {
+                    append(fresh, event);
+                }
+            }
+            pending.clear();
+            loading = false;
+            store = fresh;
+        }
+        logger.info("Analytics store loaded: {} order lines in {} ms", fresh.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return fresh.size();
+    }
+
+    private static void appendRow(OrderLineStore target, ResultSet rs) throws SQLException {
+        String paymentType = rs.getString("payment_type");
+        target.append(
+                nullableLong(rs, "store_id"),
+                nullableLong(rs, "branch_id"),
+                nullableLong(rs, "cashier_id"),
+                nullableLong(rs, "product_id"),
+                nullableLong(rs, "category_id"),
+                paymentType != null ? PaymentType.valueOf(paymentType) : null,
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getInt("quantity"),
+                rs.getDouble("total_price"));
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.createdAt() == null) {
+            return;
+        }
+        synchronized (feedLock) {
+            OrderLineStore current = store;
+            if (current != null) {
+                append(current, event);
+            }
+            if (loading) {
+                pending.add(event);
+            }
+        }
+    }
+
+    private static void append(OrderLineStore target, OrderPlacedEvent event) {
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            target.append(event.storeId(), event.branchId(), event.cashierId(), line.productId(), line.categoryId(),
+                    event.paymentType(), event.createdAt(), line.quantity(), line.amount());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,261 @@
+package com.molla.archive;
+
+import com.molla.domain.OrderStatus;
+import com.molla.domain.PaymentType;
+import com.molla.model.Branch;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.model.Refund;
+import com.molla.model.ShiftReport;
+import com.molla.model.User;
+import com.molla.payload.dto.CustomerBranchTotalsDto;
+import com.molla.payload.dto.CustomerRefundTotalsDto;
+import com.molla.payload.dto.OrderSummaryDto;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.CustomerRepository;
+import com.molla.repository.ProductRepository;
+import com.molla.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads orders, items and refunds moved to the archive tables by OrderArchiver.
+ * Rows come back as detached entities (branch, cashier, customer and products are
+ * still live rows) so the existing mappers build the same DTOs as for hot data.
+ * <p>
+ * Services only ask when a date range starts at or before the newest archived
+ * order ({@link #reaches}); until the first archival run, or when the V3
+ * migration has not been applied, the archive is treated as empty.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveRepository.class);
+
+    private static final String SUMMARY_SELECT = """
+            SELECT o.id, o.total_amount, o.status, o.payment_type, o.created_at, o.branch_id,
+                   o.cashier_id, ca.full_name, o.customer_id, cu.name,
+                   (SELECT COUNT(*) FROM order_item_archive i WHERE i.order_id = o.id) AS item_count
+            FROM orders_archive o
+            LEFT JOIN users ca ON ca.id = o.cashier_id
+            LEFT JOIN customer cu ON cu.id = o.customer_id
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final BranchRepository branchRepository;
+    private final UserRepository userRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+
+    private volatile boolean loaded;
+    private volatile LocalDateTime archivedUntil;
+
+    public OrderArchiveRepository(JdbcTemplate jdbc, BranchRepository branchRepository, UserRepository userRepository,
+                                  CustomerRepository customerRepository, ProductRepository productRepository) {
+        this.jdbc = jdbc;
+        this.branchRepository = branchRepository;
+        this.userRepository = userRepository;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+    }
+
+    /** created_at of the newest archived order, empty while nothing has been archived. */
+    public Optional<LocalDateTime> getArchivedUntil() {
+        if (!loaded) {
+            try {
+                archivedUntil = jdbc.queryForObject("SELECT MAX(created_at) FROM orders_archive", LocalDateTime.class);
+            } catch (DataAccessException e) {
+                logger.warn("Order archive unavailable, reading hot tables only: {}", e.getMessage());
+                archivedUntil = null;
+            }
+            loaded = true;
+        }
+        return Optional.ofNullable(archivedUntil);
+    }
+
+    /** Called by the archiver after each committed batch. */
+    void advanceArchivedUntil(LocalDateTime createdAt) {
+        LocalDateTime current = getArchivedUntil().orElse(null);
+        if (current == null || createdAt.isAfter(current)) {
+            archivedUntil = createdAt;
+        }
+    }
+
+    /** Whether a range starting at {@code from} may contain archived rows. */
+    public boolean reaches(LocalDateTime from) {
+        return getArchivedUntil().map(until -> from == null || !from.isAfter(until)).orElse(false);
+    }
+
+    public List<OrderSummaryDto> findSummariesByBranchIdAndCreatedAtBetween(Long branchId, LocalDateTime start,
+                                                                            LocalDateTime end) {
+        return jdbc.query(SUMMARY_SELECT
+                        + "WHERE o.branch_id = ? AND o.created_at BETWEEN ? AND ? ORDER BY o.created_at DESC",
+                OrderArchiveRepository::summary, branchId, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    public Optional<Order> findById(Long id) {
+        if (getArchivedUntil().isEmpty()) {
+            return Optional.empty();
+        }
+        List<Order> orders = jdbc.query("""
+                        SELECT id, branch_id, cashier_id, customer_id, created_at, total_amount, payment_type, status
+                        FROM orders_archive WHERE id = ?""",
+                (rs, rowNum) -> {
+                    Order order = Order.builder()
+                            .id(rs.getLong("id"))
+                            .totalAmount(nullableDouble(rs, "total_amount"))
+                            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                            .paymentType(enumValue(PaymentType.class, rs.getString("payment_type")))
+                            .status(enumValue(OrderStatus.class, rs.getString("status")))
+                            .build();
+                    order.setBranch(branchRepository.findById(rs.getLong("branch_id")).orElse(null));
+                    order.setCashier(userRepository.findById(rs.getLong("cashier_id")).orElse(null));
+                    long customerId = rs.getLong("customer_id");
+                    if (!rs.wasNull()) {
+                        order.setCustomer(customerRepository.findById(customerId).orElse(null));
+                    }
+                    return order;
+                }, id);
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = orders.get(0);
+        List<Long> productIds = new ArrayList<>();
+        List<OrderItem> items = jdbc.query("""
+                        SELECT id, product_id, quantity, price, total_price
+                        FROM order_item_archive WHERE order_id = ? ORDER BY id""",
+                (rs, rowNum) -> {
+                    productIds.add(rs.getLong("product_id"));
+                    return OrderItem.builder()
+                            .id(rs.getLong("id"))
+                            .quantity(rs.getInt("quantity"))
+                            .price(nullableDouble(rs, "price"))
+                            .totalPrice(nullableDouble(rs, "total_price"))
+                            .order(order)
+                            .build();
+                }, id);
+        Map<Long, Product> products = byId(productRepository.findAllById(productIds), Product::getId);
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setProduct(products.get(productIds.get(i)));
+        }
+        order.setOrderItems(items);
+        return Optional.of(order);
+    }
+
+    public List<Refund> findRefundsByCashierAndCreatedAtBetween(User cashier, LocalDateTime start, LocalDateTime end) {
+        List<Refund> refunds = new ArrayList<>();
+        List<Long> branchIds = new ArrayList<>();
+        jdbc.query("""
+                        SELECT id, order_id, reason, amount, shift_report_id, branch_id, payment_type, created_at
+                        FROM refund_archive WHERE cashier_id = ? AND created_at BETWEEN ? AND ?""",
+                rs -> {
+                    Refund refund = Refund.builder()
+                            .id(rs.getLong("id"))
+                            .order(Order.builder().id(rs.getLong("order_id")).build())
+                            .reason(rs.getString("reason"))
+                            .amount(nullableDouble(rs, "amount"))
+                            .cashier(cashier)
+                            .paymentType(enumValue(PaymentType.class, rs.getString("payment_type")))
+                            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                            .build();
+                    long shiftReportId = rs.getLong("shift_report_id");
+                    if (!rs.wasNull()) {
+                        refund.setShiftReport(ShiftReport.builder().id(shiftReportId).build());
+                    }
+                    refunds.add(refund);
+                    branchIds.add(rs.getLong("branch_id"));
+                }, cashier.getId(), Timestamp.valueOf(start), Timestamp.valueOf(end));
+        Map<Long, Branch> branches = byId(branchRepository.findAllById(branchIds), Branch::getId);
+        for (int i = 0; i < refunds.size(); i++) {
+            refunds.get(i).setBranch(branches.get(branchIds.get(i)));
+        }
+        return refunds;
+    }
+
+    /**
+     * Archived counterpart of OrderRepository#sumByCustomerAndBranch; empty before
+     * the first archival run.
+     */
+    public List<CustomerBranchTotalsDto> sumOrdersByCustomerAndBranch() {
+        if (getArchivedUntil().isEmpty()) {
+            return List.of();
+        }
+        return jdbc.query("""
+                        SELECT customer_id, branch_id, COUNT(*), SUM(total_amount), MIN(created_at), MAX(created_at)
+                        FROM orders_archive WHERE customer_id IS NOT NULL GROUP BY customer_id, branch_id""",
+                (rs, rowNum) -> new CustomerBranchTotalsDto(
+                        rs.getLong(1),
+                        nullableLong(rs, 2),
+                        rs.getLong(3),
+                        rs.getDouble(4),
+                        rs.getTimestamp(5).toLocalDateTime(),
+                        rs.getTimestamp(6).toLocalDateTime()));
+    }
+
+    /**
+     * Archived counterpart of RefundRepository#sumByCustomer. Refunds are archived
+     * with their orders, so both are in the archive.
+     */
+    public List<CustomerRefundTotalsDto> sumRefundsByCustomer() {
+        if (getArchivedUntil().isEmpty()) {
+            return List.of();
+        }
+        return jdbc.query("""
+                        SELECT o.customer_id, COUNT(*), SUM(r.amount)
+                        FROM refund_archive r JOIN orders_archive o ON o.id = r.order_id
+                        WHERE o.customer_id IS NOT NULL GROUP BY o.customer_id""",
+                (rs, rowNum) -> new CustomerRefundTotalsDto(rs.getLong(1), rs.getLong(2), rs.getDouble(3)));
+    }
+
+    private static OrderSummaryDto summary(ResultSet rs, int rowNum) throws SQLException {
+        long customerId = rs.getLong("customer_id");
+        Long customer = rs.wasNull() ? null : customerId;
+        return new OrderSummaryDto(
+                rs.getLong("id"),
+                nullableDouble(rs, "total_amount"),
+                enumValue(OrderStatus.class, rs.getString("status")),
+                enumValue(PaymentType.class, rs.getString("payment_type")),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getLong("branch_id"),
+                rs.getLong("cashier_id"),
+                rs.getString("full_name"),
+                customer,
+                rs.getString("name"),
+                rs.getInt("item_count"));
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    private static <T> Map<Long, T> byId(Collection<T> entities, Function<T, Long> id) {
+        return entities.stream().filter(Objects::nonNull).collect(Collectors.toMap(id, Function.identity()));
+    }
+}
@@ -0,0 +1,169 @@
+package com.molla.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Nightly move of orders older than pos.archive.retention-months (counted in whole
+ * months) into orders_archive, together with their items and refunds. One day is
+ * copied and deleted per transaction, oldest first. An order whose refund falls
+ * inside the retention window stays hot until that refund is old enough too.
+ * On PostgreSQL the monthly archive partitions up to the cutoff are created
+ * (in their own statements) before any row is moved.
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    /** Orders moved per statement, keeping the IN lists well under every driver's parameter limit. */
+    private static final int MOVE_CHUNK = 500;
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Orders of the day being moved: created in [?, ?) with no refund at or after the cutoff (?)
+    private static final String ARCHIVABLE = "o.created_at >= ? AND o.created_at < ? AND NOT EXISTS "
+            + "(SELECT 1 FROM refund r WHERE r.order_id = o.id AND r.created_at >= ?)";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    private final OrderArchiveRepository archive;
+
+    @Value("${pos.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${pos.archive.retention-months:12}")
+    private int retentionMonths = 12;
+
+    private Boolean postgres;
+
+    public OrderArchiver(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                         OrderArchiveRepository archive) {
+        this.jdbc = jdbc;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.archive = archive;
+    }
+
+    @Scheduled(cron = "${pos.archive.cron:0 30 3 * * *}")
+    public void archiveNightly() {
+        if (enabled) {
+            archive(LocalDate.now());
+        }
+    }
+
+    /** First instant kept in the hot tables when archiving on {@code today}. */
+    public LocalDateTime cutoff(LocalDate today) {
+        return today.withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+    }
+
+    /** Moves everything older than the cutoff; returns the number of orders archived. */
+    public synchronized int archive(LocalDate today) {
+        LocalDateTime cutoff = cutoff(today);
+        int total = 0;
+        LocalDateTime next = jdbc.queryForObject("SELECT MIN(created_at) FROM orders WHERE created_at < ?",
+                LocalDateTime.class, Timestamp.valueOf(cutoff));
+        if (next != null && isPostgres()) {
+            // Refunds keep their own date, anywhere between their order's and the cutoff
+            for (YearMonth month = YearMonth.from(next); month.isBefore(YearMonth.from(cutoff));
+                    month = month.plusMonths(1)) {
+                createPartitions(month);
+            }
+        }
+        while (next != null) {
+            LocalDateTime start = next.toLocalDate().atStartOfDay();
+            LocalDateTime end = start.plusDays(1).isAfter(cutoff) ? cutoff : start.plusDays(1);
+            try {
+                Integer moved = transaction.execute(status -> moveDay(start, end, cutoff));
+                if (moved != null && moved > 0) {
+                    archive.advanceArchivedUntil(end);
+                    total += moved;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Archiving orders of {} failed, retrying on the next run: {}", start.toLocalDate(),
+                        e.getMessage());
+            }
+            next = jdbc.queryForObject("SELECT MIN(created_at) FROM orders WHERE created_at >= ? AND created_at < ?",
+                    LocalDateTime.class, Timestamp.valueOf(end), Timestamp.valueOf(cutoff));
+        }
+        if (total > 0) {
+            logger.info("Archived {} orders created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int moveDay(LocalDateTime start, LocalDateTime end, LocalDateTime cutoff) {
+        // The day's orders are picked first and then moved by id: MySQL rejects a DELETE whose subquery
+        // reads the table it deletes from (error 1093), which ARCHIVABLE does for refund. The row locks
+        // hold back new refunds and items of these orders (their foreign key checks) until commit.
+        List<Long> ids = jdbc.queryForList("SELECT o.id FROM orders o WHERE " + ARCHIVABLE + " FOR UPDATE",
+                Long.class, Timestamp.valueOf(start), Timestamp.valueOf(end), Timestamp.valueOf(cutoff));
+        for (int from = 0; from < ids.size(); from += MOVE_CHUNK) {
+            moveOrders(start.toLocalDate(), ids.subList(from, Math.min(ids.size(), from + MOVE_CHUNK)));
+        }
+        return ids.size();
+    }
+
+    private void moveOrders(LocalDate day, List<Long> ids) {
+        Object[] args = ids.toArray();
+        String in = "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        int orders = jdbc.update("""
+                INSERT INTO orders_archive
+                    (id, branch_id, cashier_id, customer_id, created_at, total_amount, payment_type, status)
+                SELECT o.id, o.branch_id, o.cashier_id, o.customer_id, o.created_at, o.total_amount,
+                       o.payment_type, o.status
+                FROM orders o WHERE o.id IN\s""" + in, args);
+        int items = jdbc.update("""
+                INSERT INTO order_item_archive (id, order_id, product_id, quantity, price, total_price, created_at)
+                SELECT i.id, i.order_id, i.product_id, i.quantity, i.price, i.total_price, o.created_at
+                FROM order_item i JOIN orders o ON o.id = i.order_id WHERE i.order_id IN\s""" + in, args);
+        // Refunds recorded before createdAt was set take their order's date
+        int refunds = jdbc.update("""
+                INSERT INTO refund_archive
+                    (id, order_id, reason, amount, shift_report_id, cashier_id, branch_id, payment_type, created_at)
+                SELECT r.id, r.order_id, r.reason, r.amount, r.shift_report_id, r.cashier_id, r.branch_id,
+                       r.payment_type, COALESCE(r.created_at, o.created_at)
+                FROM refund r JOIN orders o ON o.id = r.order_id WHERE r.order_id IN\s""" + in, args);
+        int deletedRefunds = jdbc.update("DELETE FROM refund WHERE order_id IN " + in, args);
+        int deletedItems = jdbc.update("DELETE FROM order_item WHERE order_id IN " + in, args);
+        int deleted = jdbc.update("DELETE FROM orders WHERE id IN " + in, args);
+        if (orders != ids.size() || deleted != orders || deletedItems != items || deletedRefunds != refunds) {
+            // Something changed the day in between: roll back, the next run retries it
+            throw new IllegalStateException("Archived " + orders + " orders, " + items + " items and " + refunds
+                    + " refunds of " + day + " but deleted " + deleted + ", " + deletedItems + " and "
+                    + deletedRefunds);
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        }
+        return postgres;
+    }
+
+    private void createPartitions(YearMonth month) {
+        String suffix = month.format(PARTITION_SUFFIX);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        for (String table : new String[] { "orders_archive", "order_item_archive", "refund_archive" }) {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + table + "_" + suffix + " PARTITION OF " + table
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+    }
+}
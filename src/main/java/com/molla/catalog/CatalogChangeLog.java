@@ -0,0 +1,144 @@
+package com.molla.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-store catalog version and a bounded log of the latest change per product,
+ * used by /api/products/sync to send terminals only what changed since their
+ * last sync.
+ *
+ * The log lives in this process only and sees only the writes made through it,
+ * like the ProductSearchIndex the deltas are served from, so sync assumes a
+ * single instance (or terminals pinned to one). A version is the process epoch,
+ * the seconds from EPOCH_START to startup, in the bits above COUNTER_BITS and a
+ * per-store counter below them, so versions keep growing across restarts. A
+ * version from another epoch, i.e. from before a restart or from another
+ * instance, gets a full snapshot, as does one older than the retained log.
+ */
+@Component
+public class CatalogChangeLog {
+
+    static final int MAX_RETAINED_CHANGES = 10_000;
+    static final int COUNTER_BITS = 32;
+    // 31 bits of seconds above the counter last until 2094
+    private static final Instant EPOCH_START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final long epoch;
+    private final Map<Long, StoreLog> stores = new ConcurrentHashMap<>();
+
+    public CatalogChangeLog() {
+        this(epochOf(Instant.now()));
+    }
+
+    CatalogChangeLog(long epoch) {
+        this.epoch = epoch;
+    }
+
+    static long epochOf(Instant startup) {
+        return Math.max(0, Duration.between(EPOCH_START, startup).getSeconds());
+    }
+
+    public long currentVersion(Long storeId) {
+        return log(storeId).currentVersion();
+    }
+
+    public long recordChange(Long storeId, Long productId) {
+        return log(storeId).record(productId, false);
+    }
+
+    public long recordDeletion(Long storeId, Long productId) {
+        return log(storeId).record(productId, true);
+    }
+
+    /**
+     * Bumps the version and forgets the log, so every terminal re-downloads the
+     * store (used when a change touches products without going through them,
+     * e.g. a category rename).
+     */
+    public long reset(Long storeId) {
+        return log(storeId).reset();
+    }
+
+    /**
+     * Changes after {@code since}, or empty when the caller must take a full snapshot.
+     */
+    public Optional<Delta> changesSince(Long storeId, long since) {
+        if (since >>> COUNTER_BITS != epoch) {
+            return Optional.empty();
+        }
+        return log(storeId).changesSince(since);
+    }
+
+    private StoreLog log(Long storeId) {
+        return stores.computeIfAbsent(storeId, id -> new StoreLog(epoch << COUNTER_BITS));
+    }
+
+    public record Delta(long version, List<Long> changedProductIds, List<Long> deletedProductIds) {
+    }
+
+    private record Change(Long productId, boolean deleted) {
+    }
+
+    private static final class StoreLog {
+
+        private long version;
+        private long floor;
+        private final NavigableMap<Long, Change> byVersion = new TreeMap<>();
+        private final Map<Long, Long> versionByProduct = new HashMap<>();
+
+        StoreLog(long seed) {
+            this.version = seed;
+            this.floor = seed;
+        }
+
+        synchronized long currentVersion() {
+            return version;
+        }
+
+        synchronized long record(Long productId, boolean deleted) {
+            version++;
+            Long previous = versionByProduct.put(productId, version);
+            if (previous != null) {
+                byVersion.remove(previous);
+            }
+            byVersion.put(version, new Change(productId, deleted));
+            while (byVersion.size() > MAX_RETAINED_CHANGES) {
+                Map.Entry<Long, Change> eldest = byVersion.pollFirstEntry();
+                versionByProduct.remove(eldest.getValue().productId());
+                floor = eldest.getKey();
+            }
+            return version;
+        }
+
+        synchronized long reset() {
+            version++;
+            floor = version;
+            byVersion.clear();
+            versionByProduct.clear();
+            return version;
+        }
+
+        synchronized Optional<Delta> changesSince(long since) {
+            if (since < floor || since > version) {
+                return Optional.empty();
+            }
+            List<Long> changed = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            for (Change change : byVersion.tailMap(since, false).values()) {
+                (change.deleted() ? deleted : changed).add(change.productId());
+            }
+            return Optional.of(new Delta(version, changed, deleted));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.molla.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.molla.payload.dto.CatalogSnapshotDto;
+import com.molla.payload.dto.CategoryDto;
+import com.molla.payload.dto.ProductDto;
+import com.molla.search.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes a store's catalog as CBOR with a shared category dictionary and keeps
+ * the bytes per store until the catalog version changes, so serving a snapshot
+ * is a plain byte write.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshotEncoder {
+
+    private static final ObjectMapper CBOR = CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogChangeLog catalogChangeLog;
+
+    private final Map<Long, Encoded> snapshots = new ConcurrentHashMap<>();
+
+    public Encoded snapshot(Long storeId) {
+        // Read the version first: a change racing with the build bumps it, and the
+        // next request rebuilds instead of serving a snapshot older than its tag.
+        long version = catalogChangeLog.currentVersion(storeId);
+        Encoded cached = snapshots.get(storeId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        Encoded encoded = new Encoded(storeId, version, encode(toSnapshot(storeId, version)));
+        snapshots.merge(storeId, encoded, (current, built) -> current.version() >= built.version() ? current : built);
+        return encoded;
+    }
+
+    static CatalogSnapshotDto toSnapshot(Long storeId, long version, List<ProductDto> products) {
+        List<CategoryDto> categories = new ArrayList<>();
+        Map<Long, Integer> categoryIndex = new HashMap<>();
+        List<CatalogSnapshotDto.Item> items = new ArrayList<>(products.size());
+        for (ProductDto product : products) {
+            Integer category = null;
+            CategoryDto dto = product.getCategory();
+            if (dto != null && dto.getId() != null) {
+                category = categoryIndex.computeIfAbsent(dto.getId(), id -> {
+                    categories.add(dto);
+                    return categories.size() - 1;
+                });
+            }
+            items.add(CatalogSnapshotDto.Item.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .description(product.getDescription())
+                    .sku(product.getSku())
+                    .mrp(product.getMrp())
+                    .sellingPrice(product.getSellingPrice())
+                    .brand(product.getBrand())
+                    .image(product.getImage())
+                    .quantity(product.getQuantity())
+                    .category(category)
+                    .createdAt(product.getCreatedAt())
+                    .updatedAt(product.getUpdatedAt())
+                    .build());
+        }
+        return CatalogSnapshotDto.builder()
+                .storeId(storeId)
+                .version(version)
+                .categories(categories)
+                .products(items)
+                .build();
+    }
+
+    static byte[] encode(CatalogSnapshotDto snapshot) {
+        try {
+            return CBOR.writeValueAsBytes(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode catalog snapshot", e);
+        }
+    }
+
+    private CatalogSnapshotDto toSnapshot(Long storeId, long version) {
+        return toSnapshot(storeId, version, productSearchIndex.all(storeId));
+    }
+
+    public record Encoded(Long storeId, long version, byte[] bytes) {
+
+        public String etag() {
+            return "\"cbor-" + storeId + "-" + version + "\"";
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.molla.configuration;
 
+import com.molla.metrics.MeteredConcurrentMapCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -13,15 +16,17 @@ import java.util.List;
  * In-memory cache configuration. Used when Redis is excluded (default).
  * Caches are created on demand; these names match @Cacheable / @CacheEvict usage.
  * Not used when Redis is enabled (RedisAutoConfiguration provides RedisCacheManager).
+ * Each cache records hits/misses (cache.gets, cache.hit.ratio) for /actuator/prometheus.
  */
 @Configuration
 public class CacheConfig {
 
     public static final List<String> CACHE_NAMES = List.of(
             "users", "usersAll",
+            "employeesByStore", "employeesByBranch",
             "stores", "storesAll", "storesByAdmin",
             "branches", "branchesByStore",
-            "productsByStore", "productsAll",
+            "productsByStore",
             "categoriesByStore",
             "inventory", "inventoriesByBranch",
             "orders", "recentOrdersByBranch"
@@ -29,8 +34,13 @@ public class CacheConfig {
 
     @Bean
     @ConditionalOnMissingBean(RedisConnectionFactory.class)
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager manager = new ConcurrentMapCacheManager();
+    public CacheManager cacheManager(MeterRegistry meterRegistry) {
+        ConcurrentMapCacheManager manager = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new MeteredConcurrentMapCache(name, isAllowNullValues(), meterRegistry);
+            }
+        };
         manager.setCacheNames(CACHE_NAMES);
         return manager;
     }
@@ -1,15 +1,26 @@
 package com.molla.configuration;
 
+import com.molla.datasource.ReplicaHealthIndicator;
+import com.molla.datasource.ReplicaLagMonitor;
+import com.molla.datasource.ReplicaRoutingDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 public class DatabaseConfig {
@@ -43,6 +54,21 @@ public class DatabaseConfig {
     @Value("${spring.datasource.password:}")
     private String appDataSourcePassword;
 
+    @Value("${pos.datasource.replica.urls:}")
+    private String replicaUrls;
+
+    @Value("${pos.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${pos.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${pos.datasource.replica.max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${pos.datasource.replica.check-interval-seconds:5}")
+    private long replicaCheckIntervalSeconds;
+
     @Bean
     @Primary
     public DataSourceProperties dataSourceProperties() {
@@ -198,9 +224,77 @@ public class DatabaseConfig {
                         "If SPRING_DATASOURCE_URL contains 'mysql.railway.internal', please unset it to use application.properties.");
     }
 
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties primaryProperties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        if (replicaUrls != null && !replicaUrls.isBlank()) {
+            String[] urls = replicaUrls.split(",");
+            for (int i = 0; i < urls.length; i++) {
+                if (urls[i].isBlank()) {
+                    continue;
+                }
+                // Same URL handling as the primary; credentials default to the primary's
+                DataSourceProperties properties = new DataSourceProperties();
+                properties.setUrl(urls[i].trim());
+                properties.setUsername(replicaUsername != null && !replicaUsername.isEmpty()
+                        ? replicaUsername : primaryProperties.getUsername());
+                properties.setPassword(replicaPassword != null && !replicaPassword.isEmpty()
+                        ? replicaPassword : primaryProperties.getPassword());
+                replicas.put("replica-" + i, createDataSource(properties));
+            }
+            logger.info("Read replicas configured: {}", replicas.size());
+        }
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, Duration.ofSeconds(replicaMaxLagSeconds),
+                Duration.ofSeconds(replicaCheckIntervalSeconds));
+        monitor.start();
+        return monitor;
+    }
+
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties properties) {
+    public DataSource dataSource(DataSourceProperties properties, ReplicaLagMonitor replicaLagMonitor) {
+        DataSource primary = createDataSource(properties);
+        if (!replicaLagMonitor.hasReplicas()) {
+            return primary;
+        }
+        // The lazy proxy picks primary or replica at the first statement, once the
+        // transaction's read-only flag is known
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicaLagMonitor));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling(ReplicaLagMonitor replicaLagMonitor) {
+        return hibernateProperties -> {
+            if (replicaLagMonitor.hasReplicas()) {
+                // Hold a connection per transaction instead of per EntityManager, otherwise
+                // open-in-view would keep the first (possibly replica) connection for the
+                // whole request, writes included
+                hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            }
+        };
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaHealthIndicator(replicaLagMonitor);
+    }
+
+    /**
+     * Adds useCursorFetch=true to a MySQL URL that does not set it. Without it
+     * Connector/J ignores a positive fetch size and reads the whole result into
+     * memory before the first row, so the streamAll() lists (EntityStreams) would
+     * load full tables. With it a fetch size opens a server-side cursor, which
+     * leaves the connection free for the lazy loads EntityStreams runs per chunk.
+     */
+    static String withCursorFetch(String url) {
+        if (url == null || !url.startsWith("jdbc:mysql:") || url.contains("useCursorFetch=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+    }
+
+    private DataSource createDataSource(DataSourceProperties properties) {
         String url = properties.getUrl();
         if (url != null) {
             try {
@@ -259,6 +353,8 @@ public class DatabaseConfig {
             }
         }
 
+        properties.setUrl(withCursorFetch(properties.getUrl()));
+
         logger.info("Creating DataSource with URL: {}",
                 properties.getUrl() != null ? properties.getUrl().replaceAll(":[^:@]+@", ":****@") : "null");
 
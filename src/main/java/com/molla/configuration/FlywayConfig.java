@@ -0,0 +1,33 @@
+package com.molla.configuration;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Versioned migrations (db/migration/{vendor}) on top of the Hibernate-managed schema.
+ * Tables still come from spring.jpa.hibernate.ddl-auto=update, so Flyway must run
+ * after Hibernate instead of before it (Spring Boot's default): the startup
+ * migration is skipped and run once the EntityManagerFactory exists, still before
+ * the web server accepts requests. Existing databases are baselined at version 0.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy deferUntilHibernateSchema() {
+        return flyway -> {
+        };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean flywayMigrateAfterHibernate(ObjectProvider<Flyway> flyway) {
+        // No Flyway bean when spring.flyway.enabled=false
+        return () -> flyway.ifAvailable(Flyway::migrate);
+    }
+}
@@ -2,6 +2,8 @@ package com.molla.configuration;
 
 import com.molla.service.impl.CustomUserImplementation;
 import com.molla.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,10 +36,12 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserImplementation userService;
+    private final MeterRegistry meterRegistry;
 
-    public JwtFilter(JwtUtil jwtUtil, CustomUserImplementation userService) {
+    public JwtFilter(JwtUtil jwtUtil, CustomUserImplementation userService, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -52,6 +56,9 @@ public class JwtFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
+        // ⏱️ Time only the JWT work (parse + user lookup), not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+
         // 📥 Step 1: Extract Authorization header
         final String authHeader = request.getHeader("Authorization");
 
@@ -102,6 +109,13 @@ public class JwtFilter extends OncePerRequestFilter {
             }
         }
 
+        sample.stop(Timer.builder("pos.filter.jwt")
+                .description("JWT validation and user lookup")
+                .tag("outcome", token == null ? "no_token"
+                        : SecurityContextHolder.getContext().getAuthentication() != null ? "authenticated" : "rejected")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+
         // ➡️ Step 8: Continue filter chain (request proceeds to next filter or controller)
         filterChain.doFilter(request, response);
     }
@@ -1,9 +1,13 @@
 package com.molla.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -44,10 +48,34 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     // 🔹 Why ConcurrentHashMap? Thread-safe for concurrent requests
     private final Map<String, Counter> counters = new ConcurrentHashMap<>();
 
+    private final MeterRegistry meterRegistry;
+
     // 🚦 Rate Limits (requests per minute)
     private static final int LOGIN_LIMIT_PER_MINUTE = 10;  // 🔐 Stricter for login (prevent brute-force)
     private static final int DEFAULT_LIMIT_PER_MINUTE = 120;  // 📡 Higher limit for general API calls
 
+    private final int loginLimitPerMinute;
+    private final int apiLimitPerMinute;
+
+    public RateLimitingFilter(MeterRegistry meterRegistry) {
+        this(meterRegistry, LOGIN_LIMIT_PER_MINUTE, DEFAULT_LIMIT_PER_MINUTE);
+    }
+
+    /**
+     * ⚙️ Limits from properties (pos.ratelimit.login-per-minute / pos.ratelimit.api-per-minute)
+     * 
+     * 👉 Purpose: Load tests run many tills behind one IP and need higher limits
+     */
+    @Autowired
+    public RateLimitingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${pos.ratelimit.login-per-minute:" + LOGIN_LIMIT_PER_MINUTE + "}") int loginLimitPerMinute,
+            @Value("${pos.ratelimit.api-per-minute:" + DEFAULT_LIMIT_PER_MINUTE + "}") int apiLimitPerMinute) {
+        this.meterRegistry = meterRegistry;
+        this.loginLimitPerMinute = loginLimitPerMinute;
+        this.apiLimitPerMinute = apiLimitPerMinute;
+    }
+
     /**
      * 🔍 Core Filter Logic - Runs on every HTTP request
      * 
@@ -64,15 +92,18 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         String path = request.getRequestURI();
         String clientIp = request.getRemoteAddr() != null ? request.getRemoteAddr() : "unknown";
 
-        // ⏭️ Skip rate limiting for Swagger/docs (not external API calls)
-        if (path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui")) {
+        // ⏭️ Skip rate limiting for Swagger/docs and metrics scrapes (not external API calls)
+        if (path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui") || path.startsWith("/actuator")) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        // ⏱️ Time the limit check itself
+        Timer.Sample sample = Timer.start(meterRegistry);
+
         // 🪣 Determine bucket: LOGIN (stricter) or API (more lenient)
         String bucket = path.startsWith("/auth/login") ? "LOGIN" : "API";
-        int limit = bucket.equals("LOGIN") ? LOGIN_LIMIT_PER_MINUTE : DEFAULT_LIMIT_PER_MINUTE;
+        int limit = bucket.equals("LOGIN") ? loginLimitPerMinute : apiLimitPerMinute;
 
         // 🔑 Create unique key: IP address + bucket type
         String key = clientIp + ":" + bucket;
@@ -91,8 +122,16 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             return new Counter(existing.windowStartEpochSecond, existing.count + 1);
         });
 
+        boolean blocked = updated.count > limit;
+        sample.stop(Timer.builder("pos.filter.ratelimit")
+                .description("Rate limit check")
+                .tag("bucket", bucket)
+                .tag("outcome", blocked ? "blocked" : "allowed")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+
         // 🚫 Check if limit exceeded
-        if (updated.count > limit) {
+        if (blocked) {
             // ❌ Block request → Return 429 Too Many Requests
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
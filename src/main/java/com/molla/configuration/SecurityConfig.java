@@ -1,5 +1,6 @@
 package com.molla.configuration;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,17 +88,24 @@ public class SecurityConfig {
      * 3. UsernamePasswordAuthenticationFilter runs LAST → Spring's default auth (we skip it with JWT)
      */
     @Bean
-    public SecurityFilterChain chain(HttpSecurity http, JwtFilter filter)
+    public SecurityFilterChain chain(HttpSecurity http, JwtFilter filter, RateLimitingFilter rateLimitingFilter)
             throws Exception {
 
         // Disable CSRF (Cross-Site Request Forgery) - not needed for stateless JWT APIs
         http.csrf(cs -> cs.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (/api/exports, the streamed lists) finish on an ASYNC dispatch.
+                        // Only the container starts one, for a request whose REQUEST dispatch already went
+                        // through these rules and reached a handler that began async processing, so no
+                        // client can reach a handler this way. The JWT filter does not run again and the
+                        // stateless context is not kept, so the rules would otherwise reject the dispatch.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // ⚠️ Swagger paths MUST be first! (order matters in Spring Security)
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/swagger-ui/index.html").permitAll()
                         .requestMatchers("/api-docs/**", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**").permitAll()
                         // 🔓 Public endpoints - no authentication required
                         .requestMatchers("/auth/**").permitAll()  // Login/signup endpoints
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()  // Health + scrape, management port only (not published)
                         .requestMatchers("/api/products/public/**").permitAll()  // Public product catalog
                         .requestMatchers("/api/payments/**").permitAll()  // Payment endpoints (Razorpay)
                         .requestMatchers("/api/payment/**").permitAll()  // Payment endpoints (Stripe)
@@ -108,6 +116,8 @@ public class SecurityConfig {
                         // 🔒 PUT /api/stores/*: authenticated (service layer enforces: store admin = own store, super admin = any store)
                         // 🔒 Other protected endpoints
                         .requestMatchers("/api/super-admin/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/reports/**").hasAnyRole("ADMIN", "STORE_ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/customers/stats/rebuild").hasRole("ADMIN")
                         .anyRequest().authenticated())  // All other endpoints need valid JWT token
                 // 📌 Stateless sessions - no server-side session storage (JWT handles state)
                 .sessionManagement(sess ->
@@ -121,7 +131,8 @@ public class SecurityConfig {
         
         // 👉 RateLimitingFilter runs BEFORE JwtFilter
         // 🔹 Meaning: Rate limiting checks happen first, then JWT validation (saves resources)
-        http.addFilterBefore(new RateLimitingFilter(), JwtFilter.class);
+        // 🔹 Same bean as the servlet-registered one, so OncePerRequestFilter counts each request once
+        http.addFilterBefore(rateLimitingFilter, JwtFilter.class);
         
         // 🌐 Enable CORS (Cross-Origin Resource Sharing) for frontend communication
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
@@ -13,6 +13,7 @@ import com.molla.repository.BranchRepository;
 import com.molla.repository.StoreRepository;
 import com.molla.repository.UserRepository;
 import com.molla.service.MailService;
+import com.molla.util.EmployeeCaches;
 import com.molla.util.JwtUtil;
 import com.molla.mapper.UserMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -54,6 +55,7 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final BranchRepository branchRepository;
     private final StoreRepository storeRepository;
+    private final EmployeeCaches employeeCaches;
 
     // 📧 Optional email service (only active when spring.mail.host is configured)
     @Autowired(required = false)
@@ -64,13 +66,15 @@ public class AuthController {
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             BranchRepository branchRepository,
-            StoreRepository storeRepository) {
+            StoreRepository storeRepository,
+            EmployeeCaches employeeCaches) {
         this.authManager = authManager;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.branchRepository = branchRepository;
         this.storeRepository = storeRepository;
+        this.employeeCaches = employeeCaches;
     }
 
     /**
@@ -150,6 +154,7 @@ public class AuthController {
             branchToUpdate.setManager(newUser);
             branchRepository.save(branchToUpdate);
         }
+        employeeCaches.evict(newUser);
 
         // 📧 Step 5: Send welcome email
         if (mailService != null) {
@@ -217,6 +222,7 @@ public class AuthController {
         // ⏰ Step 3: Update last login timestamp
         user.setLastLoginAt(LocalDateTime.now());
         userRepository.save(user);
+        employeeCaches.evict(user); // Employee lists show lastLoginAt
 
         // 🎫 Step 4: Generate JWT token (email + role)
         String token = jwtUtil.generateToken(user.getEmail(), user.getRole().toString());
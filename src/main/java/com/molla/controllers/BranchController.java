@@ -7,6 +7,7 @@ import com.molla.payload.dto.BranchDto;
 import com.molla.service.BranchService;
 import com.molla.service.UserService;
 
+import com.molla.util.CachedJsonResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -28,6 +29,7 @@ public class BranchController {
 
     private final BranchService branchService;
     private final UserService userService;
+    private final CachedJsonResponses cachedJsonResponses;
 
     @PostMapping
     public ResponseEntity<BranchDto> createBranch(@RequestBody BranchDto branchDto,@RequestHeader("Authorization") String jwt) throws UserException {
@@ -48,9 +50,9 @@ public class BranchController {
         return ResponseEntity.ok(branch);
     }
     @GetMapping("/store/{storeId}")
-    public ResponseEntity<List<BranchDto>> getBranchesByStoreId(@PathVariable("storeId") Long storeId,@RequestHeader("Authorization") String jwt) throws UserException {
+    public ResponseEntity<byte[]> getBranchesByStoreId(@PathVariable("storeId") Long storeId,@RequestHeader("Authorization") String jwt) throws UserException {
         List<BranchDto> branches = branchService.getBranchesByStoreId(storeId);
-        return ResponseEntity.ok(branches);
+        return cachedJsonResponses.ok("branchesByStore", storeId, branches);
     }
     @PutMapping("/{id}")
     public ResponseEntity<BranchDto> updateBranch(@PathVariable("id") Long id,@RequestBody BranchDto branchDto,@RequestHeader("Authorization") String jwt) throws UserException {
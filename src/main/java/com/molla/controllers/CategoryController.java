@@ -6,12 +6,11 @@ import com.molla.payload.dto.CategoryDto;
 import com.molla.payload.response.ApiResponse;
 import com.molla.service.CategoryService;
 import com.molla.service.UserService;
+import com.molla.util.CachedJsonResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
@@ -19,6 +18,7 @@ public class CategoryController {
 
     private final CategoryService categoryService;
     private final UserService userService;
+    private final CachedJsonResponses cachedJsonResponses;
 
     @PostMapping
     public ResponseEntity<CategoryDto> createCategory(@RequestBody CategoryDto categoryDto,@RequestHeader("Authorization") String jwt) throws UserException {
@@ -27,8 +27,8 @@ public class CategoryController {
     }
 
     @GetMapping("/store/{storeId}")
-    public ResponseEntity<List<CategoryDto>> getCategoriesByStoreId(@PathVariable("storeId") Long storeId,@RequestHeader("Authorization") String jwt) throws UserException {
-        return ResponseEntity.ok(categoryService.getCategoriesByStoreId(storeId));
+    public ResponseEntity<byte[]> getCategoriesByStoreId(@PathVariable("storeId") Long storeId,@RequestHeader("Authorization") String jwt) throws UserException {
+        return cachedJsonResponses.ok("categoriesByStore", storeId, categoryService.getCategoriesByStoreId(storeId));
     }
 
     @PutMapping("/{id}")
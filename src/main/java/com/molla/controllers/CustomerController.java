@@ -4,8 +4,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.molla.model.Customer;
+import com.molla.payload.dto.CustomerDuplicateDto;
+import com.molla.payload.dto.CustomerStatsDto;
 import com.molla.service.CustomerService;
 import com.molla.payload.response.ApiResponse;
+import com.molla.util.JsonArrayStreams;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,6 +18,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,6 +30,7 @@ import lombok.RequiredArgsConstructor;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final JsonArrayStreams jsonArrayStreams;
 
     @PostMapping
     public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
@@ -45,8 +50,13 @@ public class CustomerController {
 
 
     @GetMapping 
-    public ResponseEntity<List<Customer>> getAllCustomers() throws Exception {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<StreamingResponseBody> getAllCustomers() throws Exception {
+        return jsonArrayStreams.ok(customerService::streamAllCustomers);
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<CustomerDuplicateDto>> getDuplicates() {
+        return ResponseEntity.ok(customerService.findDuplicates());
     }
 
     @GetMapping("/{id}")
@@ -54,6 +64,16 @@ public class CustomerController {
         return ResponseEntity.ok(customerService.getCustomerById(id));
     }
 
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<CustomerStatsDto> getCustomerStats(@PathVariable("id") Long id) throws Exception {
+        return ResponseEntity.ok(customerService.getCustomerStats(id));
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Integer> rebuildCustomerStats() {
+        return ResponseEntity.ok(customerService.rebuildCustomerStats());
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<Customer>> searchCustomers(
             @RequestParam(value = "keyword", required = false) String keyword,
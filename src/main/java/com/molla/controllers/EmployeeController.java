@@ -7,6 +7,7 @@ import com.molla.payload.response.ApiResponse;
 import com.molla.service.EmployeeService;
 import com.molla.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -79,5 +80,30 @@ public class EmployeeController {
         List<UserDto> employees = employeeService.findBranchEmployees(branchId, role);
         return ResponseEntity.ok(employees);
     }
-}
 
+    /**
+     * Paginated employees of a store, ordered by id.
+     * Example: /api/employees/store/1/paged?role=ROLE_BRANCH_CASHIER&page=0&size=20
+     */
+    @GetMapping("/store/{storeId}/paged")
+    public ResponseEntity<Page<UserDto>> findStoreEmployeesPaged(
+            @PathVariable("storeId") Long storeId,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader("Authorization") String jwt) throws UserException {
+        userService.getUserFromJwt(jwt); // Validate JWT token
+        return ResponseEntity.ok(employeeService.findStoreEmployeesPaged(storeId, role, page, size));
+    }
+
+    @GetMapping("/branch/{branchId}/paged")
+    public ResponseEntity<Page<UserDto>> findBranchEmployeesPaged(
+            @PathVariable("branchId") Long branchId,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader("Authorization") String jwt) throws UserException {
+        userService.getUserFromJwt(jwt); // Validate JWT token
+        return ResponseEntity.ok(employeeService.findBranchEmployeesPaged(branchId, role, page, size));
+    }
+}
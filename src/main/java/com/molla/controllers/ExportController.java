@@ -0,0 +1,112 @@
+package com.molla.controllers;
+
+import com.molla.export.ExportDataset;
+import com.molla.export.ExportFormat;
+import com.molla.export.OrderExporter;
+import com.molla.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+/**
+ * Bulk exports streamed row by row from the database; nothing is collected in memory.
+ * The body is written on an async request, which gets pos.export.timeout instead of
+ * the default async timeout that applies to every other endpoint.
+ * Example: /api/exports/orders?branchId=1&from=2025-01-01&to=2025-12-31&format=CSV&gzip=true
+ */
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Value("${pos.export.timeout:30m}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) throws Exception {
+        return export(request, ExportDataset.ORDERS, storeId, branchId, from, to, format, gzip);
+    }
+
+    @GetMapping("/order-items")
+    public ResponseEntity<StreamingResponseBody> exportOrderItems(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) throws Exception {
+        return export(request, ExportDataset.ORDER_ITEMS, storeId, branchId, from, to, format, gzip);
+    }
+
+    @GetMapping("/refunds")
+    public ResponseEntity<StreamingResponseBody> exportRefunds(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) throws Exception {
+        return export(request, ExportDataset.REFUNDS, storeId, branchId, from, to, format, gzip);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(HttpServletRequest request, ExportDataset dataset,
+                                                         Long storeId, Long branchId, LocalDate from,
+                                                         LocalDate to, ExportFormat format, boolean gzip)
+            throws Exception {
+        // Access is checked here, on the request thread; the body is written on an async one
+        OrderExporter.Filter filter = exportService.prepareExport(storeId, branchId, from, to);
+        String fileName = dataset.getFileName() + "-" + from + "-" + to + "." + format.getExtension()
+                + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> exportService.export(dataset, filter, format, gzip, out);
+        extendTimeout(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Sets this request's async timeout just before its body starts, when the
+     * timeout is still applied to the async context. StreamingResponseBody has
+     * no timeout of its own.
+     */
+    private void extendTimeout(HttpServletRequest request) {
+        long millis = timeout.toMillis();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportController.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest asyncRequest) {
+                            asyncRequest.setTimeout(millis);
+                        }
+                    }
+                });
+    }
+}
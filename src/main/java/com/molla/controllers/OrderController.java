@@ -3,13 +3,16 @@ package com.molla.controllers;
 import com.molla.domain.OrderStatus;
 import com.molla.domain.PaymentType;
 import com.molla.payload.dto.OrderDto;
+import com.molla.payload.dto.OrderSummaryDto;
 import com.molla.payload.response.ApiResponse;
 import com.molla.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -43,7 +46,7 @@ public class OrderController {
     }
 
     @GetMapping("/branch/{branchId}")
-    public ResponseEntity<List<OrderDto>> getOrdersByBranch(
+    public ResponseEntity<List<OrderSummaryDto>> getOrdersByBranch(
             @PathVariable("branchId") Long branchId,
             @RequestParam(required = false) Long customerId,
             @RequestParam(required = false) Long cashierId,
@@ -57,34 +60,47 @@ public class OrderController {
      * Example: /api/orders/branch/1/paged?page=0&size=10&sortBy=createdAt&direction=desc
      */
     @GetMapping("/branch/{branchId}/paged")
-    public ResponseEntity<Page<OrderDto>> getOrdersByBranchPaged(
+    public ResponseEntity<Page<OrderSummaryDto>> getOrdersByBranchPaged(
             @PathVariable("branchId") Long branchId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String direction
     ) throws Exception {
-        Page<OrderDto> result = orderService.getOrdersByBranchPaged(branchId, page, size, sortBy, direction);
+        Page<OrderSummaryDto> result = orderService.getOrdersByBranchPaged(branchId, page, size, sortBy, direction);
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Orders of a branch in a date range; ranges reaching past pos.archive.retention-months
+     * include archived orders.
+     * Example: /api/orders/branch/1/range?from=2024-01-01T00:00:00&to=2024-01-31T23:59:59
+     */
+    @GetMapping("/branch/{branchId}/range")
+    public ResponseEntity<List<OrderSummaryDto>> getOrdersByBranchAndDateRange(
+            @PathVariable("branchId") Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) throws Exception {
+        return ResponseEntity.ok(orderService.getOrdersByBranchAndDateRange(branchId, from, to));
+    }
+
     @GetMapping("/cashier/{cashierId}")
-    public ResponseEntity<List<OrderDto>> getOrdersByCashier(@PathVariable("cashierId") Long cashierId) throws Exception {
+    public ResponseEntity<List<OrderSummaryDto>> getOrdersByCashier(@PathVariable("cashierId") Long cashierId) throws Exception {
         return ResponseEntity.ok(orderService.getOrdersByCashier(cashierId));
     }
 
     @GetMapping("/today/branch/{id}")
-    public ResponseEntity<List<OrderDto>> getTodayOrder(@PathVariable("id") Long id) throws Exception {
+    public ResponseEntity<List<OrderSummaryDto>> getTodayOrder(@PathVariable("id") Long id) throws Exception {
         return ResponseEntity.ok(orderService.getTodayOrderbyBranch(id));
     }
 
     @GetMapping("/customer/{id}")
-    public ResponseEntity<List<OrderDto>> getCustomersOrder(@PathVariable("id") Long id) throws Exception {
+    public ResponseEntity<List<OrderSummaryDto>> getCustomersOrder(@PathVariable("id") Long id) throws Exception {
         return ResponseEntity.ok(orderService.getOrderByCustomerId(id));
     }
 
     @GetMapping("/recent/{branchId}")
-    public ResponseEntity<List<OrderDto>> getRecentOrder(@PathVariable("branchId") Long branchId) throws Exception {
+    public ResponseEntity<List<OrderSummaryDto>> getRecentOrder(@PathVariable("branchId") Long branchId) throws Exception {
         return ResponseEntity.ok(orderService.getTop5RecentOrdersByBranchId(branchId));
     }
 }
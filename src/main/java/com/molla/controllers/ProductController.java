@@ -1,14 +1,22 @@
 package com.molla.controllers;
 
+import com.molla.catalog.CatalogSnapshotEncoder;
+import com.molla.exceptions.BadRequestException;
 import com.molla.exceptions.UserException;
 import com.molla.model.User;
+import com.molla.payload.dto.CatalogSyncDto;
 import com.molla.payload.dto.ProductDto;
 import com.molla.payload.response.ApiResponse;
 import com.molla.service.ProductService;
 import com.molla.service.UserService;
+import com.molla.util.CachedJsonResponses;
+import com.molla.util.JsonArrayStreams;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,6 +27,9 @@ public class ProductController {
 
     private final ProductService productService;
     private final UserService userService;
+    private final CachedJsonResponses cachedJsonResponses;
+    private final CatalogSnapshotEncoder catalogSnapshotEncoder;
+    private final JsonArrayStreams jsonArrayStreams;
 
     @PostMapping
     public ResponseEntity<ProductDto> createProduct(
@@ -77,6 +88,15 @@ public class ProductController {
         return ResponseEntity.ok(productService.getProductsById(storeId));
     }
 
+    @GetMapping(value = "/storeId/{storeId}", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<byte[]> getProductsByStoreIdCbor(
+            @PathVariable Long storeId,
+            @RequestHeader("Authorization") String jwt
+    ) throws UserException {
+
+        return cborSnapshot(storeId);
+    }
+
     @GetMapping("/search/{storeId}/{keyword}")
     public ResponseEntity<List<ProductDto>> searchByKeyword(
             @PathVariable Long storeId,
@@ -87,11 +107,60 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchByKeyword(storeId, keyword));
     }
 
+    /**
+     * Barcode scan lookup, answered from the in-memory sku index.
+     * Tills should pass storeId so the scan does not need a user lookup.
+     * Example: /api/products/scan/8901234567890?storeId=1
+     */
+    @GetMapping("/scan/{sku}")
+    public ResponseEntity<ProductDto> scanBySku(
+            @PathVariable String sku,
+            @RequestParam(required = false) Long storeId,
+            @RequestHeader("Authorization") String jwt
+    ) throws UserException {
+
+        return ResponseEntity.ok(productService.scanBySku(resolveStoreId(storeId, jwt), sku));
+    }
+
+    /**
+     * Catalog sync for terminals. Without since (or when since is too old) the
+     * whole catalog is returned; otherwise only products changed or deleted after
+     * that version. Store the returned version and send it on the next call; a
+     * version from before a restart gets the whole catalog again.
+     * Example: /api/products/sync?storeId=1&since=108109480801075205
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<CatalogSyncDto> syncCatalog(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long storeId,
+            @RequestHeader("Authorization") String jwt
+    ) throws UserException {
+
+        return ResponseEntity.ok(productService.syncCatalog(resolveStoreId(storeId, jwt), since));
+    }
+
     @GetMapping("/all")
-    public ResponseEntity<List<ProductDto>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestHeader(value = "Authorization", required = false) String jwt
     ) throws UserException {
 
+        Long storeId = storeIdOrDefault(jwt);
+        return cachedJsonResponses.ok("productsByStore", storeId, productService.getAllProducts(storeId));
+    }
+
+    /**
+     * Same catalog as /all for clients sending Accept: application/cbor: a CBOR
+     * snapshot with a shared category dictionary, encoded once per catalog version.
+     */
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<byte[]> getAllProductsCbor(
+            @RequestHeader(value = "Authorization", required = false) String jwt
+    ) throws UserException {
+
+        return cborSnapshot(storeIdOrDefault(jwt));
+    }
+
+    private Long storeIdOrDefault(String jwt) {
         Long storeId = 1L;
 
         if (jwt != null && !jwt.isEmpty()) {
@@ -102,13 +171,32 @@ public class ProductController {
                 storeId = 1L;
             }
         }
+        return storeId;
+    }
+
+    private ResponseEntity<byte[]> cborSnapshot(Long storeId) {
+        CatalogSnapshotEncoder.Encoded snapshot = catalogSnapshotEncoder.snapshot(storeId);
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.APPLICATION_CBOR)
+                .body(snapshot.bytes());
+    }
 
-        return ResponseEntity.ok(productService.getAllProducts(storeId));
+    private Long resolveStoreId(Long storeId, String jwt) throws UserException {
+        if (storeId != null) {
+            return storeId;
+        }
+        User user = userService.getUserFromJwt(jwt);
+        if (user.getStore() == null) {
+            throw new BadRequestException("storeId is required for users without a store");
+        }
+        return user.getStore().getId();
     }
 
     // Public endpoint for testing
     @GetMapping("/public/all")
-    public ResponseEntity<List<ProductDto>> getAllProductsPublic() {
-        return ResponseEntity.ok(productService.getAllProductsWithoutStoreFilter());
+    public ResponseEntity<StreamingResponseBody> getAllProductsPublic() {
+        return jsonArrayStreams.ok(productService::streamAllProducts);
     }
 }
\ No newline at end of file
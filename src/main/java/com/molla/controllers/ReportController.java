@@ -0,0 +1,131 @@
+package com.molla.controllers;
+
+import com.molla.analytics.OrderLineStore;
+import com.molla.domain.PaymentType;
+import com.molla.payload.dto.AnalyticsReportDto;
+import com.molla.payload.dto.CustomerReportDto;
+import com.molla.payload.dto.DayCloseDto;
+import com.molla.payload.dto.DayCloseRunDto;
+import com.molla.payload.dto.SalesReportDto;
+import com.molla.payload.dto.TopProductsDto;
+import com.molla.payload.response.ApiResponse;
+import com.molla.service.DayCloseService;
+import com.molla.service.SalesAnalyticsService;
+import com.molla.service.SalesReportService;
+import com.molla.topk.TopProductsTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final SalesReportService salesReportService;
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final DayCloseService dayCloseService;
+
+    /**
+     * Branch sales dashboard (totals, per day, per payment type, best sellers) from the rollups.
+     * Example: /api/reports/sales?branchId=1&from=2026-01-01&to=2026-01-31&products=10
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReportDto> getSalesReport(
+            @RequestParam Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int products) throws Exception {
+        return ResponseEntity.ok(salesReportService.getSalesReport(branchId, from, to, products));
+    }
+
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<List<LocalDate>> rebuildSalesRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
+        return ResponseEntity.ok(salesReportService.rebuildSalesRollup(from, to));
+    }
+
+    /**
+     * Best sellers of a branch or a store for TODAY or this WEEK (Monday to today).
+     * Example: /api/reports/top-products?storeId=1&period=WEEK&limit=10
+     */
+    @GetMapping("/top-products")
+    public ResponseEntity<TopProductsDto> getTopProducts(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(defaultValue = "TODAY") TopProductsTracker.Period period,
+            @RequestParam(defaultValue = "10") int limit) throws Exception {
+        return ResponseEntity.ok(salesReportService.getTopProducts(storeId, branchId, period, limit));
+    }
+
+    /**
+     * Distinct customers and basket size and value of a branch or a store, per day.
+     * Example: /api/reports/customers?storeId=1&from=2026-03-01&to=2026-03-31
+     */
+    @GetMapping("/customers")
+    public ResponseEntity<CustomerReportDto> getCustomerReport(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
+        return ResponseEntity.ok(salesReportService.getCustomerReport(storeId, branchId, from, to));
+    }
+
+    @PostMapping("/customers/rebuild")
+    public ResponseEntity<List<LocalDate>> rebuildCustomerSketches(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
+        return ResponseEntity.ok(salesReportService.rebuildCustomerSketches(from, to));
+    }
+
+    /**
+     * End-of-day close of a store and its branches: rollup totals, closed shifts and
+     * the reconciliation against orders and refunds.
+     * Example: /api/reports/day-close?storeId=1&date=2026-03-31
+     */
+    @GetMapping("/day-close")
+    public ResponseEntity<List<DayCloseDto>> getDayClose(
+            @RequestParam Long storeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) throws Exception {
+        return ResponseEntity.ok(dayCloseService.getDayClose(storeId, date));
+    }
+
+    @PostMapping("/day-close")
+    public ResponseEntity<DayCloseRunDto> runDayClose(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) throws Exception {
+        return ResponseEntity.ok(dayCloseService.runDayClose(date));
+    }
+
+    /**
+     * Ad-hoc store-wide sales from the in-memory order line store, grouped by HOUR,
+     * DAY_OF_WEEK, DATE, STORE, BRANCH, CASHIER, CATEGORY, PRODUCT or PAYMENT_TYPE.
+     * Example: /api/reports/analytics?storeId=1&groupBy=CASHIER&from=2026-01-01&to=2026-03-31&limit=20
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<AnalyticsReportDto> getAnalytics(
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) Long cashierId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) PaymentType paymentType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "HOUR") OrderLineStore.Dimension groupBy,
+            @RequestParam(defaultValue = "100") int limit) throws Exception {
+        return ResponseEntity.ok(salesAnalyticsService.query(storeId, branchId, cashierId, categoryId, paymentType,
+                from, to, groupBy, limit));
+    }
+
+    /** 202: the reload runs in the background, queries keep the current copy until it is swapped in. */
+    @PostMapping("/analytics/reload")
+    public ResponseEntity<ApiResponse> reloadAnalytics() throws Exception {
+        boolean started = salesAnalyticsService.reload();
+        return ResponseEntity.accepted().body(new ApiResponse(started
+                ? "Analytics reload started" : "An analytics reload is already running"));
+    }
+}
@@ -3,10 +3,12 @@ package com.molla.controllers;
 import com.molla.exceptions.UserException;
 import com.molla.payload.dto.ShiftReportDto;
 import com.molla.service.ShiftReportService;
+import com.molla.util.JsonArrayStreams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +19,7 @@ import java.util.List;
 public class ShiftReportController {
 
     private final ShiftReportService shiftReportService;
+    private final JsonArrayStreams jsonArrayStreams;
 
     @PostMapping("/start")
     public ResponseEntity<ShiftReportDto> startShift(
@@ -65,9 +68,8 @@ public class ShiftReportController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ShiftReportDto>> getAllShiftReports() throws Exception {
-        List<ShiftReportDto> shiftReports = shiftReportService.getAllShiftReports();
-        return ResponseEntity.ok(shiftReports);
+    public ResponseEntity<StreamingResponseBody> getAllShiftReports() throws Exception {
+        return jsonArrayStreams.ok(shiftReportService::streamAllShiftReports);
     }
 
     @GetMapping("/{id}")
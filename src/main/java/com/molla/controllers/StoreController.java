@@ -8,9 +8,12 @@ import com.molla.payload.dto.UserDto;
 import com.molla.payload.response.ApiResponse;
 import com.molla.service.StoreService;
 import com.molla.service.UserService;
+import com.molla.util.CachedJsonResponses;
+import com.molla.util.JsonArrayStreams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,6 +24,8 @@ public class StoreController {
 
     private final StoreService storeService;
     private final UserService userService;
+    private final CachedJsonResponses cachedJsonResponses;
+    private final JsonArrayStreams jsonArrayStreams;
 
     @PostMapping
     public ResponseEntity<StoreDto> createStore(@RequestBody StoreDto storeDto,
@@ -30,16 +35,16 @@ public class StoreController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<StoreDto> getStoreById(@PathVariable("id") Long id,
+    public ResponseEntity<byte[]> getStoreById(@PathVariable("id") Long id,
             @RequestHeader("Authorization") String jwt) throws UserException {
 
-        return ResponseEntity.ok(storeService.getStoreById(id));
+        return cachedJsonResponses.ok("stores", id, storeService.getStoreById(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<StoreDto>> getAllStores(@RequestHeader("Authorization") String jwt)
+    public ResponseEntity<StreamingResponseBody> getAllStores(@RequestHeader("Authorization") String jwt)
             throws UserException {
-        return ResponseEntity.ok(storeService.getAllStores());
+        return jsonArrayStreams.ok(storeService::streamAllStores);
     }
 
     @GetMapping("/admin")
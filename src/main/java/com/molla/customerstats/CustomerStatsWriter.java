@@ -0,0 +1,244 @@
+package com.molla.customerstats;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.event.RefundIssuedEvent;
+import com.molla.model.CustomerBranchStats;
+import com.molla.model.CustomerStats;
+import com.molla.payload.dto.CustomerBranchTotalsDto;
+import com.molla.payload.dto.CustomerRefundTotalsDto;
+import com.molla.repository.CustomerBranchStatsRepository;
+import com.molla.repository.CustomerStatsRepository;
+import com.molla.repository.OrderRepository;
+import com.molla.repository.RefundRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Keeps customer_stats and customer_branch_stats up to date. Every committed
+ * order or refund of a known customer is added in a transaction of its own with
+ * in-place updates (count = count + 1), so concurrent checkouts of the same
+ * customer never lose each other's increments. A customer's first order inserts
+ * the rows; if another checkout inserted them first, the unique indexes reject
+ * the second insert and the update is retried. Failures are logged and never
+ * fail the checkout.
+ * <p>
+ * Order edits and deletes are not followed incrementally: {@link #rebuild()}
+ * (at pos.customers.stats.rebuild-cron and on demand) recomputes every
+ * customer from the hot and archived orders and refunds. An order committed
+ * in the instant the rebuild reads may end up counted twice or not at all,
+ * until the next rebuild.
+ */
+@Component
+public class CustomerStatsWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerStatsWriter.class);
+
+    private static final int REBUILD_CHUNK = 500;
+
+    private final CustomerStatsRepository statsRepository;
+    private final CustomerBranchStatsRepository branchStatsRepository;
+    private final OrderRepository orderRepository;
+    private final RefundRepository refundRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+
+    public CustomerStatsWriter(CustomerStatsRepository statsRepository,
+                               CustomerBranchStatsRepository branchStatsRepository,
+                               OrderRepository orderRepository,
+                               RefundRepository refundRepository,
+                               OrderArchiveRepository orderArchiveRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${pos.customers.stats.enabled:true}") boolean enabled) {
+        this.statsRepository = statsRepository;
+        this.branchStatsRepository = branchStatsRepository;
+        this.orderRepository = orderRepository;
+        this.refundRepository = refundRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.entityManager = entityManager;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled || event.customerId() == null || event.createdAt() == null) {
+            return;
+        }
+        Long customerId = event.customerId();
+        double amount = event.totalAmount() != null ? event.totalAmount() : 0.0;
+        apply("order " + event.orderId(), status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (statsRepository.addOrder(customerId, amount, event.createdAt(), now) == 0) {
+                statsRepository.saveAndFlush(CustomerStats.builder()
+                        .customerId(customerId)
+                        .orderCount(1L)
+                        .totalSpent(amount)
+                        .firstOrderAt(event.createdAt())
+                        .lastOrderAt(event.createdAt())
+                        .updatedAt(now)
+                        .build());
+            }
+            if (event.branchId() == null) {
+                return;
+            }
+            if (branchStatsRepository.addOrder(customerId, event.branchId(), amount) == 0) {
+                branchStatsRepository.saveAndFlush(CustomerBranchStats.builder()
+                        .customerId(customerId)
+                        .branchId(event.branchId())
+                        .orderCount(1L)
+                        .totalSpent(amount)
+                        .build());
+            }
+            // The stats row is locked by the update above, so offers of one customer run one at a time
+            Long orders = branchStatsRepository.findOrderCount(customerId, event.branchId());
+            statsRepository.offerFavourite(customerId, event.branchId(), orders != null ? orders : 1L);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRefundIssued(RefundIssuedEvent event) {
+        if (!enabled || event.customerId() == null) {
+            return;
+        }
+        double amount = event.amount() != null ? event.amount() : 0.0;
+        apply("refund " + event.refundId(), status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (statsRepository.addRefund(event.customerId(), amount, now) == 0) {
+                statsRepository.saveAndFlush(CustomerStats.builder()
+                        .customerId(event.customerId())
+                        .refundCount(1L)
+                        .refundAmount(amount)
+                        .updatedAt(now)
+                        .build());
+            }
+        });
+    }
+
+    private void apply(String source, Consumer<TransactionStatus> update) {
+        try {
+            try {
+                newTransaction.executeWithoutResult(update);
+            } catch (DataIntegrityViolationException e) {
+                // Another checkout created the customer's rows first: now the updates find them
+                newTransaction.executeWithoutResult(update);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Customer stats not updated for {}, the next rebuild will catch up: {}", source,
+                    e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${pos.customers.stats.rebuild-cron:0 0 4 * * SUN}")
+    public void rebuildScheduled() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /** Replaces every customer's stats with sums over their orders and refunds; returns the customers written. */
+    public synchronized int rebuild() {
+        Integer written = newTransaction.execute(status -> {
+            Map<Long, CustomerStats> customers = new HashMap<>();
+            List<CustomerBranchStats> branches = new ArrayList<>();
+            Map<List<Long>, CustomerBranchStats> branchIndex = new HashMap<>();
+            List<CustomerBranchTotalsDto> orderRows = new ArrayList<>(orderRepository.sumByCustomerAndBranch());
+            orderRows.addAll(orderArchiveRepository.sumOrdersByCustomerAndBranch());
+            for (CustomerBranchTotalsDto row : orderRows) {
+                Long customerId = row.customerId();
+                Long branchId = row.branchId();
+                long orders = row.orders();
+                double total = row.total();
+                CustomerStats stats = customers.computeIfAbsent(customerId, CustomerStatsWriter::empty);
+                stats.setOrderCount(stats.getOrderCount() + orders);
+                stats.setTotalSpent(stats.getTotalSpent() + total);
+                stats.setFirstOrderAt(earliest(stats.getFirstOrderAt(), row.firstOrderAt()));
+                stats.setLastOrderAt(latest(stats.getLastOrderAt(), row.lastOrderAt()));
+                if (branchId == null) {
+                    continue;
+                }
+                CustomerBranchStats branch = branchIndex.computeIfAbsent(List.of(customerId, branchId), key -> {
+                    CustomerBranchStats created = CustomerBranchStats.builder()
+                            .customerId(customerId)
+                            .branchId(branchId)
+                            .orderCount(0L)
+                            .totalSpent(0.0)
+                            .build();
+                    branches.add(created);
+                    return created;
+                });
+                branch.setOrderCount(branch.getOrderCount() + orders);
+                branch.setTotalSpent(branch.getTotalSpent() + total);
+            }
+            for (CustomerBranchStats branch : branches) {
+                CustomerStats stats = customers.get(branch.getCustomerId());
+                if (stats.getFavouriteBranchOrders() == null
+                        || branch.getOrderCount() > stats.getFavouriteBranchOrders()
+                        || (branch.getOrderCount().equals(stats.getFavouriteBranchOrders())
+                        && branch.getBranchId() < stats.getFavouriteBranchId())) {
+                    stats.setFavouriteBranchId(branch.getBranchId());
+                    stats.setFavouriteBranchOrders(branch.getOrderCount());
+                }
+            }
+            List<CustomerRefundTotalsDto> refundRows = new ArrayList<>(refundRepository.sumByCustomer());
+            refundRows.addAll(orderArchiveRepository.sumRefundsByCustomer());
+            for (CustomerRefundTotalsDto row : refundRows) {
+                CustomerStats stats = customers.computeIfAbsent(row.customerId(), CustomerStatsWriter::empty);
+                stats.setRefundCount(stats.getRefundCount() + row.refunds());
+                stats.setRefundAmount(stats.getRefundAmount() + row.amount());
+            }
+
+            branchStatsRepository.deleteAllRows();
+            statsRepository.deleteAllRows();
+            saveInChunks(branches, branchStatsRepository::saveAllAndFlush);
+            saveInChunks(new ArrayList<>(customers.values()), statsRepository::saveAllAndFlush);
+            return customers.size();
+        });
+        logger.info("Customer stats rebuilt: {} customers", written);
+        return Objects.requireNonNullElse(written, 0);
+    }
+
+    private <T> void saveInChunks(List<T> rows, Consumer<List<T>> save) {
+        for (int from = 0; from < rows.size(); from += REBUILD_CHUNK) {
+            save.accept(rows.subList(from, Math.min(rows.size(), from + REBUILD_CHUNK)));
+            entityManager.clear();
+        }
+    }
+
+    private static CustomerStats empty(Long customerId) {
+        return CustomerStats.builder()
+                .customerId(customerId)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a == null || (b != null && b.isBefore(a)) ? b : a;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a == null || (b != null && b.isAfter(a)) ? b : a;
+    }
+}
@@ -0,0 +1,29 @@
+package com.molla.datasource;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Replica lag and availability under /actuator/health ("replicas"). Replicas
+ * falling behind never take the application down, since reads fall back to the
+ * primary, so the status stays UP and the details say where reads go.
+ */
+public class ReplicaHealthIndicator implements HealthIndicator {
+
+    private final ReplicaLagMonitor monitor;
+
+    public ReplicaHealthIndicator(ReplicaLagMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Health health() {
+        if (!monitor.hasReplicas()) {
+            return Health.unknown().withDetail("replicas", "none configured").build();
+        }
+        return Health.up()
+                .withDetail("readsFrom", monitor.healthyReplicas().isEmpty() ? "primary (fallback)" : monitor.healthyReplicas())
+                .withDetail("replicas", monitor.getStatuses())
+                .build();
+    }
+}
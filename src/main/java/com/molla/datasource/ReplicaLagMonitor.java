@@ -0,0 +1,200 @@
+package com.molla.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the read replica pools and probes each one on a fixed delay: a replica
+ * is healthy while it accepts connections and its replication lag is within
+ * maxLag. Lag comes from the database itself (PostgreSQL replay timestamp, MySQL
+ * Seconds_Behind_Source); other databases only get a connection check.
+ * With no replicas configured nothing is scheduled.
+ */
+public class ReplicaLagMonitor implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /** Reads the replication lag in seconds over an open connection. */
+    @FunctionalInterface
+    interface LagProbe {
+        double lagSeconds(Connection connection) throws SQLException;
+    }
+
+    public record Status(boolean healthy, Double lagSeconds, String error, Instant checkedAt) {
+    }
+
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Duration interval;
+    private final LagProbe probe;
+    private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+    private volatile List<String> healthy = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag, Duration interval) {
+        this(replicas, maxLag, interval, ReplicaLagMonitor::queryLag);
+    }
+
+    ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag, Duration interval, LagProbe probe) {
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.maxLag = maxLag;
+        this.interval = interval;
+        this.probe = probe;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /** Probes once, then keeps probing in the background. */
+    public synchronized void start() {
+        if (replicas.isEmpty() || scheduler != null) {
+            return;
+        }
+        checkAll();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkAll, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void checkAll() {
+        replicas.forEach(this::check);
+        refreshHealthy();
+    }
+
+    private void check(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            double lag = probe.lagSeconds(connection);
+            boolean withinLimit = lag <= maxLag.toMillis() / 1000.0;
+            update(name, new Status(withinLimit, lag, withinLimit ? null : "lag above " + maxLag.toSeconds() + "s",
+                    Instant.now()));
+        } catch (Exception e) {
+            update(name, new Status(false, null, e.getMessage(), Instant.now()));
+        }
+    }
+
+    /** Takes a replica out of rotation until the next successful probe. */
+    public void markDown(String name, String error) {
+        if (replicas.containsKey(name)) {
+            update(name, new Status(false, null, error, Instant.now()));
+            refreshHealthy();
+        }
+    }
+
+    private void update(String name, Status status) {
+        Status previous = statuses.put(name, status);
+        boolean wasHealthy = previous != null && previous.healthy();
+        if (wasHealthy && !status.healthy()) {
+            logger.warn("Read replica {} taken out of rotation: {}", name, status.error());
+        } else if (!wasHealthy && status.healthy() && previous != null) {
+            logger.info("Read replica {} back in rotation (lag {}s)", name, status.lagSeconds());
+        }
+    }
+
+    private void refreshHealthy() {
+        List<String> names = new ArrayList<>();
+        replicas.keySet().forEach(name -> {
+            Status status = statuses.get(name);
+            if (status != null && status.healthy()) {
+                names.add(name);
+            }
+        });
+        healthy = List.copyOf(names);
+    }
+
+    /** Replicas currently eligible for reads, in configuration order. */
+    public List<String> healthyReplicas() {
+        return healthy;
+    }
+
+    public Map<String, Status> getStatuses() {
+        Map<String, Status> ordered = new LinkedHashMap<>();
+        replicas.keySet().forEach(name -> ordered.put(name, statuses.get(name)));
+        return ordered;
+    }
+
+    static double queryLag(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase();
+        if (product.contains("postgres")) {
+            // An idle primary sends no new transactions, so an old replay timestamp only
+            // means lag when WAL has been received but not replayed yet
+            return queryDouble(connection, """
+                    SELECT CASE WHEN NOT pg_is_in_recovery()
+                                  OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                           END""");
+        }
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            try {
+                return mysqlLag(connection, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                // MySQL before 8.0.22 and MariaDB
+                return mysqlLag(connection, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+            }
+        }
+        if (!connection.isValid(2)) {
+            throw new SQLException("Connection is not valid");
+        }
+        return 0;
+    }
+
+    private static double queryDouble(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        }
+    }
+
+    private static double mysqlLag(Connection connection, String sql, String column) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            if (!rs.next()) {
+                // Not configured as a replica: a standalone copy has nothing to catch up on
+                return 0;
+            }
+            long seconds = rs.getLong(column);
+            if (rs.wasNull()) {
+                throw new SQLException("Replication is not running");
+            }
+            return seconds;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.molla.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions declared by the application
+ * (@Transactional(readOnly = true) on a service method) to a healthy read replica,
+ * round robin, and everything else to the primary. Spring Data's implicit
+ * read-only transaction around a single repository call stays on the primary, so
+ * ordinary lookups (login, checkout) still see their own writes.
+ * <p>
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the transaction manager
+ * fetches its connection before the read-only flag is bound to the thread, the
+ * proxy defers the choice to the first statement. If the chosen replica refuses
+ * the connection it is marked down and the primary serves the transaction.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    private static final String SPRING_DATA_TRANSACTIONS = "org.springframework.data.";
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor monitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor monitor) {
+        this.primary = primary;
+        this.monitor = monitor;
+        Map<Object, Object> targets = new HashMap<>(monitor.getReplicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    static boolean isReplicaRead() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name == null || !name.startsWith(SPRING_DATA_TRANSACTIONS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!isReplicaRead()) {
+            return PRIMARY;
+        }
+        List<String> healthy = monitor.healthyReplicas();
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return getResolvedDataSources().get(key).getConnection();
+        } catch (SQLException e) {
+            logger.warn("Read replica {} unavailable, reading from primary: {}", key, e.getMessage());
+            monitor.markDown((String) key, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+}
@@ -0,0 +1,405 @@
+package com.molla.dayclose;
+
+import com.molla.domain.DayCloseStatus;
+import com.molla.domain.PaymentType;
+import com.molla.model.DayClose;
+import com.molla.model.DayClosePayment;
+import com.molla.payload.dto.PaymentTypeTotalsDto;
+import com.molla.payload.dto.SalesRollupRowDto;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.DayCloseRepository;
+import com.molla.repository.OrderRepository;
+import com.molla.repository.RefundRepository;
+import com.molla.repository.SalesRollupRepository;
+import com.molla.rollup.SalesRollupWriter;
+import com.molla.service.ShiftReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * End-of-day close of every branch, then of every store. A run first writes a
+ * PENDING day_close row for each branch of the day that has none (the
+ * checkpoint), then closes the branches that are not CLOSED yet on a pool of
+ * pos.dayclose.parallelism threads, each in a transaction of its own: shifts
+ * left open longer than pos.dayclose.max-shift-hours are ended, the day's
+ * totals are taken from the sales rollups and reconciled per payment type
+ * against the orders and refunds, and the row becomes CLOSED (or FAILED with
+ * the reason). A store is closed once all of its branches are. Runs are
+ * scheduled before the rollup compaction (so a mismatch is seen before the
+ * compaction repairs it) and resumed after startup for any recent day with a
+ * branch left PENDING or FAILED; branches already closed are never redone.
+ * One run at a time per instance.
+ */
+@Component
+public class DayCloser {
+
+    private static final Logger logger = LoggerFactory.getLogger(DayCloser.class);
+
+    /** Rollups and orders count money as doubles; anything under a cent is rounding. */
+    private static final double TOLERANCE = 0.005;
+
+    public record Summary(LocalDate day, int branches, int closed, int failed, int skipped, int stores) {
+    }
+
+    private record BranchRef(Long branchId, Long storeId) {
+    }
+
+    private final DayCloseRepository dayCloseRepository;
+    private final BranchRepository branchRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderRepository orderRepository;
+    private final RefundRepository refundRepository;
+    private final ShiftReportService shiftReportService;
+    private final SalesRollupWriter salesRollupWriter;
+    private final TransactionTemplate newTransaction;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${pos.dayclose.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${pos.dayclose.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${pos.dayclose.max-shift-hours:16}")
+    private int maxShiftHours = 16;
+
+    @Value("${pos.dayclose.resume-days:7}")
+    private int resumeDays = 7;
+
+    public DayCloser(DayCloseRepository dayCloseRepository, BranchRepository branchRepository,
+                     SalesRollupRepository salesRollupRepository, OrderRepository orderRepository,
+                     RefundRepository refundRepository, ShiftReportService shiftReportService,
+                     SalesRollupWriter salesRollupWriter, PlatformTransactionManager transactionManager) {
+        this.dayCloseRepository = dayCloseRepository;
+        this.branchRepository = branchRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderRepository = orderRepository;
+        this.refundRepository = refundRepository;
+        this.shiftReportService = shiftReportService;
+        this.salesRollupWriter = salesRollupWriter;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(cron = "${pos.dayclose.cron:0 5 2 * * *}")
+    public void closeNightly() {
+        if (enabled) {
+            closeQuietly(LocalDate.now().minusDays(1));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeAfterStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread resumer = new Thread(() -> {
+            List<LocalDate> days;
+            try {
+                days = dayCloseRepository.findUnfinishedDays(LocalDate.now().minusDays(resumeDays));
+            } catch (RuntimeException e) {
+                logger.warn("Unfinished day closes not checked: {}", e.getMessage());
+                return;
+            }
+            days.forEach(this::closeQuietly);
+        }, "day-close-resume");
+        resumer.setDaemon(true);
+        resumer.start();
+    }
+
+    private void closeQuietly(LocalDate day) {
+        try {
+            close(day);
+        } catch (RuntimeException e) {
+            logger.warn("Day close of {} not run: {}", day, e.getMessage());
+        }
+    }
+
+    public boolean isArchived(LocalDate day) {
+        return salesRollupWriter.isArchived(day);
+    }
+
+    /**
+     * Closes the branches of {@code day} that are not closed yet, then their
+     * stores. Throws IllegalStateException when a run is already going on.
+     */
+    public Summary close(LocalDate day) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("A day close is already running");
+        }
+        try {
+            return run(day);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private Summary run(LocalDate day) {
+        long started = System.nanoTime();
+        List<BranchRef> branches = branchRepository.findAllIdsWithStore().stream()
+                .map(row -> new BranchRef((Long) row[0], (Long) row[1]))
+                .toList();
+        Map<Long, DayCloseStatus> checkpoint = checkpoint(day, branches);
+        List<BranchRef> todo = branches.stream()
+                .filter(branch -> checkpoint.get(branch.branchId()) != DayCloseStatus.CLOSED)
+                .toList();
+
+        int closed = 0;
+        if (!todo.isEmpty()) {
+            LocalDateTime openedBefore = LocalDateTime.now().minusHours(maxShiftHours);
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, todo.size())),
+                    threadFactory());
+            try {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (BranchRef branch : todo) {
+                    results.add(pool.submit(() -> closeBranch(day, branch, openedBefore)));
+                }
+                for (Future<Boolean> result : results) {
+                    if (result.get()) {
+                        closed++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Day close of " + day + " interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Day close of " + day + " failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        int stores = closeStores(day, branches);
+        Summary summary = new Summary(day, branches.size(), closed, todo.size() - closed,
+                branches.size() - todo.size(), stores);
+        logger.info("Day close of {}: {} branches closed, {} failed, {} already closed, {} stores, {} ms", day,
+                summary.closed(), summary.failed(), summary.skipped(), summary.stores(),
+                (System.nanoTime() - started) / 1_000_000);
+        return summary;
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "day-close-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Writes a PENDING row for every branch without one; returns each branch's status. */
+    private Map<Long, DayCloseStatus> checkpoint(LocalDate day, List<BranchRef> branches) {
+        return newTransaction.execute(status -> {
+            Map<Long, DayCloseStatus> statuses = new LinkedHashMap<>();
+            for (DayClose row : dayCloseRepository.findBranchRows(day)) {
+                statuses.put(row.getBranchId(), row.getStatus());
+            }
+            List<DayClose> planned = new ArrayList<>();
+            for (BranchRef branch : branches) {
+                if (!statuses.containsKey(branch.branchId())) {
+                    planned.add(DayClose.builder()
+                            .storeId(branch.storeId())
+                            .branchId(branch.branchId())
+                            .businessDate(day)
+                            .status(DayCloseStatus.PENDING)
+                            .build());
+                    statuses.put(branch.branchId(), DayCloseStatus.PENDING);
+                }
+            }
+            dayCloseRepository.saveAll(planned);
+            return statuses;
+        });
+    }
+
+    /** Closes one branch in its own transaction; false (and a FAILED row) when that fails. */
+    private boolean closeBranch(LocalDate day, BranchRef branch, LocalDateTime openedBefore) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                DayClose row = dayCloseRepository.findByBranchIdAndBusinessDate(branch.branchId(), day)
+                        .orElseThrow(() -> new IllegalStateException("No checkpoint for branch " + branch.branchId()));
+                LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+                row.setClosedShifts(shiftReportService.closeDanglingShifts(branch.branchId(),
+                        openedBefore.isBefore(dayEnd) ? openedBefore : dayEnd, Duration.ofHours(maxShiftHours)));
+                totals(row, branch.branchId(), day);
+                row.setStatus(DayCloseStatus.CLOSED);
+                row.setAttempts(row.getAttempts() + 1);
+                row.setClosedAt(LocalDateTime.now());
+                dayCloseRepository.save(row);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Day close of branch {} for {} failed: {}", branch.branchId(), day, e.getMessage());
+            try {
+                newTransaction.executeWithoutResult(status ->
+                        dayCloseRepository.findByBranchIdAndBusinessDate(branch.branchId(), day).ifPresent(row -> {
+                            row.setStatus(DayCloseStatus.FAILED);
+                            row.setAttempts(row.getAttempts() + 1);
+                            row.setNote(truncate(String.valueOf(e.getMessage())));
+                            dayCloseRepository.save(row);
+                        }));
+            } catch (RuntimeException again) {
+                logger.warn("Day close of branch {} for {} not marked failed: {}", branch.branchId(), day,
+                        again.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /** Rollup totals of the branch and day, reconciled per payment type against orders and refunds. */
+    private void totals(DayClose row, Long branchId, LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+        // Keyed by payment type, null included (orders saved without one)
+        Map<PaymentType, DayClosePayment> payments = new LinkedHashMap<>();
+        for (SalesRollupRowDto rollup : salesRollupRepository.sumByPaymentType(branchId, day, day)) {
+            DayClosePayment line = payments.computeIfAbsent(rollup.getPaymentType(), DayCloser::emptyLine);
+            line.setOrders(rollup.getOrders());
+            line.setSalesAmount(rollup.getSalesAmount());
+            line.setRefunds(rollup.getRefunds());
+            line.setRefundAmount(rollup.getRefundAmount());
+        }
+        for (PaymentTypeTotalsDto orders : orderRepository.sumTotalsByPaymentType(branchId, start, end)) {
+            DayClosePayment line = payments.computeIfAbsent(orders.paymentType(), DayCloser::emptyLine);
+            line.setOrderCount(orders.count());
+            line.setOrderTotal(orders.amount());
+        }
+        for (PaymentTypeTotalsDto refunds : refundRepository.sumByPaymentType(branchId, start, end)) {
+            DayClosePayment line = payments.computeIfAbsent(refunds.paymentType(), DayCloser::emptyLine);
+            line.setRefundTotal(refunds.amount());
+            line.setRefundCount(refunds.count());
+        }
+        apply(row, new ArrayList<>(payments.values()));
+    }
+
+    private static DayClosePayment emptyLine(PaymentType paymentType) {
+        return DayClosePayment.builder()
+                .paymentType(paymentType)
+                .orders(0L).salesAmount(0.0).refunds(0L).refundAmount(0.0)
+                .orderCount(0L).orderTotal(0.0).refundCount(0L).refundTotal(0.0)
+                .build();
+    }
+
+    /** Sets the row's totals, payment lines, reconciled flag and note from the lines. */
+    private static void apply(DayClose row, List<DayClosePayment> lines) {
+        long orders = 0;
+        long refunds = 0;
+        double sales = 0;
+        double refundAmount = 0;
+        double orderTotal = 0;
+        double refundTotal = 0;
+        List<String> mismatches = new ArrayList<>();
+        lines.sort(Comparator.comparing(line -> Objects.toString(line.getPaymentType(), "")));
+        for (DayClosePayment line : lines) {
+            orders += line.getOrders();
+            refunds += line.getRefunds();
+            sales += line.getSalesAmount();
+            refundAmount += line.getRefundAmount();
+            orderTotal += line.getOrderTotal();
+            refundTotal += line.getRefundTotal();
+            if (!line.getOrders().equals(line.getOrderCount())
+                    || Math.abs(line.getSalesAmount() - line.getOrderTotal()) > TOLERANCE) {
+                mismatches.add(line.getPaymentType() + " sales " + line.getSalesAmount() + " (" + line.getOrders()
+                        + " orders) vs orders " + line.getOrderTotal() + " (" + line.getOrderCount() + ")");
+            }
+            if (!line.getRefunds().equals(line.getRefundCount())
+                    || Math.abs(line.getRefundAmount() - line.getRefundTotal()) > TOLERANCE) {
+                mismatches.add(line.getPaymentType() + " refunds " + line.getRefundAmount() + " ("
+                        + line.getRefunds() + ") vs refunds " + line.getRefundTotal() + " (" + line.getRefundCount()
+                        + ")");
+            }
+        }
+        row.setOrders(orders);
+        row.setRefunds(refunds);
+        row.setSalesAmount(sales);
+        row.setRefundAmount(refundAmount);
+        row.setNetSales(sales - refundAmount);
+        row.setOrderTotal(orderTotal);
+        row.setRefundTotal(refundTotal);
+        row.setReconciled(mismatches.isEmpty());
+        row.setNote(mismatches.isEmpty() ? null : truncate(String.join("; ", mismatches)));
+        row.getPayments().clear();
+        row.getPayments().addAll(lines);
+    }
+
+    /** Sums the branch rows of every store whose branches are all closed; returns how many stores. */
+    private int closeStores(LocalDate day, List<BranchRef> branches) {
+        Map<Long, List<Long>> byStore = new LinkedHashMap<>();
+        for (BranchRef branch : branches) {
+            if (branch.storeId() != null) {
+                byStore.computeIfAbsent(branch.storeId(), store -> new ArrayList<>()).add(branch.branchId());
+            }
+        }
+        Integer stores = newTransaction.execute(status -> {
+            Map<Long, DayClose> rows = new LinkedHashMap<>();
+            for (DayClose row : dayCloseRepository.findBranchRows(day)) {
+                rows.put(row.getBranchId(), row);
+            }
+            int done = 0;
+            for (Map.Entry<Long, List<Long>> store : byStore.entrySet()) {
+                List<DayClose> branchRows = store.getValue().stream().map(rows::get).toList();
+                if (branchRows.stream().anyMatch(row -> row == null || row.getStatus() != DayCloseStatus.CLOSED)) {
+                    continue;
+                }
+                DayClose storeRow = dayCloseRepository.findStoreRow(store.getKey(), day)
+                        .orElseGet(() -> DayClose.builder()
+                                .storeId(store.getKey())
+                                .businessDate(day)
+                                .build());
+                Map<PaymentType, DayClosePayment> payments = new LinkedHashMap<>();
+                int closedShifts = 0;
+                for (DayClose branchRow : branchRows) {
+                    closedShifts += branchRow.getClosedShifts();
+                    for (DayClosePayment line : branchRow.getPayments()) {
+                        DayClosePayment sum = payments.computeIfAbsent(line.getPaymentType(), DayCloser::emptyLine);
+                        sum.setOrders(sum.getOrders() + line.getOrders());
+                        sum.setSalesAmount(sum.getSalesAmount() + line.getSalesAmount());
+                        sum.setRefunds(sum.getRefunds() + line.getRefunds());
+                        sum.setRefundAmount(sum.getRefundAmount() + line.getRefundAmount());
+                        sum.setOrderCount(sum.getOrderCount() + line.getOrderCount());
+                        sum.setOrderTotal(sum.getOrderTotal() + line.getOrderTotal());
+                        sum.setRefundCount(sum.getRefundCount() + line.getRefundCount());
+                        sum.setRefundTotal(sum.getRefundTotal() + line.getRefundTotal());
+                    }
+                }
+                apply(storeRow, new ArrayList<>(payments.values()));
+                storeRow.setClosedShifts(closedShifts);
+                storeRow.setStatus(DayCloseStatus.CLOSED);
+                storeRow.setAttempts(storeRow.getAttempts() + 1);
+                storeRow.setClosedAt(LocalDateTime.now());
+                dayCloseRepository.save(storeRow);
+                done++;
+            }
+            return done;
+        });
+        return Objects.requireNonNullElse(stores, 0);
+    }
+
+    private static String truncate(String note) {
+        return note.length() <= 1000 ? note : note.substring(0, 997) + "...";
+    }
+}
@@ -0,0 +1,7 @@
+package com.molla.domain;
+
+public enum DayCloseStatus {
+    PENDING,
+    CLOSED,
+    FAILED
+}
@@ -0,0 +1,44 @@
+package com.molla.event;
+
+import com.molla.domain.PaymentType;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService once an order is saved. Carries plain values only, so
+ * listeners running after the commit never touch the order's persistence context.
+ */
+public record OrderPlacedEvent(Long orderId, Long storeId, Long branchId, Long cashierId, Long customerId,
+                               PaymentType paymentType, LocalDateTime createdAt, Double totalAmount, List<Line> lines) {
+
+    public record Line(Long productId, Long categoryId, int quantity, double amount) {
+    }
+
+    public static OrderPlacedEvent of(Order order) {
+        List<Line> lines = order.getOrderItems() == null ? List.of() : order.getOrderItems().stream()
+                .map(OrderPlacedEvent::line)
+                .toList();
+        return new OrderPlacedEvent(order.getId(),
+                order.getBranch() != null && order.getBranch().getStore() != null
+                        ? order.getBranch().getStore().getId() : null,
+                order.getBranch() != null ? order.getBranch().getId() : null,
+                order.getCashier() != null ? order.getCashier().getId() : null,
+                order.getCustomer() != null ? order.getCustomer().getId() : null,
+                order.getPaymentType(),
+                order.getCreatedAt(),
+                order.getTotalAmount(),
+                lines);
+    }
+
+    private static Line line(OrderItem item) {
+        Product product = item.getProduct();
+        return new Line(product != null ? product.getId() : null,
+                product != null && product.getCategory() != null ? product.getCategory().getId() : null,
+                item.getQuantity() != null ? item.getQuantity() : 0,
+                item.getTotalPrice() != null ? item.getTotalPrice() : 0.0);
+    }
+}
@@ -0,0 +1,25 @@
+package com.molla.event;
+
+import com.molla.domain.PaymentType;
+import com.molla.model.Refund;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by RefundService once a refund is saved, with the refunded order's
+ * customer (if any) for per-customer listeners.
+ */
+public record RefundIssuedEvent(Long refundId, Long orderId, Long branchId, Long customerId, PaymentType paymentType,
+                                LocalDateTime createdAt, Double amount) {
+
+    public static RefundIssuedEvent of(Refund refund) {
+        return new RefundIssuedEvent(refund.getId(),
+                refund.getOrder() != null ? refund.getOrder().getId() : null,
+                refund.getBranch() != null ? refund.getBranch().getId() : null,
+                refund.getOrder() != null && refund.getOrder().getCustomer() != null
+                        ? refund.getOrder().getCustomer().getId() : null,
+                refund.getPaymentType(),
+                refund.getCreatedAt(),
+                refund.getAmount());
+    }
+}
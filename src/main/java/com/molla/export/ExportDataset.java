@@ -0,0 +1,58 @@
+package com.molla.export;
+
+/**
+ * What /api/exports can stream. Each query is written once over %s placeholders
+ * for the hot and the archive tables, filtered by created_at and branch, and
+ * sorted by created_at so archived rows (always older) simply come first.
+ */
+public enum ExportDataset {
+
+    ORDERS("orders", """
+            SELECT o.id, o.created_at, o.branch_id, o.cashier_id, o.customer_id, o.payment_type, o.status,
+                   o.total_amount
+            FROM %2$s o
+            WHERE %3$s
+            ORDER BY o.created_at, o.id""", "o"),
+
+    ORDER_ITEMS("order-items", """
+            SELECT i.id, i.order_id, o.created_at, o.branch_id, i.product_id, p.sku, p.name AS product_name,
+                   i.quantity, i.price, i.total_price
+            FROM %1$s i
+            JOIN %2$s o ON o.id = i.order_id
+            LEFT JOIN product p ON p.id = i.product_id
+            WHERE %3$s
+            ORDER BY o.created_at, i.order_id, i.id""", "o"),
+
+    REFUNDS("refunds", """
+            SELECT r.id, r.order_id, r.created_at, r.branch_id, r.cashier_id, r.shift_report_id, r.payment_type,
+                   r.amount, r.reason
+            FROM %4$s r
+            WHERE %3$s
+            ORDER BY r.created_at, r.id""", "r");
+
+    private final String fileName;
+    private final String sql;
+    private final String alias;
+
+    ExportDataset(String fileName, String sql, String alias) {
+        this.fileName = fileName;
+        this.sql = sql;
+        this.alias = alias;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    String sql(boolean archive, String where) {
+        return sql.formatted(
+                archive ? "order_item_archive" : "order_item",
+                archive ? "orders_archive" : "orders",
+                where,
+                archive ? "refund_archive" : "refund");
+    }
+
+    String alias() {
+        return alias;
+    }
+}
@@ -0,0 +1,262 @@
+package com.molla.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.util.StreamingFetchSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams orders, order items or refunds of a date range straight from a
+ * forward-only cursor to an output stream, one row at a time, so memory stays
+ * flat however long the range. The cursor is read in a read-only transaction
+ * (PostgreSQL only honours the fetch size with autocommit off), which also
+ * sends it to a read replica when one is configured; on MySQL the rows are
+ * streamed one by one instead (see {@link StreamingFetchSize}). Archived rows
+ * are read first when the range reaches them.
+ */
+@Component
+public class OrderExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExporter.class);
+
+    private static final JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+    /** Rows created in [from, to) of one branch, or of every branch of one store, or everywhere. */
+    public record Filter(Long storeId, Long branchId, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate cursor;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final int fetchSize;
+    private volatile boolean fetchSizeApplied;
+
+    public OrderExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                         OrderArchiveRepository orderArchiveRepository,
+                         @Value("${pos.export.fetch-size:1000}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.cursor = new TransactionTemplate(transactionManager);
+        this.cursor.setReadOnly(true);
+        this.cursor.setName(OrderExporter.class.getName() + ".export");
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Writes the rows to out, flushes it (without closing) and returns how many rows were written. */
+    public long export(ExportDataset dataset, Filter filter, ExportFormat format, OutputStream out)
+            throws IOException {
+        long started = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        RowWriter rows = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        try {
+            cursor.executeWithoutResult(status -> {
+                if (!fetchSizeApplied) {
+                    StreamingFetchSize.apply(jdbc, fetchSize);
+                    fetchSizeApplied = true;
+                }
+                if (orderArchiveRepository.reaches(filter.from())) {
+                    query(dataset, true, filter, rows);
+                }
+                query(dataset, false, filter, rows);
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is closed on the way out
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Exported {} {} rows in {} ms", rows.count, dataset.getFileName(),
+                (System.nanoTime() - started) / 1_000_000);
+        return rows.count;
+    }
+
+    private void query(ExportDataset dataset, boolean archive, Filter filter, RowWriter rows) {
+        String alias = dataset.alias();
+        StringBuilder where = new StringBuilder(alias + ".created_at >= ? AND " + alias + ".created_at < ?");
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(filter.from()), Timestamp.valueOf(filter.to())));
+        if (filter.branchId() != null) {
+            where.append(" AND ").append(alias).append(".branch_id = ?");
+            args.add(filter.branchId());
+        } else if (filter.storeId() != null) {
+            where.append(" AND ").append(alias).append(".branch_id IN (SELECT id FROM branch WHERE store_id = ?)");
+            args.add(filter.storeId());
+        }
+        jdbc.query(dataset.sql(archive, where.toString()), (ResultSetExtractor<Void>) rs -> {
+            rows.start(rs.getMetaData());
+            while (rs.next()) {
+                rows.row(rs);
+            }
+            return null;
+        }, args.toArray());
+    }
+
+    /** Writes the header once (hot and archive queries share their columns) and then each row. */
+    private abstract static class RowWriter {
+
+        final Writer out;
+        String[] names;
+        int[] types;
+        long count;
+
+        RowWriter(Writer out) {
+            this.out = out;
+        }
+
+        void start(ResultSetMetaData meta) throws SQLException {
+            if (names != null) {
+                return;
+            }
+            names = new String[meta.getColumnCount()];
+            types = new int[names.length];
+            for (int c = 0; c < names.length; c++) {
+                names[c] = meta.getColumnLabel(c + 1).toLowerCase();
+                types[c] = meta.getColumnType(c + 1);
+            }
+            try {
+                header();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void row(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+
+        abstract void header() throws IOException;
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        /** Column value as text: ISO date-times, plain decimals, null when SQL NULL. */
+        String text(ResultSet rs, int c) throws SQLException {
+            return switch (types[c]) {
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> {
+                    Timestamp value = rs.getTimestamp(c + 1);
+                    yield value == null ? null : value.toLocalDateTime().toString();
+                }
+                case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> {
+                    BigDecimal value = rs.getBigDecimal(c + 1);
+                    yield value == null ? null : value.stripTrailingZeros().toPlainString();
+                }
+                default -> rs.getString(c + 1);
+            };
+        }
+
+        boolean numeric(int c) {
+            return switch (types[c]) {
+                case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT, Types.DOUBLE, Types.FLOAT,
+                     Types.REAL, Types.DECIMAL, Types.NUMERIC -> true;
+                default -> false;
+            };
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void header() throws IOException {
+            line(names);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            String[] values = new String[names.length];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = text(rs, c);
+            }
+            line(values);
+        }
+
+        private void line(String[] values) throws IOException {
+            for (int c = 0; c < values.length; c++) {
+                if (c > 0) {
+                    out.write(',');
+                }
+                String value = values[c];
+                if (value == null) {
+                    continue;
+                }
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                        || value.indexOf('\r') >= 0) {
+                    out.write('"');
+                    out.write(value.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(value);
+                }
+            }
+            out.write("\r\n");
+        }
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+
+        private JsonGenerator json;
+
+        NdjsonRowWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void header() throws IOException {
+            json = JSON.createGenerator(out);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int c = 0; c < names.length; c++) {
+                String value = text(rs, c);
+                json.writeFieldName(names[c]);
+                if (value == null) {
+                    json.writeNull();
+                } else if (numeric(c)) {
+                    json.writeNumber(value);
+                } else {
+                    json.writeString(value);
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.molla.mapper;
+
+import com.molla.model.CustomerStats;
+import com.molla.payload.dto.CustomerStatsDto;
+
+public class CustomerStatsMapper {
+
+    public static CustomerStatsDto toDto(CustomerStats entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        long orders = entity.getOrderCount() != null ? entity.getOrderCount() : 0L;
+        double spent = entity.getTotalSpent() != null ? entity.getTotalSpent() : 0.0;
+        double refunded = entity.getRefundAmount() != null ? entity.getRefundAmount() : 0.0;
+        return CustomerStatsDto.builder()
+            .customerId(entity.getCustomerId())
+            .orderCount(orders)
+            .totalSpent(spent)
+            .refundCount(entity.getRefundCount() != null ? entity.getRefundCount() : 0L)
+            .refundAmount(refunded)
+            .netSpent(spent - refunded)
+            .averageOrderValue(orders > 0 ? spent / orders : 0.0)
+            .firstOrderAt(entity.getFirstOrderAt())
+            .lastOrderAt(entity.getLastOrderAt())
+            .favouriteBranchId(entity.getFavouriteBranchId())
+            .favouriteBranchOrders(entity.getFavouriteBranchOrders())
+            .updatedAt(entity.getUpdatedAt())
+            .build();
+    }
+}
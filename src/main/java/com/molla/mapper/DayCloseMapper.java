@@ -0,0 +1,36 @@
+package com.molla.mapper;
+
+import com.molla.model.DayClose;
+import com.molla.payload.dto.DayCloseDto;
+
+import java.util.List;
+
+public class DayCloseMapper {
+
+    public static DayCloseDto toDto(DayClose entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        return DayCloseDto.builder()
+            .id(entity.getId())
+            .storeId(entity.getStoreId())
+            .branchId(entity.getBranchId())
+            .businessDate(entity.getBusinessDate())
+            .status(entity.getStatus() != null ? entity.getStatus().name() : null)
+            .closedShifts(entity.getClosedShifts())
+            .orders(entity.getOrders())
+            .salesAmount(entity.getSalesAmount())
+            .refunds(entity.getRefunds())
+            .refundAmount(entity.getRefundAmount())
+            .netSales(entity.getNetSales())
+            .orderTotal(entity.getOrderTotal())
+            .refundTotal(entity.getRefundTotal())
+            .reconciled(entity.getReconciled())
+            .note(entity.getNote())
+            .attempts(entity.getAttempts())
+            .closedAt(entity.getClosedAt())
+            .payments(entity.getPayments() != null ? List.copyOf(entity.getPayments()) : List.of())
+            .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.molla.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * ConcurrentMapCache that counts hits and misses, since the in-memory cache has
+ * no statistics of its own. Exposes cache.gets{cache,result} (same names as
+ * Micrometer's built-in cache binders) and a cache.hit.ratio gauge per cache.
+ */
+public class MeteredConcurrentMapCache extends ConcurrentMapCache {
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public MeteredConcurrentMapCache(String name, boolean allowNullValues, MeterRegistry meterRegistry) {
+        super(name, allowNullValues);
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit")
+                .description("Cache lookups that found a value").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss")
+                .description("Cache lookups that did not find a value").register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, MeteredConcurrentMapCache::hitRatio)
+                .tag("cache", name)
+                .description("Hits / lookups since startup")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, cache -> cache.getNativeCache().size())
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Used by @Cacheable(sync = true); the parent loads through computeIfAbsent
+     * without calling lookup.
+     */
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        (getNativeCache().containsKey(key) ? hits : misses).increment();
+        return super.get(key, valueLoader);
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
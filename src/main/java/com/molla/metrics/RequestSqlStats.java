@@ -0,0 +1,63 @@
+package com.molla.metrics;
+
+/**
+ * SQL work done on behalf of one HTTP request: statements, rows read and time
+ * spent in JDBC. Opened by SqlBudgetFilter, tagged with the controller method by
+ * SqlHandlerInterceptor and filled in by SqlStatementListener on the same thread.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private String handler = "none";
+    private int queries;
+    private long rows;
+    private long elapsedMillis;
+
+    static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Stats of the request running on this thread, or null outside a request
+     * (startup, scheduled jobs).
+     */
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    void addStatements(int count, long millis) {
+        queries += count;
+        elapsedMillis += millis;
+    }
+
+    void addRow() {
+        rows++;
+    }
+
+    void setHandler(String handler) {
+        this.handler = handler;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,82 @@
+package com.molla.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens the per-request SQL stats before anything else runs (so the JwtFilter
+ * user lookup is counted too) and, when the request completes, records them as
+ * pos.sql.request.* meters tagged with the controller method. Requests issuing
+ * more than pos.sql.query-budget statements are logged as budget violations.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "pos.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int queryBudget;
+
+    public SqlBudgetFilter(MeterRegistry meterRegistry, @Value("${pos.sql.query-budget:25}") int queryBudget) {
+        this.meterRegistry = meterRegistry;
+        this.queryBudget = queryBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.end();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestSqlStats stats) {
+        if (stats.getQueries() == 0) {
+            return;
+        }
+        String handler = stats.getHandler();
+        DistributionSummary.builder("pos.sql.request.queries")
+                .description("SQL statements per request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getQueries());
+        DistributionSummary.builder("pos.sql.request.rows")
+                .description("Rows read per request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("pos.sql.request.time")
+                .description("Time spent in JDBC per request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+
+        if (stats.getQueries() > queryBudget) {
+            meterRegistry.counter("pos.sql.budget.exceeded", "handler", handler).increment();
+            SqlStatementListener.sqlLogger.warn("SQL budget exceeded: {} {} ({}) ran {} statements (budget {}), {} rows, {} ms",
+                    request.getMethod(), request.getRequestURI(), handler,
+                    stats.getQueries(), queryBudget, stats.getRows(), stats.getElapsedMillis());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.molla.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Tags the current request's SQL stats with the controller method handling it
+ * (e.g. OrderController.getOrdersByBranch).
+ */
+public class SqlHandlerInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null && handler instanceof HandlerMethod method) {
+            stats.setHandler(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return true;
+    }
+}
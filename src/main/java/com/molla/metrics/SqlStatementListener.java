@@ -0,0 +1,136 @@
+package com.molla.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * datasource-proxy listener behind every JDBC statement: feeds the per-request
+ * stats, the pos.sql.statement timer and the com.molla.sql logger.
+ *
+ * Logging replaces spring.jpa.show-sql: DEBUG on com.molla.sql logs every
+ * statement with its time, WARN reports statements slower than
+ * pos.sql.slow-statement-ms.
+ */
+public class SqlStatementListener implements QueryExecutionListener, MethodExecutionListener {
+
+    static final Logger sqlLogger = LoggerFactory.getLogger("com.molla.sql");
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long slowStatementMillis;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private volatile Counter slowStatements;
+
+    public SqlStatementListener(ObjectProvider<MeterRegistry> meterRegistry, long slowStatementMillis) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementMillis = slowStatementMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        int statements = execInfo.isBatch() ? Math.max(1, execInfo.getBatchSize()) : Math.max(1, queryInfoList.size());
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.addStatements(statements, elapsed);
+        }
+
+        Timer timer = timer(statementType(sql));
+        if (timer != null) {
+            timer.record(elapsed, TimeUnit.MILLISECONDS);
+        }
+
+        String handler = stats != null ? stats.getHandler() : "none";
+        if (elapsed >= slowStatementMillis) {
+            Counter counter = slowStatementCounter();
+            if (counter != null) {
+                counter.increment();
+            }
+            sqlLogger.warn("Slow SQL ({} ms, {}): {}", elapsed, handler, sql);
+        } else if (sqlLogger.isDebugEnabled()) {
+            sqlLogger.debug("{} ms{} [{}] {}", elapsed, execInfo.isBatch() ? " batch x" + statements : "", handler, sql);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    /**
+     * Counts rows as Hibernate reads them (ResultSet.next() returning true).
+     */
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            RequestSqlStats stats = RequestSqlStats.current();
+            if (stats != null) {
+                stats.addRow();
+            }
+        }
+    }
+
+    static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String type = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (type) {
+            case "select", "insert", "update", "delete" -> type;
+            default -> "other";
+        };
+    }
+
+    private Timer timer(String type) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return null;
+        }
+        return timers.computeIfAbsent(type, t -> Timer.builder("pos.sql.statement")
+                .description("JDBC statement execution time")
+                .tag("type", t)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry));
+    }
+
+    private Counter slowStatementCounter() {
+        Counter counter = slowStatements;
+        if (counter == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return null;
+            }
+            counter = Counter.builder("pos.sql.slow")
+                    .description("Statements slower than pos.sql.slow-statement-ms")
+                    .register(registry);
+            slowStatements = counter;
+        }
+        return counter;
+    }
+}
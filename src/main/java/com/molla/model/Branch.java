@@ -17,7 +17,8 @@ import java.util.List;
 public class Branch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "branch_seq")
+    @SequenceGenerator(name = "branch_seq", allocationSize = 50)
     private Long id;
     private String name;
 
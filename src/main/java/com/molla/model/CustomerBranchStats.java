@@ -0,0 +1,35 @@
+package com.molla.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Orders of one customer at one branch, kept so the favourite branch in
+ * CustomerStats can be updated order by order. One row per customer and branch.
+ */
+@Entity
+@Table(name = "customer_branch_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerBranchStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_branch_stats_seq")
+    @SequenceGenerator(name = "customer_branch_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Builder.Default
+    private Double totalSpent = 0.0;
+}
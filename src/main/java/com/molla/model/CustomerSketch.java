@@ -0,0 +1,54 @@
+package com.molla.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Customer and basket sketches of one branch and clock hour (see BasketStats):
+ * exact order, item and amount totals, a HyperLogLog of the customers and
+ * t-digests of basket sizes and values, in their compact encodings. Rows are
+ * merged into, never summed, so there is exactly one per branch and hour.
+ */
+@Entity
+@Table(name = "customer_sketch")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_sketch_seq")
+    @SequenceGenerator(name = "customer_sketch_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private LocalDateTime hourStart;
+
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Builder.Default
+    private Long anonymousOrders = 0L;
+
+    @Builder.Default
+    private Long itemCount = 0L;
+
+    @Builder.Default
+    private Double salesAmount = 0.0;
+
+    @Column(length = 4096)
+    private byte[] customers;
+
+    @Column(length = 8192)
+    private byte[] basketSizes;
+
+    @Column(length = 8192)
+    private byte[] basketValues;
+}
@@ -0,0 +1,53 @@
+package com.molla.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lifetime figures of one customer, hot and archived orders together: what a
+ * profile or loyalty view shows, in one row. Checkout and refunds add to it
+ * with atomic updates; the favourite branch is the one with the most orders
+ * (see CustomerBranchStats), an earlier favourite winning ties.
+ */
+@Entity
+@Table(name = "customer_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_stats_seq")
+    @SequenceGenerator(name = "customer_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Builder.Default
+    private Double totalSpent = 0.0;
+
+    @Builder.Default
+    private Long refundCount = 0L;
+
+    @Builder.Default
+    private Double refundAmount = 0.0;
+
+    private LocalDateTime firstOrderAt;
+
+    private LocalDateTime lastOrderAt;
+
+    private Long favouriteBranchId;
+
+    /** Orders at the favourite branch. */
+    private Long favouriteBranchOrders;
+
+    private LocalDateTime updatedAt;
+}
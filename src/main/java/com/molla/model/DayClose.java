@@ -0,0 +1,83 @@
+package com.molla.model;
+
+import com.molla.domain.DayCloseStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End-of-day close of one branch, or of a whole store when branchId is null.
+ * Totals come from the sales rollups; orderTotal and refundTotal are summed from
+ * the orders and refunds themselves, and reconciled says whether both agree for
+ * every payment type. A branch row is PENDING from the start of a run until it
+ * is CLOSED (or FAILED), which is what lets an interrupted run resume.
+ */
+@Entity
+@Table(name = "day_close")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DayClose {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "day_close_seq")
+    @SequenceGenerator(name = "day_close_seq", allocationSize = 50)
+    private Long id;
+
+    private Long storeId;
+
+    private Long branchId;
+
+    @Column(nullable = false)
+    private LocalDate businessDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayCloseStatus status;
+
+    @Builder.Default
+    private Integer closedShifts = 0;
+
+    @Builder.Default
+    private Long orders = 0L;
+
+    @Builder.Default
+    private Double salesAmount = 0.0;
+
+    @Builder.Default
+    private Long refunds = 0L;
+
+    @Builder.Default
+    private Double refundAmount = 0.0;
+
+    @Builder.Default
+    private Double netSales = 0.0;
+
+    @Builder.Default
+    private Double orderTotal = 0.0;
+
+    @Builder.Default
+    private Double refundTotal = 0.0;
+
+    private Boolean reconciled;
+
+    /** Mismatches found while reconciling, or why the close failed. */
+    @Column(length = 1000)
+    private String note;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    private LocalDateTime closedAt;
+
+    @ElementCollection
+    @CollectionTable(name = "day_close_payment", joinColumns = @JoinColumn(name = "day_close_id"))
+    @Builder.Default
+    private List<DayClosePayment> payments = new ArrayList<>();
+}
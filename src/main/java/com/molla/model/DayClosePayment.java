@@ -0,0 +1,35 @@
+package com.molla.model;
+
+import com.molla.domain.PaymentType;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One payment type of a day close: what the sales rollups say next to what the
+ * orders and refunds themselves add up to.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DayClosePayment {
+
+    @Enumerated(EnumType.STRING)
+    private PaymentType paymentType;
+
+    private Long orders;
+    private Double salesAmount;
+    private Long refunds;
+    private Double refundAmount;
+
+    private Long orderCount;
+    private Double orderTotal;
+    private Long refundCount;
+    private Double refundTotal;
+}
@@ -17,10 +17,23 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Table(name = "orders")
+// Full order as mapped by OrderMapper (detail view and shift report orders)
+@NamedEntityGraph(name = "Order.detail",
+        attributeNodes = {
+                @NamedAttributeNode("branch"),
+                @NamedAttributeNode("cashier"),
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "orderItems")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "orderItems", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category"))
+        })
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", allocationSize = 50)
     private Long id;
 
     private Double totalAmount;
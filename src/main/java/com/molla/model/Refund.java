@@ -13,10 +13,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@NamedEntityGraph(name = "Refund.detail", attributeNodes = {
+        @NamedAttributeNode("order"),
+        @NamedAttributeNode("cashier"),
+        @NamedAttributeNode("branch"),
+        @NamedAttributeNode("shiftReport")
+})
 public class Refund {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refund_seq")
+    @SequenceGenerator(name = "refund_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
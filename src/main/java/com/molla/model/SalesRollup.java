@@ -0,0 +1,59 @@
+package com.molla.model;
+
+import com.molla.domain.PaymentType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Sales of one branch, day, product and payment type. Checkout and refunds append
+ * delta rows (compacted = false); the nightly compaction recomputes each finished
+ * day from the orders and leaves one compacted row per key. Readers always sum,
+ * so deltas and compacted rows can be mixed.
+ * <p>
+ * Rows without a product are order-level: they count orders and refunds, which
+ * do not belong to a single product.
+ */
+@Entity
+@Table(name = "sales_rollup")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_rollup_seq")
+    @SequenceGenerator(name = "sales_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentType paymentType;
+
+    @Builder.Default
+    private Long quantity = 0L;
+
+    @Builder.Default
+    private Double salesAmount = 0.0;
+
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Builder.Default
+    private Double refundAmount = 0.0;
+
+    @Builder.Default
+    private Long refundCount = 0L;
+
+    private boolean compacted;
+}
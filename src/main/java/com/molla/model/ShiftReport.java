@@ -12,10 +12,16 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@NamedEntityGraph(name = "ShiftReport.detail", attributeNodes = {
+        @NamedAttributeNode("cashier"),
+        @NamedAttributeNode("branch"),
+        @NamedAttributeNode("refunds")
+})
 public class ShiftReport {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_report_seq")
+    @SequenceGenerator(name = "shift_report_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
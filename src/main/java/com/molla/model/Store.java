@@ -15,13 +15,15 @@ import java.time.LocalDateTime;
 public class Store {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "store_seq")
+    @SequenceGenerator(name = "store_seq", allocationSize = 50)
     public Long id;
 
     @Column( nullable = false)
     public  String brand;
 
     @OneToOne
+    @EqualsAndHashCode.Exclude // the admin's store is this store: hashing it would recurse forever
     private User storeAdmin; //one store has one admin
 
     private LocalDateTime createdAt;
@@ -0,0 +1,28 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of an ad-hoc sales query over the in-memory order line store: gross
+ * sales per group, with how many lines were scanned and matched.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsReportDto {
+    private Long storeId;
+    private String groupBy;
+    private LocalDate from;
+    private LocalDate to;
+    private Long scannedLines;
+    private Long matchedLines;
+    private Long tookMicros;
+    private List<AnalyticsRowDto> rows;
+}
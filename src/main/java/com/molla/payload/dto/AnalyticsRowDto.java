@@ -0,0 +1,24 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One group of an analytics query. key is the group as text (hour, weekday, date,
+ * payment type or id); id and label are set for store, branch, cashier, category
+ * and product groups.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsRowDto {
+    private String key;
+    private Long id;
+    private String label;
+    private Double salesAmount;
+    private Long quantity;
+    private Long lines;
+}
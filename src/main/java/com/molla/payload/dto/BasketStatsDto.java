@@ -0,0 +1,31 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One day of a customer report, or its totals (date null). Order counts and
+ * averages are exact; uniqueCustomers is a HyperLogLog estimate and the medians
+ * and p90s come from t-digests.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BasketStatsDto {
+    private LocalDate date;
+    private Long uniqueCustomers;
+    private Long orders;
+    /** Orders without a customer, not part of uniqueCustomers. */
+    private Long anonymousOrders;
+    private Double averageBasketSize;
+    private Double averageBasketValue;
+    private Double medianBasketSize;
+    private Double p90BasketSize;
+    private Double medianBasketValue;
+    private Double p90BasketValue;
+}
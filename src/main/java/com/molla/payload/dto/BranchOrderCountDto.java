@@ -0,0 +1,10 @@
+package com.molla.payload.dto;
+
+import com.molla.domain.PaymentType;
+
+/**
+ * Orders per branch and payment type over a day, from OrderRepository (sales
+ * rollup recompute).
+ */
+public record BranchOrderCountDto(Long branchId, PaymentType paymentType, Long orders) {
+}
@@ -0,0 +1,11 @@
+package com.molla.payload.dto;
+
+import com.molla.domain.PaymentType;
+
+/**
+ * Units and sales of one product per branch and payment type over a day's order
+ * items, from OrderRepository; the sales rollup recompute reads these.
+ */
+public record BranchProductSalesDto(Long branchId, Long productId, PaymentType paymentType, Long quantity,
+                                    Double salesAmount) {
+}
@@ -0,0 +1,10 @@
+package com.molla.payload.dto;
+
+import com.molla.domain.PaymentType;
+
+/**
+ * Refunded amount and refunds per branch and payment type over a day, from
+ * RefundRepository (sales rollup recompute).
+ */
+public record BranchRefundTotalsDto(Long branchId, PaymentType paymentType, Double amount, Long refunds) {
+}
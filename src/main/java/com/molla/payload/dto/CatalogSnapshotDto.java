@@ -0,0 +1,43 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Binary (CBOR) catalog snapshot. Categories are sent once as a dictionary and
+ * each product points at its category by index instead of embedding a CategoryDto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogSnapshotDto {
+    private Long storeId;
+    private Long version; // same version as /api/products/sync
+    private List<CategoryDto> categories;
+    private List<Item> products;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private Long id;
+        private String name;
+        private String description;
+        private String sku;
+        private Double mrp;
+        private Double sellingPrice;
+        private String brand;
+        private String image;
+        private Integer quantity;
+        private Integer category; // index into categories, null when uncategorised
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogSyncDto {
+    private Long storeId;
+    private Long version; // pass back as ?since= on the next sync
+    private boolean fullSnapshot; // true: replace the local catalog with products
+    private List<ProductDto> products; // full catalog, or products changed since the given version
+    private List<Long> deletedProductIds;
+}
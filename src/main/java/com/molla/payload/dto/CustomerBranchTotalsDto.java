@@ -0,0 +1,11 @@
+package com.molla.payload.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer's orders at one branch (branch null for orders saved without one),
+ * from OrderRepository and its archived counterpart (customer stats rebuild).
+ */
+public record CustomerBranchTotalsDto(Long customerId, Long branchId, Long orders, Double total,
+                                      LocalDateTime firstOrderAt, LocalDateTime lastOrderAt) {
+}
@@ -0,0 +1,23 @@
+package com.molla.payload.dto;
+
+import com.molla.model.Customer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Proposal to merge customers sharing a phone number or email into the oldest of them. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerDuplicateDto {
+    private Customer keep;
+    private List<Customer> duplicates;
+    /** What they share, e.g. "phone 5550102030" or "email ann@example.com". */
+    private List<String> reasons;
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,8 @@
+package com.molla.payload.dto;
+
+/**
+ * Refunds of a customer's orders, from RefundRepository and its archived
+ * counterpart (customer stats rebuild).
+ */
+public record CustomerRefundTotalsDto(Long customerId, Long refunds, Double amount) {
+}
@@ -0,0 +1,28 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Distinct customers and basket figures of a branch or a store over a date range
+ * (both ends included), merged from the hourly customer sketches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerReportDto {
+    private Long storeId;
+    private Long branchId;
+    private LocalDate from;
+    private LocalDate to;
+    /** Relative standard error of every uniqueCustomers figure. */
+    private Double uniqueCustomersError;
+    private BasketStatsDto totals;
+    private List<BasketStatsDto> days;
+}
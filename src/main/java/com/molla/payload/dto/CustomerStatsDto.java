@@ -0,0 +1,30 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Lifetime figures of a customer, hot and archived orders together. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerStatsDto {
+    private Long customerId;
+    private Long orderCount;
+    private Double totalSpent;
+    private Long refundCount;
+    private Double refundAmount;
+    /** totalSpent - refundAmount */
+    private Double netSpent;
+    private Double averageOrderValue;
+    private LocalDateTime firstOrderAt;
+    private LocalDateTime lastOrderAt;
+    /** Branch with the most orders, and how many. */
+    private Long favouriteBranchId;
+    private Long favouriteBranchOrders;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.molla.payload.dto;
+
+import com.molla.model.DayClosePayment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** End-of-day close of a branch, or of a store when branchId is null. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DayCloseDto {
+    private Long id;
+    private Long storeId;
+    private Long branchId;
+    private LocalDate businessDate;
+    private String status;
+    private Integer closedShifts;
+    private Long orders;
+    private Double salesAmount;
+    private Long refunds;
+    private Double refundAmount;
+    private Double netSales;
+    /** Sums of the orders and refunds themselves, next to the rollup figures above. */
+    private Double orderTotal;
+    private Double refundTotal;
+    private Boolean reconciled;
+    private String note;
+    private Integer attempts;
+    private LocalDateTime closedAt;
+    private List<DayClosePayment> payments;
+}
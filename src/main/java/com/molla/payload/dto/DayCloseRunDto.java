@@ -0,0 +1,22 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** Outcome of one end-of-day run: branches closed now, failed, or closed by an earlier run. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DayCloseRunDto {
+    private LocalDate businessDate;
+    private Integer branches;
+    private Integer closed;
+    private Integer failed;
+    private Integer alreadyClosed;
+    private Integer stores;
+}
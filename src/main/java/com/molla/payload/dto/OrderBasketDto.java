@@ -0,0 +1,11 @@
+package com.molla.payload.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order of a branch as a basket: its customer, total and item count, from
+ * OrderRepository (customer sketch rebuild).
+ */
+public record OrderBasketDto(Long branchId, LocalDateTime createdAt, Long customerId, Double totalAmount,
+                             Long items) {
+}
@@ -0,0 +1,32 @@
+package com.molla.payload.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.molla.domain.OrderStatus;
+import com.molla.domain.PaymentType;
+
+/**
+ * Order row for list endpoints, built directly by a JPQL constructor expression
+ * in OrderRepository (field order = constructor order). Use getOrderById for
+ * the full order with items, branch, cashier and customer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private Double totalAmount;
+    private OrderStatus status;
+    private PaymentType paymentType;
+    private LocalDateTime createdAt;
+    private Long branchId;
+    private Long cashierId;
+    private String cashierName;
+    private Long customerId;
+    private String customerName;
+    private Integer itemCount;
+}
@@ -0,0 +1,10 @@
+package com.molla.payload.dto;
+
+import com.molla.domain.PaymentType;
+
+/**
+ * Orders or refunds of one branch and day per payment type (null for those saved
+ * without one): how many and their sum (day close reconciliation).
+ */
+public record PaymentTypeTotalsDto(PaymentType paymentType, Long count, Double amount) {
+}
@@ -0,0 +1,28 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales dashboard of a branch over a date range (both ends included), answered
+ * from the sales_rollup table. salesAmount is gross; refunds are listed apart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesReportDto {
+    private Long branchId;
+    private LocalDate from;
+    private LocalDate to;
+    private SalesRollupRowDto totals;
+    private List<SalesRollupRowDto> days;
+    private List<SalesRollupRowDto> paymentTypes;
+    /** Best sellers by sales amount. */
+    private List<SalesRollupRowDto> products;
+}
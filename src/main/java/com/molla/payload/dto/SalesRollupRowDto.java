@@ -0,0 +1,52 @@
+package com.molla.payload.dto;
+
+import com.molla.domain.PaymentType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One line of a sales report, summed from sales_rollup by the JPQL constructor
+ * expressions in SalesRollupRepository: per day, per payment type or per product
+ * (only the grouping field of the line is set). The sums are never null.
+ */
+@Data
+@NoArgsConstructor
+public class SalesRollupRowDto {
+    private LocalDate date;
+    private PaymentType paymentType;
+    private Long productId;
+    private String productName;
+    private Long quantity;
+    private Double salesAmount;
+    private Long orders;
+    private Double refundAmount;
+    private Long refunds;
+
+    public SalesRollupRowDto(LocalDate date, Long quantity, Double salesAmount, Long orders, Double refundAmount,
+                             Long refunds) {
+        this(quantity, salesAmount, orders, refundAmount, refunds);
+        this.date = date;
+    }
+
+    public SalesRollupRowDto(PaymentType paymentType, Long quantity, Double salesAmount, Long orders,
+                             Double refundAmount, Long refunds) {
+        this(quantity, salesAmount, orders, refundAmount, refunds);
+        this.paymentType = paymentType;
+    }
+
+    public SalesRollupRowDto(Long productId, Long quantity, Double salesAmount) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.salesAmount = salesAmount;
+    }
+
+    public SalesRollupRowDto(Long quantity, Double salesAmount, Long orders, Double refundAmount, Long refunds) {
+        this.quantity = quantity;
+        this.salesAmount = salesAmount;
+        this.orders = orders;
+        this.refundAmount = refundAmount;
+        this.refunds = refunds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One best seller. quantity is an estimate that is never below the true units
+ * sold and at most maxError above it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopProductDto {
+    private Long productId;
+    private String productName;
+    private Long quantity;
+    private Long maxError;
+}
@@ -0,0 +1,24 @@
+package com.molla.payload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Best sellers of a branch or a store for today or this week (Monday to today). */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopProductsDto {
+    private Long storeId;
+    private Long branchId;
+    private String period;
+    private LocalDate from;
+    private LocalDate to;
+    private Long totalQuantity;
+    private List<TopProductDto> products;
+}
@@ -6,10 +6,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class UserDto {
     private Long id;
 
@@ -35,4 +37,19 @@ public class UserDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime lastLoginAt;
+
+    /** Employee row built by the JPQL constructor expressions in UserRepository (no password). */
+    public UserDto(Long id, String fullName, String email, String phone, UserRole role, Long branchId, Long storeId,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime lastLoginAt) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.phone = phone;
+        this.role = role;
+        this.branchId = branchId;
+        this.storeId = storeId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.lastLoginAt = lastLoginAt;
+    }
 }
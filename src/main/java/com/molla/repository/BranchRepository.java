@@ -2,10 +2,15 @@ package com.molla.repository;
 
 import com.molla.model.Branch;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface BranchRepository extends JpaRepository<Branch, Long> {
 
     List<Branch> findByStoreId(Long storeId);
+
+    /** [branchId, storeId] of every branch, without loading the branches. */
+    @Query("select b.id, b.store.id from Branch b order by b.id")
+    List<Object[]> findAllIdsWithStore();
 }
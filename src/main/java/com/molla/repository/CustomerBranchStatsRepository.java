@@ -0,0 +1,26 @@
+package com.molla.repository;
+
+import com.molla.model.CustomerBranchStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CustomerBranchStatsRepository extends JpaRepository<CustomerBranchStats, Long> {
+
+    /** Adds one order in place; 0 when the customer has no row for the branch yet. */
+    @Modifying
+    @Query("update CustomerBranchStats s set s.orderCount = s.orderCount + 1, "
+            + "s.totalSpent = s.totalSpent + :amount where s.customerId = :customerId and s.branchId = :branchId")
+    int addOrder(@Param("customerId") Long customerId,
+                 @Param("branchId") Long branchId,
+                 @Param("amount") double amount);
+
+    @Query("select s.orderCount from CustomerBranchStats s "
+            + "where s.customerId = :customerId and s.branchId = :branchId")
+    Long findOrderCount(@Param("customerId") Long customerId, @Param("branchId") Long branchId);
+
+    @Modifying
+    @Query("delete from CustomerBranchStats s")
+    int deleteAllRows();
+}
@@ -1,11 +1,24 @@
 package com.molla.repository;
 
 import com.molla.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     List<Customer> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
-    
+
+    /** Every customer through a cursor; close the stream, inside a transaction. */
+    @Query("SELECT c FROM Customer c ORDER BY c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Customer> streamAll();
 }
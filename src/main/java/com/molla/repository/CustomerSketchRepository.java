@@ -0,0 +1,39 @@
+package com.molla.repository;
+
+import com.molla.model.CustomerSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerSketchRepository extends JpaRepository<CustomerSketch, Long> {
+
+    /** The row a flush merges into, locked until the flush commits. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CustomerSketch s where s.branchId = :branchId and s.hourStart = :hourStart")
+    Optional<CustomerSketch> findForUpdate(@Param("branchId") Long branchId,
+                                           @Param("hourStart") LocalDateTime hourStart);
+
+    @Query("select s from CustomerSketch s where s.branchId = :branchId "
+            + "and s.hourStart >= :start and s.hourStart < :end")
+    List<CustomerSketch> findByBranch(@Param("branchId") Long branchId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    @Query("select s from CustomerSketch s where s.branchId in "
+            + "(select b.id from Branch b where b.store.id = :storeId) "
+            + "and s.hourStart >= :start and s.hourStart < :end")
+    List<CustomerSketch> findByStore(@Param("storeId") Long storeId,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("delete from CustomerSketch s where s.hourStart >= :start and s.hourStart < :end")
+    int deleteBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,49 @@
+package com.molla.repository;
+
+import com.molla.model.CustomerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface CustomerStatsRepository extends JpaRepository<CustomerStats, Long> {
+
+    Optional<CustomerStats> findByCustomerId(Long customerId);
+
+    /** Adds one order in place; 0 when the customer has no row yet. */
+    @Modifying
+    @Query("update CustomerStats s set s.orderCount = s.orderCount + 1, s.totalSpent = s.totalSpent + :amount, "
+            + "s.firstOrderAt = case when s.firstOrderAt is null or s.firstOrderAt > :at then :at "
+            + "else s.firstOrderAt end, "
+            + "s.lastOrderAt = case when s.lastOrderAt is null or s.lastOrderAt < :at then :at "
+            + "else s.lastOrderAt end, "
+            + "s.updatedAt = :now where s.customerId = :customerId")
+    int addOrder(@Param("customerId") Long customerId,
+                 @Param("amount") double amount,
+                 @Param("at") LocalDateTime at,
+                 @Param("now") LocalDateTime now);
+
+    /** Adds one refund in place; 0 when the customer has no row yet. */
+    @Modifying
+    @Query("update CustomerStats s set s.refundCount = s.refundCount + 1, "
+            + "s.refundAmount = s.refundAmount + :amount, s.updatedAt = :now where s.customerId = :customerId")
+    int addRefund(@Param("customerId") Long customerId,
+                  @Param("amount") double amount,
+                  @Param("now") LocalDateTime now);
+
+    /** Makes the branch the favourite if it now has more orders than the current one (or is it). */
+    @Modifying
+    @Query("update CustomerStats s set s.favouriteBranchId = :branchId, s.favouriteBranchOrders = :orders "
+            + "where s.customerId = :customerId and (s.favouriteBranchId is null "
+            + "or s.favouriteBranchId = :branchId or s.favouriteBranchOrders < :orders)")
+    int offerFavourite(@Param("customerId") Long customerId,
+                       @Param("branchId") Long branchId,
+                       @Param("orders") long orders);
+
+    @Modifying
+    @Query("delete from CustomerStats s")
+    int deleteAllRows();
+}
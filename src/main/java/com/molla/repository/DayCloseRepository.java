@@ -0,0 +1,33 @@
+package com.molla.repository;
+
+import com.molla.model.DayClose;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DayCloseRepository extends JpaRepository<DayClose, Long> {
+
+    @Query("select d from DayClose d where d.businessDate = :day and d.branchId is not null")
+    List<DayClose> findBranchRows(@Param("day") LocalDate day);
+
+    Optional<DayClose> findByBranchIdAndBusinessDate(Long branchId, LocalDate businessDate);
+
+    @Query("select d from DayClose d where d.storeId = :storeId and d.businessDate = :day and d.branchId is null")
+    Optional<DayClose> findStoreRow(@Param("storeId") Long storeId, @Param("day") LocalDate day);
+
+    /** The store row and its branch rows, with their payment lines. */
+    @EntityGraph(attributePaths = "payments")
+    @Query("select d from DayClose d where d.storeId = :storeId and d.businessDate = :day "
+            + "order by d.branchId nulls first")
+    List<DayClose> findByStore(@Param("storeId") Long storeId, @Param("day") LocalDate day);
+
+    /** Days since a date with a branch still PENDING or FAILED: runs to resume. */
+    @Query("select distinct d.businessDate from DayClose d where d.businessDate >= :since "
+            + "and d.status <> com.molla.domain.DayCloseStatus.CLOSED order by d.businessDate")
+    List<LocalDate> findUnfinishedDays(@Param("since") LocalDate since);
+}
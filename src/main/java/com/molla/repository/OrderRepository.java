@@ -1,23 +1,106 @@
 package com.molla.repository;
 
+import com.molla.domain.OrderStatus;
+import com.molla.domain.PaymentType;
 import com.molla.model.Order;
 import com.molla.model.User;
+import com.molla.payload.dto.BranchOrderCountDto;
+import com.molla.payload.dto.BranchProductSalesDto;
+import com.molla.payload.dto.CustomerBranchTotalsDto;
+import com.molla.payload.dto.OrderBasketDto;
+import com.molla.payload.dto.OrderSummaryDto;
+import com.molla.payload.dto.PaymentTypeTotalsDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByCustomerId(Long customerId);
-    List<Order> findByBranchId(Long branchId);
-    List<Order> findByCashierId(Long cashierId);
-    List<Order> findByBranchIdAndCreatedAtBetween(Long branchId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Summary rows for list endpoints: one query, no branch/cashier/customer/items entities loaded
+    String SUMMARY_SELECT = "select new com.molla.payload.dto.OrderSummaryDto("
+            + "o.id, o.totalAmount, o.status, o.paymentType, o.createdAt, "
+            + "b.id, ca.id, ca.fullName, cu.id, cu.name, size(o.orderItems)) "
+            + "from Order o left join o.branch b left join o.cashier ca left join o.customer cu ";
+
+    @Override
+    @EntityGraph("Order.detail")
+    Optional<Order> findById(Long id);
+
+    @EntityGraph("Order.detail")
     List<Order> findByCashierAndCreatedAtBetween(User cashier, LocalDateTime startDate, LocalDateTime endDate);
 
-    List<Order> findTop5ByBranchIdOrderByCreatedAtDesc(Long branchId);
+    @Query(SUMMARY_SELECT + "where b.id = :branchId "
+            + "and (:customerId is null or cu.id = :customerId) "
+            + "and (:cashierId is null or ca.id = :cashierId) "
+            + "and (:paymentType is null or o.paymentType = :paymentType) "
+            + "and (:status is null or o.status = :status) "
+            + "order by o.createdAt desc")
+    List<OrderSummaryDto> findSummariesByBranch(@Param("branchId") Long branchId,
+                                                @Param("customerId") Long customerId,
+                                                @Param("cashierId") Long cashierId,
+                                                @Param("paymentType") PaymentType paymentType,
+                                                @Param("status") OrderStatus status);
+
+    @Query(SUMMARY_SELECT + "where ca.id = :cashierId order by o.createdAt desc")
+    List<OrderSummaryDto> findSummariesByCashierId(@Param("cashierId") Long cashierId);
+
+    @Query(SUMMARY_SELECT + "where cu.id = :customerId order by o.createdAt desc")
+    List<OrderSummaryDto> findSummariesByCustomerId(@Param("customerId") Long customerId);
+
+    @Query(SUMMARY_SELECT + "where b.id = :branchId and o.createdAt between :start and :end order by o.createdAt desc")
+    List<OrderSummaryDto> findSummariesByBranchIdAndCreatedAtBetween(@Param("branchId") Long branchId,
+                                                                     @Param("start") LocalDateTime start,
+                                                                     @Param("end") LocalDateTime end);
+
+    // Newest orders of a branch; the pageable only limits the rows (List result, so no count query)
+    @Query(SUMMARY_SELECT + "where b.id = :branchId order by o.createdAt desc")
+    List<OrderSummaryDto> findRecentSummariesByBranchId(@Param("branchId") Long branchId, Pageable limit);
+
+    // Pagination + sorting for orders list by branch (sort properties are Order fields, e.g. createdAt)
+    @Query(value = SUMMARY_SELECT + "where b.id = :branchId",
+            countQuery = "select count(o) from Order o where o.branch.id = :branchId")
+    Page<OrderSummaryDto> findSummariesByBranchId(@Param("branchId") Long branchId, Pageable pageable);
+
+    /** Per branch, product and payment type (sales rollup). */
+    @Query("select new com.molla.payload.dto.BranchProductSalesDto(o.branch.id, i.product.id, o.paymentType, "
+            + "coalesce(sum(i.quantity), 0L), coalesce(sum(i.totalPrice), 0.0D)) "
+            + "from OrderItem i join i.order o where o.createdAt >= :start and o.createdAt < :end "
+            + "group by o.branch.id, i.product.id, o.paymentType")
+    List<BranchProductSalesDto> sumItemsByBranchProductAndPaymentType(@Param("start") LocalDateTime start,
+                                                                      @Param("end") LocalDateTime end);
+
+    /** Per branch and payment type (sales rollup). */
+    @Query("select new com.molla.payload.dto.BranchOrderCountDto(o.branch.id, o.paymentType, count(o)) "
+            + "from Order o where o.createdAt >= :start and o.createdAt < :end group by o.branch.id, o.paymentType")
+    List<BranchOrderCountDto> countByBranchAndPaymentType(@Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end);
+
+    /** One row per order (customer sketches). */
+    @Query("select new com.molla.payload.dto.OrderBasketDto(o.branch.id, o.createdAt, o.customer.id, "
+            + "coalesce(o.totalAmount, 0.0D), coalesce(sum(i.quantity), 0L)) "
+            + "from Order o left join o.orderItems i where o.createdAt >= :start and o.createdAt < :end "
+            + "and o.branch is not null group by o.id, o.branch.id, o.createdAt, o.customer.id, o.totalAmount")
+    List<OrderBasketDto> findBaskets(@Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+
+    /** Per payment type for one branch: orders and their total (day close). */
+    @Query("select new com.molla.payload.dto.PaymentTypeTotalsDto(o.paymentType, count(o), "
+            + "coalesce(sum(o.totalAmount), 0.0D)) from Order o where o.branch.id = :branchId "
+            + "and o.createdAt >= :start and o.createdAt < :end group by o.paymentType")
+    List<PaymentTypeTotalsDto> sumTotalsByPaymentType(@Param("branchId") Long branchId,
+                                                      @Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
 
-    // Pagination + sorting for orders list by branch
-    Page<Order> findByBranchId(Long branchId, Pageable pageable);
+    /** Per customer and branch (customer stats rebuild). */
+    @Query("select new com.molla.payload.dto.CustomerBranchTotalsDto(o.customer.id, o.branch.id, count(o), "
+            + "coalesce(sum(o.totalAmount), 0.0D), min(o.createdAt), max(o.createdAt)) "
+            + "from Order o where o.customer is not null group by o.customer.id, o.branch.id")
+    List<CustomerBranchTotalsDto> sumByCustomerAndBranch();
 }
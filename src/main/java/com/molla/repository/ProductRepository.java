@@ -1,20 +1,37 @@
 package com.molla.repository;
 
 import com.molla.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    @EntityGraph("Product.detail")
     List<Product> findByStoreId(Long storeId);
     
     Optional<Product> findBySku(String sku);
     
-    // findAll() is already inherited from JpaRepository
+    @Override
+    @EntityGraph("Product.detail")
+    List<Product> findAll();
+
+    /** Every product through a cursor; close the stream, inside a transaction. */
+    @EntityGraph("Product.detail")
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Product> streamAll();
 
     @Query("""
         SELECT p FROM Product p
@@ -2,19 +2,58 @@ package com.molla.repository;
 
 import com.molla.model.Refund;
 import com.molla.model.User;
+import com.molla.payload.dto.BranchRefundTotalsDto;
+import com.molla.payload.dto.CustomerRefundTotalsDto;
+import com.molla.payload.dto.PaymentTypeTotalsDto;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface RefundRepository extends JpaRepository<Refund, Long> {
-    
+
+    @Override
+    @EntityGraph("Refund.detail")
+    List<Refund> findAll();
+
+    @Override
+    @EntityGraph("Refund.detail")
+    Optional<Refund> findById(Long id);
+
+    @EntityGraph("Refund.detail")
     List<Refund> findByCashierAndCreatedAtBetween(User cashier, LocalDateTime startDate, LocalDateTime endDate);
     
+    @EntityGraph("Refund.detail")
     List<Refund> findByCashierId(Long cashierId);
     
+    @EntityGraph("Refund.detail")
     List<Refund> findByShiftReportId(Long shiftReportId);
     
+    @EntityGraph("Refund.detail")
     List<Refund> findByBranchId(Long branchId);
-}
 
+    /** Per branch and payment type (sales rollup). */
+    @Query("select new com.molla.payload.dto.BranchRefundTotalsDto(r.branch.id, r.paymentType, "
+            + "coalesce(sum(r.amount), 0.0D), count(r)) from Refund r "
+            + "where r.createdAt >= :start and r.createdAt < :end group by r.branch.id, r.paymentType")
+    List<BranchRefundTotalsDto> sumByBranchAndPaymentType(@Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end);
+
+    /** Per payment type for one branch: refunds and their amount (day close). */
+    @Query("select new com.molla.payload.dto.PaymentTypeTotalsDto(r.paymentType, count(r), "
+            + "coalesce(sum(r.amount), 0.0D)) from Refund r where r.branch.id = :branchId "
+            + "and r.createdAt >= :start and r.createdAt < :end group by r.paymentType")
+    List<PaymentTypeTotalsDto> sumByPaymentType(@Param("branchId") Long branchId,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
+
+    /** Per customer of the refunded order (customer stats rebuild). */
+    @Query("select new com.molla.payload.dto.CustomerRefundTotalsDto(o.customer.id, count(r), "
+            + "coalesce(sum(r.amount), 0.0D)) from Refund r join r.order o "
+            + "where o.customer is not null group by o.customer.id")
+    List<CustomerRefundTotalsDto> sumByCustomer();
+}
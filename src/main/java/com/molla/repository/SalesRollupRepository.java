@@ -0,0 +1,58 @@
+package com.molla.repository;
+
+import com.molla.model.SalesRollup;
+import com.molla.payload.dto.SalesRollupRowDto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    // Product rows carry no counts and order rows no sales, so each sum is coalesced to zero
+    String TOTALS = "coalesce(sum(r.quantity), 0L), coalesce(sum(r.salesAmount), 0.0D), "
+            + "coalesce(sum(r.orderCount), 0L), coalesce(sum(r.refundAmount), 0.0D), coalesce(sum(r.refundCount), 0L)) "
+            + "from SalesRollup r where r.branchId = :branchId and r.salesDate between :from and :to ";
+
+    @Query("select new com.molla.payload.dto.SalesRollupRowDto(r.salesDate, " + TOTALS
+            + "group by r.salesDate order by r.salesDate")
+    List<SalesRollupRowDto> sumByDay(@Param("branchId") Long branchId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Query("select new com.molla.payload.dto.SalesRollupRowDto(r.paymentType, " + TOTALS
+            + "group by r.paymentType order by sum(r.salesAmount) desc")
+    List<SalesRollupRowDto> sumByPaymentType(@Param("branchId") Long branchId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    @Query("select new com.molla.payload.dto.SalesRollupRowDto(r.productId, coalesce(sum(r.quantity), 0L), "
+            + "coalesce(sum(r.salesAmount), 0.0D)) "
+            + "from SalesRollup r where r.branchId = :branchId and r.salesDate between :from and :to "
+            + "and r.productId is not null group by r.productId order by sum(r.salesAmount) desc")
+    List<SalesRollupRowDto> sumByProduct(@Param("branchId") Long branchId,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         Pageable pageable);
+
+    /**
+     * Units sold per day, branch (with its store) and product since a day, largest
+     * first: the input TopProductsTracker rebuilds its sketches from.
+     */
+    @Query("select r.salesDate, r.branchId, b.store.id, r.productId, sum(r.quantity) "
+            + "from SalesRollup r, Branch b where b.id = r.branchId and r.salesDate >= :from "
+            + "and r.productId is not null "
+            + "group by r.salesDate, r.branchId, b.store.id, r.productId order by sum(r.quantity) desc")
+    List<Object[]> sumQuantityByDayBranchAndProduct(@Param("from") LocalDate from);
+
+    @Query("select distinct r.salesDate from SalesRollup r where r.compacted = false and r.salesDate < :before")
+    List<LocalDate> findUncompactedDaysBefore(@Param("before") LocalDate before);
+
+    @Modifying
+    @Query("delete from SalesRollup r where r.salesDate = :day")
+    int deleteBySalesDate(@Param("day") LocalDate day);
+}
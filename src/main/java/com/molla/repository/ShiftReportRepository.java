@@ -2,20 +2,50 @@ package com.molla.repository;
 
 import com.molla.model.ShiftReport;
 import com.molla.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ShiftReportRepository extends JpaRepository<ShiftReport, Long> {
-    
+
+    @Override
+    @EntityGraph("ShiftReport.detail")
+    List<ShiftReport> findAll();
+
+    /**
+     * Every shift report through a cursor; close the stream, inside a transaction.
+     * Only to-one associations are joined: a fetched collection would repeat rows,
+     * so refunds and the other lists load per chunk (see EntityStreams).
+     */
+    @EntityGraph(attributePaths = { "cashier", "branch" })
+    @Query("SELECT s FROM ShiftReport s ORDER BY s.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ShiftReport> streamAll();
+
+    @Override
+    @EntityGraph("ShiftReport.detail")
+    Optional<ShiftReport> findById(Long id);
+
+    @EntityGraph("ShiftReport.detail")
     List<ShiftReport> findByCashierId(Long cashierId);
     
+    @EntityGraph("ShiftReport.detail")
     List<ShiftReport> findByBranchId(Long branchId);
     
     Optional<ShiftReport> findTopByCashierAndShiftEndIsNullOrderByShiftStartDesc(User cashier);
     
+    List<ShiftReport> findByBranchIdAndShiftEndIsNullAndShiftStartBefore(Long branchId, LocalDateTime before);
+    
     Optional<ShiftReport> findByCashierAndShiftStartBetween(User cashier, LocalDateTime start, LocalDateTime end);
 }
-
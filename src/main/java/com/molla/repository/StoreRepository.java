@@ -1,8 +1,22 @@
 package com.molla.repository;
 
 import com.molla.model.Store;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
 
 public interface StoreRepository extends JpaRepository<Store ,Long> {
     Store findByStoreAdminId(Long adminId);
+
+    /** Every store through a cursor; close the stream, inside a transaction. */
+    @Query("SELECT s FROM Store s LEFT JOIN FETCH s.storeAdmin ORDER BY s.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Store> streamAll();
 }
@@ -3,18 +3,36 @@ package com.molla.repository;
 import com.molla.domain.UserRole;
 import com.molla.model.Store;
 import com.molla.model.User;
+import com.molla.payload.dto.UserDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Employee rows for list endpoints: users columns only (store/branch ids are the foreign keys), no password
+    String EMPLOYEE_SELECT = "select new com.molla.payload.dto.UserDto("
+            + "u.id, u.fullName, u.email, u.phone, u.role, u.branch.id, u.store.id, "
+            + "u.createdAt, u.updatedAt, u.lastLoginAt) from User u ";
+
     User findByEmail(String email);
-    List<User> findByStore(Store store);
     List<User> findByStoreAndRoleIn(Store store, List<UserRole> roles);
-    
-    @Query("SELECT u FROM User u WHERE u.branch.id = :branchId")
-    List<User> findByBranchId(@Param("branchId") Long branchId);
+
+    // Employees of a store or branch with one of the roles, filtered and paged in SQL
+    @Query(value = EMPLOYEE_SELECT + "where u.store.id = :storeId and u.role in :roles",
+            countQuery = "select count(u) from User u where u.store.id = :storeId and u.role in :roles")
+    Page<UserDto> findEmployeesByStoreId(@Param("storeId") Long storeId,
+                                         @Param("roles") Collection<UserRole> roles,
+                                         Pageable pageable);
+
+    @Query(value = EMPLOYEE_SELECT + "where u.branch.id = :branchId and u.role in :roles",
+            countQuery = "select count(u) from User u where u.branch.id = :branchId and u.role in :roles")
+    Page<UserDto> findEmployeesByBranchId(@Param("branchId") Long branchId,
+                                          @Param("roles") Collection<UserRole> roles,
+                                          Pageable pageable);
 }
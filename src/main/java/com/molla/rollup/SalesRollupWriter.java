@@ -0,0 +1,189 @@
+package com.molla.rollup;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.event.RefundIssuedEvent;
+import com.molla.model.SalesRollup;
+import com.molla.payload.dto.BranchOrderCountDto;
+import com.molla.payload.dto.BranchProductSalesDto;
+import com.molla.payload.dto.BranchRefundTotalsDto;
+import com.molla.repository.OrderRepository;
+import com.molla.repository.RefundRepository;
+import com.molla.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Keeps sales_rollup up to date. Every committed order or refund appends its
+ * delta rows (one per product plus an order-level row) in a transaction of its
+ * own; a failure there is logged and never fails the checkout, the nightly
+ * compaction repairs the day. Compaction recomputes each finished day that has
+ * deltas, plus the last pos.reports.rollup.recompute-days days (catching order
+ * edits and deletes), from the orders and refunds, and replaces the day's rows
+ * with one compacted row per key. Days already moved to the order archive are
+ * never recomputed. Recomputes run one at a time: two of the same day would
+ * each delete the rows they can see and both insert theirs.
+ */
+@Component
+public class SalesRollupWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupWriter.class);
+
+    private final SalesRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final RefundRepository refundRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate newTransaction;
+
+    @Value("${pos.reports.rollup.recompute-days:2}")
+    private int recomputeDays = 2;
+
+    public SalesRollupWriter(SalesRollupRepository rollupRepository, OrderRepository orderRepository,
+                             RefundRepository refundRepository, OrderArchiveRepository orderArchiveRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.orderRepository = orderRepository;
+        this.refundRepository = refundRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.branchId() == null || event.createdAt() == null) {
+            return;
+        }
+        LocalDate day = event.createdAt().toLocalDate();
+        List<SalesRollup> deltas = new ArrayList<>();
+        deltas.add(SalesRollup.builder()
+                .branchId(event.branchId())
+                .salesDate(day)
+                .paymentType(event.paymentType())
+                .orderCount(1L)
+                .build());
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            deltas.add(SalesRollup.builder()
+                    .branchId(event.branchId())
+                    .salesDate(day)
+                    .productId(line.productId())
+                    .paymentType(event.paymentType())
+                    .quantity((long) line.quantity())
+                    .salesAmount(line.amount())
+                    .build());
+        }
+        append(deltas, "order " + event.orderId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRefundIssued(RefundIssuedEvent event) {
+        if (event.branchId() == null || event.createdAt() == null) {
+            return;
+        }
+        append(List.of(SalesRollup.builder()
+                .branchId(event.branchId())
+                .salesDate(event.createdAt().toLocalDate())
+                .paymentType(event.paymentType())
+                .refundAmount(event.amount() != null ? event.amount() : 0.0)
+                .refundCount(1L)
+                .build()), "refund " + event.refundId());
+    }
+
+    private void append(List<SalesRollup> deltas, String source) {
+        try {
+            newTransaction.executeWithoutResult(status -> rollupRepository.saveAll(deltas));
+        } catch (RuntimeException e) {
+            logger.warn("Sales rollup not updated for {}, the nightly compaction will catch up: {}", source,
+                    e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${pos.reports.rollup.compaction-cron:0 15 2 * * *}")
+    public void compactNightly() {
+        compact(LocalDate.now());
+    }
+
+    /** Recomputes the finished days before {@code today} that need it; returns them. */
+    public List<LocalDate> compact(LocalDate today) {
+        TreeSet<LocalDate> days = new TreeSet<>(rollupRepository.findUncompactedDaysBefore(today));
+        for (int i = 1; i <= recomputeDays; i++) {
+            days.add(today.minusDays(i));
+        }
+        List<LocalDate> recomputed = new ArrayList<>();
+        for (LocalDate day : days) {
+            if (isArchived(day)) {
+                logger.warn("Sales rollup of {} not recomputed: its orders are archived", day);
+                continue;
+            }
+            recompute(day);
+            recomputed.add(day);
+        }
+        return recomputed;
+    }
+
+    public boolean isArchived(LocalDate day) {
+        return orderArchiveRepository.getArchivedUntil()
+                .map(until -> day.atStartOfDay().isBefore(until))
+                .orElse(false);
+    }
+
+    /** Replaces the rows of {@code day} with sums over its orders and refunds. */
+    public synchronized void recompute(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+        newTransaction.executeWithoutResult(status -> {
+            Map<Key, SalesRollup> rows = new HashMap<>();
+            for (BranchProductSalesDto sales : orderRepository.sumItemsByBranchProductAndPaymentType(start, end)) {
+                SalesRollup rollup = row(rows, day, sales.branchId(), sales.productId(), sales.paymentType());
+                rollup.setQuantity(sales.quantity());
+                rollup.setSalesAmount(sales.salesAmount());
+            }
+            for (BranchOrderCountDto orders : orderRepository.countByBranchAndPaymentType(start, end)) {
+                row(rows, day, orders.branchId(), null, orders.paymentType()).setOrderCount(orders.orders());
+            }
+            for (BranchRefundTotalsDto refunds : refundRepository.sumByBranchAndPaymentType(start, end)) {
+                SalesRollup rollup = row(rows, day, refunds.branchId(), null, refunds.paymentType());
+                rollup.setRefundAmount(refunds.amount());
+                rollup.setRefundCount(refunds.refunds());
+            }
+            rollupRepository.deleteBySalesDate(day);
+            rollupRepository.saveAll(compacted(rows.values()));
+        });
+    }
+
+    private record Key(Long branchId, Long productId, PaymentType paymentType) {
+    }
+
+    private static SalesRollup row(Map<Key, SalesRollup> rows, LocalDate day, Long branchId, Long productId,
+                                   PaymentType paymentType) {
+        return rows.computeIfAbsent(new Key(branchId, productId, paymentType), key -> SalesRollup.builder()
+                .branchId(branchId)
+                .salesDate(day)
+                .productId(productId)
+                .paymentType(paymentType)
+                .compacted(true)
+                .build());
+    }
+
+    private static List<SalesRollup> compacted(Collection<SalesRollup> rows) {
+        return rows.stream().filter(row -> Objects.nonNull(row.getBranchId())).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.molla.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Looks for customers entered more than once: at pos.customers.duplicates-cron
+ * the search index is grouped by shared phone number or email and the groups
+ * are kept as merge proposals, the oldest customer (lowest id) first. Nothing
+ * is merged here; orders keep pointing at whichever customer they were placed
+ * for until someone acts on a proposal.
+ */
+@Component
+public class CustomerDuplicateDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerDuplicateDetector.class);
+
+    public record Proposals(LocalDateTime detectedAt, List<CustomerSearchIndex.DuplicateGroup> groups) {
+    }
+
+    private final CustomerSearchIndex customerSearchIndex;
+    private final boolean enabled;
+
+    private volatile Proposals latest;
+
+    public CustomerDuplicateDetector(CustomerSearchIndex customerSearchIndex,
+                                     @Value("${pos.customers.duplicates.enabled:true}") boolean enabled) {
+        this.customerSearchIndex = customerSearchIndex;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(cron = "${pos.customers.duplicates.cron:0 50 2 * * *}")
+    public void detectNightly() {
+        if (enabled) {
+            detect();
+        }
+    }
+
+    public Proposals detect() {
+        Proposals found = new Proposals(LocalDateTime.now(), customerSearchIndex.duplicateGroups());
+        latest = found;
+        logger.info("Customer duplicate detection: {} groups", found.groups().size());
+        return found;
+    }
+
+    /** The last proposals, detecting them now if there are none yet. */
+    public Proposals proposals() {
+        Proposals current = latest;
+        return current != null ? current : detect();
+    }
+}
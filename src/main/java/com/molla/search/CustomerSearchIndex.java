@@ -0,0 +1,433 @@
+package com.molla.search;
+
+import com.molla.model.Customer;
+import com.molla.repository.CustomerRepository;
+import com.molla.util.EntityStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory customer lookup by phone, email or name, replacing the two
+ * leading-wildcard LIKE scans of
+ * {@link CustomerRepository#findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase}
+ * (which could not search phones at all). Phones are keyed by their digits,
+ * so "+1 (555) 010-2030" and "15550102030" are the same key, both forwards and
+ * reversed, so the first or the last digits typed at the counter find the
+ * customer; emails are lowercased; names are split into accent-folded
+ * lowercase tokens. All keys sit in sorted maps for prefix lookup. The index
+ * is loaded from the database on first use and then kept in sync by
+ * CustomerServiceImpl on create/update/delete.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    /** Shortest digit query treated as a phone lookup. */
+    static final int MIN_PHONE_QUERY = 3;
+
+    /** Phones shorter than this are too ambiguous to flag duplicates. */
+    static final int MIN_DUPLICATE_PHONE = 7;
+
+    private final CustomerRepository customerRepository;
+    private final EntityStreams entityStreams;
+    private final TransactionTemplate readOnly;
+
+    private final Object loadLock = new Object();
+    private volatile Index index;
+
+    public CustomerSearchIndex(CustomerRepository customerRepository, EntityStreams entityStreams,
+                               PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.entityStreams = entityStreams;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Customers matching the query, best first, at most limit: exact phone or
+     * email, then phone or email prefix, then names with a token starting with
+     * every query word, then phone suffix.
+     */
+    public List<Customer> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return index().search(query.trim(), limit);
+    }
+
+    public Optional<Customer> get(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(index().get(id));
+    }
+
+    /**
+     * Groups of customers sharing a phone number (of at least
+     * {@value #MIN_DUPLICATE_PHONE} digits) or an email, with what they share.
+     */
+    public List<DuplicateGroup> duplicateGroups() {
+        return index().duplicateGroups();
+    }
+
+    public record DuplicateGroup(List<Long> ids, List<String> reasons) {
+    }
+
+    /**
+     * Adds or replaces a customer. Before the first lookup there is nothing to
+     * update; the load reads the customer from the database.
+     */
+    public void put(Customer customer) {
+        if (customer == null || customer.getId() == null) {
+            return;
+        }
+        Index current = loaded();
+        if (current != null) {
+            current.put(customer);
+        }
+    }
+
+    public void remove(Long id) {
+        Index current = id != null ? loaded() : null;
+        if (current != null) {
+            current.remove(id);
+        }
+    }
+
+    /** Drops the index; the next lookup reloads it from the database. */
+    public void invalidate() {
+        synchronized (loadLock) {
+            index = null;
+        }
+    }
+
+    /** The index if loaded, waiting for a load in progress (whose read may predate the change). */
+    private Index loaded() {
+        Index current = index;
+        if (current == null) {
+            synchronized (loadLock) {
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    Index index() {
+        Index current = index;
+        if (current == null) {
+            synchronized (loadLock) {
+                current = index;
+                if (current == null) {
+                    current = load();
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Index load() {
+        Index fresh = new Index();
+        readOnly.executeWithoutResult(status ->
+                entityStreams.forEach(customerRepository.streamAll(), CustomerSearchIndex::copy, fresh::put));
+        logger.info("Built customer search index ({} customers)", fresh.size());
+        return fresh;
+    }
+
+    /** A detached copy, so the index never holds on to a persistence context. */
+    private static Customer copy(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone(),
+                customer.getCreatedAt(), customer.getUpdatedAt());
+    }
+
+    static String digits(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    static String email(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Lowercase words without accents: "José  O'Neil" -> [jose, o, neil]. */
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(folded.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static boolean isPhoneQuery(String query, String digits) {
+        if (digits.length() < MIN_PHONE_QUERY) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!(c >= '0' && c <= '9') && " +-().".indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Doc(Customer customer, String digits, String email, List<String> tokens) {
+
+        static Doc of(Customer customer) {
+            return new Doc(customer, CustomerSearchIndex.digits(customer.getPhone()),
+                    CustomerSearchIndex.email(customer.getEmail()),
+                    CustomerSearchIndex.tokens(customer.getName()).stream().distinct().toList());
+        }
+    }
+
+    private record Hit(Doc doc, int rank) {
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::rank)
+            .thenComparing(hit -> String.join(" ", hit.doc().tokens()))
+            .thenComparing(hit -> hit.doc().customer().getId());
+
+    static final class Index {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final TreeMap<String, Set<Long>> phones = new TreeMap<>();
+        private final TreeMap<String, Set<Long>> reversedPhones = new TreeMap<>();
+        private final TreeMap<String, Set<Long>> emails = new TreeMap<>();
+        private final TreeMap<String, Set<Long>> tokens = new TreeMap<>();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return docs.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(Customer customer) {
+            Doc doc = Doc.of(customer);
+            lock.writeLock().lock();
+            try {
+                unindex(customer.getId());
+                docs.put(customer.getId(), doc);
+                if (!doc.digits().isEmpty()) {
+                    add(phones, doc.digits(), customer.getId());
+                    add(reversedPhones, reverse(doc.digits()), customer.getId());
+                }
+                if (!doc.email().isEmpty()) {
+                    add(emails, doc.email(), customer.getId());
+                }
+                for (String token : doc.tokens()) {
+                    add(tokens, token, customer.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                unindex(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void unindex(Long id) {
+            Doc previous = docs.remove(id);
+            if (previous == null) {
+                return;
+            }
+            if (!previous.digits().isEmpty()) {
+                drop(phones, previous.digits(), id);
+                drop(reversedPhones, reverse(previous.digits()), id);
+            }
+            if (!previous.email().isEmpty()) {
+                drop(emails, previous.email(), id);
+            }
+            for (String token : previous.tokens()) {
+                drop(tokens, token, id);
+            }
+        }
+
+        private static void add(Map<String, Set<Long>> keys, String key, Long id) {
+            keys.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+
+        private static void drop(Map<String, Set<Long>> keys, String key, Long id) {
+            Set<Long> ids = keys.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                keys.remove(key);
+            }
+        }
+
+        private static String reverse(String text) {
+            return new StringBuilder(text).reverse().toString();
+        }
+
+        private static Collection<Set<Long>> withPrefix(NavigableMap<String, Set<Long>> keys, String prefix) {
+            return keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        }
+
+        Customer get(Long id) {
+            lock.readLock().lock();
+            try {
+                Doc doc = docs.get(id);
+                return doc != null ? doc.customer() : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Customer> search(String query, int limit) {
+            lock.readLock().lock();
+            try {
+                Map<Long, Integer> ranks = new HashMap<>();
+                String digits = digits(query);
+                if (isPhoneQuery(query, digits)) {
+                    for (Set<Long> ids : withPrefix(phones, digits)) {
+                        ids.forEach(id -> ranks.merge(id, docs.get(id).digits().equals(digits) ? 0 : 1, Math::min));
+                    }
+                    for (Set<Long> ids : withPrefix(reversedPhones, reverse(digits))) {
+                        ids.forEach(id -> ranks.merge(id, 3, Math::min));
+                    }
+                } else {
+                    String email = email(query);
+                    for (Set<Long> ids : withPrefix(emails, email)) {
+                        ids.forEach(id -> ranks.merge(id, docs.get(id).email().equals(email) ? 0 : 1, Math::min));
+                    }
+                    if (query.indexOf('@') < 0) {
+                        nameMatches(tokens(query)).forEach(id -> ranks.merge(id, 2, Math::min));
+                    }
+                }
+                List<Hit> hits = new ArrayList<>(ranks.size());
+                ranks.forEach((id, rank) -> hits.add(new Hit(docs.get(id), rank)));
+                hits.sort(RANKING);
+                return hits.stream().limit(limit).map(hit -> hit.doc().customer()).toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /** Customers with, for every query word, a name token starting with it. */
+        private Set<Long> nameMatches(List<String> words) {
+            Set<Long> matches = null;
+            for (String word : words) {
+                Set<Long> ids = new HashSet<>();
+                withPrefix(tokens, word).forEach(ids::addAll);
+                if (matches == null) {
+                    matches = ids;
+                } else {
+                    matches.retainAll(ids);
+                }
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+            return matches != null ? matches : Set.of();
+        }
+
+        List<DuplicateGroup> duplicateGroups() {
+            lock.readLock().lock();
+            try {
+                // Union-find over customers linked by a shared phone or email
+                Map<Long, Long> parent = new HashMap<>();
+                Map<Long, List<String>> reasons = new HashMap<>();
+                phones.forEach((phone, ids) -> {
+                    if (phone.length() >= MIN_DUPLICATE_PHONE && ids.size() > 1) {
+                        link(parent, reasons, ids, "phone " + phone);
+                    }
+                });
+                emails.forEach((email, ids) -> {
+                    if (ids.size() > 1) {
+                        link(parent, reasons, ids, "email " + email);
+                    }
+                });
+                Map<Long, List<Long>> groups = new TreeMap<>();
+                for (Long id : parent.keySet()) {
+                    groups.computeIfAbsent(root(parent, id), root -> new ArrayList<>()).add(id);
+                }
+                List<DuplicateGroup> result = new ArrayList<>(groups.size());
+                groups.forEach((root, ids) -> {
+                    ids.sort(Comparator.naturalOrder());
+                    result.add(new DuplicateGroup(ids, reasons.get(root)));
+                });
+                result.sort(Comparator.comparing(group -> group.ids().get(0)));
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static void link(Map<Long, Long> parent, Map<Long, List<String>> reasons, Set<Long> ids,
+                                 String reason) {
+            Long first = null;
+            for (Long id : ids) {
+                parent.putIfAbsent(id, id);
+                if (first == null) {
+                    first = root(parent, id);
+                    continue;
+                }
+                Long a = root(parent, first);
+                Long b = root(parent, id);
+                if (!a.equals(b)) {
+                    // The smaller id stays root, so reasons collect on it
+                    Long root = Math.min(a, b);
+                    Long child = Math.max(a, b);
+                    parent.put(child, root);
+                    List<String> moved = reasons.remove(child);
+                    if (moved != null) {
+                        reasons.computeIfAbsent(root, r -> new ArrayList<>()).addAll(moved);
+                    }
+                }
+            }
+            reasons.computeIfAbsent(root(parent, first), r -> new ArrayList<>()).add(reason);
+        }
+
+        private static Long root(Map<Long, Long> parent, Long id) {
+            Long root = id;
+            while (!parent.get(root).equals(root)) {
+                root = parent.get(root);
+            }
+            // Path compression
+            while (!parent.get(id).equals(root)) {
+                Long next = parent.get(id);
+                parent.put(id, root);
+                id = next;
+            }
+            return root;
+        }
+    }
+}
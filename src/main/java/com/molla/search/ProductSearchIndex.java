@@ -0,0 +1,379 @@
+package com.molla.search;
+
+import com.molla.mapper.ProductMapper;
+import com.molla.payload.dto.ProductDto;
+import com.molla.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over each store's catalog (name, brand and sku), plus an
+ * exact sku table for barcode scans. Replaces the leading-wildcard LIKE scan in
+ * {@link ProductRepository#searchByKeyword} and the findBySku round trip for till
+ * lookups. A store is loaded from the database on first use and then kept in sync
+ * by ProductServiceImp on create/update/delete.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, CompletableFuture<StoreIndex>> stores = new ConcurrentHashMap<>();
+    // Per store, bumped by every put/remove/invalidate, so a load that raced one is not kept
+    private final Map<Long, AtomicLong> writes = new ConcurrentHashMap<>();
+
+    /**
+     * Case-insensitive substring match on name, brand or sku, ranked: exact sku,
+     * exact name, name prefix, word prefix, name substring, brand, sku substring.
+     */
+    public List<ProductDto> search(Long storeId, String keyword) {
+        if (storeId == null || keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        return storeIndex(storeId).search(normalize(keyword.trim()));
+    }
+
+    /**
+     * Exact (case-sensitive) sku lookup used by barcode scans.
+     */
+    public Optional<ProductDto> findBySku(Long storeId, String sku) {
+        if (storeId == null || sku == null || sku.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(storeIndex(storeId).findBySku(sku));
+    }
+
+    public Optional<ProductDto> get(Long storeId, Long productId) {
+        if (storeId == null || productId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(storeIndex(storeId).get(productId));
+    }
+
+    /**
+     * Every product of the store, straight from memory (catalog snapshots).
+     */
+    public List<ProductDto> all(Long storeId) {
+        if (storeId == null) {
+            return List.of();
+        }
+        return storeIndex(storeId).all();
+    }
+
+    /**
+     * Adds or replaces a product. Stores that have not been loaded yet are skipped;
+     * they pick the product up from the database on first search.
+     */
+    public void put(ProductDto product) {
+        if (product == null || product.getId() == null || product.getStoreId() == null) {
+            return;
+        }
+        writesOf(product.getStoreId()).incrementAndGet();
+        StoreIndex index = loaded(product.getStoreId());
+        if (index != null) {
+            index.put(product);
+        }
+    }
+
+    public void remove(Long storeId, Long productId) {
+        if (storeId == null || productId == null) {
+            return;
+        }
+        writesOf(storeId).incrementAndGet();
+        StoreIndex index = loaded(storeId);
+        if (index != null) {
+            index.remove(productId);
+        }
+    }
+
+    /**
+     * Drops a store so it is rebuilt on next use (e.g. after a category rename,
+     * which changes the CategoryDto embedded in every product of the store).
+     */
+    public void invalidate(Long storeId) {
+        if (storeId != null) {
+            writesOf(storeId).incrementAndGet();
+            stores.remove(storeId);
+        }
+    }
+
+    /**
+     * The store's index, loaded on first use. The first caller maps the store to a
+     * future and loads it outside the map, so a slow catalog query does not hold
+     * the map's bin lock (and every other store hashed to it); concurrent first
+     * uses wait for that one load. A put or remove during the load finds no index
+     * to update, so when the store was written meanwhile the loaded index serves
+     * the waiting calls only and the next use loads again.
+     */
+    StoreIndex storeIndex(Long storeId) {
+        CompletableFuture<StoreIndex> future = stores.get(storeId);
+        if (future == null) {
+            CompletableFuture<StoreIndex> created = new CompletableFuture<>();
+            future = stores.computeIfAbsent(storeId, id -> created);
+            if (future == created) {
+                load(storeId, created);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /** The store's index if it is loaded, without loading it. */
+    private StoreIndex loaded(Long storeId) {
+        CompletableFuture<StoreIndex> future = stores.get(storeId);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private AtomicLong writesOf(Long storeId) {
+        return writes.computeIfAbsent(storeId, id -> new AtomicLong());
+    }
+
+    private void load(Long storeId, CompletableFuture<StoreIndex> future) {
+        AtomicLong storeWrites = writesOf(storeId);
+        long seen = storeWrites.get();
+        try {
+            future.complete(load(storeId));
+        } catch (RuntimeException e) {
+            stores.remove(storeId, future);
+            future.completeExceptionally(e);
+            return;
+        }
+        // Checked after completing: a write counted later than this sees the index and updates it
+        if (storeWrites.get() != seen) {
+            stores.remove(storeId, future);
+        }
+    }
+
+    private StoreIndex load(Long storeId) {
+        StoreIndex index = new StoreIndex();
+        productRepository.findByStoreId(storeId).stream()
+                .map(ProductMapper::toDto)
+                .forEach(index::put);
+        logger.info("Built product search index for store {} ({} products)", storeId, index.size());
+        return index;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Packs a trigram into a long (three UTF-16 chars, 16 bits each) so postings
+     * are keyed without allocating substrings.
+     */
+    static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private record Doc(ProductDto product, String name, String brand, String sku) {
+
+        static Doc of(ProductDto product) {
+            return new Doc(product, normalize(product.getName()), normalize(product.getBrand()),
+                    normalize(product.getSku()));
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || brand.contains(query) || sku.contains(query);
+        }
+
+        int rank(String query) {
+            if (sku.equals(query)) return 0;
+            if (name.equals(query)) return 1;
+            if (name.startsWith(query)) return 2;
+            if (name.contains(" " + query)) return 3;
+            if (name.contains(query)) return 4;
+            if (brand.startsWith(query)) return 5;
+            if (brand.contains(query)) return 6;
+            return 7;
+        }
+
+        Set<Long> grams() {
+            Set<Long> grams = new HashSet<>();
+            addGrams(name, grams);
+            addGrams(brand, grams);
+            addGrams(sku, grams);
+            return grams;
+        }
+
+        private static void addGrams(String text, Set<Long> grams) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(gram(text, i));
+            }
+        }
+    }
+
+    private record Hit(Doc doc, int rank) {
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::rank)
+            .thenComparingInt(hit -> hit.doc().name().length())
+            .thenComparing(hit -> hit.doc().product().getId());
+
+    static final class StoreIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final Map<Long, Set<Long>> postings = new HashMap<>();
+        private final SkuTable skus = new SkuTable();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return docs.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(ProductDto product) {
+            Doc doc = Doc.of(product);
+            lock.writeLock().lock();
+            try {
+                unindex(product.getId());
+                docs.put(product.getId(), doc);
+                skus.put(product.getSku(), product.getId());
+                for (Long gram : doc.grams()) {
+                    postings.computeIfAbsent(gram, g -> new HashSet<>()).add(product.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                unindex(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void unindex(Long productId) {
+            Doc previous = docs.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            String sku = previous.product().getSku();
+            if (skus.get(sku) == productId) {
+                skus.remove(sku);
+            }
+            for (Long gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+
+        ProductDto get(Long productId) {
+            lock.readLock().lock();
+            try {
+                Doc doc = docs.get(productId);
+                return doc != null ? doc.product() : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<ProductDto> all() {
+            lock.readLock().lock();
+            try {
+                List<ProductDto> products = new ArrayList<>(docs.size());
+                for (Doc doc : docs.values()) {
+                    products.add(doc.product());
+                }
+                products.sort(Comparator.comparing(ProductDto::getId));
+                return products;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        ProductDto findBySku(String sku) {
+            lock.readLock().lock();
+            try {
+                long id = skus.get(sku);
+                if (id == SkuTable.MISSING) {
+                    return null;
+                }
+                Doc doc = docs.get(id);
+                return doc != null ? doc.product() : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<ProductDto> search(String query) {
+            lock.readLock().lock();
+            try {
+                List<Hit> hits = new ArrayList<>();
+                for (Doc doc : candidates(query)) {
+                    if (doc.matches(query)) {
+                        hits.add(new Hit(doc, doc.rank(query)));
+                    }
+                }
+                hits.sort(RANKING);
+                List<ProductDto> result = new ArrayList<>(hits.size());
+                for (Hit hit : hits) {
+                    result.add(hit.doc().product());
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Every match contains every trigram of the query, so the shortest posting
+         * list is a superset of the result; candidates are verified by substring.
+         * Queries shorter than a trigram fall back to scanning the store.
+         */
+        private Collection<Doc> candidates(String query) {
+            if (query.length() < GRAM) {
+                return docs.values();
+            }
+            Set<Long> smallest = null;
+            for (int i = 0; i + GRAM <= query.length(); i++) {
+                Set<Long> ids = postings.get(gram(query, i));
+                if (ids == null) {
+                    return List.of();
+                }
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+            List<Doc> candidates = new ArrayList<>(smallest.size());
+            for (Long id : smallest) {
+                candidates.add(docs.get(id));
+            }
+            return candidates;
+        }
+    }
+}
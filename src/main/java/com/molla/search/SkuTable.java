@@ -0,0 +1,118 @@
+package com.molla.search;
+
+/**
+ * Open-addressing SKU → product id map with linear probing. Keys are the sku
+ * strings already held by the indexed ProductDto and ids are stored in a
+ * primitive array, so a lookup allocates nothing and touches two arrays.
+ * Not thread-safe; ProductSearchIndex guards it with the store lock.
+ */
+final class SkuTable {
+
+    static final long MISSING = -1L;
+
+    private static final String TOMBSTONE = new String("");
+
+    private String[] keys;
+    private long[] ids;
+    private int size;
+    private int used;
+
+    SkuTable() {
+        this(16);
+    }
+
+    SkuTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+        keys = new String[capacity];
+        ids = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(String sku) {
+        if (sku == null) {
+            return MISSING;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(sku, mask); ; slot = (slot + 1) & mask) {
+            String key = keys[slot];
+            if (key == null) {
+                return MISSING;
+            }
+            if (key != TOMBSTONE && key.equals(sku)) {
+                return ids[slot];
+            }
+        }
+    }
+
+    void put(String sku, long id) {
+        if (sku == null) {
+            return;
+        }
+        if ((used + 1) * 2 > keys.length) {
+            rehash(size * 4 > keys.length ? keys.length * 2 : keys.length);
+        }
+        int mask = keys.length - 1;
+        int free = -1;
+        for (int slot = slot(sku, mask); ; slot = (slot + 1) & mask) {
+            String key = keys[slot];
+            if (key == null) {
+                if (free < 0) {
+                    free = slot;
+                    used++;
+                }
+                keys[free] = sku;
+                ids[free] = id;
+                size++;
+                return;
+            }
+            if (key == TOMBSTONE) {
+                if (free < 0) {
+                    free = slot;
+                }
+            } else if (key.equals(sku)) {
+                ids[slot] = id;
+                return;
+            }
+        }
+    }
+
+    void remove(String sku) {
+        if (sku == null) {
+            return;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(sku, mask); ; slot = (slot + 1) & mask) {
+            String key = keys[slot];
+            if (key == null) {
+                return;
+            }
+            if (key != TOMBSTONE && key.equals(sku)) {
+                keys[slot] = TOMBSTONE;
+                size--;
+                return;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        long[] oldIds = ids;
+        keys = new String[capacity];
+        ids = new long[capacity];
+        size = 0;
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null && oldKeys[i] != TOMBSTONE) {
+                put(oldKeys[i], oldIds[i]);
+            }
+        }
+    }
+
+    private static int slot(String sku, int mask) {
+        int h = sku.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
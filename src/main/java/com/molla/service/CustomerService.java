@@ -1,7 +1,10 @@
 package com.molla.service;
 
 import com.molla.model.Customer;
+import com.molla.payload.dto.CustomerDuplicateDto;
+import com.molla.payload.dto.CustomerStatsDto;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface CustomerService {
@@ -10,8 +13,16 @@ public interface CustomerService {
     Customer updateCustomer(Customer customer,Long id) throws Exception;
     void deleteCustomer(Long id) throws Exception;
     Customer getCustomerById(Long id) throws Exception; 
-    List<Customer> getAllCustomers() throws Exception;
+    /** Hands every customer to the action, one at a time, from a database cursor. */
+    void streamAllCustomers(Consumer<? super Customer> action) throws Exception;
+    /** Customers by the first or last digits of their phone, or by email or name prefixes, best first. */
     List<Customer>  searchCustomers(String keyword) throws Exception;
+    /** Latest proposals of customers to merge because they share a phone or email. */
+    List<CustomerDuplicateDto> findDuplicates();
+    /** Lifetime spend, visits, refunds and favourite branch, from one customer_stats row. */
+    CustomerStatsDto getCustomerStats(Long id) throws Exception;
+    /** Recomputes every customer's stats from the orders and refunds; returns how many customers were written. */
+    int rebuildCustomerStats();
 
     
 }
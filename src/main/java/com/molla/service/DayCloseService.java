@@ -0,0 +1,22 @@
+package com.molla.service;
+
+import com.molla.payload.dto.DayCloseDto;
+import com.molla.payload.dto.DayCloseRunDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DayCloseService {
+
+    /**
+     * The day close of a store (first, branchId null) and of each of its branches.
+     * Store staff only see their own store.
+     */
+    List<DayCloseDto> getDayClose(Long storeId, LocalDate date) throws Exception;
+
+    /**
+     * Runs the end-of-day close of a finished day now (admins only). Branches
+     * already closed are skipped, so this also retries the failed ones.
+     */
+    DayCloseRunDto runDayClose(LocalDate date) throws Exception;
+}
@@ -3,6 +3,7 @@ package com.molla.service;
 import com.molla.domain.UserRole;
 import com.molla.exceptions.UserException;
 import com.molla.payload.dto.UserDto;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 
@@ -14,4 +15,7 @@ public interface EmployeeService {
     void deleteEmployee(Long employeeId) throws UserException;
     List<UserDto> findStoreEmployees(Long storeId,UserRole role) throws UserException;
     List<UserDto> findBranchEmployees(Long branchId,UserRole role) throws UserException;
+    /** One page of a store's employees (optionally of one role), filtered and paged in the database. */
+    Page<UserDto> findStoreEmployeesPaged(Long storeId, UserRole role, int page, int size) throws UserException;
+    Page<UserDto> findBranchEmployeesPaged(Long branchId, UserRole role, int page, int size) throws UserException;
 }
@@ -0,0 +1,23 @@
+package com.molla.service;
+
+import com.molla.export.ExportDataset;
+import com.molla.export.ExportFormat;
+import com.molla.export.OrderExporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface ExportService {
+
+    /**
+     * Checks that the current user may export the branch (or store) and turns the
+     * dates into a filter. Runs on the request thread, before the body is streamed.
+     * Without a branch or store, store staff get their store, branch staff their branch.
+     */
+    OrderExporter.Filter prepareExport(Long storeId, Long branchId, LocalDate from, LocalDate to) throws Exception;
+
+    /** Streams the rows to out, gzipped when asked; returns the number of rows. */
+    long export(ExportDataset dataset, OrderExporter.Filter filter, ExportFormat format, boolean gzip,
+                OutputStream out) throws IOException;
+}
@@ -3,8 +3,10 @@ package com.molla.service;
 import com.molla.domain.OrderStatus;
 import com.molla.domain.PaymentType;
 import com.molla.payload.dto.OrderDto;
+import com.molla.payload.dto.OrderSummaryDto;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderService {
@@ -12,14 +14,20 @@ public interface OrderService {
     OrderDto updateOrder(Long id, OrderDto orderDto) throws Exception;
     void deleteOrder(Long id) throws Exception;
     OrderDto getOrderById(Long id) throws Exception;
-    List<OrderDto> getOrdersByBranch(Long branchId, Long customerId, Long cashierId, PaymentType paymentType, OrderStatus orderStatus) throws Exception;
-    List<OrderDto> getOrdersByCashier(Long cashierId) throws Exception;
-    List<OrderDto> getTodayOrderbyBranch(Long branchId) throws Exception;
-    List<OrderDto> getOrderByCustomerId(Long customerId) throws Exception;
-    List<OrderDto> getTop5RecentOrdersByBranchId(Long branchId) throws Exception;
+    List<OrderSummaryDto> getOrdersByBranch(Long branchId, Long customerId, Long cashierId, PaymentType paymentType, OrderStatus orderStatus) throws Exception;
+    List<OrderSummaryDto> getOrdersByCashier(Long cashierId) throws Exception;
+    List<OrderSummaryDto> getTodayOrderbyBranch(Long branchId) throws Exception;
 
     /**
-     * Paginated + sorted orders listing for a branch.
+     * Orders of a branch created between from and to, newest first, including archived
+     * orders when the range reaches back past the archive horizon.
      */
-    Page<OrderDto> getOrdersByBranchPaged(Long branchId, int page, int size, String sortBy, String direction) throws Exception;
+    List<OrderSummaryDto> getOrdersByBranchAndDateRange(Long branchId, LocalDateTime from, LocalDateTime to) throws Exception;
+    List<OrderSummaryDto> getOrderByCustomerId(Long customerId) throws Exception;
+    List<OrderSummaryDto> getTop5RecentOrdersByBranchId(Long branchId) throws Exception;
+
+    /**
+     * Paginated + sorted orders listing for a branch (summary rows; use getOrderById for details).
+     */
+    Page<OrderSummaryDto> getOrdersByBranchPaged(Long branchId, int page, int size, String sortBy, String direction) throws Exception;
 }
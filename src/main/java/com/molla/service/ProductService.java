@@ -1,9 +1,11 @@
 package com.molla.service;
 
 import com.molla.model.User;
+import com.molla.payload.dto.CatalogSyncDto;
 import com.molla.payload.dto.ProductDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
@@ -12,7 +14,10 @@ public interface ProductService {
     void deleteProduct(Long id,User user);
     List<ProductDto>getProductsById(Long storeId) ;
     List<ProductDto>searchByKeyword(Long storeId,String keyword) ;
+    ProductDto scanBySku(Long storeId, String sku) ;
+    CatalogSyncDto syncCatalog(Long storeId, Long sinceVersion) ;
     List<ProductDto>getAllProducts(Long storeId) ;
-    List<ProductDto>getAllProductsWithoutStoreFilter() ; // For testing - get all products
+    /** Hands every product of every store to the action, one at a time, from a database cursor. */
+    void streamAllProducts(Consumer<? super ProductDto> action) ;
 
 }
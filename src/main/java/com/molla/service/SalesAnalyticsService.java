@@ -0,0 +1,23 @@
+package com.molla.service;
+
+import com.molla.analytics.OrderLineStore;
+import com.molla.domain.PaymentType;
+import com.molla.payload.dto.AnalyticsReportDto;
+
+import java.time.LocalDate;
+
+public interface SalesAnalyticsService {
+
+    /**
+     * Sales grouped by one dimension across the branches of a store (any store for
+     * super admins), filtered by branch, cashier, category, payment type and dates.
+     */
+    AnalyticsReportDto query(Long storeId, Long branchId, Long cashierId, Long categoryId, PaymentType paymentType,
+                             LocalDate from, LocalDate to, OrderLineStore.Dimension groupBy, int limit) throws Exception;
+
+    /**
+     * Starts reloading the order line store from the database in the background;
+     * false if a reload started that way is still running.
+     */
+    boolean reload() throws Exception;
+}
@@ -0,0 +1,46 @@
+package com.molla.service;
+
+import com.molla.payload.dto.CustomerReportDto;
+import com.molla.payload.dto.SalesReportDto;
+import com.molla.payload.dto.TopProductsDto;
+import com.molla.topk.TopProductsTracker;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesReportService {
+
+    /**
+     * Sales of a branch from the rollup table, whatever the raw order volume.
+     * productLimit caps the best-seller list. Store staff only see their own store.
+     */
+    SalesReportDto getSalesReport(Long branchId, LocalDate from, LocalDate to, int productLimit) throws Exception;
+
+    /**
+     * Recomputes the rollup of each finished day in the range from the orders and
+     * refunds (after bulk corrections or edits to older orders). Returns the
+     * rebuilt days.
+     */
+    List<LocalDate> rebuildSalesRollup(LocalDate from, LocalDate to) throws Exception;
+
+    /**
+     * Best sellers of one branch, or of one store across its branches, for today or
+     * this week, from the in-memory sketches (no database scan). Store staff only
+     * see their own store.
+     */
+    TopProductsDto getTopProducts(Long storeId, Long branchId, TopProductsTracker.Period period, int limit)
+            throws Exception;
+
+    /**
+     * Distinct customers, average, median and p90 basket size and value of one
+     * branch, or of one store across its branches, per day and in total, merged
+     * from the hourly sketches. Store staff only see their own store.
+     */
+    CustomerReportDto getCustomerReport(Long storeId, Long branchId, LocalDate from, LocalDate to) throws Exception;
+
+    /**
+     * Recomputes the customer sketches of each finished day in the range from its
+     * orders. Returns the rebuilt days.
+     */
+    List<LocalDate> rebuildCustomerSketches(LocalDate from, LocalDate to) throws Exception;
+}
@@ -3,8 +3,10 @@ package com.molla.service;
 import com.molla.exceptions.UserException;
 import com.molla.payload.dto.ShiftReportDto;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ShiftReportService {
     
@@ -12,9 +14,17 @@ public interface ShiftReportService {
     
     ShiftReportDto endShift(Long shiftReportId, LocalDateTime shiftEnd) throws Exception;
     
+    /**
+     * Ends the shifts of a branch still open that started before openedBefore, each
+     * maxShift after its start, with its totals; returns how many were closed.
+     * Needs no logged-in user (the end-of-day close calls it).
+     */
+    int closeDanglingShifts(Long branchId, LocalDateTime openedBefore, Duration maxShift);
+    
     ShiftReportDto getShiftReportById(Long id) throws Exception;
     
-    List<ShiftReportDto> getAllShiftReports() throws Exception;
+    /** Hands every shift report to the action, one at a time, from a database cursor. */
+    void streamAllShiftReports(Consumer<? super ShiftReportDto> action) throws Exception;
     
     List<ShiftReportDto> getShiftReportsByBranchId(Long branchId) throws Exception;
     
@@ -5,6 +5,7 @@ import com.molla.model.User;
 import com.molla.payload.dto.StoreDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StoreService {
 
@@ -14,6 +15,9 @@ public interface StoreService {
 
    List<StoreDto> getAllStores();
 
+   /** Hands every store to the action, one at a time, from a database cursor. */
+   void streamAllStores(Consumer<? super StoreDto> action);
+
    StoreDto getStoreByAdmin(User user);
 
    /** Super admin: all stores; store admin: their store only. */
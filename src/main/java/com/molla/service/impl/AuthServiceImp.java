@@ -10,6 +10,7 @@ import com.molla.repository.UserRepository;
 import com.molla.service.AuthService;
 import com.molla.service.MailService;
 import com.molla.service.impl.CustomUserImplementation;
+import com.molla.util.EmployeeCaches;
 import com.molla.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,7 @@ public class AuthServiceImp implements AuthService {
     private  final PasswordEncoder passwordEncoder;
 
     private final JwtUtil jwtUtil;
+    private final EmployeeCaches employeeCaches;
 
     private  final CustomUserImplementation customUserImplementation;
 
@@ -122,6 +124,7 @@ public class AuthServiceImp implements AuthService {
         foundUser.setLastLoginAt(LocalDateTime.now());
 
         userRepository.save(foundUser);
+        employeeCaches.evict(foundUser); // Employee lists show lastLoginAt
 
         AuthResponse authResponse=new AuthResponse();
         authResponse.setJwt(jwt);
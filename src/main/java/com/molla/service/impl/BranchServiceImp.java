@@ -27,6 +27,7 @@ public class BranchServiceImp implements BranchService {
     private final StoreRepository storeRepository;
     private final UserService userService;
     @Override
+    @CacheEvict(cacheNames = {"branches", "branchesByStore"}, allEntries = true)
     public BranchDto createBranch(BranchDto branchDto, User user) {
         User currentUser=userService.getCurrentUser();
         Store store = storeRepository.findByStoreAdminId(currentUser.getId());
@@ -1,5 +1,6 @@
 package com.molla.service.impl;
 
+import com.molla.catalog.CatalogChangeLog;
 import com.molla.domain.UserRole;
 import com.molla.exceptions.BadRequestException;
 import com.molla.exceptions.NotFoundException;
@@ -10,6 +11,7 @@ import com.molla.model.User;
 import com.molla.payload.dto.CategoryDto;
 import com.molla.repository.CategoryRepository;
 import com.molla.repository.StoreRepository;
+import com.molla.search.ProductSearchIndex;
 import com.molla.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
@@ -24,8 +26,11 @@ import java.util.stream.Collectors;
 public class CategoryServiceImp implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final StoreRepository storeRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogChangeLog catalogChangeLog;
     
     @Override
+    @CacheEvict(cacheNames = "categoriesByStore", allEntries = true)
     public CategoryDto createCategory(CategoryDto categoryDto, User user) {
         Store store = storeRepository.findById(categoryDto.getStoreId())
                 .orElseThrow(() -> new NotFoundException("Store not found with id: " + categoryDto.getStoreId()));
@@ -47,7 +52,7 @@ public class CategoryServiceImp implements CategoryService {
     }
 
     @Override
-    @CacheEvict(cacheNames = "categoriesByStore", allEntries = true)
+    @CacheEvict(cacheNames = { "categoriesByStore", "productsByStore" }, allEntries = true)
     public CategoryDto updateCategory(Long id, CategoryDto categoryDto, User user) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Category not found with id: " + id));
@@ -56,10 +61,14 @@ public class CategoryServiceImp implements CategoryService {
         category.setDescription(categoryDto.getDescription());
         checkAuthority(user, category.getStore()); 
 
-        return CategoryMapper.toDto(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        productSearchIndex.invalidate(category.getStore().getId());
+        catalogChangeLog.reset(category.getStore().getId());
+        return CategoryMapper.toDto(savedCategory);
     }
     
     @Override
+    @CacheEvict(cacheNames = { "categoriesByStore", "productsByStore" }, allEntries = true)
     public CategoryDto moderateCategory(Long id, CategoryDto categoryDto, User user) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Category not found with id: " + id));
@@ -67,16 +76,21 @@ public class CategoryServiceImp implements CategoryService {
         
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
-        return CategoryMapper.toDto(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        productSearchIndex.invalidate(category.getStore().getId());
+        catalogChangeLog.reset(category.getStore().getId());
+        return CategoryMapper.toDto(savedCategory);
     }
     
     @Override
-    @CacheEvict(cacheNames = "categoriesByStore", allEntries = true)
+    @CacheEvict(cacheNames = { "categoriesByStore", "productsByStore" }, allEntries = true)
     public void deleteCategory(Long id, User user) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Category not found with id: " + id));
         checkAuthority(user, category.getStore()); 
         categoryRepository.delete(category);
+        productSearchIndex.invalidate(category.getStore().getId());
+        catalogChangeLog.reset(category.getStore().getId());
     }
 
     private void checkAuthority(User user, Store store) {
@@ -1,18 +1,42 @@
 package com.molla.service.impl;
 
+import com.molla.customerstats.CustomerStatsWriter;
+import com.molla.mapper.CustomerStatsMapper;
 import com.molla.model.Customer;
+import com.molla.model.CustomerStats;
+import com.molla.payload.dto.CustomerDuplicateDto;
+import com.molla.payload.dto.CustomerStatsDto;
+import com.molla.search.CustomerDuplicateDetector;
+import com.molla.search.CustomerSearchIndex;
 import com.molla.service.CustomerService;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import com.molla.repository.CustomerRepository;  
+import com.molla.repository.CustomerStatsRepository;
+import com.molla.util.EntityStreams;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService{
+
+    /** Most customers a search returns. */
+    static final int SEARCH_LIMIT = 50;
+
     private final CustomerRepository customerRepository;
+    private final EntityStreams entityStreams;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerDuplicateDetector customerDuplicateDetector;
+    private final CustomerStatsRepository customerStatsRepository;
+    private final CustomerStatsWriter customerStatsWriter;
 
     @Override
     public Customer createCustomer(Customer customer) {
@@ -20,7 +44,9 @@ public class CustomerServiceImpl implements CustomerService{
         customer.setId(null);
         customer.setCreatedAt(java.time.LocalDateTime.now());
         customer.setUpdatedAt(java.time.LocalDateTime.now());
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        customerSearchIndex.put(saved);
+        return saved;
     }
 
     @Override
@@ -30,13 +56,16 @@ public class CustomerServiceImpl implements CustomerService{
          customerToUpdate.setEmail(customer.getEmail());
          customerToUpdate.setPhone(customer.getPhone());
 
-         return customerRepository.save(customerToUpdate);
+         Customer saved = customerRepository.save(customerToUpdate);
+         customerSearchIndex.put(saved);
+         return saved;
     }
 
     @Override
     public void deleteCustomer(Long id) throws Exception {
         Customer customerToDelete=customerRepository.findById(id).orElseThrow(() -> new RuntimeException("Customer not found"));
         customerRepository.delete(customerToDelete);
+        customerSearchIndex.remove(id);
 
     }
 
@@ -46,12 +75,55 @@ public class CustomerServiceImpl implements CustomerService{
     }
 
     @Override
-    public List<Customer> getAllCustomers() throws Exception {
-        return customerRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllCustomers(Consumer<? super Customer> action) throws Exception {
+        entityStreams.forEach(customerRepository.streamAll(), Function.identity(), action);
     }
 
     @Override
     public List<Customer> searchCustomers(String keyword) throws Exception {
-        return customerRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(keyword, keyword); 
+        return customerSearchIndex.search(keyword, SEARCH_LIMIT);
+    }
+
+    @Override
+    public List<CustomerDuplicateDto> findDuplicates() {
+        CustomerDuplicateDetector.Proposals proposals = customerDuplicateDetector.proposals();
+        return proposals.groups().stream()
+                .map(group -> {
+                    // Customers deleted since detection drop out; a group needs two left
+                    List<Customer> customers = group.ids().stream()
+                            .map(customerSearchIndex::get)
+                            .flatMap(Optional::stream)
+                            .toList();
+                    if (customers.size() < 2) {
+                        return null;
+                    }
+                    return CustomerDuplicateDto.builder()
+                            .keep(customers.get(0))
+                            .duplicates(customers.subList(1, customers.size()))
+                            .reasons(group.reasons())
+                            .detectedAt(proposals.detectedAt())
+                            .build();
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public CustomerStatsDto getCustomerStats(Long id) throws Exception {
+        Optional<CustomerStats> stats = customerStatsRepository.findByCustomerId(id);
+        if (stats.isPresent()) {
+            return CustomerStatsMapper.toDto(stats.get());
+        }
+        // No orders or refunds yet
+        if (!customerRepository.existsById(id)) {
+            throw new RuntimeException("Customer not found");
+        }
+        return CustomerStatsMapper.toDto(CustomerStats.builder().customerId(id).build());
+    }
+
+    @Override
+    public int rebuildCustomerStats() {
+        return customerStatsWriter.rebuild();
     }
 }
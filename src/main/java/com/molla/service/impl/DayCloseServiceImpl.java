@@ -0,0 +1,68 @@
+package com.molla.service.impl;
+
+import com.molla.dayclose.DayCloser;
+import com.molla.domain.UserRole;
+import com.molla.exceptions.BadRequestException;
+import com.molla.mapper.DayCloseMapper;
+import com.molla.model.User;
+import com.molla.payload.dto.DayCloseDto;
+import com.molla.payload.dto.DayCloseRunDto;
+import com.molla.repository.DayCloseRepository;
+import com.molla.service.DayCloseService;
+import com.molla.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class DayCloseServiceImpl implements DayCloseService {
+
+    private final DayCloser dayCloser;
+    private final DayCloseRepository dayCloseRepository;
+    private final UserService userService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DayCloseDto> getDayClose(Long storeId, LocalDate date) throws Exception {
+        User user = userService.getCurrentUser();
+        if (!user.getRole().equals(UserRole.ROLE_ADMIN)
+                && (user.getStore() == null || !user.getStore().getId().equals(storeId))) {
+            throw new BadRequestException("You don't have permission to access this store");
+        }
+        return dayCloseRepository.findByStore(storeId, date).stream()
+                .map(DayCloseMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public DayCloseRunDto runDayClose(LocalDate date) throws Exception {
+        User user = userService.getCurrentUser();
+        if (!user.getRole().equals(UserRole.ROLE_ADMIN)) {
+            throw new BadRequestException("Only admins can run the day close");
+        }
+        if (!date.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Only finished days can be closed");
+        }
+        if (dayCloser.isArchived(date)) {
+            throw new BadRequestException("Orders of " + date + " are archived, the day cannot be closed");
+        }
+        DayCloser.Summary summary;
+        try {
+            summary = dayCloser.close(date);
+        } catch (IllegalStateException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return DayCloseRunDto.builder()
+                .businessDate(summary.day())
+                .branches(summary.branches())
+                .closed(summary.closed())
+                .failed(summary.failed())
+                .alreadyClosed(summary.skipped())
+                .stores(summary.stores())
+                .build();
+    }
+}
@@ -13,21 +13,30 @@ import com.molla.repository.StoreRepository;
 import com.molla.repository.UserRepository;
 import com.molla.service.EmployeeService;
 import com.molla.service.UserService;
+import com.molla.util.EmployeeCaches;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EmployeeServiceImpl implements EmployeeService {
+
+    private static final Sort BY_ID = Sort.by("id");
+
     private final UserRepository userRepository;
     private final StoreRepository storeRepository;
     private final BranchRepository branchRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserService userService;
+    private final EmployeeCaches employeeCaches;
 
     @Override
     public UserDto createStoreEmployee(UserDto employee, Long storeId) throws UserException {
@@ -51,6 +60,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             branch.setManager(savedUser);
             branchRepository.save(branch);
         }
+        employeeCaches.evict(savedUser);
 
         return UserMapper.toDto(savedUser);
     }
@@ -95,6 +105,7 @@ public class EmployeeServiceImpl implements EmployeeService {
                 branch.setManager(savedUser);
                 branchRepository.save(branch);
             }
+            employeeCaches.evict(savedUser);
             return UserMapper.toDto(savedUser);
         }
 
@@ -124,6 +135,9 @@ public class EmployeeServiceImpl implements EmployeeService {
             }
         }
 
+        // The lists the employee leaves, if their branch changes
+        employeeCaches.evict(existingUser);
+
         existingUser.setFullName(employeeDetails.getFullName());
         existingUser.setEmail(employeeDetails.getEmail());
         existingUser.setPhone(employeeDetails.getPhone());
@@ -144,6 +158,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
 
         User savedUser = userRepository.save(existingUser);
+        employeeCaches.evict(savedUser);
         return UserMapper.toDto(savedUser);
     }
 
@@ -152,40 +167,62 @@ public class EmployeeServiceImpl implements EmployeeService {
         User existingUser = userRepository.findById(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
         userRepository.delete(existingUser);
+        employeeCaches.evict(existingUser);
     }
 
     @Override
+    @Cacheable(cacheNames = EmployeeCaches.BY_STORE, key = "T(com.molla.util.EmployeeCaches).key(#storeId, #role)")
     public List<UserDto> findStoreEmployees(Long storeId, UserRole role) throws UserException {
-        Store store = storeRepository.findById(storeId).orElseThrow(() -> new RuntimeException("Store not found"));
-        return userRepository.findByStore(store)
-                .stream()
-                .filter(user -> role == null || user.getRole().equals(role)) //
-                .map(UserMapper::toDto) // .map(user -> UserMapper.toDto(user))
-                .collect(Collectors.toList());
+        return findStoreEmployees(storeId, role, Pageable.unpaged(BY_ID)).getContent();
     }
 
     @Override
+    @Cacheable(cacheNames = EmployeeCaches.BY_BRANCH, key = "T(com.molla.util.EmployeeCaches).key(#branchId, #role)")
     public List<UserDto> findBranchEmployees(Long branchId, UserRole role) throws UserException {
-        branchRepository.findById(branchId)
-                .orElseThrow(() -> new RuntimeException("Branch not found"));
-        List<User> employees = userRepository.findByBranchId(branchId);
-        return employees.stream()
-                .filter(user -> {
-                    if (role == null)
-                        return true;
-                    if (user.getRole().equals(role))
-                        return true;
-
-                    // Alias: If searching for ROLE_CASHIER, also include ROLE_BRANCH_CASHIER
-                    if (role == UserRole.ROLE_CASHIER && user.getRole() == UserRole.ROLE_BRANCH_CASHIER) {
-                        return true;
-                    }
-                    // Alias: If searching for ROLE_BRANCH_MANAGER, also include ROLE_STORE_MANAGER?
-                    // No, distinct roles.
-
-                    return false;
-                })
-                .map(UserMapper::toDto)
-                .collect(Collectors.toList());
+        return findBranchEmployees(branchId, role, Pageable.unpaged(BY_ID)).getContent();
+    }
+
+    @Override
+    public Page<UserDto> findStoreEmployeesPaged(Long storeId, UserRole role, int page, int size)
+            throws UserException {
+        return findStoreEmployees(storeId, role, pageRequest(page, size));
+    }
+
+    @Override
+    public Page<UserDto> findBranchEmployeesPaged(Long branchId, UserRole role, int page, int size)
+            throws UserException {
+        return findBranchEmployees(branchId, role, pageRequest(page, size));
+    }
+
+    private Page<UserDto> findStoreEmployees(Long storeId, UserRole role, Pageable pageable) {
+        if (!storeRepository.existsById(storeId)) {
+            throw new RuntimeException("Store not found");
+        }
+        return userRepository.findEmployeesByStoreId(storeId, roles(role, false), pageable);
+    }
+
+    private Page<UserDto> findBranchEmployees(Long branchId, UserRole role, Pageable pageable) {
+        if (!branchRepository.existsById(branchId)) {
+            throw new RuntimeException("Branch not found");
+        }
+        return userRepository.findEmployeesByBranchId(branchId, roles(role, true), pageable);
+    }
+
+    /**
+     * Roles to match in SQL: all of them when none is asked for. At a branch,
+     * ROLE_CASHIER also matches ROLE_BRANCH_CASHIER.
+     */
+    private static List<UserRole> roles(UserRole role, boolean branch) {
+        if (role == null) {
+            return List.of(UserRole.values());
+        }
+        if (branch && role == UserRole.ROLE_CASHIER) {
+            return List.of(UserRole.ROLE_CASHIER, UserRole.ROLE_BRANCH_CASHIER);
+        }
+        return List.of(role);
+    }
+
+    private static Pageable pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), size <= 0 || size > 100 ? 20 : size, BY_ID);
     }
 }
@@ -0,0 +1,79 @@
+package com.molla.service.impl;
+
+import com.molla.domain.UserRole;
+import com.molla.exceptions.BadRequestException;
+import com.molla.exceptions.NotFoundException;
+import com.molla.export.ExportDataset;
+import com.molla.export.ExportFormat;
+import com.molla.export.OrderExporter;
+import com.molla.model.Branch;
+import com.molla.model.User;
+import com.molla.repository.BranchRepository;
+import com.molla.service.ExportService;
+import com.molla.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    private final OrderExporter orderExporter;
+    private final UserService userService;
+    private final BranchRepository branchRepository;
+
+    @Override
+    public OrderExporter.Filter prepareExport(Long storeId, Long branchId, LocalDate from, LocalDate to)
+            throws Exception {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BadRequestException("from and to are required and from must not be after to");
+        }
+        Long branchStoreId = null;
+        if (branchId != null) {
+            Branch branch = branchRepository.findById(branchId)
+                    .orElseThrow(() -> new NotFoundException("Branch not found"));
+            branchStoreId = branch.getStore() != null ? branch.getStore().getId() : null;
+            if (storeId != null && !storeId.equals(branchStoreId)) {
+                throw new BadRequestException("Branch " + branchId + " does not belong to store " + storeId);
+            }
+        }
+
+        User user = userService.getCurrentUser();
+        UserRole role = user.getRole();
+        if (role == UserRole.ROLE_STORE_ADMIN || role == UserRole.ROLE_STORE_MANAGER) {
+            Long ownStore = user.getStore() != null ? user.getStore().getId() : null;
+            Long requested = branchId != null ? branchStoreId : storeId;
+            if (ownStore == null || (requested != null && !ownStore.equals(requested))) {
+                throw new BadRequestException("You don't have permission to export this store");
+            }
+            storeId = ownStore;
+        } else if (role != UserRole.ROLE_ADMIN) {
+            Long ownBranch = user.getBranch() != null ? user.getBranch().getId() : null;
+            if (ownBranch == null || (branchId != null && !ownBranch.equals(branchId))
+                    || (branchId == null && storeId != null)) {
+                throw new BadRequestException("You don't have permission to export this branch");
+            }
+            branchId = ownBranch;
+        }
+        return new OrderExporter.Filter(storeId, branchId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    @Override
+    public long export(ExportDataset dataset, OrderExporter.Filter filter, ExportFormat format, boolean gzip,
+                       OutputStream out) throws IOException {
+        Objects.requireNonNull(filter, "filter");
+        if (!gzip) {
+            return orderExporter.export(dataset, filter, format, out);
+        }
+        GZIPOutputStream zipped = new GZIPOutputStream(out, 1 << 16);
+        long rows = orderExporter.export(dataset, filter, format, zipped);
+        zipped.finish();
+        return rows;
+    }
+}
@@ -1,7 +1,9 @@
 package com.molla.service.impl;
 
+import com.molla.archive.OrderArchiveRepository;
 import com.molla.domain.OrderStatus;
 import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
 import com.molla.mapper.OrderMapper;
 import com.molla.model.Branch;
 import com.molla.model.Customer;
@@ -10,6 +12,7 @@ import com.molla.model.OrderItem;
 import com.molla.model.Product;
 import com.molla.model.User;
 import com.molla.payload.dto.OrderDto;
+import com.molla.payload.dto.OrderSummaryDto;
 import com.molla.payload.dto.OrderItemDto;
 import com.molla.repository.BranchRepository;
 import com.molla.repository.CustomerRepository;
@@ -18,17 +21,24 @@ import com.molla.repository.ProductRepository;
 import com.molla.repository.UserRepository;
 import com.molla.service.OrderService;
 import com.molla.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,8 +50,13 @@ public class OrderServiceImpl implements OrderService {
     private final CustomerRepository customerRepository;
     private final BranchRepository branchRepository;
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Timed(value = "pos.order.create", description = "Checkout: order creation", histogram = true)
+    @Transactional // OrderPlacedEvent listeners then run after the commit, on their own EntityManager
     public OrderDto createOrder(OrderDto orderDto) throws Exception {
         // Get current user (cashier) - handle case where no authentication
         User cashier = null;
@@ -92,20 +107,20 @@ public class OrderServiceImpl implements OrderService {
             throw new Exception("Order must have at least one item");
         }
 
+        // Load every product of the basket in one query
+        Map<Long, Product> products = productRepository.findAllById(orderDto.getOrderItems().stream()
+                        .map(OrderServiceImpl::productIdOf)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         List<OrderItem> orderItems = orderDto.getOrderItems().stream().map((OrderItemDto itemDto) -> {
-            // Get product - check if productId is provided, otherwise use product.getId()
-            final Long productId;
-            if (itemDto.getProductId() != null) {
-                productId = itemDto.getProductId();
-            } else if (itemDto.getProduct() != null && itemDto.getProduct().getId() != null) {
-                productId = itemDto.getProduct().getId();
-            } else {
-                throw new RuntimeException("Product ID is required for order item");
+            final Long productId = productIdOf(itemDto);
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + productId);
             }
 
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-
             Double itemPrice = itemDto.getPrice();
             if (itemPrice == null) {
                 if (product.getPrice() != null) {
@@ -140,9 +155,25 @@ public class OrderServiceImpl implements OrderService {
 
         // Save order
         Order savedOrder = orderRepository.save(order);
+        meterRegistry.counter("pos.orders",
+                "branch", String.valueOf(branch.getId()),
+                "paymentType", savedOrder.getPaymentType() != null ? savedOrder.getPaymentType().name() : "NONE")
+                .increment();
+        eventPublisher.publishEvent(OrderPlacedEvent.of(savedOrder));
         return OrderMapper.toDto(savedOrder);
     }
 
+    // Get product - check if productId is provided, otherwise use product.getId()
+    private static Long productIdOf(OrderItemDto itemDto) {
+        if (itemDto.getProductId() != null) {
+            return itemDto.getProductId();
+        }
+        if (itemDto.getProduct() != null && itemDto.getProduct().getId() != null) {
+            return itemDto.getProduct().getId();
+        }
+        throw new RuntimeException("Product ID is required for order item");
+    }
+
     @Override
     @CacheEvict(cacheNames = { "orders", "recentOrdersByBranch" }, allEntries = true)
     public OrderDto updateOrder(Long id, OrderDto orderDto) throws Exception {
@@ -173,59 +204,64 @@ public class OrderServiceImpl implements OrderService {
     @Cacheable(cacheNames = "orders", key = "#id")
     public OrderDto getOrderById(Long id) throws Exception {
         Order order = orderRepository.findById(id)
+                .or(() -> orderArchiveRepository.findById(id))
                 .orElseThrow(() -> new Exception("Order not found"));
         return OrderMapper.toDto(order);
     }
 
     @Override
-    public List<OrderDto> getOrdersByBranch(Long branchId, Long customerId, Long cashierId, PaymentType paymentType,
-            OrderStatus orderStatus) throws Exception {
-        return orderRepository.findByBranchId(branchId).stream()
-                .filter(order -> customerId == null
-                        || (order.getCustomer() != null && order.getCustomer().getId().equals(customerId)))
-                .filter(order -> cashierId == null
-                        || (order.getCashier() != null && order.getCashier().getId().equals(cashierId)))
-                .filter(order -> paymentType == null || order.getPaymentType() == paymentType)
-                .filter(order -> orderStatus == null || order.getStatus() == orderStatus)
-                .map(OrderMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getOrdersByBranch(Long branchId, Long customerId, Long cashierId,
+            PaymentType paymentType, OrderStatus orderStatus) throws Exception {
+        return orderRepository.findSummariesByBranch(branchId, customerId, cashierId, paymentType, orderStatus);
     }
 
     @Override
-    public List<OrderDto> getOrdersByCashier(Long cashierId) throws Exception {
-        return orderRepository.findByCashierId(cashierId).stream()
-                .map(OrderMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getOrdersByCashier(Long cashierId) throws Exception {
+        return orderRepository.findSummariesByCashierId(cashierId);
     }
 
     @Override
-    public List<OrderDto> getTodayOrderbyBranch(Long branchId) throws Exception {
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getTodayOrderbyBranch(Long branchId) throws Exception {
         LocalDate today = LocalDate.now();
         LocalDateTime start = today.atStartOfDay();
         LocalDateTime end = today.plusDays(1).atStartOfDay();
 
-        return orderRepository.findByBranchIdAndCreatedAtBetween(branchId, start, end).stream()
-                .map(OrderMapper::toDto)
-                .collect(Collectors.toList());
+        return orderRepository.findSummariesByBranchIdAndCreatedAtBetween(branchId, start, end);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getOrdersByBranchAndDateRange(Long branchId, LocalDateTime from, LocalDateTime to)
+            throws Exception {
+        List<OrderSummaryDto> orders = orderRepository.findSummariesByBranchIdAndCreatedAtBetween(branchId, from, to);
+        if (!orderArchiveRepository.reaches(from)) {
+            return orders;
+        }
+        // Archived orders are all older than the hot ones
+        List<OrderSummaryDto> all = new ArrayList<>(orders);
+        all.addAll(orderArchiveRepository.findSummariesByBranchIdAndCreatedAtBetween(branchId, from, to));
+        return all;
     }
 
     @Override
-    public List<OrderDto> getOrderByCustomerId(Long customerId) throws Exception {
-        return orderRepository.findByCustomerId(customerId).stream()
-                .map(OrderMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getOrderByCustomerId(Long customerId) throws Exception {
+        return orderRepository.findSummariesByCustomerId(customerId);
     }
 
     @Override
     @Cacheable(cacheNames = "recentOrdersByBranch", key = "#branchId")
-    public List<OrderDto> getTop5RecentOrdersByBranchId(Long branchId) throws Exception {
-        return orderRepository.findTop5ByBranchIdOrderByCreatedAtDesc(branchId).stream()
-                .map(OrderMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getTop5RecentOrdersByBranchId(Long branchId) throws Exception {
+        return orderRepository.findRecentSummariesByBranchId(branchId, PageRequest.of(0, 5));
     }
 
     @Override
-    public Page<OrderDto> getOrdersByBranchPaged(Long branchId, int page, int size, String sortBy, String direction)
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryDto> getOrdersByBranchPaged(Long branchId, int page, int size, String sortBy, String direction)
             throws Exception {
         if (page < 0)
             page = 0;
@@ -244,7 +280,6 @@ public class OrderServiceImpl implements OrderService {
 
         PageRequest pageable = PageRequest.of(page, size, sort);
 
-        Page<Order> pageResult = orderRepository.findByBranchId(branchId, pageable);
-        return pageResult.map(OrderMapper::toDto);
+        return orderRepository.findSummariesByBranchId(branchId, pageable);
     }
 }
@@ -1,5 +1,6 @@
 package com.molla.service.impl;
 
+import com.molla.catalog.CatalogChangeLog;
 import com.molla.exceptions.BadRequestException;
 import com.molla.exceptions.NotFoundException;
 import com.molla.model.Category;
@@ -7,17 +8,23 @@ import com.molla.model.Product;
 import com.molla.model.Store;
 import com.molla.model.User;
 import com.molla.mapper.ProductMapper;
+import com.molla.payload.dto.CatalogSyncDto;
 import com.molla.payload.dto.ProductDto;
 import com.molla.repository.CategoryRepository;
 import com.molla.repository.ProductRepository;
 import com.molla.repository.StoreRepository;
+import com.molla.search.ProductSearchIndex;
 import com.molla.service.ProductService;
+import com.molla.util.EntityStreams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,9 +33,12 @@ public class ProductServiceImp implements ProductService {
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogChangeLog catalogChangeLog;
+    private final EntityStreams entityStreams;
 
     @Override
-    @CacheEvict(cacheNames = { "productsByStore", "productsAll" }, allEntries = true)
+    @CacheEvict(cacheNames = { "productsByStore" }, allEntries = true)
     public ProductDto createProduct(ProductDto productDto, User user) {
         Store store = storeRepository.findById(
                 productDto.getStoreId())
@@ -48,7 +58,10 @@ public class ProductServiceImp implements ProductService {
 
         try {
             Product savedProduct = productRepository.save(product);
-            return ProductMapper.toDto(savedProduct);
+            ProductDto savedDto = ProductMapper.toDto(savedProduct);
+            productSearchIndex.put(savedDto);
+            catalogChangeLog.recordChange(savedDto.getStoreId(), savedDto.getId());
+            return savedDto;
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             if (e.getMessage() != null && e.getMessage().contains("Duplicate entry")) {
                 throw new BadRequestException("Product with SKU '" + productDto.getSku() + "' already exists");
@@ -58,10 +71,11 @@ public class ProductServiceImp implements ProductService {
     }
 
     @Override
-    @CacheEvict(cacheNames = { "productsByStore", "productsAll" }, allEntries = true)
+    @CacheEvict(cacheNames = { "productsByStore" }, allEntries = true)
     public ProductDto updateProduct(Long id, ProductDto productDto, User user) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
+        Long previousStoreId = product.getStore() != null ? product.getStore().getId() : null;
 
         product.setName(productDto.getName());
         product.setDescription(productDto.getDescription());
@@ -84,16 +98,28 @@ public class ProductServiceImp implements ProductService {
             product.setStore(store);
         }
         Product savedProduct = productRepository.save(product);
-        return ProductMapper.toDto(savedProduct);
+        ProductDto savedDto = ProductMapper.toDto(savedProduct);
+        if (previousStoreId != null && !previousStoreId.equals(savedDto.getStoreId())) {
+            productSearchIndex.remove(previousStoreId, id);
+            catalogChangeLog.recordDeletion(previousStoreId, id);
+        }
+        productSearchIndex.put(savedDto);
+        if (savedDto.getStoreId() != null) {
+            catalogChangeLog.recordChange(savedDto.getStoreId(), id);
+        }
+        return savedDto;
     }
 
     @Override
-    @CacheEvict(cacheNames = { "productsByStore", "productsAll" }, allEntries = true)
+    @CacheEvict(cacheNames = { "productsByStore" }, allEntries = true)
     public void deleteProduct(Long id, User user) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
         productRepository.delete(product);
-
+        if (product.getStore() != null) {
+            productSearchIndex.remove(product.getStore().getId(), id);
+            catalogChangeLog.recordDeletion(product.getStore().getId(), id);
+        }
     }
 
     @Override
@@ -105,8 +131,45 @@ public class ProductServiceImp implements ProductService {
 
     @Override
     public List<ProductDto> searchByKeyword(Long storeId, String keyword) {
-        List<Product> products = productRepository.searchByKeyword(storeId, keyword);
-        return products.stream().map(ProductMapper::toDto).collect(Collectors.toList());
+        return productSearchIndex.search(storeId, keyword);
+    }
+
+    @Override
+    public ProductDto scanBySku(Long storeId, String sku) {
+        return productSearchIndex.findBySku(storeId, sku)
+                .orElseThrow(() -> new NotFoundException("Product not found with SKU: " + sku));
+    }
+
+    @Override
+    public CatalogSyncDto syncCatalog(Long storeId, Long sinceVersion) {
+        // Index writes happen before the version bump, so anything at or below the
+        // version read here is already visible in the index.
+        if (sinceVersion != null) {
+            CatalogChangeLog.Delta delta = catalogChangeLog.changesSince(storeId, sinceVersion).orElse(null);
+            if (delta != null) {
+                List<ProductDto> changed = new ArrayList<>(delta.changedProductIds().size());
+                List<Long> deleted = new ArrayList<>(delta.deletedProductIds());
+                for (Long productId : delta.changedProductIds()) {
+                    productSearchIndex.get(storeId, productId)
+                            .ifPresentOrElse(changed::add, () -> deleted.add(productId));
+                }
+                return CatalogSyncDto.builder()
+                        .storeId(storeId)
+                        .version(delta.version())
+                        .fullSnapshot(false)
+                        .products(changed)
+                        .deletedProductIds(deleted)
+                        .build();
+            }
+        }
+        long version = catalogChangeLog.currentVersion(storeId);
+        return CatalogSyncDto.builder()
+                .storeId(storeId)
+                .version(version)
+                .fullSnapshot(true)
+                .products(productSearchIndex.all(storeId))
+                .deletedProductIds(List.of())
+                .build();
     }
 
     @Override
@@ -117,9 +180,8 @@ public class ProductServiceImp implements ProductService {
     }
 
     @Override
-    @org.springframework.cache.annotation.Cacheable(cacheNames = "productsAll")
-    public List<ProductDto> getAllProductsWithoutStoreFilter() {
-        List<Product> products = productRepository.findAll();
-        return products.stream().map(ProductMapper::toDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<? super ProductDto> action) {
+        entityStreams.forEach(productRepository.streamAll(), ProductMapper::toDto, action);
     }
 }
@@ -1,5 +1,7 @@
 package com.molla.service.impl;
 
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.event.RefundIssuedEvent;
 import com.molla.mapper.RefundMapper;
 import com.molla.model.Branch;
 import com.molla.model.Order;
@@ -13,10 +15,14 @@ import com.molla.repository.RefundRepository;
 import com.molla.repository.ShiftReportRepository;
 import com.molla.service.RefundService;
 import com.molla.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,8 +35,12 @@ public class RefundServiceImpl implements RefundService {
     private final UserService userService;
     private final BranchRepository branchRepository;
     private final ShiftReportRepository shiftReportRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Timed(value = "pos.refund.create", description = "Refund creation", histogram = true)
+    @Transactional // RefundIssuedEvent listeners then run after the commit, on their own EntityManager
     public RefundDto createRefund(RefundDto refundDto) throws Exception {
         // Get cashier - use cashier from DTO if provided, otherwise use current user
         User cashier;
@@ -97,11 +107,13 @@ public class RefundServiceImpl implements RefundService {
 
         // Save refund
         Refund savedRefund = refundRepository.save(createdRefund);
+        eventPublisher.publishEvent(RefundIssuedEvent.of(savedRefund));
         
         return RefundMapper.toDto(savedRefund);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RefundDto> getAllRefunds() throws Exception {
         return refundRepository.findAll().stream()
             .map(RefundMapper::toDto)
@@ -109,6 +121,7 @@ public class RefundServiceImpl implements RefundService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RefundDto> getRefundByCashier(Long cashierId) throws Exception {
         return refundRepository.findByCashierId(cashierId).stream()
             .map(RefundMapper::toDto)
@@ -116,6 +129,7 @@ public class RefundServiceImpl implements RefundService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RefundDto> getRefundByShiftReport(Long shiftReportId) throws Exception {
         return refundRepository.findByShiftReportId(shiftReportId).stream()
             .map(RefundMapper::toDto)
@@ -123,14 +137,20 @@ public class RefundServiceImpl implements RefundService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RefundDto> getRefundByCashierAndDateRange(Long cashierId, LocalDateTime startDate, LocalDateTime endDate) throws Exception {
         User cashier = userService.getUserById(cashierId);
-        return refundRepository.findByCashierAndCreatedAtBetween(cashier, startDate, endDate).stream()
+        List<Refund> refunds = new ArrayList<>(refundRepository.findByCashierAndCreatedAtBetween(cashier, startDate, endDate));
+        if (orderArchiveRepository.reaches(startDate)) {
+            refunds.addAll(orderArchiveRepository.findRefundsByCashierAndCreatedAtBetween(cashier, startDate, endDate));
+        }
+        return refunds.stream()
             .map(RefundMapper::toDto)
             .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RefundDto> getRefundByBranch(Long branchId) throws Exception {
         return refundRepository.findByBranchId(branchId).stream()
             .map(RefundMapper::toDto)
@@ -0,0 +1,146 @@
+package com.molla.service.impl;
+
+import com.molla.analytics.OrderLineStore;
+import com.molla.analytics.SalesAnalyticsEngine;
+import com.molla.domain.PaymentType;
+import com.molla.domain.UserRole;
+import com.molla.exceptions.BadRequestException;
+import com.molla.model.Branch;
+import com.molla.model.Category;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.payload.dto.AnalyticsReportDto;
+import com.molla.payload.dto.AnalyticsRowDto;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.CategoryRepository;
+import com.molla.repository.ProductRepository;
+import com.molla.repository.StoreRepository;
+import com.molla.repository.UserRepository;
+import com.molla.service.SalesAnalyticsService;
+import com.molla.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private static final int MAX_ROWS = 1000;
+
+    private final SalesAnalyticsEngine salesAnalyticsEngine;
+    private final UserService userService;
+    private final StoreRepository storeRepository;
+    private final BranchRepository branchRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    @Override
+    @Timed(value = "pos.report.analytics", description = "Ad-hoc sales query on the order line store", histogram = true)
+    public AnalyticsReportDto query(Long storeId, Long branchId, Long cashierId, Long categoryId,
+                                    PaymentType paymentType, LocalDate from, LocalDate to,
+                                    OrderLineStore.Dimension groupBy, int limit) throws Exception {
+        User currentUser = userService.getCurrentUser();
+        if (!currentUser.getRole().equals(UserRole.ROLE_ADMIN)) {
+            Long ownStore = currentUser.getStore() != null ? currentUser.getStore().getId() : null;
+            if (ownStore == null || (storeId != null && !storeId.equals(ownStore))) {
+                throw new BadRequestException("You don't have permission to access this store");
+            }
+            storeId = ownStore;
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (groupBy == null) {
+            groupBy = OrderLineStore.Dimension.HOUR;
+        }
+        if (limit <= 0 || limit > MAX_ROWS) {
+            limit = MAX_ROWS;
+        }
+        if (!salesAnalyticsEngine.isEnabled()) {
+            throw new BadRequestException("Sales analytics are disabled on this instance (pos.analytics.enabled)");
+        }
+        if (!salesAnalyticsEngine.isReady()) {
+            throw new BadRequestException("Sales analytics are still loading, try again shortly");
+        }
+
+        long started = System.nanoTime();
+        OrderLineStore.Result result;
+        try {
+            result = salesAnalyticsEngine.query(new OrderLineStore.Query(storeId, branchId, cashierId, categoryId,
+                    paymentType, from, to, groupBy));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        long tookMicros = (System.nanoTime() - started) / 1000;
+
+        List<OrderLineStore.Group> groups = result.groups().stream().limit(limit).toList();
+        Map<Long, String> labels = labels(groupBy, groups.stream()
+                .map(OrderLineStore.Group::key)
+                .filter(key -> key instanceof Long)
+                .map(key -> (Long) key)
+                .collect(Collectors.toSet()));
+        List<AnalyticsRowDto> rows = groups.stream()
+                .map(group -> AnalyticsRowDto.builder()
+                        .key(Objects.toString(group.key(), "NONE"))
+                        .id(group.key() instanceof Long id ? id : null)
+                        .label(group.key() instanceof Long id ? labels.get(id) : null)
+                        .salesAmount(group.salesAmount())
+                        .quantity(group.quantity())
+                        .lines(group.lines())
+                        .build())
+                .toList();
+
+        return AnalyticsReportDto.builder()
+                .storeId(storeId)
+                .groupBy(groupBy.name())
+                .from(from)
+                .to(to)
+                .scannedLines(result.scannedLines())
+                .matchedLines(result.matchedLines())
+                .tookMicros(tookMicros)
+                .rows(rows)
+                .build();
+    }
+
+    private Map<Long, String> labels(OrderLineStore.Dimension groupBy, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return switch (groupBy) {
+            case STORE -> storeRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Store::getId, store -> Objects.toString(store.getBrand(), "")));
+            case BRANCH -> branchRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Branch::getId, branch -> Objects.toString(branch.getName(), "")));
+            case CASHIER -> userRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(User::getId, user -> Objects.toString(user.getFullName(), "")));
+            case CATEGORY -> categoryRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Category::getId, category -> Objects.toString(category.getName(), "")));
+            case PRODUCT -> productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, product -> Objects.toString(product.getName(), "")));
+            default -> Map.of();
+        };
+    }
+
+    @Override
+    public boolean reload() throws Exception {
+        // The copy holds every store's orders and a reload briefly doubles its heap
+        User currentUser = userService.getCurrentUser();
+        if (!currentUser.getRole().equals(UserRole.ROLE_ADMIN)) {
+            throw new BadRequestException("Only admins can reload the sales analytics");
+        }
+        if (!salesAnalyticsEngine.isEnabled()) {
+            throw new BadRequestException("Sales analytics are disabled on this instance (pos.analytics.enabled)");
+        }
+        return salesAnalyticsEngine.reloadInBackground();
+    }
+}
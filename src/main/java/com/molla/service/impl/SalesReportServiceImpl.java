@@ -0,0 +1,262 @@
+package com.molla.service.impl;
+
+import com.molla.domain.UserRole;
+import com.molla.exceptions.BadRequestException;
+import com.molla.exceptions.NotFoundException;
+import com.molla.model.Branch;
+import com.molla.model.Product;
+import com.molla.model.User;
+import com.molla.payload.dto.BasketStatsDto;
+import com.molla.payload.dto.CustomerReportDto;
+import com.molla.payload.dto.SalesReportDto;
+import com.molla.payload.dto.SalesRollupRowDto;
+import com.molla.payload.dto.TopProductDto;
+import com.molla.payload.dto.TopProductsDto;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.ProductRepository;
+import com.molla.repository.SalesRollupRepository;
+import com.molla.rollup.SalesRollupWriter;
+import com.molla.service.SalesReportService;
+import com.molla.service.UserService;
+import com.molla.sketch.BasketStats;
+import com.molla.sketch.CustomerSketchRecorder;
+import com.molla.sketch.TDigest;
+import com.molla.topk.SpaceSaving;
+import com.molla.topk.TopProductsTracker;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SalesReportServiceImpl implements SalesReportService {
+
+    private static final int MAX_PRODUCTS = 100;
+    private static final int MAX_REBUILD_DAYS = 366;
+    private static final int MAX_TOP_PRODUCTS = 50;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final ProductRepository productRepository;
+    private final SalesRollupWriter salesRollupWriter;
+    private final TopProductsTracker topProductsTracker;
+    private final BranchRepository branchRepository;
+    private final UserService userService;
+    private final CustomerSketchRecorder customerSketchRecorder;
+
+    @Override
+    @Timed(value = "pos.report.sales", description = "Sales dashboard from rollups", histogram = true)
+    @Transactional(readOnly = true)
+    public SalesReportDto getSalesReport(Long branchId, LocalDate from, LocalDate to, int productLimit) throws Exception {
+        checkRange(from, to);
+        if (productLimit <= 0 || productLimit > MAX_PRODUCTS) {
+            productLimit = 10;
+        }
+        checkStoreAccess(null, branchId);
+        List<SalesRollupRowDto> days = salesRollupRepository.sumByDay(branchId, from, to);
+        List<SalesRollupRowDto> products = salesRollupRepository.sumByProduct(branchId, from, to,
+                PageRequest.of(0, productLimit));
+        Map<Long, String> names = productRepository.findAllById(products.stream()
+                        .map(SalesRollupRowDto::getProductId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+        products.forEach(row -> row.setProductName(names.get(row.getProductId())));
+
+        return SalesReportDto.builder()
+                .branchId(branchId)
+                .from(from)
+                .to(to)
+                .totals(totals(days))
+                .days(days)
+                .paymentTypes(salesRollupRepository.sumByPaymentType(branchId, from, to))
+                .products(products)
+                .build();
+    }
+
+    private static SalesRollupRowDto totals(List<SalesRollupRowDto> days) {
+        SalesRollupRowDto totals = new SalesRollupRowDto(0L, 0.0, 0L, 0.0, 0L);
+        for (SalesRollupRowDto day : days) {
+            totals.setQuantity(totals.getQuantity() + day.getQuantity());
+            totals.setSalesAmount(totals.getSalesAmount() + day.getSalesAmount());
+            totals.setOrders(totals.getOrders() + day.getOrders());
+            totals.setRefundAmount(totals.getRefundAmount() + day.getRefundAmount());
+            totals.setRefunds(totals.getRefunds() + day.getRefunds());
+        }
+        return totals;
+    }
+
+    @Override
+    public List<LocalDate> rebuildSalesRollup(LocalDate from, LocalDate to) throws Exception {
+        // Every store's rollups are recomputed, so only admins may ask
+        User user = userService.getCurrentUser();
+        if (!user.getRole().equals(UserRole.ROLE_ADMIN)) {
+            throw new BadRequestException("Only admins can rebuild the sales rollups");
+        }
+        checkRange(from, to);
+        if (from.plusDays(MAX_REBUILD_DAYS).isBefore(to)) {
+            throw new BadRequestException("Rebuild at most " + MAX_REBUILD_DAYS + " days at a time");
+        }
+        if (!to.isBefore(LocalDate.now())) {
+            // Today still gets live deltas, which a rebuild in between would lose
+            throw new BadRequestException("Only finished days can be rebuilt");
+        }
+        if (salesRollupWriter.isArchived(from)) {
+            throw new BadRequestException("Orders before " + from + " are archived, their rollup cannot be rebuilt");
+        }
+        List<LocalDate> rebuilt = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            salesRollupWriter.recompute(day);
+            rebuilt.add(day);
+        }
+        return rebuilt;
+    }
+
+    @Override
+    public TopProductsDto getTopProducts(Long storeId, Long branchId, TopProductsTracker.Period period, int limit)
+            throws Exception {
+        if ((storeId == null) == (branchId == null)) {
+            throw new BadRequestException("Either storeId or branchId is required");
+        }
+        if (period == null) {
+            period = TopProductsTracker.Period.TODAY;
+        }
+        if (limit <= 0 || limit > Math.min(MAX_TOP_PRODUCTS, topProductsTracker.capacity())) {
+            limit = 10;
+        }
+        Long ownerStoreId = checkStoreAccess(storeId, branchId);
+
+        TopProductsTracker.Result result = branchId != null
+                ? topProductsTracker.top(TopProductsTracker.Scope.BRANCH, branchId, period, LocalDate.now(), limit)
+                : topProductsTracker.top(TopProductsTracker.Scope.STORE, storeId, period, LocalDate.now(), limit);
+        Map<Long, String> names = productRepository.findAllById(result.products().stream()
+                        .map(SpaceSaving.Entry::productId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+
+        return TopProductsDto.builder()
+                .storeId(ownerStoreId)
+                .branchId(branchId)
+                .period(period.name())
+                .from(result.from())
+                .to(result.to())
+                .totalQuantity(result.totalQuantity())
+                .products(result.products().stream()
+                        .map(entry -> TopProductDto.builder()
+                                .productId(entry.productId())
+                                .productName(names.get(entry.productId()))
+                                .quantity(entry.count())
+                                .maxError(entry.error())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /** The store of the branch (or storeId itself), if the current user may see it. */
+    private Long checkStoreAccess(Long storeId, Long branchId) throws Exception {
+        Long ownerStoreId = storeId;
+        if (branchId != null) {
+            Branch branch = branchRepository.findById(branchId)
+                    .orElseThrow(() -> new NotFoundException("Branch not found"));
+            ownerStoreId = branch.getStore() != null ? branch.getStore().getId() : null;
+        }
+        User user = userService.getCurrentUser();
+        if (!user.getRole().equals(UserRole.ROLE_ADMIN)
+                && (user.getStore() == null || !user.getStore().getId().equals(ownerStoreId))) {
+            throw new BadRequestException("You don't have permission to access this store");
+        }
+        return ownerStoreId;
+    }
+
+    @Override
+    @Timed(value = "pos.report.customers", description = "Customer report from merged sketches", histogram = true)
+    public CustomerReportDto getCustomerReport(Long storeId, Long branchId, LocalDate from, LocalDate to)
+            throws Exception {
+        if ((storeId == null) == (branchId == null)) {
+            throw new BadRequestException("Either storeId or branchId is required");
+        }
+        checkRange(from, to);
+        if (from.plusDays(MAX_REBUILD_DAYS).isBefore(to)) {
+            throw new BadRequestException("Ask for at most " + MAX_REBUILD_DAYS + " days at a time");
+        }
+        Long ownerStoreId = checkStoreAccess(storeId, branchId);
+
+        TreeMap<LocalDate, BasketStats> days = customerSketchRecorder.byDay(storeId, branchId, from, to);
+        BasketStats totals = new BasketStats();
+        List<BasketStatsDto> dayRows = new ArrayList<>();
+        days.forEach((day, stats) -> {
+            totals.merge(stats);
+            dayRows.add(basketStats(day, stats));
+        });
+        return CustomerReportDto.builder()
+                .storeId(ownerStoreId)
+                .branchId(branchId)
+                .from(from)
+                .to(to)
+                .uniqueCustomersError(totals.customers().relativeError())
+                .totals(basketStats(null, totals))
+                .days(dayRows)
+                .build();
+    }
+
+    private static BasketStatsDto basketStats(LocalDate day, BasketStats stats) {
+        long orders = stats.orders();
+        return BasketStatsDto.builder()
+                .date(day)
+                .uniqueCustomers(stats.customers().estimate())
+                .orders(orders)
+                .anonymousOrders(stats.anonymousOrders())
+                .averageBasketSize(orders > 0 ? (double) stats.items() / orders : null)
+                .averageBasketValue(orders > 0 ? stats.amount() / orders : null)
+                .medianBasketSize(quantile(stats.basketSizes(), 0.5))
+                .p90BasketSize(quantile(stats.basketSizes(), 0.9))
+                .medianBasketValue(quantile(stats.basketValues(), 0.5))
+                .p90BasketValue(quantile(stats.basketValues(), 0.9))
+                .build();
+    }
+
+    private static Double quantile(TDigest digest, double q) {
+        double value = digest.quantile(q);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    @Override
+    public List<LocalDate> rebuildCustomerSketches(LocalDate from, LocalDate to) throws Exception {
+        // Every store's sketches are recomputed, so only admins may ask
+        User user = userService.getCurrentUser();
+        if (!user.getRole().equals(UserRole.ROLE_ADMIN)) {
+            throw new BadRequestException("Only admins can rebuild the customer sketches");
+        }
+        checkRange(from, to);
+        if (from.plusDays(MAX_REBUILD_DAYS).isBefore(to)) {
+            throw new BadRequestException("Rebuild at most " + MAX_REBUILD_DAYS + " days at a time");
+        }
+        if (!to.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Only finished days can be rebuilt");
+        }
+        if (customerSketchRecorder.isArchived(from)) {
+            throw new BadRequestException("Orders before " + from + " are archived, their sketches cannot be rebuilt");
+        }
+        List<LocalDate> rebuilt = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            customerSketchRecorder.rebuild(day);
+            rebuilt.add(day);
+        }
+        return rebuilt;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BadRequestException("A date range with from <= to is required");
+        }
+    }
+}
@@ -8,11 +8,16 @@ import com.molla.payload.dto.ShiftReportDto;
 import com.molla.repository.*;
 import com.molla.service.ShiftReportService;
 import com.molla.service.UserService;
+import com.molla.util.EntityStreams;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +29,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
     private final OrderRepository orderRepository;
     private final RefundRepository refundRepository;
     private final BranchRepository branchRepository;
+    private final EntityStreams entityStreams;
 
     @Override
     public ShiftReportDto startShift(Long cashierId, Long branchId, LocalDateTime shiftStart) throws Exception {
@@ -83,6 +89,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
     }
 
     @Override
+    @Timed(value = "pos.shift.end", description = "Close a shift and build its report", histogram = true)
     public ShiftReportDto endShift(Long shiftReportId, LocalDateTime shiftEnd) throws Exception {
         User currentUser = userService.getCurrentUser();
         
@@ -102,11 +109,26 @@ public class ShiftReportServiceImpl implements ShiftReportService {
             shiftEnd = LocalDateTime.now();
         }
 
+        return ShiftReportMapper.toDto(close(shiftReport, currentUser, shiftEnd));
+    }
+
+    @Override
+    public int closeDanglingShifts(Long branchId, LocalDateTime openedBefore, Duration maxShift) {
+        List<ShiftReport> dangling = shiftReportRepository
+            .findByBranchIdAndShiftEndIsNullAndShiftStartBefore(branchId, openedBefore);
+        for (ShiftReport shiftReport : dangling) {
+            close(shiftReport, shiftReport.getCashier(), shiftReport.getShiftStart().plus(maxShift));
+        }
+        return dangling.size();
+    }
+
+    /** Ends the shift at shiftEnd with the totals of the cashier's orders and refunds in it. */
+    private ShiftReport close(ShiftReport shiftReport, User cashier, LocalDateTime shiftEnd) {
         shiftReport.setShiftEnd(shiftEnd);
 
         // Get orders for this shift
         List<Order> orders = orderRepository.findByCashierAndCreatedAtBetween(
-            currentUser, shiftReport.getShiftStart(), shiftReport.getShiftEnd());
+            cashier, shiftReport.getShiftStart(), shiftReport.getShiftEnd());
 
         // Calculate totals
         double totalSales = orders.stream()
@@ -117,7 +139,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
 
         // Get refunds for this shift
         List<Refund> refunds = refundRepository.findByCashierAndCreatedAtBetween(
-            currentUser, shiftReport.getShiftStart(), shiftReport.getShiftEnd());
+            cashier, shiftReport.getShiftStart(), shiftReport.getShiftEnd());
 
         double totalRefunds = refunds.stream()
             .mapToDouble(refund -> refund.getAmount() != null ? refund.getAmount() : 0.0)
@@ -137,12 +159,11 @@ public class ShiftReportServiceImpl implements ShiftReportService {
         shiftReport.setPaymentSummaries(getPaymentSummaries(orders, totalSales));
         shiftReport.setRefunds(refunds);
 
-        // Save and return
-        ShiftReport savedReport = shiftReportRepository.save(shiftReport);
-        return ShiftReportMapper.toDto(savedReport);
+        return shiftReportRepository.save(shiftReport);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ShiftReportDto getShiftReportById(Long id) throws Exception {
         return shiftReportRepository.findById(id)
             .map(ShiftReportMapper::toDto)
@@ -150,14 +171,13 @@ public class ShiftReportServiceImpl implements ShiftReportService {
     }
 
     @Override
-    public List<ShiftReportDto> getAllShiftReports() throws Exception {
-        List<ShiftReport> reports = shiftReportRepository.findAll();
-        return reports.stream()
-            .map(ShiftReportMapper::toDto)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAllShiftReports(Consumer<? super ShiftReportDto> action) throws Exception {
+        entityStreams.forEach(shiftReportRepository.streamAll(), ShiftReportMapper::toDto, action);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ShiftReportDto> getShiftReportsByBranchId(Long branchId) throws Exception {
         List<ShiftReport> reports = shiftReportRepository.findByBranchId(branchId);
         return reports.stream()
@@ -166,6 +186,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ShiftReportDto> getShiftReportsByCashierId(Long cashierId) throws Exception {
         List<ShiftReport> reports = shiftReportRepository.findByCashierId(cashierId);
         return reports.stream()
@@ -174,6 +195,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
     }
 
     @Override
+    @Timed(value = "pos.shift.progress", description = "Live shift progress for a cashier", histogram = true)
     public ShiftReportDto getCurrentShiftProgress(Long cashierId) throws UserException {
         User user;
         try {
@@ -241,6 +263,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ShiftReportDto getShiftByCashierAndDate(Long cashierId, LocalDateTime date) throws UserException {
         User cashier = userService.getUserById(cashierId);
         if (cashier == null) {
@@ -256,41 +279,62 @@ public class ShiftReportServiceImpl implements ShiftReportService {
         return ShiftReportMapper.toDto(report);
     }
 
-    // Helper methods
-    private List<Product> getTopSellingProducts(List<Order> orders) {
+    // Helper methods (package-private static so the JMH benchmarks can drive them directly)
+    static List<Product> getTopSellingProducts(List<Order> orders) {
         if (orders == null || orders.isEmpty()) {
             return null;
         }
 
-        Map<Product, Integer> productSalesMap = new HashMap<>();
+        // Keyed by id: hashing the entities themselves walks (and can loop through) their associations
+        Map<Long, Product> productsById = new HashMap<>();
+        Map<Long, Integer> productSalesMap = new HashMap<>();
 
         for (Order order : orders) {
             if (order.getOrderItems() != null) {
                 for (OrderItem item : order.getOrderItems()) {
                     Product product = item.getProduct();
-                    if (product != null) {
+                    if (product != null && product.getId() != null) {
                         int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
-                        productSalesMap.put(product, productSalesMap.getOrDefault(product, 0) + quantity);
+                        productsById.putIfAbsent(product.getId(), product);
+                        productSalesMap.merge(product.getId(), quantity, Integer::sum);
                     }
                 }
             }
         }
 
-        // Set quantity sold on products and return sorted list
+        // Return copies carrying the quantity sold, sorted by it
         return productSalesMap.entrySet().stream()
             .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
             .limit(5)
-            .map(entry -> {
-                Product product = entry.getKey();
-                // Temporarily store quantity sold in product's quantity field for top selling
-                // (Note: This overwrites stock quantity, but it's fine for display purposes)
-                product.setQuantity(entry.getValue());
-                return product;
-            })
+            .map(entry -> soldCopy(productsById.get(entry.getKey()), entry.getValue()))
             .collect(Collectors.toList());
     }
 
-    private List<PaymentSummary> getPaymentSummaries(List<Order> orders, double totalSales) {
+    /**
+     * A detached copy of the product with its quantity field holding the units
+     * sold. Never set that on the product itself: it is managed, and shift
+     * close (including the nightly day close) would flush it as the stock.
+     */
+    private static Product soldCopy(Product product, int sold) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setSku(product.getSku());
+        copy.setMrp(product.getMrp());
+        copy.setSellingPrice(product.getSellingPrice());
+        copy.setPrice(product.getPrice());
+        copy.setQuantity(sold);
+        copy.setBrand(product.getBrand());
+        copy.setImage(product.getImage());
+        copy.setStore(product.getStore());
+        copy.setCategory(product.getCategory());
+        copy.setCreatedAt(product.getCreatedAt());
+        copy.setUpdatedAt(product.getUpdatedAt());
+        return copy;
+    }
+
+    static List<PaymentSummary> getPaymentSummaries(List<Order> orders, double totalSales) {
         if (orders == null || orders.isEmpty()) {
             return new ArrayList<>();
         }
@@ -322,7 +366,7 @@ public class ShiftReportServiceImpl implements ShiftReportService {
         return summaries;
     }
 
-    private List<Order> getRecentOrders(List<Order> orders) {
+    static List<Order> getRecentOrders(List<Order> orders) {
         if (orders == null || orders.isEmpty()) {
             return null;
         }
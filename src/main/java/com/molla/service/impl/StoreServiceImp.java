@@ -15,12 +15,15 @@ import com.molla.repository.StoreRepository;
 import com.molla.service.EmployeeService;
 import com.molla.service.StoreService;
 import com.molla.service.UserService;
+import com.molla.util.EntityStreams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +33,7 @@ public class StoreServiceImp implements StoreService {
     private final StoreRepository storeRepository;
     private final UserService userService;
     private final EmployeeService employeeService;
+    private final EntityStreams entityStreams;
 
     @Override
     public StoreDto createStore(StoreDto storeDto, User user) {
@@ -65,6 +69,12 @@ public class StoreServiceImp implements StoreService {
 
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllStores(Consumer<? super StoreDto> action) {
+        entityStreams.forEach(storeRepository.streamAll(), StoreMapper::toDTO, action);
+    }
+
     @Override
     @Cacheable(cacheNames = "storesByAdmin", key = "#user.id")
     public StoreDto getStoreByAdmin(User user) {
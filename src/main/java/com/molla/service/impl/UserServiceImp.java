@@ -4,6 +4,7 @@ import com.molla.exceptions.NotFoundException;
 import com.molla.model.User;
 import com.molla.repository.UserRepository;
 import com.molla.service.UserService;
+import com.molla.util.EmployeeCaches;
 import com.molla.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
@@ -18,6 +19,7 @@ public class UserServiceImp implements UserService {
 
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
+    private final EmployeeCaches employeeCaches;
 
     @Override
     public User getUserFromJwt(String jwt) {
@@ -73,6 +75,8 @@ public class UserServiceImp implements UserService {
 
     @Override
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        employeeCaches.evict(saved);
+        return saved;
     }
 }
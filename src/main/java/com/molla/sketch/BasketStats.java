@@ -0,0 +1,89 @@
+package com.molla.sketch;
+
+/**
+ * Customer and basket figures of one branch-hour, or of any merge of them:
+ * exact order, item and amount totals, the distinct customers as a HyperLogLog
+ * and basket sizes (items) and values as t-digests. Orders without a customer
+ * count as anonymous and stay out of the distinct count. Not thread-safe.
+ */
+public final class BasketStats {
+
+    private long orders;
+    private long anonymousOrders;
+    private long items;
+    private double amount;
+    private final HyperLogLog customers;
+    private final TDigest basketSizes;
+    private final TDigest basketValues;
+
+    public BasketStats() {
+        this(0, 0, 0, 0.0, new HyperLogLog(), new TDigest(), new TDigest());
+    }
+
+    public BasketStats(long orders, long anonymousOrders, long items, double amount, HyperLogLog customers,
+                       TDigest basketSizes, TDigest basketValues) {
+        this.orders = orders;
+        this.anonymousOrders = anonymousOrders;
+        this.items = items;
+        this.amount = amount;
+        this.customers = customers;
+        this.basketSizes = basketSizes;
+        this.basketValues = basketValues;
+    }
+
+    public void add(Long customerId, long basketSize, double basketValue) {
+        orders++;
+        if (customerId == null) {
+            anonymousOrders++;
+        } else {
+            customers.add(customerId);
+        }
+        items += basketSize;
+        amount += basketValue;
+        basketSizes.add(basketSize);
+        basketValues.add(basketValue);
+    }
+
+    public void merge(BasketStats other) {
+        orders += other.orders;
+        anonymousOrders += other.anonymousOrders;
+        items += other.items;
+        amount += other.amount;
+        customers.merge(other.customers);
+        basketSizes.merge(other.basketSizes);
+        basketValues.merge(other.basketValues);
+    }
+
+    public BasketStats copy() {
+        return new BasketStats(orders, anonymousOrders, items, amount, customers.copy(), basketSizes.copy(),
+                basketValues.copy());
+    }
+
+    public long orders() {
+        return orders;
+    }
+
+    public long anonymousOrders() {
+        return anonymousOrders;
+    }
+
+    public long items() {
+        return items;
+    }
+
+    public double amount() {
+        return amount;
+    }
+
+    public HyperLogLog customers() {
+        return customers;
+    }
+
+    public TDigest basketSizes() {
+        return basketSizes;
+    }
+
+    public TDigest basketValues() {
+        return basketValues;
+    }
+}
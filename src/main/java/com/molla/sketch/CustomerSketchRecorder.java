@@ -0,0 +1,245 @@
+package com.molla.sketch;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.model.CustomerSketch;
+import com.molla.payload.dto.OrderBasketDto;
+import com.molla.repository.CustomerSketchRepository;
+import com.molla.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps customer_sketch up to date. Each committed order is added to an
+ * in-memory BasketStats of its branch and hour; every
+ * pos.reports.customers.flush-interval the pending sketches are merged into
+ * their rows (locked while merging, so several instances can flush) and on
+ * shutdown too. A failed flush keeps its sketches for the next one. Reads merge
+ * the stored rows with what is still pending, so figures include orders placed
+ * a moment ago. At pos.reports.customers.rebuild-cron yesterday is recomputed
+ * from its orders, which also drops deleted and edited orders; older days go
+ * through {@link #rebuild(LocalDate)}. Days already moved to the order archive
+ * keep their sketches and are never recomputed.
+ */
+@Component
+public class CustomerSketchRecorder implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSketchRecorder.class);
+
+    private record Key(long branchId, LocalDateTime hourStart) {
+    }
+
+    private record Pending(Long storeId, BasketStats stats) {
+    }
+
+    private final CustomerSketchRepository customerSketchRepository;
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    public CustomerSketchRecorder(CustomerSketchRepository customerSketchRepository,
+                                  OrderRepository orderRepository,
+                                  OrderArchiveRepository orderArchiveRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${pos.reports.customers.enabled:true}") boolean enabled) {
+        this.customerSketchRepository = customerSketchRepository;
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled || event.branchId() == null || event.createdAt() == null) {
+            return;
+        }
+        long items = event.lines().stream().mapToLong(OrderPlacedEvent.Line::quantity).sum();
+        double amount = event.totalAmount() != null ? event.totalAmount() : 0.0;
+        // compute() runs under the key's lock, which flush() takes too by removing the key
+        pending.compute(new Key(event.branchId(), hourOf(event.createdAt())), (key, current) -> {
+            Pending target = current != null ? current : new Pending(event.storeId(), new BasketStats());
+            target.stats().add(event.customerId(), items, amount);
+            return target;
+        });
+    }
+
+    private static LocalDateTime hourOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Scheduled(fixedDelayString = "${pos.reports.customers.flush-interval:60000}")
+    public void flushScheduled() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /** Merges the pending sketches into their rows; returns how many rows were written. */
+    public synchronized int flush() {
+        Map<Key, Pending> batch = new HashMap<>();
+        for (Key key : List.copyOf(pending.keySet())) {
+            Pending taken = pending.remove(key);
+            if (taken != null) {
+                batch.put(key, taken);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> batch.forEach((key, taken) -> {
+                CustomerSketch row = customerSketchRepository.findForUpdate(key.branchId(), key.hourStart())
+                        .orElseGet(() -> CustomerSketch.builder()
+                                .branchId(key.branchId())
+                                .hourStart(key.hourStart())
+                                .build());
+                BasketStats merged = decode(row);
+                merged.merge(taken.stats());
+                encode(merged, row);
+                customerSketchRepository.save(row);
+            }));
+            return batch.size();
+        } catch (RuntimeException e) {
+            logger.warn("Customer sketches not flushed, retrying with the next flush: {}", e.getMessage());
+            batch.forEach((key, taken) -> pending.merge(key, taken, (current, back) -> {
+                current.stats().merge(back.stats());
+                return current;
+            }));
+            return 0;
+        }
+    }
+
+    @Scheduled(cron = "${pos.reports.customers.rebuild-cron:0 20 2 * * *}")
+    public void rebuildNightly() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (enabled && !isArchived(yesterday)) {
+            rebuild(yesterday);
+        }
+    }
+
+    public boolean isArchived(LocalDate day) {
+        return orderArchiveRepository.getArchivedUntil()
+                .map(until -> day.atStartOfDay().isBefore(until))
+                .orElse(false);
+    }
+
+    /**
+     * Replaces the sketches of a finished day with ones computed from its orders;
+     * returns how many branch-hours were written. Late events for the day are
+     * flushed first, so they are not counted twice.
+     */
+    public synchronized int rebuild(LocalDate day) {
+        flush();
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+        Integer written = newTransaction.execute(status -> {
+            Map<Key, BasketStats> hours = new HashMap<>();
+            for (OrderBasketDto basket : orderRepository.findBaskets(start, end)) {
+                hours.computeIfAbsent(new Key(basket.branchId(), hourOf(basket.createdAt())), key -> new BasketStats())
+                        .add(basket.customerId(), basket.items(), basket.totalAmount());
+            }
+            customerSketchRepository.deleteBetween(start, end);
+            customerSketchRepository.flush();
+            List<CustomerSketch> rows = new ArrayList<>();
+            hours.forEach((key, stats) -> {
+                CustomerSketch row = CustomerSketch.builder()
+                        .branchId(key.branchId())
+                        .hourStart(key.hourStart())
+                        .build();
+                encode(stats, row);
+                rows.add(row);
+            });
+            customerSketchRepository.saveAll(rows);
+            return rows.size();
+        });
+        logger.info("Customer sketches of {} rebuilt: {} branch-hours", day, written);
+        return Objects.requireNonNullElse(written, 0);
+    }
+
+    /**
+     * Stats of one branch, or of every branch of one store, per day from
+     * {@code from} to {@code to} (days without orders left out).
+     */
+    public TreeMap<LocalDate, BasketStats> byDay(Long storeId, Long branchId, LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        TreeMap<LocalDate, BasketStats> days = new TreeMap<>();
+        List<CustomerSketch> rows = readOnly.execute(status -> branchId != null
+                ? customerSketchRepository.findByBranch(branchId, start, end)
+                : customerSketchRepository.findByStore(storeId, start, end));
+        if (rows != null) {
+            for (CustomerSketch row : rows) {
+                day(days, row.getHourStart()).merge(decode(row));
+            }
+        }
+        for (Key key : List.copyOf(pending.keySet())) {
+            if (key.hourStart().isBefore(start) || !key.hourStart().isBefore(end)) {
+                continue;
+            }
+            pending.computeIfPresent(key, (k, current) -> {
+                if (branchId != null ? branchId == k.branchId() : Objects.equals(storeId, current.storeId())) {
+                    day(days, k.hourStart()).merge(current.stats());
+                }
+                return current;
+            });
+        }
+        return days;
+    }
+
+    private static BasketStats day(TreeMap<LocalDate, BasketStats> days, LocalDateTime hourStart) {
+        return days.computeIfAbsent(hourStart.toLocalDate(), day -> new BasketStats());
+    }
+
+    private static BasketStats decode(CustomerSketch row) {
+        return new BasketStats(
+                row.getOrderCount() != null ? row.getOrderCount() : 0L,
+                row.getAnonymousOrders() != null ? row.getAnonymousOrders() : 0L,
+                row.getItemCount() != null ? row.getItemCount() : 0L,
+                row.getSalesAmount() != null ? row.getSalesAmount() : 0.0,
+                HyperLogLog.fromBytes(row.getCustomers()),
+                TDigest.fromBytes(row.getBasketSizes()),
+                TDigest.fromBytes(row.getBasketValues()));
+    }
+
+    private static void encode(BasketStats stats, CustomerSketch row) {
+        row.setOrderCount(stats.orders());
+        row.setAnonymousOrders(stats.anonymousOrders());
+        row.setItemCount(stats.items());
+        row.setSalesAmount(stats.amount());
+        row.setCustomers(stats.customers().toBytes());
+        row.setBasketSizes(stats.basketSizes().toBytes());
+        row.setBasketValues(stats.basketValues().toBytes());
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,210 @@
+package com.molla.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter over 2^precision one-byte registers. Ids are
+ * spread with a 64-bit mixer, so the estimate never saturates; it is computed
+ * with Ertl's improved estimator ("New cardinality estimation algorithms for
+ * HyperLogLog sketches", 2017), which needs no bias tables or linear counting
+ * switch. The relative standard error is about 1.04 / sqrt(2^precision): 1.6%
+ * at the default precision 12 (4096 registers).
+ * <p>
+ * Two sketches of the same precision merge into the sketch of the union by
+ * taking the larger of each register. Encoded, a sketch with few registers set
+ * is a sorted list of (index, value) pairs, three bytes each; once that is larger
+ * than the dense form the registers are packed six bits each (3 KB at precision
+ * 12). Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    /** Relative standard error of {@link #estimate()}. */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public void add(long id) {
+        long hash = mix(id);
+        int index = (int) (hash >>> (64 - precision));
+        // Leading zeros of the remaining 64 - precision bits, plus one
+        long rest = hash << precision | 1L << (precision - 1);
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /** Folds {@code other} in, leaving this sketch estimating the union. */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision
+                    + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long estimate() {
+        int q = 64 - precision;
+        int m = registers.length;
+        int[] histogram = new int[q + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        double z = m * tau(1.0 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return Math.round(m / (2 * Math.log(2)) * m / z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1.0;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1.0 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    /** Finalizer of SplitMix64: consecutive ids land on unrelated registers. */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    public byte[] toBytes() {
+        int set = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                set++;
+            }
+        }
+        int denseSize = registers.length * 6 / 8;
+        if (set * 3 < denseSize) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + set * 3).put(SPARSE).put((byte) precision);
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i).put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        byte[] bytes = new byte[2 + denseSize];
+        bytes[0] = DENSE;
+        bytes[1] = (byte) precision;
+        // Four registers of six bits in every three bytes
+        for (int i = 0, o = 2; i < registers.length; i += 4, o += 3) {
+            int packed = registers[i] << 18 | registers[i + 1] << 12 | registers[i + 2] << 6 | registers[i + 3];
+            bytes[o] = (byte) (packed >>> 16);
+            bytes[o + 1] = (byte) (packed >>> 8);
+            bytes[o + 2] = (byte) packed;
+        }
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            return new HyperLogLog();
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        byte[] registers = sketch.registers;
+        if (bytes[0] == SPARSE) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            while (buffer.remaining() >= 3) {
+                int index = Short.toUnsignedInt(buffer.getShort());
+                registers[index] = buffer.get();
+            }
+        } else if (bytes[0] == DENSE) {
+            for (int i = 0, o = 2; i < registers.length; i += 4, o += 3) {
+                int packed = (bytes[o] & 0xff) << 16 | (bytes[o + 1] & 0xff) << 8 | (bytes[o + 2] & 0xff);
+                registers[i] = (byte) (packed >>> 18 & 0x3f);
+                registers[i + 1] = (byte) (packed >>> 12 & 0x3f);
+                registers[i + 2] = (byte) (packed >>> 6 & 0x3f);
+                registers[i + 3] = (byte) (packed & 0x3f);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown HyperLogLog encoding " + bytes[0]);
+        }
+        return sketch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other && other.precision == precision
+                && Arrays.equals(other.registers, registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+}
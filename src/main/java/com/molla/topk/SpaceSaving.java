@@ -0,0 +1,178 @@
+package com.molla.topk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters (Metwally et al.) over product ids weighted by
+ * quantity, with a fixed number of counters. A tracked product adds to its own
+ * counter; an untracked one takes over the smallest counter, inheriting its count
+ * as the possible overestimate. Every product sold more than total / capacity
+ * units is guaranteed to be tracked, and a count is never more than {@code error}
+ * above the truth. Counters sit in an indexed min-heap, so an update is
+ * O(log capacity) and the top-k is read from capacity counters whatever the
+ * order volume.
+ * <p>
+ * Methods lock the sketch, so order events and report queries can share it.
+ */
+public class SpaceSaving {
+
+    /** A tracked product: count may overstate its sales by at most error. */
+    public record Entry(long productId, long count, long error) {
+    }
+
+    private static final Comparator<Entry> BY_COUNT =
+            Comparator.comparingLong(Entry::count).reversed().thenComparingLong(Entry::productId);
+
+    private final int capacity;
+    private final long[] ids;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<Long, Integer> slots;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Units offered so far, tracked or not. */
+    public synchronized long total() {
+        return total;
+    }
+
+    public synchronized void add(long productId, long quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        total += quantity;
+        Integer slot = slots.get(productId);
+        if (slot != null) {
+            counts[slot] += quantity;
+            siftDown(slot);
+            return;
+        }
+        if (size < capacity) {
+            int i = size++;
+            ids[i] = productId;
+            counts[i] = quantity;
+            errors[i] = 0;
+            slots.put(productId, i);
+            siftUp(i);
+            return;
+        }
+        // Take over the smallest counter
+        slots.remove(ids[0]);
+        ids[0] = productId;
+        errors[0] = counts[0];
+        counts[0] += quantity;
+        slots.put(productId, 0);
+        siftDown(0);
+    }
+
+    /** The k products with the highest counts, highest first. */
+    public synchronized List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(ids[i], counts[i], errors[i]));
+        }
+        entries.sort(BY_COUNT);
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    /**
+     * Combines the sketches of several periods (the days of a week) into a new one
+     * of the given capacity. A product missing from a full sketch may still have
+     * sold up to that sketch's smallest count there, which goes into its count and
+     * error, as in the mergeable-summaries construction (Agarwal et al.).
+     */
+    public static SpaceSaving merge(int capacity, List<SpaceSaving> sketches) {
+        long floors = 0;
+        long total = 0;
+        Map<Long, long[]> combined = new HashMap<>();
+        for (SpaceSaving sketch : sketches) {
+            synchronized (sketch) {
+                long floor = sketch.size == sketch.capacity ? sketch.counts[0] : 0;
+                floors += floor;
+                total += sketch.total;
+                // Start from floor everywhere and swap it for the real counter where there is one
+                for (int i = 0; i < sketch.size; i++) {
+                    long[] entry = combined.computeIfAbsent(sketch.ids[i], id -> new long[2]);
+                    entry[0] += sketch.counts[i] - floor;
+                    entry[1] += sketch.errors[i] - floor;
+                }
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(combined.size());
+        for (Map.Entry<Long, long[]> e : combined.entrySet()) {
+            entries.add(new Entry(e.getKey(), floors + e.getValue()[0], floors + e.getValue()[1]));
+        }
+        entries.sort(BY_COUNT);
+        SpaceSaving merged = new SpaceSaving(capacity);
+        merged.total = total;
+        for (Entry entry : entries.subList(0, Math.min(capacity, entries.size()))) {
+            int slot = merged.size++;
+            merged.ids[slot] = entry.productId();
+            merged.counts[slot] = entry.count();
+            merged.errors[slot] = entry.error();
+            merged.slots.put(entry.productId(), slot);
+            merged.siftUp(slot);
+        }
+        return merged;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[i] <= counts[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        long count = counts[a];
+        long error = errors[a];
+        ids[a] = ids[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        ids[b] = id;
+        counts[b] = count;
+        errors[b] = error;
+        slots.put(ids[a], a);
+        slots.put(ids[b], b);
+    }
+}
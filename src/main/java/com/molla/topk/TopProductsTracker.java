@@ -0,0 +1,166 @@
+package com.molla.topk;
+
+import com.molla.event.OrderPlacedEvent;
+import com.molla.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Best sellers per branch and per store, one SpaceSaving sketch per day, fed by
+ * every committed order line. "Today" reads one sketch and "this week" (Monday
+ * to today) merges at most seven, so both cost the same at any order volume.
+ * <p>
+ * After startup, and nightly once the sales rollups are compacted, the sketches
+ * of the last eight days are rebuilt from sales_rollup (which also drops older
+ * days and picks up order edits and deletes). Refunds are not subtracted: a
+ * refund is an amount against an order, with no products or quantities, so
+ * the units of a refunded order stay counted. Orders committed while a rebuild
+ * runs may be missed or counted twice until the next one.
+ */
+@Component
+public class TopProductsTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopProductsTracker.class);
+
+    /** Today plus the seven days before it, enough for any "this week". */
+    static final int RETAINED_DAYS = 8;
+
+    public enum Scope {
+        BRANCH, STORE
+    }
+
+    public enum Period {
+        TODAY, WEEK
+    }
+
+    public record Result(LocalDate from, LocalDate to, long totalQuantity, List<SpaceSaving.Entry> products) {
+    }
+
+    private record Key(Scope scope, long id, LocalDate day) {
+    }
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate readOnly;
+    private final int capacity;
+    private final boolean enabled;
+
+    private volatile Map<Key, SpaceSaving> sketches = new ConcurrentHashMap<>();
+
+    public TopProductsTracker(SalesRollupRepository salesRollupRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${pos.reports.top-products.capacity:200}") int capacity,
+                              @Value("${pos.reports.top-products.enabled:true}") boolean enabled) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.capacity = capacity;
+        this.enabled = enabled;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled || event.createdAt() == null) {
+            return;
+        }
+        LocalDate day = event.createdAt().toLocalDate();
+        Map<Key, SpaceSaving> current = sketches;
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            if (line.productId() == null) {
+                continue;
+            }
+            if (event.branchId() != null) {
+                sketch(current, Scope.BRANCH, event.branchId(), day).add(line.productId(), line.quantity());
+            }
+            if (event.storeId() != null) {
+                sketch(current, Scope.STORE, event.storeId(), day).add(line.productId(), line.quantity());
+            }
+        }
+    }
+
+    private SpaceSaving sketch(Map<Key, SpaceSaving> target, Scope scope, long id, LocalDate day) {
+        return target.computeIfAbsent(new Key(scope, id, day), key -> new SpaceSaving(capacity));
+    }
+
+    /** The k best sellers of a branch or store over the period ending today. */
+    public Result top(Scope scope, long id, Period period, LocalDate today, int k) {
+        LocalDate from = period == Period.TODAY ? today : today.with(DayOfWeek.MONDAY);
+        Map<Key, SpaceSaving> current = sketches;
+        List<SpaceSaving> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(today); day = day.plusDays(1)) {
+            SpaceSaving sketch = current.get(new Key(scope, id, day));
+            if (sketch != null) {
+                days.add(sketch);
+            }
+        }
+        if (days.isEmpty()) {
+            return new Result(from, today, 0, List.of());
+        }
+        SpaceSaving combined = days.size() == 1 ? days.get(0) : SpaceSaving.merge(capacity, days);
+        return new Result(from, today, combined.total(), combined.top(k));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAfterStartup() {
+        rebuildQuietly();
+    }
+
+    @Scheduled(cron = "${pos.reports.top-products.rebuild-cron:0 30 2 * * *}")
+    public void rebuildNightly() {
+        rebuildQuietly();
+    }
+
+    private void rebuildQuietly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild(LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.warn("Best seller sketches not rebuilt from the sales rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the sketches with ones built from the rollups of the retained days;
+     * returns the number of rollup rows read. Rows come largest first, so each
+     * sketch keeps its true top products whenever they fit.
+     */
+    public synchronized int rebuild(LocalDate today) {
+        Map<Key, SpaceSaving> fresh = new ConcurrentHashMap<>();
+        List<Object[]> rows = readOnly.execute(status ->
+                salesRollupRepository.sumQuantityByDayBranchAndProduct(today.minusDays(RETAINED_DAYS - 1)));
+        for (Object[] row : rows) {
+            LocalDate day = (LocalDate) row[0];
+            Long branchId = (Long) row[1];
+            Long storeId = (Long) row[2];
+            long productId = ((Number) row[3]).longValue();
+            long quantity = row[4] != null ? ((Number) row[4]).longValue() : 0;
+            sketch(fresh, Scope.BRANCH, branchId, day).add(productId, quantity);
+            if (storeId != null) {
+                sketch(fresh, Scope.STORE, storeId, day).add(productId, quantity);
+            }
+        }
+        sketches = fresh;
+        logger.info("Best seller sketches rebuilt from {} rollup rows", rows.size());
+        return rows.size();
+    }
+}
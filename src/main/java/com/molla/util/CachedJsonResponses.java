@@ -0,0 +1,76 @@
+package com.molla.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-serialized JSON bodies with strong ETags for read-heavy GET endpoints.
+ *
+ * The body is serialized once per @Cacheable entry: as long as the service keeps
+ * returning the same cached instance, the stored bytes and ETag are reused. A
+ * cache eviction hands us a new instance, which is serialized and hashed again;
+ * if the content did not actually change, the ETag stays the same too.
+ *
+ * Returned entities carry the ETag, so Spring answers a matching If-None-Match
+ * with 304 Not Modified and no body. Vary: Accept is set because some of these
+ * URLs also serve binary catalog snapshots.
+ */
+@Component
+@RequiredArgsConstructor
+public class CachedJsonResponses {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ResponseEntity<byte[]> ok(String cacheName, Object key, Object body) {
+        Entry entry = entry(cacheName + "::" + key, body);
+        return ResponseEntity.ok()
+                .eTag(entry.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(entry.json());
+    }
+
+    private Entry entry(String key, Object body) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.source() == body) {
+            return entry;
+        }
+        entry = serialize(body);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private Entry serialize(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Entry(body, json, etag(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response body", e);
+        }
+    }
+
+    static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(Object source, byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.molla.util;
+
+import com.molla.domain.UserRole;
+import com.molla.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Targeted eviction of the employee lists cached by EmployeeServiceImpl. Lists
+ * are cached per store or branch and role ("storeId:role", "storeId:null" for
+ * all roles), so a change to one employee evicts only the lists of their store
+ * and branch instead of every store's. Call it after any save or delete of a
+ * user with a store or branch, with the user as it was before and after.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeCaches {
+
+    public static final String BY_STORE = "employeesByStore";
+    public static final String BY_BRANCH = "employeesByBranch";
+
+    private final CacheManager cacheManager;
+
+    public static String key(Long id, UserRole role) {
+        return id + ":" + role;
+    }
+
+    public void evict(User user) {
+        if (user != null) {
+            evict(user.getStore() != null ? user.getStore().getId() : null,
+                    user.getBranch() != null ? user.getBranch().getId() : null);
+        }
+    }
+
+    public void evict(Long storeId, Long branchId) {
+        evict(BY_STORE, storeId);
+        evict(BY_BRANCH, branchId);
+    }
+
+    private void evict(String cacheName, Long id) {
+        Cache cache = id != null ? cacheManager.getCache(cacheName) : null;
+        if (cache == null) {
+            return;
+        }
+        cache.evict(key(id, null));
+        for (UserRole role : UserRole.values()) {
+            cache.evict(key(id, role));
+        }
+    }
+}
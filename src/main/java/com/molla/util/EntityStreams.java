@@ -0,0 +1,50 @@
+package com.molla.util;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Walks a repository Stream (a scrolling cursor) in chunks: each chunk is mapped
+ * while its entities are still managed, so their lazy associations load in one
+ * batch per chunk (default_batch_fetch_size), handed on, and then cleared from
+ * the persistence context. Memory is one chunk no matter how many rows there
+ * are. Must run inside a transaction, which keeps the cursor open.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityStreams {
+
+    private final EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:50}")
+    private int chunkSize = 50;
+
+    public <E, T> long forEach(Stream<E> entities, Function<? super E, ? extends T> mapper,
+                               Consumer<? super T> action) {
+        List<E> chunk = new ArrayList<>(chunkSize);
+        long count = 0;
+        try (entities) {
+            var iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    for (E entity : chunk) {
+                        action.accept(mapper.apply(entity));
+                    }
+                    count += chunk.size();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.molla.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * JSON array responses written element by element as a service produces them,
+ * instead of a List serialized in one buffer. The first element is flushed at
+ * once so the client starts receiving; after that Jackson's and the container's
+ * buffers go out as they fill, and a slow client blocks the writer (and with it
+ * the database cursor) instead of piling up heap.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonArrayStreams {
+
+    /** A service method that hands its elements, one at a time, to an action. */
+    @FunctionalInterface
+    public interface Source<T> {
+        void forEach(Consumer<T> action) throws Exception;
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> ok(Source<T> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    // A failure halfway must not be closed into a valid, shorter array
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+                json.writeStartArray();
+                long[] written = {0};
+                source.forEach(element -> {
+                    try {
+                        json.writeObject(element);
+                        if (++written[0] == 1) {
+                            json.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
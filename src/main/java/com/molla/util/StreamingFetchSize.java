@@ -0,0 +1,29 @@
+package com.molla.util;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+/**
+ * Fetch size under which a forward-only, read-only query streams its rows on
+ * the database behind a JdbcTemplate. PostgreSQL (inside a transaction) and H2
+ * honour a positive fetch size. MySQL Connector/J ignores it unless the URL
+ * sets useCursorFetch=true (DatabaseConfig adds it, but a DataSource configured
+ * elsewhere may not have it), and otherwise reads the whole result into memory
+ * before the first row; Integer.MIN_VALUE streams row by row either way. A
+ * streaming MySQL result must be read to the end (or closed) before the
+ * connection runs another statement.
+ */
+public final class StreamingFetchSize {
+
+    private StreamingFetchSize() {
+    }
+
+    /** Sets the template's fetch size to what streams on its database: fetchSize, or MySQL's row streaming. */
+    public static void apply(JdbcTemplate jdbc, int fetchSize) {
+        boolean mysql = Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")));
+        jdbc.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+    }
+}
@@ -0,0 +1,4 @@
+-- users.id moved from IDENTITY to the pooled users_seq (allocationSize 50), which
+-- ddl-auto creates at 1. Hibernate's pooled optimizer hands out the 50 ids up to
+-- each value it reads, so the next value must be at least MAX(id) + 50.
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
@@ -0,0 +1,41 @@
+-- Cold storage for orders, order items and refunds older than pos.archive.retention-months
+-- (see OrderArchiver). Plain tables here; PostgreSQL partitions them by month and MySQL
+-- compresses them.
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id           BIGINT       NOT NULL PRIMARY KEY,
+    branch_id    BIGINT,
+    cashier_id   BIGINT,
+    customer_id  BIGINT,
+    created_at   TIMESTAMP(6) NOT NULL,
+    total_amount DOUBLE PRECISION,
+    payment_type VARCHAR(32),
+    status       VARCHAR(32)
+);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_branch_created ON orders_archive (branch_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_created ON orders_archive (created_at);
+
+CREATE TABLE IF NOT EXISTS order_item_archive (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    order_id    BIGINT       NOT NULL,
+    product_id  BIGINT,
+    quantity    INTEGER,
+    price       DOUBLE PRECISION,
+    total_price DOUBLE PRECISION,
+    created_at  TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_order_item_archive_order ON order_item_archive (order_id);
+
+CREATE TABLE IF NOT EXISTS refund_archive (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    order_id        BIGINT,
+    reason          VARCHAR(255),
+    amount          DOUBLE PRECISION,
+    shift_report_id BIGINT,
+    cashier_id      BIGINT,
+    branch_id       BIGINT,
+    payment_type    VARCHAR(32),
+    created_at      TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_refund_archive_cashier_created ON refund_archive (cashier_id, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_orders_created ON orders (created_at);
@@ -0,0 +1,4 @@
+-- sales_rollup: dashboards (branch_id = ? AND sales_date BETWEEN ? AND ?)
+CREATE INDEX IF NOT EXISTS idx_sales_rollup_branch_date ON sales_rollup (branch_id, sales_date);
+-- sales_rollup: nightly compaction (uncompacted days, delete by day)
+CREATE INDEX IF NOT EXISTS idx_sales_rollup_date ON sales_rollup (sales_date);
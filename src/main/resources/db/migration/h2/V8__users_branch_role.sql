@@ -0,0 +1,3 @@
+-- users: employees by branch and role (findEmployeesByBranchId); replaces the branch-only index
+CREATE INDEX IF NOT EXISTS idx_users_branch_role ON users (branch_id, role);
+DROP INDEX IF EXISTS idx_users_branch;
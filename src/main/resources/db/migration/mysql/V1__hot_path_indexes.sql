@@ -0,0 +1,23 @@
+-- orders: branch lists, date-range reports and paging (branch_id = ? [AND created_at BETWEEN ? AND ?] ORDER BY created_at DESC)
+CREATE INDEX idx_orders_branch_created ON orders (branch_id, created_at);
+-- orders: shift close / cashier history (cashier_id = ? AND created_at BETWEEN ? AND ?)
+CREATE INDEX idx_orders_cashier_created ON orders (cashier_id, created_at);
+-- orders: customer history (customer_id = ? ORDER BY created_at DESC)
+CREATE INDEX idx_orders_customer_created ON orders (customer_id, created_at);
+
+-- refund: shift close (cashier_id = ? AND created_at BETWEEN ? AND ?) and findByCashierId
+CREATE INDEX idx_refund_cashier_created ON refund (cashier_id, created_at);
+CREATE INDEX idx_refund_branch_created ON refund (branch_id, created_at);
+CREATE INDEX idx_refund_shift_report ON refund (shift_report_id);
+
+-- inventory: findByProductIdAndBranchId and findByBranchId share one index
+CREATE INDEX idx_inventory_branch_product ON inventory (branch_id, product_id);
+
+-- shift_report: current shift (cashier_id = ? AND shift_end IS NULL ORDER BY shift_start DESC),
+-- shift by date (cashier_id = ? AND shift_start BETWEEN ? AND ?) and findByCashierId
+CREATE INDEX idx_shift_report_cashier_start ON shift_report (cashier_id, shift_start);
+CREATE INDEX idx_shift_report_branch_start ON shift_report (branch_id, shift_start);
+
+-- users: employees by store and role (findByStoreAndRoleIn); email lookups use the unique constraint on users.email
+CREATE INDEX idx_users_store_role ON users (store_id, role);
+CREATE INDEX idx_users_branch ON users (branch_id);
@@ -0,0 +1,5 @@
+-- users.id moved from AUTO_INCREMENT to the pooled users_seq (allocationSize 50);
+-- MySQL has no sequences, so ddl-auto emulates it with a one-row table starting at 1.
+-- Hibernate's pooled optimizer hands out the 50 ids up to each value it reads,
+-- so the next value must be at least MAX(id) + 50.
+UPDATE users_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
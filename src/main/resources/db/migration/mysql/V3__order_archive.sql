@@ -0,0 +1,42 @@
+-- Cold storage for orders, order items and refunds older than pos.archive.retention-months
+-- (see OrderArchiver), in compressed InnoDB pages (innodb_file_per_table, the default).
+-- Items carry their order's created_at so old months can be exported by date alone.
+CREATE TABLE orders_archive (
+    id           BIGINT      NOT NULL PRIMARY KEY,
+    branch_id    BIGINT,
+    cashier_id   BIGINT,
+    customer_id  BIGINT,
+    created_at   DATETIME(6) NOT NULL,
+    total_amount DOUBLE,
+    payment_type VARCHAR(32),
+    status       VARCHAR(32),
+    KEY idx_orders_archive_branch_created (branch_id, created_at),
+    KEY idx_orders_archive_created (created_at)
+) ENGINE = InnoDB ROW_FORMAT = COMPRESSED;
+
+CREATE TABLE order_item_archive (
+    id          BIGINT      NOT NULL PRIMARY KEY,
+    order_id    BIGINT      NOT NULL,
+    product_id  BIGINT,
+    quantity    INT,
+    price       DOUBLE,
+    total_price DOUBLE,
+    created_at  DATETIME(6) NOT NULL,
+    KEY idx_order_item_archive_order (order_id)
+) ENGINE = InnoDB ROW_FORMAT = COMPRESSED;
+
+CREATE TABLE refund_archive (
+    id              BIGINT      NOT NULL PRIMARY KEY,
+    order_id        BIGINT,
+    reason          VARCHAR(255),
+    amount          DOUBLE,
+    shift_report_id BIGINT,
+    cashier_id      BIGINT,
+    branch_id       BIGINT,
+    payment_type    VARCHAR(32),
+    created_at      DATETIME(6) NOT NULL,
+    KEY idx_refund_archive_cashier_created (cashier_id, created_at)
+) ENGINE = InnoDB ROW_FORMAT = COMPRESSED;
+
+-- Archival scans the hot orders by date (items and refunds use their foreign key indexes)
+CREATE INDEX idx_orders_created ON orders (created_at);
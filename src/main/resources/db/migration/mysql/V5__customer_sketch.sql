@@ -0,0 +1,3 @@
+-- customer_sketch: one row per branch and hour (flushes merge into it), also serves
+-- the report reads (branch_id = ? AND hour_start >= ? AND hour_start < ?)
+CREATE UNIQUE INDEX uk_customer_sketch_branch_hour ON customer_sketch (branch_id, hour_start);
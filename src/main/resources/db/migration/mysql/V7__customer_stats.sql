@@ -0,0 +1,5 @@
+-- customer_stats: one row per customer (checkout inserts it on the first order and
+-- relies on this to detect a concurrent insert), also the profile read (customer_id = ?)
+CREATE UNIQUE INDEX uk_customer_stats_customer ON customer_stats (customer_id);
+-- customer_branch_stats: one row per customer and branch, same reason
+CREATE UNIQUE INDEX uk_customer_branch_stats_customer_branch ON customer_branch_stats (customer_id, branch_id);
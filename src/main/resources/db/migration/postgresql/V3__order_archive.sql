@@ -0,0 +1,50 @@
+-- Cold storage for orders, order items and refunds older than pos.archive.retention-months
+-- (see OrderArchiver). The archive tables are range partitioned by month on created_at;
+-- the archiver creates each monthly partition before moving rows into it, so old months
+-- can be detached, dumped and dropped one partition at a time. Items carry their
+-- order's created_at as the partition key.
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id           BIGINT       NOT NULL,
+    branch_id    BIGINT,
+    cashier_id   BIGINT,
+    customer_id  BIGINT,
+    created_at   TIMESTAMP(6) NOT NULL,
+    total_amount DOUBLE PRECISION,
+    payment_type VARCHAR(32),
+    status       VARCHAR(32),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_branch_created ON orders_archive (branch_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_created ON orders_archive (created_at);
+
+CREATE TABLE IF NOT EXISTS order_item_archive (
+    id          BIGINT       NOT NULL,
+    order_id    BIGINT       NOT NULL,
+    product_id  BIGINT,
+    quantity    INTEGER,
+    price       DOUBLE PRECISION,
+    total_price DOUBLE PRECISION,
+    created_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE INDEX IF NOT EXISTS idx_order_item_archive_order ON order_item_archive (order_id);
+
+CREATE TABLE IF NOT EXISTS refund_archive (
+    id              BIGINT       NOT NULL,
+    order_id        BIGINT,
+    reason          VARCHAR(255),
+    amount          DOUBLE PRECISION,
+    shift_report_id BIGINT,
+    cashier_id      BIGINT,
+    branch_id       BIGINT,
+    payment_type    VARCHAR(32),
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE INDEX IF NOT EXISTS idx_refund_archive_cashier_created ON refund_archive (cashier_id, created_at);
+
+-- Archival scans the hot tables by month and follows items and refunds by order;
+-- PostgreSQL does not index foreign keys on its own
+CREATE INDEX IF NOT EXISTS idx_orders_created ON orders (created_at);
+CREATE INDEX IF NOT EXISTS idx_order_item_order ON order_item (order_id);
+CREATE INDEX IF NOT EXISTS idx_refund_order ON refund (order_id);
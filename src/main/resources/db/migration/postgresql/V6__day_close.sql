@@ -0,0 +1,4 @@
+-- day_close: a run's checkpoint lookups and the report (business_date = ? [AND branch_id = ?])
+CREATE INDEX IF NOT EXISTS idx_day_close_date_branch ON day_close (business_date, branch_id);
+-- day_close: unfinished days to resume after a restart
+CREATE INDEX IF NOT EXISTS idx_day_close_status_date ON day_close (status, business_date);
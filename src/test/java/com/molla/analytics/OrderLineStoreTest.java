@@ -0,0 +1,173 @@
+package com.molla.analytics;
+
+import com.molla.domain.PaymentType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Random order lines over several chunks; every query must match the same
+ * filter and group-by done naively over the raw lines.
+ */
+public class OrderLineStoreTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+    private static final int LINES = 200_000;
+
+    private record Line(Long store, Long branch, Long cashier, Long product, Long category, PaymentType payment,
+                        LocalDateTime createdAt, int quantity, long cents) {
+    }
+
+    private static ForkJoinPool pool;
+    private static OrderLineStore store;
+    private static List<Line> lines;
+
+    @BeforeAll
+    static void fill() {
+        pool = new ForkJoinPool(3);
+        store = new OrderLineStore(pool);
+        lines = new ArrayList<>(LINES);
+        Random random = new Random(42);
+        PaymentType[] payments = PaymentType.values();
+        for (int i = 0; i < LINES; i++) {
+            long branch = 1 + random.nextInt(12);
+            long product = 1 + random.nextInt(500);
+            Line line = new Line(
+                    1 + (branch - 1) / 4,
+                    branch,
+                    random.nextInt(20) == 0 ? null : 100L + random.nextInt(40),
+                    product,
+                    product % 10 == 0 ? null : 1000 + product % 10,
+                    payments[random.nextInt(payments.length)],
+                    START.plusDays(random.nextInt(90)).atTime(random.nextInt(24), random.nextInt(60)),
+                    1 + random.nextInt(5),
+                    random.nextInt(20_000));
+            lines.add(line);
+            store.append(line.store(), line.branch(), line.cashier(), line.product(), line.category(), line.payment(),
+                    line.createdAt(), line.quantity(), line.cents() / 100.0);
+        }
+    }
+
+    @AfterAll
+    static void shutDown() {
+        pool.shutdown();
+    }
+
+    private static Map<Object, long[]> naive(Predicate<Line> filter, Function<Line, Object> key) {
+        Map<Object, long[]> groups = new HashMap<>();
+        for (Line line : lines) {
+            if (filter.test(line)) {
+                long[] totals = groups.computeIfAbsent(key.apply(line), k -> new long[3]);
+                totals[0] += line.cents();
+                totals[1] += line.quantity();
+                totals[2]++;
+            }
+        }
+        return groups;
+    }
+
+    private static void assertSame(Map<Object, long[]> expected, OrderLineStore.Result result) {
+        assertEquals(LINES, result.scannedLines());
+        assertEquals(expected.size(), result.groups().size());
+        long matched = 0;
+        for (OrderLineStore.Group group : result.groups()) {
+            long[] totals = expected.get(group.key());
+            assertEquals(totals[0] / 100.0, group.salesAmount(), 1e-6, () -> "sales of " + group.key());
+            assertEquals(totals[1], group.quantity());
+            assertEquals(totals[2], group.lines());
+            matched += totals[2];
+        }
+        assertEquals(matched, result.matchedLines());
+    }
+
+    private static OrderLineStore.Query query(Long storeId, Long branchId, Long cashierId, Long categoryId,
+                                              PaymentType paymentType, LocalDate from, LocalDate to,
+                                              OrderLineStore.Dimension groupBy) {
+        return new OrderLineStore.Query(storeId, branchId, cashierId, categoryId, paymentType, from, to, groupBy);
+    }
+
+    @Test
+    void testByHour_ForOneStore() {
+        OrderLineStore.Result result = store.query(query(2L, null, null, null, null, null, null,
+                OrderLineStore.Dimension.HOUR));
+
+        assertSame(naive(line -> line.store() == 2L, line -> line.createdAt().getHour()), result);
+        assertEquals(0, result.groups().get(0).key());
+    }
+
+    @Test
+    void testByCashier_ForOneMonth() {
+        LocalDate from = START.plusMonths(1);
+        LocalDate to = from.plusMonths(1).minusDays(1);
+        OrderLineStore.Result result = store.query(query(null, null, null, null, null, from, to,
+                OrderLineStore.Dimension.CASHIER));
+
+        assertSame(naive(line -> !line.createdAt().toLocalDate().isBefore(from)
+                && !line.createdAt().toLocalDate().isAfter(to), Line::cashier), result);
+        for (int i = 1; i < result.groups().size(); i++) {
+            assertTrue(result.groups().get(i - 1).salesAmount() >= result.groups().get(i).salesAmount());
+        }
+    }
+
+    @Test
+    void testByCategory_AcrossBranches() {
+        assertSame(naive(line -> true, Line::category), store.query(query(null, null, null, null, null, null, null,
+                OrderLineStore.Dimension.CATEGORY)));
+    }
+
+    @Test
+    void testCombinedFilters() {
+        OrderLineStore.Result result = store.query(query(1L, 3L, 105L, 1003L, PaymentType.CARD,
+                START, START.plusDays(44), OrderLineStore.Dimension.DAY_OF_WEEK));
+
+        assertSame(naive(line -> line.branch() == 3L && Objects.equals(line.cashier(), 105L)
+                        && Objects.equals(line.category(), 1003L) && line.payment() == PaymentType.CARD
+                        && line.createdAt().toLocalDate().isBefore(START.plusDays(45)),
+                line -> line.createdAt().getDayOfWeek()), result);
+        assertTrue(result.groups().stream().allMatch(group -> group.key() instanceof DayOfWeek));
+    }
+
+    @Test
+    void testByDate_ProductAndPaymentType() {
+        assertSame(naive(line -> line.branch() == 5L, line -> line.createdAt().toLocalDate()),
+                store.query(query(null, 5L, null, null, null, null, null, OrderLineStore.Dimension.DATE)));
+        assertSame(naive(line -> line.store() == 3L, Line::product),
+                store.query(query(3L, null, null, null, null, null, null, OrderLineStore.Dimension.PRODUCT)));
+        assertSame(naive(line -> true, Line::payment),
+                store.query(query(null, null, null, null, null, null, null, OrderLineStore.Dimension.PAYMENT_TYPE)));
+    }
+
+    @Test
+    void testUnknownIds_MatchNothing() {
+        OrderLineStore.Result result = store.query(query(99L, null, null, null, null, null, null,
+                OrderLineStore.Dimension.BRANCH));
+        assertTrue(result.groups().isEmpty());
+        assertEquals(0, result.matchedLines());
+        // Branch 5 belongs to store 2
+        assertTrue(store.query(query(1L, 5L, null, null, null, null, null, OrderLineStore.Dimension.HOUR))
+                .groups().isEmpty());
+    }
+
+    @Test
+    void testDateGroupBy_RejectsHugeRanges() {
+        assertThrows(IllegalArgumentException.class, () -> store.query(query(null, null, null, null, null,
+                START.minusYears(20), START, OrderLineStore.Dimension.DATE)));
+    }
+}
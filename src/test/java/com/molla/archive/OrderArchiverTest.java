@@ -0,0 +1,206 @@
+package com.molla.archive;
+
+import com.molla.configuration.FlywayConfig;
+import com.molla.domain.OrderStatus;
+import com.molla.domain.PaymentType;
+import com.molla.domain.UserRole;
+import com.molla.model.Branch;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.model.Refund;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.payload.dto.OrderSummaryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archives a year-old order on H2 (schema from the Flyway scripts) and reads it
+ * back through OrderArchiveRepository, next to an old order that was refunded
+ * recently and a current order, which both stay in the hot tables. H2 accepts
+ * statements MySQL rejects, so the statements the archiver issues are also
+ * checked against MySQL's rule that a DELETE may not read its own table.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ FlywayConfig.class, OrderArchiver.class, OrderArchiveRepository.class })
+@TestPropertySource(properties = { "spring.flyway.enabled=true", "pos.archive.retention-months=12" })
+public class OrderArchiverTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDateTime OLD = TODAY.minusMonths(14).atTime(10, 15);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private OrderArchiver archiver;
+
+    @Autowired
+    private OrderArchiveRepository archive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Branch branch;
+    private User cashier;
+    private Order archived;
+    private Order refundedRecently;
+    private Order current;
+
+    @BeforeEach
+    void setUp() {
+        Store store = new Store();
+        store.setBrand("Molla");
+        em.persist(store);
+        branch = Branch.builder().name("Main").store(store).build();
+        em.persist(branch);
+        cashier = new User();
+        cashier.setFullName("Cashier One");
+        cashier.setEmail("cashier@store.test");
+        cashier.setPassword("secret");
+        cashier.setRole(UserRole.ROLE_BRANCH_CASHIER);
+        cashier.setStore(store);
+        cashier.setBranch(branch);
+        em.persist(cashier);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setSku("SKU-" + i);
+            product.setSellingPrice(10.0);
+            product.setStore(store);
+            em.persist(product);
+            products.add(product);
+        }
+
+        archived = order(products, OLD);
+        refundedRecently = order(products, OLD.plusHours(1));
+        current = order(products, TODAY.atStartOfDay().plusHours(9));
+        refund(archived, OLD.plusDays(3));
+        refund(refundedRecently, LocalDateTime.now());
+        em.clear();
+    }
+
+    private Order order(List<Product> products, LocalDateTime createdAt) {
+        Order order = Order.builder()
+                .branch(branch)
+                .cashier(cashier)
+                .paymentType(PaymentType.CASH)
+                .status(OrderStatus.COMPLETED)
+                .totalAmount(30.0)
+                .build();
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            items.add(OrderItem.builder().order(order).product(products.get(i))
+                    .quantity(i + 1).price(10.0).totalPrice(10.0 * (i + 1)).build());
+        }
+        order.setOrderItems(items);
+        em.persistAndFlush(order);
+        jdbc.update("UPDATE orders SET created_at = ? WHERE id = ?", Timestamp.valueOf(createdAt), order.getId());
+        return order;
+    }
+
+    private void refund(Order order, LocalDateTime createdAt) {
+        Refund refund = Refund.builder().order(order).cashier(cashier).branch(branch)
+                .reason("Damaged").amount(10.0).paymentType(PaymentType.CASH).build();
+        em.persistAndFlush(refund);
+        jdbc.update("UPDATE refund SET created_at = ? WHERE id = ?", Timestamp.valueOf(createdAt), refund.getId());
+    }
+
+    private int count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    @Test
+    void testArchive_MovesOldOrdersWithItemsAndRefunds() {
+        assertEquals(1, archiver.archive(TODAY));
+
+        assertEquals(List.of(refundedRecently.getId(), current.getId()),
+                jdbc.queryForList("SELECT id FROM orders ORDER BY created_at", Long.class));
+        assertEquals(4, count("order_item"));
+        assertEquals(1, count("refund"));
+        assertEquals(1, count("orders_archive"));
+        assertEquals(2, count("order_item_archive"));
+        assertEquals(1, count("refund_archive"));
+
+        // Nothing left to move
+        assertEquals(0, archiver.archive(TODAY));
+    }
+
+    @Test
+    void testArchivedOrders_StayReadable() {
+        archiver.archive(TODAY);
+        assertTrue(archive.reaches(OLD.minusDays(1)));
+        assertFalse(archive.reaches(TODAY.atStartOfDay()));
+
+        Order order = archive.findById(archived.getId()).orElseThrow();
+        assertEquals(OLD, order.getCreatedAt());
+        assertEquals(branch.getId(), order.getBranch().getId());
+        assertEquals("Cashier One", order.getCashier().getFullName());
+        assertEquals(List.of("Product 0", "Product 1"),
+                order.getOrderItems().stream().map(item -> item.getProduct().getName()).toList());
+        assertTrue(archive.findById(current.getId()).isEmpty());
+
+        List<OrderSummaryDto> summaries = archive.findSummariesByBranchIdAndCreatedAtBetween(branch.getId(),
+                OLD.minusDays(1), LocalDateTime.now());
+        assertEquals(1, summaries.size());
+        assertEquals(archived.getId(), summaries.get(0).getId());
+        assertEquals(2, summaries.get(0).getItemCount());
+        assertEquals("Cashier One", summaries.get(0).getCashierName());
+
+        List<Refund> refunds = archive.findRefundsByCashierAndCreatedAtBetween(cashier, OLD, OLD.plusDays(7));
+        assertEquals(1, refunds.size());
+        assertEquals(archived.getId(), refunds.get(0).getOrder().getId());
+        assertEquals(branch.getId(), refunds.get(0).getBranch().getId());
+    }
+
+    @Test
+    void testArchive_NoDeleteReadsItsOwnTable() {
+        List<String> statements = new ArrayList<>();
+        JdbcTemplate recording = new JdbcTemplate(jdbc.getDataSource()) {
+            @Override
+            public int update(String sql, Object... args) {
+                statements.add(sql);
+                return super.update(sql, args);
+            }
+        };
+
+        assertEquals(1, new OrderArchiver(recording, transactionManager, archive).archive(TODAY));
+
+        Pattern delete = Pattern.compile("DELETE FROM (\\w+)(.*)", Pattern.DOTALL);
+        List<String> deletes = statements.stream().filter(sql -> sql.startsWith("DELETE")).toList();
+        assertEquals(3, deletes.size());
+        for (String sql : deletes) {
+            Matcher matcher = delete.matcher(sql);
+            assertTrue(matcher.matches(), sql);
+            // MySQL error 1093: "You can't specify target table for update in FROM clause"
+            Pattern readsTarget = Pattern.compile("(FROM|JOIN)\\s+" + matcher.group(1) + "\\b");
+            assertFalse(readsTarget.matcher(matcher.group(2)).find(), sql);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.molla.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CatalogChangeLogTest {
+
+    @Test
+    public void testChangesSince_ReturnsLatestChangePerProduct() {
+        CatalogChangeLog log = new CatalogChangeLog();
+        long start = log.currentVersion(1L);
+
+        log.recordChange(1L, 10L);
+        long afterFirst = log.recordChange(1L, 11L);
+        log.recordChange(1L, 10L);
+        log.recordDeletion(1L, 11L);
+        log.recordChange(2L, 99L);
+
+        CatalogChangeLog.Delta all = log.changesSince(1L, start).orElseThrow();
+        assertEquals(List.of(10L), all.changedProductIds());
+        assertEquals(List.of(11L), all.deletedProductIds());
+        assertEquals(log.currentVersion(1L), all.version());
+
+        CatalogChangeLog.Delta later = log.changesSince(1L, afterFirst).orElseThrow();
+        assertEquals(List.of(10L), later.changedProductIds());
+        assertEquals(List.of(11L), later.deletedProductIds());
+
+        assertTrue(log.changesSince(1L, all.version()).orElseThrow().changedProductIds().isEmpty());
+    }
+
+    @Test
+    public void testChangesSince_RequiresSnapshotWhenTooOldOrReset() {
+        CatalogChangeLog log = new CatalogChangeLog();
+        long start = log.currentVersion(1L);
+
+        for (long id = 0; id <= CatalogChangeLog.MAX_RETAINED_CHANGES; id++) {
+            log.recordChange(1L, id);
+        }
+        assertTrue(log.changesSince(1L, start).isEmpty());
+        assertTrue(log.changesSince(1L, log.currentVersion(1L) + 1).isEmpty());
+
+        long beforeReset = log.currentVersion(1L);
+        log.reset(1L);
+        assertTrue(log.changesSince(1L, beforeReset).isEmpty());
+        assertTrue(log.changesSince(1L, log.currentVersion(1L)).isPresent());
+    }
+
+    @Test
+    public void testChangesSince_RequiresSnapshotFromAnotherEpoch() {
+        // A restart one second later (or another instance): the old process ran far ahead
+        Instant startup = Instant.parse("2026-03-01T10:00:00Z");
+        CatalogChangeLog before = new CatalogChangeLog(CatalogChangeLog.epochOf(startup));
+        for (long id = 0; id < 50; id++) {
+            before.recordChange(1L, id);
+        }
+        long oldVersion = before.recordChange(1L, 7L);
+        CatalogChangeLog after = new CatalogChangeLog(CatalogChangeLog.epochOf(startup.plusSeconds(1)));
+        long newStart = after.currentVersion(1L);
+        after.recordChange(1L, 8L);
+
+        assertTrue(after.changesSince(1L, oldVersion).isEmpty());
+        assertTrue(before.changesSince(1L, newStart).isEmpty());
+        assertTrue(newStart > oldVersion);
+        assertEquals(CatalogChangeLog.epochOf(startup.plusSeconds(1)) << CatalogChangeLog.COUNTER_BITS, newStart);
+        assertEquals(List.of(8L), after.changesSince(1L, newStart).orElseThrow().changedProductIds());
+    }
+}
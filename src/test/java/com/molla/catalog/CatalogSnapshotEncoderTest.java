@@ -0,0 +1,104 @@
+package com.molla.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.molla.payload.dto.CatalogSnapshotDto;
+import com.molla.payload.dto.CategoryDto;
+import com.molla.payload.dto.ProductDto;
+import com.molla.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSnapshotEncoderTest {
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    private CategoryDto category(long id, String name) {
+        CategoryDto category = new CategoryDto();
+        category.setId(id);
+        category.setName(name);
+        category.setStoreId(1L);
+        return category;
+    }
+
+    private ProductDto product(long id, CategoryDto category) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setSku("SKU-" + id);
+        product.setSellingPrice(10.0 + id);
+        product.setStoreId(1L);
+        product.setCategory(category);
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        return product;
+    }
+
+    @Test
+    public void testSnapshot_SharesCategoriesAndRoundTrips() throws Exception {
+        CategoryDto dairy = category(5L, "Dairy");
+        CategoryDto bakery = category(6L, "Bakery");
+        List<ProductDto> products = List.of(product(1L, dairy), product(2L, bakery), product(3L, dairy), product(4L, null));
+
+        byte[] bytes = CatalogSnapshotEncoder.encode(CatalogSnapshotEncoder.toSnapshot(1L, 42L, products));
+
+        ObjectMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+        CatalogSnapshotDto decoded = cbor.readValue(bytes, CatalogSnapshotDto.class);
+        assertEquals(42L, decoded.getVersion());
+        assertEquals(List.of("Dairy", "Bakery"), decoded.getCategories().stream().map(CategoryDto::getName).toList());
+        assertEquals(0, decoded.getProducts().get(0).getCategory());
+        assertEquals(1, decoded.getProducts().get(1).getCategory());
+        assertEquals(0, decoded.getProducts().get(2).getCategory());
+        assertNull(decoded.getProducts().get(3).getCategory());
+        assertEquals("SKU-2", decoded.getProducts().get(1).getSku());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 0), decoded.getProducts().get(0).getCreatedAt());
+    }
+
+    @Test
+    public void testSnapshot_SmallerThanJson() throws Exception {
+        CategoryDto category = category(5L, "Household and cleaning supplies");
+        category.setDescription("Detergents, soaps, brushes and other everyday cleaning products");
+        List<ProductDto> products = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            products.add(product(id, category));
+        }
+
+        byte[] cbor = CatalogSnapshotEncoder.encode(CatalogSnapshotEncoder.toSnapshot(1L, 1L, products));
+        byte[] json = new ObjectMapper().findAndRegisterModules().writeValueAsBytes(products);
+
+        assertTrue(cbor.length * 2 < json.length, "cbor " + cbor.length + " bytes, json " + json.length + " bytes");
+    }
+
+    @Test
+    public void testSnapshot_CachedPerVersion() {
+        CatalogChangeLog changeLog = new CatalogChangeLog();
+        CatalogSnapshotEncoder encoder = new CatalogSnapshotEncoder(productSearchIndex, changeLog);
+        when(productSearchIndex.all(1L)).thenReturn(List.of(product(1L, null)));
+
+        CatalogSnapshotEncoder.Encoded first = encoder.snapshot(1L);
+        assertSame(first, encoder.snapshot(1L));
+
+        changeLog.recordChange(1L, 1L);
+        CatalogSnapshotEncoder.Encoded second = encoder.snapshot(1L);
+        assertNotSame(first, second);
+        assertTrue(second.version() > first.version());
+        verify(productSearchIndex, times(2)).all(1L);
+    }
+}
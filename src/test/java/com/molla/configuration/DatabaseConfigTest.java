@@ -0,0 +1,42 @@
+package com.molla.configuration;
+
+import com.molla.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * MySQL connections must open server-side cursors for a positive fetch size,
+ * or the streamed lists read whole tables into the heap.
+ */
+public class DatabaseConfigTest {
+
+    private final DatabaseConfig config = new DatabaseConfig();
+
+    private String jdbcUrl(String url) {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername("pos");
+        ReplicaLagMonitor noReplicas = new ReplicaLagMonitor(Map.of(), Duration.ofSeconds(5), Duration.ofSeconds(5));
+        try (HikariDataSource dataSource = (HikariDataSource) config.dataSource(properties, noReplicas)) {
+            return dataSource.getJdbcUrl();
+        }
+    }
+
+    @Test
+    public void testMySqlUrls_UseCursorFetch() {
+        assertEquals("jdbc:mysql://localhost:3306/pos_db?useCursorFetch=true",
+                jdbcUrl("jdbc:mysql://localhost:3306/pos_db"));
+        assertEquals("jdbc:mysql://db:3306/pos?sslMode=REQUIRED&useCursorFetch=true",
+                jdbcUrl("jdbc:mysql://db:3306/pos?sslMode=REQUIRED"));
+        assertEquals("jdbc:mysql://db:3306/pos?useCursorFetch=true",
+                jdbcUrl("mysql://pos:secret@db:3306/pos"));
+        assertEquals("jdbc:mysql://db/pos?useCursorFetch=false", jdbcUrl("jdbc:mysql://db/pos?useCursorFetch=false"));
+        assertEquals("jdbc:postgresql://db:5432/pos", jdbcUrl("jdbc:postgresql://db:5432/pos"));
+    }
+}
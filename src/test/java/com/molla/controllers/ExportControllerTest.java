@@ -0,0 +1,49 @@
+package com.molla.controllers;
+
+import com.molla.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * The export body gets the 30 minute export timeout on its async context, while
+ * any other streamed response keeps the MVC default.
+ */
+public class ExportControllerTest {
+
+    @RestController
+    static class OtherStream {
+
+        @GetMapping("/other")
+        StreamingResponseBody other() {
+            return out -> out.write('x');
+        }
+    }
+
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new ExportController(mock(ExportService.class)), new OtherStream())
+            .setAsyncRequestTimeout(30_000)
+            .build();
+
+    @Test
+    public void testExportTimeout_OnlyOnExports() throws Exception {
+        MvcResult export = mvc.perform(get("/api/exports/orders?branchId=1&from=2026-01-01&to=2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult other = mvc.perform(get("/other"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(30 * 60_000L, export.getRequest().getAsyncContext().getTimeout());
+        assertEquals(30_000L, other.getRequest().getAsyncContext().getTimeout());
+    }
+}
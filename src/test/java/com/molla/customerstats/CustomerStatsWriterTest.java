@@ -0,0 +1,114 @@
+package com.molla.customerstats;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.event.RefundIssuedEvent;
+import com.molla.model.CustomerStats;
+import com.molla.repository.CustomerStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Orders and a refund are inserted and handed to the writer as their events,
+ * as checkout does; the incremental stats must match what a rebuild computes
+ * from the same rows. The writer commits on its own, so the test runs without
+ * a transaction and clears the tables afterwards.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ CustomerStatsWriter.class, OrderArchiveRepository.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CustomerStatsWriterTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 3, 9, 9, 0);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CustomerStatsWriter writer;
+
+    @Autowired
+    private CustomerStatsRepository statsRepository;
+
+    @BeforeEach
+    void placeOrders() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        order(1L, 1L, 7L, MORNING.plusDays(2), 20.0);
+        order(2L, 2L, 7L, MORNING, 10.0);
+        order(3L, 2L, 7L, MORNING.plusDays(5), 30.0);
+        order(4L, 1L, 8L, MORNING.plusDays(1), 15.0);
+        order(5L, 1L, null, MORNING, 99.0);
+        jdbc.update("INSERT INTO refund (id, order_id, branch_id, amount, created_at) VALUES (1, 3, 2, 12.5, ?)",
+                Timestamp.valueOf(MORNING.plusDays(6)));
+        writer.onRefundIssued(new RefundIssuedEvent(1L, 3L, 2L, 7L, PaymentType.CASH, MORNING.plusDays(6), 12.5));
+    }
+
+    private void order(Long id, Long branchId, Long customerId, LocalDateTime createdAt, double total) {
+        jdbc.update("INSERT INTO orders (id, branch_id, customer_id, total_amount, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, branchId, customerId, total, Timestamp.valueOf(createdAt));
+        writer.onOrderPlaced(new OrderPlacedEvent(id, 1L, branchId, null, customerId, PaymentType.CASH, createdAt,
+                total, List.of()));
+    }
+
+    @AfterEach
+    void clearTables() {
+        for (String table : new String[]{"customer_stats", "customer_branch_stats", "refund", "orders"}) {
+            jdbc.execute("DELETE FROM " + table);
+        }
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private CustomerStats stats(Long customerId) {
+        return statsRepository.findByCustomerId(customerId).orElseThrow();
+    }
+
+    private void assertCustomer7() {
+        CustomerStats stats = stats(7L);
+        assertEquals(3L, stats.getOrderCount());
+        assertEquals(60.0, stats.getTotalSpent(), 1e-9);
+        assertEquals(1L, stats.getRefundCount());
+        assertEquals(12.5, stats.getRefundAmount(), 1e-9);
+        assertEquals(MORNING, stats.getFirstOrderAt());
+        assertEquals(MORNING.plusDays(5), stats.getLastOrderAt());
+        // Branch 1 was the favourite first, branch 2 overtook it with its second order
+        assertEquals(2L, stats.getFavouriteBranchId());
+        assertEquals(2L, stats.getFavouriteBranchOrders());
+    }
+
+    @Test
+    void addsOrdersAndRefundsAsTheyCommit() {
+        assertCustomer7();
+        assertEquals(1L, stats(8L).getOrderCount());
+        assertEquals(1L, stats(8L).getFavouriteBranchId());
+        assertEquals(2L, statsRepository.count());
+    }
+
+    @Test
+    void rebuildMatchesTheIncrementalStats() {
+        jdbc.update("UPDATE orders SET total_amount = 25.0 WHERE id = 4");
+        jdbc.update("DELETE FROM customer_stats WHERE customer_id = 7");
+
+        assertEquals(2, writer.rebuild());
+
+        assertCustomer7();
+        assertEquals(25.0, stats(8L).getTotalSpent(), 1e-9);
+        assertTrue(statsRepository.findByCustomerId(5L).isEmpty());
+    }
+}
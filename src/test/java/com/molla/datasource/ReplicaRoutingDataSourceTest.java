@@ -0,0 +1,123 @@
+package com.molla.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes over two in-memory H2 databases, each tagged with its role, and checks
+ * which one a transaction actually reads from.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private volatile double replicaLag;
+    private volatile boolean replicaDown;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing_primary", "primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", new DelegatingDataSource(database("routing_replica", "replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (replicaDown) {
+                    throw new SQLException("Connection refused");
+                }
+                return super.getConnection();
+            }
+        });
+        replicaLag = 0;
+        replicaDown = false;
+        monitor = new ReplicaLagMonitor(replicas, Duration.ofSeconds(5), Duration.ofMinutes(1),
+                connection -> replicaLag);
+        monitor.checkAll();
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, monitor));
+        jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setName("com.molla.service.impl.ShiftReportServiceImpl.getAllShiftReports");
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        monitor.close();
+    }
+
+    private static DataSource database(String name, String role) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (role VARCHAR(16))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", role);
+        return dataSource;
+    }
+
+    private String node(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbc.queryForObject("SELECT role FROM node", String.class));
+    }
+
+    @Test
+    void testReadOnlyTransactions_ReadFromReplica() {
+        assertEquals("replica", node(readOnly));
+        assertEquals("primary", node(readWrite));
+        // No transaction at all
+        assertEquals("primary", jdbc.queryForObject("SELECT role FROM node", String.class));
+    }
+
+    @Test
+    void testSpringDataImplicitTransactions_StayOnPrimary() {
+        readOnly.setName("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById");
+        assertEquals("primary", node(readOnly));
+    }
+
+    @Test
+    void testLaggingReplica_FallsBackToPrimaryUntilCaughtUp() {
+        replicaLag = 30;
+        monitor.checkAll();
+        assertTrue(monitor.healthyReplicas().isEmpty());
+        assertEquals("primary", node(readOnly));
+
+        replicaLag = 1;
+        monitor.checkAll();
+        assertEquals(List.of("replica-0"), monitor.healthyReplicas());
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void testUnreachableReplica_FallsBackToPrimaryAndIsMarkedDown() {
+        replicaDown = true;
+        assertEquals("primary", node(readOnly));
+        assertTrue(monitor.healthyReplicas().isEmpty());
+        assertFalse(monitor.getStatuses().get("replica-0").healthy());
+
+        replicaDown = false;
+        monitor.checkAll();
+        assertEquals("replica", node(readOnly));
+    }
+}
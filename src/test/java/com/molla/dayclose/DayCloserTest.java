@@ -0,0 +1,227 @@
+package com.molla.dayclose;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.domain.DayCloseStatus;
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.event.RefundIssuedEvent;
+import com.molla.model.DayClose;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.DayCloseRepository;
+import com.molla.repository.OrderRepository;
+import com.molla.repository.RefundRepository;
+import com.molla.repository.SalesRollupRepository;
+import com.molla.rollup.SalesRollupWriter;
+import com.molla.repository.ShiftReportRepository;
+import com.molla.service.ShiftReportService;
+import com.molla.service.UserService;
+import com.molla.service.impl.ShiftReportServiceImpl;
+import com.molla.util.EntityStreams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Store 1 has branches 1 and 2, store 2 has branch 3. Yesterday's orders reach
+ * the rollups through their events, except one of branch 2 whose delta was
+ * lost, so branch 2 (and store 1) must not reconcile. Branch 3 fails on the
+ * first run: the second run must close only branch 3 and then store 2. Every
+ * branch commits on its own, so the test runs without a transaction and clears
+ * the tables afterwards. The last test closes a real dangling shift and checks
+ * that building its report leaves the stock of the products sold alone.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ SalesRollupWriter.class, OrderArchiveRepository.class, EntityStreams.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DayCloserTest {
+
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private SalesRollupWriter writer;
+
+    @Autowired
+    private DayCloseRepository dayCloseRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private ShiftReportRepository shiftReportRepository;
+
+    @Autowired
+    private EntityStreams entityStreams;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ShiftReportService shiftReportService = mock(ShiftReportService.class);
+
+    private DayCloser dayCloser;
+
+    @BeforeEach
+    void placeOrders() {
+        dayCloser = new DayCloser(dayCloseRepository, branchRepository, salesRollupRepository, orderRepository,
+                refundRepository, shiftReportService, writer, transactionManager);
+        when(shiftReportService.closeDanglingShifts(anyLong(), any(), any())).thenReturn(1);
+        when(shiftReportService.closeDanglingShifts(eq(3L), any(), any()))
+                .thenThrow(new IllegalStateException("shift table locked"))
+                .thenReturn(0);
+
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbc.update("INSERT INTO branch (id, store_id) VALUES (1, 1), (2, 1), (3, 2)");
+        LocalDateTime noon = YESTERDAY.atTime(12, 0);
+        order(1L, 1L, PaymentType.CASH, noon, 20.0, true);
+        order(2L, 1L, PaymentType.CARD, noon, 10.0, true);
+        order(3L, 2L, PaymentType.CASH, noon, 5.0, true);
+        order(4L, 2L, PaymentType.CASH, noon, 7.0, false);
+        jdbc.update("INSERT INTO refund (id, order_id, branch_id, payment_type, amount, created_at) "
+                + "VALUES (1, 1, 1, 'CASH', 5, ?)", Timestamp.valueOf(noon.plusHours(1)));
+        writer.onRefundIssued(new RefundIssuedEvent(1L, 1L, 1L, null, PaymentType.CASH, noon.plusHours(1), 5.0));
+    }
+
+    private void order(Long id, Long branchId, PaymentType paymentType, LocalDateTime createdAt, double total,
+                       boolean delta) {
+        jdbc.update("INSERT INTO orders (id, branch_id, payment_type, total_amount, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, branchId, paymentType.name(), total, Timestamp.valueOf(createdAt));
+        jdbc.update("INSERT INTO order_item (id, order_id, product_id, quantity, total_price) VALUES (?, ?, 1, 1, ?)",
+                id, id, total);
+        if (delta) {
+            writer.onOrderPlaced(new OrderPlacedEvent(id, null, branchId, null, null, paymentType, createdAt, total,
+                    List.of(new OrderPlacedEvent.Line(1L, null, 1, total))));
+        }
+    }
+
+    @AfterEach
+    void clearTables() {
+        for (String table : new String[]{"day_close_payment", "day_close", "sales_rollup", "refund", "order_item",
+                "orders", "shift_report", "users", "product", "branch"}) {
+            jdbc.execute("DELETE FROM " + table);
+        }
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private DayClose row(Long storeId, Long branchId) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            DayClose row = branchId != null
+                    ? dayCloseRepository.findByBranchIdAndBusinessDate(branchId, YESTERDAY).orElseThrow()
+                    : dayCloseRepository.findStoreRow(storeId, YESTERDAY).orElse(null);
+            if (row != null) {
+                row.getPayments().size();
+            }
+            return row;
+        });
+    }
+
+    @Test
+    void testClose_TotalsAndReconciliation() {
+        DayCloser.Summary summary = dayCloser.close(YESTERDAY);
+        assertEquals(new DayCloser.Summary(YESTERDAY, 3, 2, 1, 0, 1), summary);
+
+        DayClose branch1 = row(1L, 1L);
+        assertEquals(DayCloseStatus.CLOSED, branch1.getStatus());
+        assertEquals(2L, branch1.getOrders());
+        assertEquals(30.0, branch1.getSalesAmount());
+        assertEquals(5.0, branch1.getRefundAmount());
+        assertEquals(25.0, branch1.getNetSales());
+        assertEquals(1, branch1.getClosedShifts());
+        assertTrue(branch1.getReconciled());
+        assertEquals(2, branch1.getPayments().size());
+
+        DayClose branch2 = row(1L, 2L);
+        assertFalse(branch2.getReconciled());
+        assertEquals(5.0, branch2.getSalesAmount());
+        assertEquals(12.0, branch2.getOrderTotal());
+        assertTrue(branch2.getNote().startsWith("CASH sales 5.0 (1 orders) vs orders 12.0 (2)"), branch2.getNote());
+
+        DayClose store1 = row(1L, null);
+        assertEquals(3L, store1.getOrders());
+        assertEquals(35.0, store1.getSalesAmount());
+        assertEquals(42.0, store1.getOrderTotal());
+        assertEquals(2, store1.getClosedShifts());
+        assertFalse(store1.getReconciled());
+
+        DayClose branch3 = row(2L, 3L);
+        assertEquals(DayCloseStatus.FAILED, branch3.getStatus());
+        assertEquals("shift table locked", branch3.getNote());
+        assertEquals(null, row(2L, null));
+        assertEquals(List.of(YESTERDAY), dayCloseRepository.findUnfinishedDays(YESTERDAY.minusDays(7)));
+    }
+
+    @Test
+    void testSecondRun_OnlyRedoesFailedBranches() {
+        dayCloser.close(YESTERDAY);
+        DayCloser.Summary summary = dayCloser.close(YESTERDAY);
+
+        assertEquals(new DayCloser.Summary(YESTERDAY, 3, 1, 0, 2, 2), summary);
+        assertEquals(1, row(1L, 1L).getAttempts());
+        DayClose branch3 = row(2L, 3L);
+        assertEquals(DayCloseStatus.CLOSED, branch3.getStatus());
+        assertEquals(2, branch3.getAttempts());
+        assertTrue(branch3.getReconciled());
+        assertEquals(DayCloseStatus.CLOSED, row(2L, null).getStatus());
+        assertTrue(dayCloseRepository.findUnfinishedDays(YESTERDAY.minusDays(7)).isEmpty());
+    }
+
+    @Test
+    void testCloseDanglingShift_LeavesStockAlone() {
+        LocalDateTime shiftStart = YESTERDAY.atTime(6, 0);
+        jdbc.update("INSERT INTO product (id, name, sku, quantity) VALUES (10, 'Milk', 'MILK-1', 100)");
+        jdbc.update("INSERT INTO users (id, full_name, email, password, role, branch_id) "
+                + "VALUES (5, 'Till 1', 'till1@example.com', 'x', 'ROLE_CASHIER', 1)");
+        jdbc.update("INSERT INTO shift_report (id, cashier_id, branch_id, shift_start) VALUES (1, 5, 1, ?)",
+                Timestamp.valueOf(shiftStart));
+        jdbc.update("INSERT INTO orders (id, branch_id, cashier_id, payment_type, total_amount, created_at) "
+                + "VALUES (5, 1, 5, 'CASH', 196, ?)", Timestamp.valueOf(shiftStart.plusHours(2)));
+        jdbc.update("INSERT INTO order_item (id, order_id, product_id, quantity, total_price) "
+                + "VALUES (5, 5, 10, 98, 196)");
+        ShiftReportService shifts = new ShiftReportServiceImpl(shiftReportRepository, mock(UserService.class),
+                orderRepository, refundRepository, branchRepository, entityStreams);
+        dayCloser = new DayCloser(dayCloseRepository, branchRepository, salesRollupRepository, orderRepository,
+                refundRepository, shifts, writer, transactionManager);
+
+        dayCloser.close(YESTERDAY);
+
+        assertEquals(1, row(1L, 1L).getClosedShifts());
+        assertEquals(shiftStart.plusHours(16), jdbc.queryForObject(
+                "SELECT shift_end FROM shift_report WHERE id = 1", Timestamp.class).toLocalDateTime());
+        assertEquals(196.0, jdbc.queryForObject("SELECT total_sales FROM shift_report WHERE id = 1", Double.class));
+        assertEquals(100, jdbc.queryForObject("SELECT quantity FROM product WHERE id = 10", Integer.class));
+    }
+}
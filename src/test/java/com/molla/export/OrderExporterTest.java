@@ -0,0 +1,128 @@
+package com.molla.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.molla.archive.OrderArchiveRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exports rows inserted on H2 as CSV and NDJSON: the date range and the branch or
+ * store filter apply, rows come out oldest first, and awkward text is quoted.
+ * Switching referential integrity off commits on H2, so the test runs without a
+ * transaction and clears the tables afterwards.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ OrderExporter.class, OrderArchiveRepository.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderExporterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private OrderExporter exporter;
+
+    @BeforeEach
+    void insertRows() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbc.update("INSERT INTO branch (id, name, store_id) VALUES (1, 'Main', 1), (2, 'Mall', 1), (3, 'Other', 2)");
+        jdbc.update("INSERT INTO product (id, name, sku) VALUES (1, 'Chair, \"oak\"', 'SKU-1')");
+        order(3L, 1L, DAY.atTime(15, 0), 30.0);
+        order(1L, 1L, DAY.atTime(9, 30), 12.5);
+        order(2L, 2L, DAY.atTime(11, 0), 20.0);
+        order(4L, 3L, DAY.atTime(12, 0), 99.0);
+        order(5L, 1L, DAY.plusDays(1).atTime(8, 0), 7.0);
+        jdbc.update("INSERT INTO order_item (id, order_id, product_id, quantity, price, total_price) "
+                + "VALUES (10, 1, 1, 2, 6.25, 12.5)");
+        jdbc.update("INSERT INTO refund (id, order_id, branch_id, payment_type, amount, reason, created_at) "
+                + "VALUES (1, 1, 1, 'CASH', 2.5, ?, ?)", "Broken leg,\nsaid \"sorry\"", Timestamp.valueOf(DAY.atTime(16, 0)));
+    }
+
+    private void order(Long id, Long branchId, LocalDateTime createdAt, double total) {
+        jdbc.update("INSERT INTO orders (id, branch_id, cashier_id, payment_type, status, total_amount, created_at) "
+                + "VALUES (?, ?, 7, 'CASH', 'COMPLETED', ?, ?)", id, branchId, total, Timestamp.valueOf(createdAt));
+    }
+
+    @AfterEach
+    void clearTables() {
+        for (String table : new String[]{"refund", "order_item", "orders", "product", "branch"}) {
+            jdbc.execute("DELETE FROM " + table);
+        }
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private String export(ExportDataset dataset, Long storeId, Long branchId, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(dataset, new OrderExporter.Filter(storeId, branchId, DAY.atStartOfDay(),
+                DAY.plusDays(1).atStartOfDay()), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testOrdersCsv_ForOneBranchAndDay() throws Exception {
+        String csv = export(ExportDataset.ORDERS, null, 1L, ExportFormat.CSV);
+
+        assertEquals(List.of(
+                "id,created_at,branch_id,cashier_id,customer_id,payment_type,status,total_amount",
+                "1,2026-03-10T09:30,1,7,,CASH,COMPLETED,12.5",
+                "3,2026-03-10T15:00,1,7,,CASH,COMPLETED,30"), List.of(csv.split("\r\n")));
+    }
+
+    @Test
+    void testOrdersCsv_ForEveryBranchOfAStore() throws Exception {
+        String[] lines = export(ExportDataset.ORDERS, 1L, null, ExportFormat.CSV).split("\r\n");
+
+        assertEquals(4, lines.length);
+        assertEquals(List.of("1", "2", "3"), List.of(lines).subList(1, 4).stream()
+                .map(line -> line.substring(0, line.indexOf(','))).toList());
+    }
+
+    @Test
+    void testOrderItemsNdjson() throws Exception {
+        String ndjson = export(ExportDataset.ORDER_ITEMS, null, 1L, ExportFormat.NDJSON);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(1, lines.length);
+        JsonNode item = new ObjectMapper().readTree(lines[0]);
+        assertEquals(1, item.get("order_id").asLong());
+        assertEquals("Chair, \"oak\"", item.get("product_name").asText());
+        assertEquals("SKU-1", item.get("sku").asText());
+        assertEquals(12.5, item.get("total_price").asDouble());
+        assertEquals("2026-03-10T09:30", item.get("created_at").asText());
+    }
+
+    @Test
+    void testRefundsCsv_QuotesText() throws Exception {
+        String csv = export(ExportDataset.REFUNDS, 1L, null, ExportFormat.CSV);
+
+        assertEquals("id,order_id,created_at,branch_id,cashier_id,shift_report_id,payment_type,amount,reason\r\n"
+                + "1,1,2026-03-10T16:00,1,,,CASH,2.5,\"Broken leg,\nsaid \"\"sorry\"\"\"\r\n", csv);
+    }
+
+    @Test
+    void testEmptyRange_WritesHeaderOnly() throws Exception {
+        String csv = export(ExportDataset.ORDERS, null, 99L, ExportFormat.CSV);
+        assertEquals(1, csv.split("\r\n").length);
+    }
+}
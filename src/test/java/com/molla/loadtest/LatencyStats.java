@@ -0,0 +1,103 @@
+package com.molla.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Latency samples per endpoint (method + route template), reported as
+ * throughput and nearest-rank percentiles. Every sample is kept, which is fine for
+ * the few million requests a run produces and keeps the percentiles exact.
+ */
+final class LatencyStats {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Pattern SINCE_PARAM = Pattern.compile("[?&]since=");
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    void record(String endpoint, long nanos, boolean ok) {
+        endpoints.computeIfAbsent(endpoint, e -> new Endpoint()).add(nanos, ok);
+    }
+
+    Map<String, Summary> summaries(Duration elapsed) {
+        Map<String, Summary> summaries = new ConcurrentSkipListMap<>();
+        endpoints.forEach((endpoint, samples) -> summaries.put(endpoint, samples.summarize(elapsed)));
+        return summaries;
+    }
+
+    void print(PrintStream out, Duration elapsed) {
+        Map<String, Summary> summaries = summaries(elapsed);
+        long total = 0;
+        long errors = 0;
+        out.printf("%-48s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+            Summary s = entry.getValue();
+            out.printf("%-48s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), s.count(), s.errors(),
+                    s.throughput(), millis(s.p50()), millis(s.p90()), millis(s.p99()), millis(s.max()));
+            total += s.count();
+            errors += s.errors();
+        }
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        out.printf("%-48s %9d %7d %9.1f%n", "TOTAL", total, errors, total / seconds);
+    }
+
+    /**
+     * Route template for a raw request: numeric segments (ids, barcodes) become
+     * {id} and the query string is dropped, except for a since marker because a
+     * delta sync does far less work than a full one.
+     */
+    static String route(String method, String path) {
+        int query = path.indexOf('?');
+        String bare = query >= 0 ? path.substring(0, query) : path;
+        String route = method + " " + ID_SEGMENT.matcher(bare).replaceAll("/{id}");
+        return query >= 0 && SINCE_PARAM.matcher(path.substring(query)).find() ? route + "?since" : route;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    record Summary(long count, long errors, double throughput, long p50, long p90, long p99, long max) {
+    }
+
+    private static final class Endpoint {
+
+        private long[] samples = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long nanos, boolean ok) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized Summary summarize(Duration elapsed) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+            return new Summary(size, errors, size / seconds, percentile(sorted, 50), percentile(sorted, 90),
+                    percentile(sorted, 99), size > 0 ? sorted[size - 1] : 0);
+        }
+    }
+}
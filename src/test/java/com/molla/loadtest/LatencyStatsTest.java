@@ -0,0 +1,37 @@
+package com.molla.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyStatsTest {
+
+    @Test
+    public void testPercentilesAreNearestRank() {
+        LatencyStats stats = new LatencyStats();
+        for (int i = 1; i <= 200; i++) {
+            stats.record("GET /api/orders/{id}", i * 1_000_000L, i % 50 != 0);
+        }
+
+        LatencyStats.Summary summary = stats.summaries(Duration.ofSeconds(10)).get("GET /api/orders/{id}");
+
+        assertEquals(200, summary.count());
+        assertEquals(4, summary.errors());
+        assertEquals(20.0, summary.throughput(), 1e-9);
+        assertEquals(100_000_000L, summary.p50());
+        assertEquals(180_000_000L, summary.p90());
+        assertEquals(198_000_000L, summary.p99());
+        assertEquals(200_000_000L, summary.max());
+    }
+
+    @Test
+    public void testRouteGroupsIdsAndKeepsDeltaSync() {
+        assertEquals("GET /api/products/scan/{id}", LatencyStats.route("GET", "/api/products/scan/8900000000042?storeId=1"));
+        assertEquals("GET /api/orders/branch/{id}/paged", LatencyStats.route("GET", "/api/orders/branch/3/paged?page=2"));
+        assertEquals("GET /api/products/sync", LatencyStats.route("GET", "/api/products/sync?storeId=1"));
+        assertEquals("GET /api/products/sync?since", LatencyStats.route("GET", "/api/products/sync?storeId=1&since=17"));
+        assertEquals("PATCH /api/shift-reports/end", LatencyStats.route("PATCH", "/api/shift-reports/end"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.molla.loadtest;
+
+import com.molla.domain.StoreStatus;
+import com.molla.domain.UserRole;
+import com.molla.model.Branch;
+import com.molla.model.Category;
+import com.molla.model.Customer;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.repository.BranchRepository;
+import com.molla.repository.CategoryRepository;
+import com.molla.repository.CustomerRepository;
+import com.molla.repository.ProductRepository;
+import com.molla.repository.StoreRepository;
+import com.molla.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the embedded database of a booted loadtest instance through the
+ * repositories: one store, one branch per four tills, a cashier per till, a
+ * catalog and a pool of customers. Deterministic for a given size.
+ */
+final class LoadTestSeeder {
+
+    static final String PASSWORD = "loadtest";
+
+    private static final String[] BRANDS = {"Amul", "Tata", "Nestle", "Britannia", "Dabur", "Parle", "Haldiram", "ITC"};
+    private static final String[] WORDS = {"milk", "tea", "coffee", "biscuit", "rice", "atta", "sugar", "salt",
+            "soap", "shampoo", "butter", "cheese", "juice", "noodles", "chips", "honey", "oil", "ghee"};
+
+    private LoadTestSeeder() {
+    }
+
+    record Seed(List<String> cashierEmails, List<Long> customerIds) {
+    }
+
+    static Seed seed(ApplicationContext context, int tills, int products, int customers) {
+        UserRepository users = context.getBean(UserRepository.class);
+        StoreRepository stores = context.getBean(StoreRepository.class);
+        BranchRepository branches = context.getBean(BranchRepository.class);
+        CategoryRepository categories = context.getBean(CategoryRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+        String password = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        LocalDateTime now = LocalDateTime.now();
+
+        User admin = users.save(user("admin@loadtest.local", "Store Admin", UserRole.ROLE_STORE_ADMIN, password, null, null));
+        Store store = new Store();
+        store.setBrand("Load Test Mart");
+        store.setStoreAdmin(admin);
+        store.setStoreStatus(StoreStatus.ACTIVE);
+        store.setCreatedAt(now);
+        store = stores.save(store);
+        admin.setStore(store);
+        users.save(admin);
+
+        List<Branch> branchList = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, (tills + 3) / 4); i++) {
+            branchList.add(branches.save(Branch.builder()
+                    .name("Branch " + (i + 1))
+                    .address((i + 1) + " Market Road")
+                    .workingDays(List.of("MON", "TUE", "WED", "THU", "FRI", "SAT"))
+                    .store(store)
+                    .createdAt(now)
+                    .build()));
+        }
+
+        List<String> cashierEmails = new ArrayList<>();
+        for (int i = 0; i < tills; i++) {
+            String email = "till" + (i + 1) + "@loadtest.local";
+            users.save(user(email, "Till " + (i + 1), UserRole.ROLE_BRANCH_CASHIER, password, store,
+                    branchList.get(i % branchList.size())));
+            cashierEmails.add(email);
+        }
+
+        Random random = new Random(42);
+        List<Category> categoryList = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Category category = new Category();
+            category.setName("Category " + (i + 1));
+            category.setStore(store);
+            categoryList.add(categories.save(category));
+        }
+        List<Product> catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + (100 + random.nextInt(900)) + "g");
+            product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            product.setSku(String.format("89%011d", i));
+            product.setMrp(10.0 + random.nextInt(500));
+            product.setSellingPrice(Math.round(product.getMrp() * 90) / 100.0);
+            product.setQuantity(1_000);
+            product.setStore(store);
+            product.setCategory(categoryList.get(random.nextInt(categoryList.size())));
+            product.setCreatedAt(now);
+            catalog.add(product);
+        }
+        productRepository.saveAll(catalog);
+
+        List<Customer> customerList = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            Customer customer = new Customer();
+            customer.setName("Customer " + (i + 1));
+            customer.setPhone(String.format("98%08d", i));
+            customer.setEmail("customer" + (i + 1) + "@loadtest.local");
+            customer.setCreatedAt(now);
+            customerList.add(customer);
+        }
+        List<Long> customerIds = customerRepository.saveAll(customerList).stream().map(Customer::getId).toList();
+
+        return new Seed(cashierEmails, customerIds);
+    }
+
+    private static User user(String email, String name, UserRole role, String password, Store store, Branch branch) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(name);
+        user.setRole(role);
+        user.setPassword(password);
+        user.setStore(store);
+        user.setBranch(branch);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
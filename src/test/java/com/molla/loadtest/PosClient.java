@@ -0,0 +1,102 @@
+package com.molla.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP client shared by all tills. Every call is timed into {@link LatencyStats}
+ * under its route template and, when recording, appended to the request log
+ * (without passwords, see {@link RequestLog}).
+ * Non-2xx responses and I/O failures count as errors and return null.
+ */
+final class PosClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final LatencyStats stats;
+    private final RequestLog.Writer recorder;
+    private final ObjectMapper json;
+    private final long startNanos;
+
+    PosClient(String baseUrl, LatencyStats stats, RequestLog.Writer recorder, ObjectMapper json, long startNanos) {
+        this.http = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.stats = stats;
+        this.recorder = recorder;
+        this.json = json;
+        this.startNanos = startNanos;
+    }
+
+    JsonNode get(int till, String path, String jwt) {
+        return send(till, "GET", path, null, jwt);
+    }
+
+    JsonNode post(int till, String path, Object body, String jwt) {
+        return send(till, "POST", path, toJson(body), jwt);
+    }
+
+    JsonNode patch(int till, String path, String jwt) {
+        return send(till, "PATCH", path, null, jwt);
+    }
+
+    JsonNode send(int till, String method, String path, String body, String jwt) {
+        if (recorder != null) {
+            recorder.append(new RequestLog.Entry((System.nanoTime() - startNanos) / 1_000_000, till, method, path,
+                    RequestLog.redact(path, body)));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (jwt != null) {
+            request.header("Authorization", "Bearer " + jwt);
+        }
+        String endpoint = LatencyStats.route(method, path);
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        } catch (Exception e) {
+            stats.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        }
+        boolean ok = response.statusCode() / 100 == 2 || response.statusCode() == 304;
+        stats.record(endpoint, System.nanoTime() - start, ok);
+        if (!ok || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return json.readTree(response.body());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null || body instanceof String) {
+            return (String) body;
+        }
+        try {
+            return json.writeValueAsString(body);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.molla.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.molla.MollaPosSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POS load generator. By default it boots the application with the loadtest
+ * profile (embedded H2, raised rate limits) on a random port, seeds a store and
+ * runs one {@link TillSimulator} per till; --target points it at a running
+ * server instead. Prints throughput and latency percentiles per endpoint.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--tills=16 --duration=60"
+ * </pre>
+ *
+ * Options (--name=value):
+ * tills (8), duration seconds (30), orders per till (0 = until duration),
+ * think-ms mean pause between scans (0), products (2000), customers (500),
+ * target base URL, users comma separated cashier emails and password (with target,
+ * also the password replayed logins use),
+ * record NDJSON file to capture the traffic, replay NDJSON file to re-issue a
+ * capture with its original pacing, speed replay time factor (1.0).
+ */
+public final class PosLoadGenerator {
+
+    private PosLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int tills = Integer.parseInt(options.getOrDefault("tills", "8"));
+        ObjectMapper json = new ObjectMapper();
+        List<RequestLog.Entry> capture = options.containsKey("replay")
+                ? RequestLog.read(Path.of(options.get("replay")))
+                : null;
+        if (capture != null) {
+            // Seed a cashier for every till in the capture
+            tills = capture.stream().mapToInt(RequestLog.Entry::till).max().orElse(-1) + 1;
+        }
+
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        List<String> users;
+        String password;
+        List<Long> customerIds = List.of();
+        if (target == null) {
+            // DevTools would restart main() without our arguments
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            context = new SpringApplicationBuilder(MollaPosSystemApplication.class)
+                    .profiles("loadtest")
+                    .run("--server.port=0");
+            target = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadTestSeeder.Seed seed = LoadTestSeeder.seed(context, tills,
+                    Integer.parseInt(options.getOrDefault("products", "2000")),
+                    Integer.parseInt(options.getOrDefault("customers", "500")));
+            users = seed.cashierEmails();
+            password = LoadTestSeeder.PASSWORD;
+            customerIds = seed.customerIds();
+        } else {
+            users = Arrays.asList(options.getOrDefault("users", "").split(","));
+            password = options.getOrDefault("password", "");
+        }
+
+        LatencyStats stats = new LatencyStats();
+        long start = System.nanoTime();
+        RequestLog.Writer recorder = options.containsKey("record")
+                ? new RequestLog.Writer(Path.of(options.get("record")))
+                : null;
+        try {
+            PosClient client = new PosClient(target, stats, recorder, json, start);
+            if (capture != null) {
+                replay(client, capture, password, Double.parseDouble(options.getOrDefault("speed", "1.0")), start);
+            } else {
+                simulate(client, users, password, customerIds, tills, options, start);
+            }
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("%nPOS load test against %s: %d tills%s, %.1f s%n%n", target,
+                capture != null ? tills : Math.min(tills, users.size()), capture != null ? " replayed" : "",
+                elapsed.toMillis() / 1000.0);
+        stats.print(System.out, elapsed);
+
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private static void simulate(PosClient client, List<String> users, String password, List<Long> customerIds,
+                                 int tills, Map<String, String> options, long start) throws InterruptedException {
+        long duration = Long.parseLong(options.getOrDefault("duration", "30"));
+        int orders = Integer.parseInt(options.getOrDefault("orders", "0"));
+        long think = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        long deadline = start + TimeUnit.SECONDS.toNanos(duration);
+        int count = Math.min(tills, users.size());
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(count, 1));
+        for (int till = 0; till < count; till++) {
+            pool.submit(new TillSimulator(client, till, users.get(till).trim(), password, customerIds,
+                    deadline, orders, think));
+        }
+        pool.shutdown();
+        pool.awaitTermination(duration + 300, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Re-issues a capture, one thread per till, keeping each request's offset from
+     * the start (scaled by speed). Captures hold no passwords, so auth lines get
+     * the replay's password back; login responses provide the till's token.
+     */
+    private static void replay(PosClient client, List<RequestLog.Entry> entries, String password, double speed,
+                               long start)
+            throws InterruptedException {
+        Map<Integer, List<RequestLog.Entry>> byTill = new LinkedHashMap<>();
+        for (RequestLog.Entry entry : entries) {
+            byTill.computeIfAbsent(entry.till(), t -> new ArrayList<>()).add(entry);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(byTill.size(), 1));
+        for (Map.Entry<Integer, List<RequestLog.Entry>> till : byTill.entrySet()) {
+            pool.submit(() -> {
+                String jwt = null;
+                for (RequestLog.Entry entry : till.getValue()) {
+                    long due = start + (long) (entry.offsetMs() * 1_000_000 / speed);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    String body = RequestLog.isAuth(entry.path())
+                            ? RequestLog.withPassword(entry.body(), password)
+                            : entry.body();
+                    JsonNode response = client.send(till.getKey(), entry.method(), entry.path(), body, jwt);
+                    if (entry.path().startsWith("/auth/login") && response != null) {
+                        jwt = response.path("jwt").asText(null);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.DAYS);
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
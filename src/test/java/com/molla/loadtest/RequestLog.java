@@ -0,0 +1,108 @@
+package com.molla.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captured traffic as NDJSON, one request per line:
+ * {"offsetMs":120,"till":0,"method":"POST","path":"/api/orders","body":"{...}"}.
+ * offsetMs is relative to the start of the run and till groups the requests of
+ * one terminal, so a replay keeps each till's order and pacing. Neither
+ * Authorization headers nor passwords are stored: /auth bodies are written
+ * without their password field, and a replayed till authenticates with its own
+ * login line plus the password given to the replay.
+ */
+final class RequestLog {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private RequestLog() {
+    }
+
+    record Entry(long offsetMs, int till, String method, String path, String body) {
+    }
+
+    private static final String PASSWORD = "password";
+
+    static boolean isAuth(String path) {
+        return path.startsWith("/auth/");
+    }
+
+    /** The body as it may go on disk: /auth bodies lose their password, anything unparseable is dropped. */
+    static String redact(String path, String body) {
+        if (body == null || !isAuth(path)) {
+            return body;
+        }
+        try {
+            JsonNode node = JSON.readTree(body);
+            if (!(node instanceof ObjectNode object)) {
+                return null;
+            }
+            object.remove(PASSWORD);
+            return JSON.writeValueAsString(object);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** A recorded /auth body with the password put back for replay. */
+    static String withPassword(String body, String password) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            JsonNode node = JSON.readTree(body);
+            if (!(node instanceof ObjectNode object)) {
+                return body;
+            }
+            object.put(PASSWORD, password);
+            return JSON.writeValueAsString(object);
+        } catch (IOException e) {
+            return body;
+        }
+    }
+
+    static List<Entry> read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                entries.add(JSON.readValue(line, Entry.class));
+            }
+        }
+        return entries;
+    }
+
+    static final class Writer implements Closeable {
+
+        private final BufferedWriter out;
+
+        Writer(Path file) throws IOException {
+            this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+
+        synchronized void append(Entry entry) {
+            try {
+                out.write(JSON.writeValueAsString(entry));
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.molla.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestLogTest {
+
+    @Test
+    public void testAuthBodiesAreRecordedWithoutPassword() {
+        String login = "{\"email\":\"till1@loadtest.local\",\"password\":\"loadtest\"}";
+
+        String recorded = RequestLog.redact("/auth/login", login);
+
+        assertEquals("{\"email\":\"till1@loadtest.local\"}", recorded);
+        assertEquals(login, RequestLog.withPassword(recorded, "loadtest"));
+        assertEquals("{\"customerId\":7}", RequestLog.redact("/api/orders", "{\"customerId\":7}"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.molla.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One cashier terminal working a shift: login, full catalog sync, shift start,
+ * then baskets until the deadline (a barcode scan per item, checkout, an
+ * occasional refund, shift progress polling and delta syncs), then shift close.
+ */
+final class TillSimulator implements Runnable {
+
+    private static final int MAX_BASKET = 8;
+    private static final int POLL_EVERY_ORDERS = 10;
+    private static final int SYNC_EVERY_ORDERS = 25;
+    private static final double REFUND_RATE = 0.05;
+    private static final double CUSTOMER_RATE = 0.3;
+
+    private final PosClient client;
+    private final int till;
+    private final String email;
+    private final String password;
+    private final List<Long> customerIds;
+    private final long deadlineNanos;
+    private final int maxOrders;
+    private final long thinkMillis;
+    private final Random random;
+
+    TillSimulator(PosClient client, int till, String email, String password, List<Long> customerIds,
+                  long deadlineNanos, int maxOrders, long thinkMillis) {
+        this.client = client;
+        this.till = till;
+        this.email = email;
+        this.password = password;
+        this.customerIds = customerIds;
+        this.deadlineNanos = deadlineNanos;
+        this.maxOrders = maxOrders;
+        this.thinkMillis = thinkMillis;
+        this.random = new Random(31L * till + 17);
+    }
+
+    @Override
+    public void run() {
+        JsonNode auth = client.post(till, "/auth/login",
+                Map.of("email", email, "password", password), null);
+        if (auth == null) {
+            return;
+        }
+        String jwt = auth.path("jwt").asText();
+        long storeId = auth.path("user").path("storeId").asLong();
+
+        JsonNode catalog = client.get(till, "/api/products/sync?storeId=" + storeId, jwt);
+        if (catalog == null || catalog.path("products").isEmpty()) {
+            return;
+        }
+        List<String> skus = new ArrayList<>();
+        catalog.path("products").forEach(product -> skus.add(product.path("sku").asText()));
+        long version = catalog.path("version").asLong();
+
+        JsonNode shift = client.post(till, "/api/shift-reports/start", null, jwt);
+        Long shiftId = shift != null && shift.hasNonNull("id") ? shift.get("id").asLong() : null;
+
+        int orders = 0;
+        while (System.nanoTime() < deadlineNanos && (maxOrders <= 0 || orders < maxOrders)
+                && !Thread.currentThread().isInterrupted()) {
+            JsonNode order = checkout(jwt, storeId, skus);
+            if (order == null) {
+                continue;
+            }
+            orders++;
+            if (random.nextDouble() < REFUND_RATE) {
+                refund(jwt, order, shiftId);
+            }
+            if (orders % POLL_EVERY_ORDERS == 0) {
+                client.get(till, "/api/shift-reports/current", jwt);
+            }
+            if (orders % SYNC_EVERY_ORDERS == 0) {
+                JsonNode delta = client.get(till, "/api/products/sync?storeId="
+                        + storeId + "&since=" + version, jwt);
+                if (delta != null) {
+                    version = delta.path("version").asLong(version);
+                }
+            }
+        }
+
+        client.patch(till, "/api/shift-reports/end", jwt);
+    }
+
+    private JsonNode checkout(String jwt, long storeId, List<String> skus) {
+        int basket = 1 + Math.min(MAX_BASKET - 1, (int) (-Math.log(1 - random.nextDouble()) * 2.5));
+        List<Map<String, Object>> items = new ArrayList<>(basket);
+        for (int i = 0; i < basket; i++) {
+            think();
+            String sku = skus.get(random.nextInt(skus.size()));
+            JsonNode product = client.get(till, "/api/products/scan/" + sku + "?storeId=" + storeId, jwt);
+            if (product != null) {
+                items.add(Map.of("productId", product.path("id").asLong(), "quantity", 1 + random.nextInt(3)));
+            }
+        }
+        if (items.isEmpty()) {
+            return null;
+        }
+        think();
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("paymentType", paymentType());
+        order.put("status", "COMPLETED");
+        order.put("orderItems", items);
+        if (!customerIds.isEmpty() && random.nextDouble() < CUSTOMER_RATE) {
+            order.put("customerId", customerIds.get(random.nextInt(customerIds.size())));
+        }
+        return client.post(till, "/api/orders", order, jwt);
+    }
+
+    private void refund(String jwt, JsonNode order, Long shiftId) {
+        Map<String, Object> refund = new LinkedHashMap<>();
+        refund.put("orderId", order.path("id").asLong());
+        refund.put("amount", Math.round(order.path("totalAmount").asDouble() * 50) / 100.0);
+        refund.put("reason", "Damaged item");
+        refund.put("paymentType", order.path("paymentType").asText("CASH"));
+        if (shiftId != null) {
+            refund.put("shiftReportId", shiftId);
+        }
+        client.post(till, "/api/refunds", refund, jwt);
+    }
+
+    private void think() {
+        if (thinkMillis <= 0) {
+            return;
+        }
+        try {
+            // Exponential think time around the configured mean
+            TimeUnit.MILLISECONDS.sleep((long) (-Math.log(1 - random.nextDouble()) * thinkMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tender mix of a typical till: mostly UPI and cash, some card.
+     */
+    private String paymentType() {
+        double r = random.nextDouble();
+        return r < 0.45 ? "UPI" : r < 0.80 ? "CASH" : "CARD";
+    }
+}
@@ -0,0 +1,26 @@
+package com.molla.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MeteredConcurrentMapCacheTest {
+
+    @Test
+    public void testCountsHitsAndMisses() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MeteredConcurrentMapCache cache = new MeteredConcurrentMapCache("stores", true, registry);
+
+        cache.get(1L);
+        cache.put(1L, "Molla");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(1L, () -> "unused");
+
+        assertEquals(3, registry.get("cache.gets").tag("cache", "stores").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "stores").tag("result", "miss").counter().count());
+        assertEquals(0.75, registry.get("cache.hit.ratio").tag("cache", "stores").gauge().value());
+    }
+}
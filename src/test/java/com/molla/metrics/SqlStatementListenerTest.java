@@ -0,0 +1,68 @@
+package com.molla.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SqlStatementListenerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlStats.end();
+    }
+
+    private JdbcTemplate jdbc() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql_listener;DB_CLOSE_DELAY=-1");
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", meterRegistry);
+        SqlStatementListener listener = new SqlStatementListener(beans.getBeanProvider(MeterRegistry.class), 10_000);
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2)
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet()
+                .build();
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void testCountsStatementsAndRowsPerRequest() {
+        JdbcTemplate jdbc = jdbc();
+        jdbc.execute("create table if not exists item (id int primary key)");
+        jdbc.execute("delete from item");
+
+        RequestSqlStats stats = RequestSqlStats.begin();
+        stats.setHandler("ItemController.list");
+        for (int i = 0; i < 5; i++) {
+            jdbc.update("insert into item values (?)", i);
+        }
+        jdbc.queryForList("select id from item", Integer.class);
+        RequestSqlStats.end();
+
+        assertEquals(6, stats.getQueries());
+        assertEquals(5, stats.getRows());
+        assertNull(RequestSqlStats.current());
+        assertEquals(5, meterRegistry.get("pos.sql.statement").tag("type", "insert").timer().count());
+        assertEquals(1, meterRegistry.get("pos.sql.statement").tag("type", "select").timer().count());
+    }
+
+    @Test
+    public void testStatementType() {
+        assertEquals("select", SqlStatementListener.statementType("  SELECT 1"));
+        assertEquals("update", SqlStatementListener.statementType("update orders set status=?"));
+        assertEquals("other", SqlStatementListener.statementType("create table t (id int)"));
+        assertEquals("other", SqlStatementListener.statementType(""));
+    }
+}
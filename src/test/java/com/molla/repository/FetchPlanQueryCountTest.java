@@ -0,0 +1,238 @@
+package com.molla.repository;
+
+import com.molla.domain.PaymentType;
+import com.molla.domain.UserRole;
+import com.molla.mapper.OrderMapper;
+import com.molla.mapper.ProductMapper;
+import com.molla.mapper.RefundMapper;
+import com.molla.mapper.ShiftReportMapper;
+import com.molla.mapper.StoreMapper;
+import com.molla.model.Branch;
+import com.molla.model.Category;
+import com.molla.model.Customer;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.model.Refund;
+import com.molla.model.ShiftReport;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.payload.dto.ShiftReportDto;
+import com.molla.support.QueryCounter;
+import com.molla.util.EntityStreams;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the number of SQL statements per read path (repository call + mapper, as
+ * the endpoints do) so N+1 regressions fail the build. The data set has several
+ * branches, cashiers, customers, categories and orders, so per-row lazy loading
+ * would show up as a count that grows with it.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EntityStreams.class)
+public class FetchPlanQueryCountTest {
+
+    private static final int ORDERS = 30;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private ShiftReportRepository shiftReportRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private EntityStreams entityStreams;
+
+    private QueryCounter queries;
+    private Store store;
+    private Branch branch;
+    private User cashier;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        queries = new QueryCounter(entityManagerFactory);
+
+        User admin = user("admin@store.test", UserRole.ROLE_STORE_ADMIN, null, null);
+        store = new Store();
+        store.setBrand("Molla");
+        store.setStoreAdmin(admin);
+        em.persist(store);
+
+        List<Branch> branches = new ArrayList<>();
+        List<User> cashiers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Branch b = Branch.builder().name("Branch " + i).store(store).workingDays(List.of("MON", "TUE")).build();
+            em.persist(b);
+            branches.add(b);
+            cashiers.add(user("cashier" + i + "@store.test", UserRole.ROLE_BRANCH_CASHIER, store, b));
+        }
+        branch = branches.get(0);
+        cashier = cashiers.get(0);
+
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            Category category = new Category();
+            category.setName("Category " + c);
+            category.setStore(store);
+            em.persist(category);
+            for (int p = 0; p < 5; p++) {
+                Product product = new Product();
+                product.setName("Product " + c + "-" + p);
+                product.setSku("SKU-" + c + "-" + p);
+                product.setSellingPrice(10.0);
+                product.setStore(store);
+                product.setCategory(category);
+                em.persist(product);
+                products.add(product);
+            }
+        }
+
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = new Customer();
+            customer.setName("Customer " + i);
+            em.persist(customer);
+            customers.add(customer);
+        }
+
+        ShiftReport shift = ShiftReport.builder()
+                .cashier(cashier).branch(branch).shiftStart(LocalDateTime.now().minusHours(1)).build();
+        em.persist(shift);
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .branch(branch)
+                    .cashier(i % 2 == 0 ? cashier : cashiers.get(1 + i % 2))
+                    .customer(customers.get(i % customers.size()))
+                    .paymentType(i % 2 == 0 ? PaymentType.CASH : PaymentType.CARD)
+                    .totalAmount(20.0)
+                    .build();
+            em.persist(order);
+            for (int j = 0; j < 2; j++) {
+                em.persist(OrderItem.builder()
+                        .order(order).product(products.get((i + j * 7) % products.size())).quantity(1).price(10.0).build());
+            }
+            if (i % 3 == 0) {
+                em.persist(Refund.builder()
+                        .order(order).amount(5.0).cashier(order.getCashier()).branch(branch)
+                        .shiftReport(shift).paymentType(order.getPaymentType()).build());
+            }
+            orderId = order.getId();
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private User user(String email, UserRole role, Store store, Branch branch) {
+        User user = new User();
+        user.setFullName(email);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole(role);
+        user.setStore(store);
+        user.setBranch(branch);
+        em.persist(user);
+        return user;
+    }
+
+    @Test
+    void testOrderSummaries_SingleQuery() {
+        var summaries = queries.assertAtMost(1, () -> orderRepository.findSummariesByBranch(branch.getId(), null, null, null, null));
+        assertEquals(ORDERS, summaries.size());
+    }
+
+    @Test
+    void testShiftOrders_Bounded() {
+        var orders = queries.assertAtMost(3, () -> orderRepository.findByCashierAndCreatedAtBetween(
+                cashier, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1))
+                .stream().map(OrderMapper::toDto).toList());
+        assertEquals(ORDERS / 2, orders.size());
+    }
+
+    @Test
+    void testOrderById_Bounded() {
+        var order = queries.assertAtMost(2, () -> OrderMapper.toDto(orderRepository.findById(orderId).orElseThrow()));
+        assertEquals(2, order.getOrderItems().size());
+    }
+
+    @Test
+    void testRefundsByBranch_Bounded() {
+        var refunds = queries.assertAtMost(3, () -> refundRepository.findByBranchId(branch.getId())
+                .stream().map(RefundMapper::toDto).toList());
+        assertEquals(ORDERS / 3, refunds.size());
+    }
+
+    @Test
+    void testShiftReportsByBranch_Bounded() {
+        var reports = queries.assertAtMost(3, () -> shiftReportRepository.findByBranchId(branch.getId())
+                .stream().map(ShiftReportMapper::toDto).toList());
+        assertEquals(ORDERS / 3, reports.get(0).getRefunds().size());
+    }
+
+    @Test
+    void testProductsByStore_Bounded() {
+        var products = queries.assertAtMost(2, () -> productRepository.findByStoreId(store.getId())
+                .stream().map(ProductMapper::toDto).toList());
+        assertEquals(20, products.size());
+    }
+
+    @Test
+    void testStreamedProducts_Bounded() {
+        var products = queries.assertAtMost(1, () -> {
+            List<Object> streamed = new ArrayList<>();
+            entityStreams.forEach(productRepository.streamAll(), ProductMapper::toDto, streamed::add);
+            return streamed;
+        });
+        assertEquals(20, products.size());
+    }
+
+    @Test
+    void testStreamedShiftReports_Bounded() {
+        var reports = queries.assertAtMost(3, () -> {
+            List<ShiftReportDto> streamed = new ArrayList<>();
+            entityStreams.forEach(shiftReportRepository.streamAll(), ShiftReportMapper::toDto, streamed::add);
+            return streamed;
+        });
+        assertEquals(ORDERS / 3, reports.get(0).getRefunds().size());
+    }
+
+    @Test
+    void testStreamedStores_Bounded() {
+        var stores = queries.assertAtMost(1, () -> {
+            List<Object> streamed = new ArrayList<>();
+            entityStreams.forEach(storeRepository.streamAll(), StoreMapper::toDTO, streamed::add);
+            return streamed;
+        });
+        assertEquals(1, stores.size());
+    }
+}
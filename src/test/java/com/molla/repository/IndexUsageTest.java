@@ -0,0 +1,160 @@
+package com.molla.repository;
+
+import com.molla.configuration.FlywayConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the V1 migration on the Hibernate schema (as at startup) and checks with
+ * EXPLAIN that the predicates of the hot repository methods are served by the
+ * new indexes instead of table scans. Tables get a few thousand rows first so the
+ * planner costs indexes against real selectivity. Single-column predicates may
+ * equally use the foreign key index, so those only have to avoid a scan.
+ * ANALYZE commits, so the rows are written outside a test transaction and removed
+ * after each test.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(FlywayConfig.class)
+@TestPropertySource(properties = "spring.flyway.enabled=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void fillTables() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbc.update("""
+                INSERT INTO users (id, email, full_name, password, role, store_id, branch_id)
+                SELECT X, 'user' || X || '@store.test', 'User ' || X, 'x',
+                       CASE MOD(X, 4) WHEN 0 THEN 'ROLE_BRANCH_MANAGER' ELSE 'ROLE_BRANCH_CASHIER' END,
+                       MOD(X, 10) + 1, MOD(X, 40) + 1
+                FROM SYSTEM_RANGE(1, 2000)""");
+        jdbc.update("""
+                INSERT INTO orders (id, branch_id, cashier_id, customer_id, created_at, total_amount)
+                SELECT X, MOD(X, 40) + 1, MOD(X, 2000) + 1, MOD(X, 500) + 1,
+                       DATEADD('MINUTE', X, TIMESTAMP '2024-01-01 00:00:00'), 10
+                FROM SYSTEM_RANGE(1, 20000)""");
+        jdbc.update("""
+                INSERT INTO shift_report (id, branch_id, cashier_id, shift_start, shift_end)
+                SELECT X, MOD(X, 40) + 1, MOD(X, 2000) + 1, DATEADD('HOUR', X, TIMESTAMP '2024-01-01 00:00:00'),
+                       CASE WHEN MOD(X, 50) = 0 THEN NULL ELSE DATEADD('HOUR', X + 8, TIMESTAMP '2024-01-01 00:00:00') END
+                FROM SYSTEM_RANGE(1, 5000)""");
+        jdbc.update("""
+                INSERT INTO refund (id, branch_id, cashier_id, shift_report_id, order_id, created_at, amount)
+                SELECT X, MOD(X, 40) + 1, MOD(X, 2000) + 1, MOD(X, 5000) + 1, X,
+                       DATEADD('MINUTE', X * 10, TIMESTAMP '2024-01-01 00:00:00'), 5
+                FROM SYSTEM_RANGE(1, 5000)""");
+        jdbc.update("""
+                INSERT INTO inventory (id, branch_id, product_id, quantity)
+                SELECT X, MOD(X, 40) + 1, X / 40 + 1, 10 FROM SYSTEM_RANGE(1, 20000)""");
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        // Refresh row estimates so the planner costs indexes against a real scan
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void clearTables() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (String table : new String[]{"refund", "shift_report", "orders", "inventory", "users"}) {
+            jdbc.execute("DELETE FROM " + table);
+        }
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private String plan(String sql) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class)).toUpperCase(Locale.ROOT);
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = plan(sql);
+        assertTrue(plan.contains(index.toUpperCase(Locale.ROOT)), "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("TABLESCAN"), "Unexpected table scan:\n" + plan);
+    }
+
+    private void assertNoTableScan(String sql) {
+        String plan = plan(sql);
+        assertFalse(plan.contains("TABLESCAN"), "Unexpected table scan:\n" + plan);
+    }
+
+    @Test
+    void testOrderQueriesUseCompositeIndexes() {
+        // findSummariesByBranchIdAndCreatedAtBetween / findSummariesByBranch
+        assertUsesIndex("idx_orders_branch_created", """
+                SELECT o.id, o.total_amount FROM orders o
+                WHERE o.branch_id = 1
+                AND o.created_at BETWEEN TIMESTAMP '2024-01-01 00:00:00' AND TIMESTAMP '2024-01-02 00:00:00'
+                ORDER BY o.created_at DESC""");
+        // findByCashierAndCreatedAtBetween (shift close)
+        assertUsesIndex("idx_orders_cashier_created", """
+                SELECT o.id FROM orders o
+                WHERE o.cashier_id = 7
+                AND o.created_at BETWEEN TIMESTAMP '2024-01-01 09:00:00' AND TIMESTAMP '2024-01-01 17:00:00'""");
+        // findSummariesByCustomerId
+        assertUsesIndex("idx_orders_customer_created",
+                "SELECT o.id FROM orders o WHERE o.customer_id = 3 ORDER BY o.created_at DESC");
+        // findSummariesByBranchId count query
+        assertNoTableScan("SELECT COUNT(*) FROM orders o WHERE o.branch_id = 1");
+    }
+
+    @Test
+    void testRefundQueriesUseIndexes() {
+        assertUsesIndex("idx_refund_cashier_created", """
+                SELECT r.id FROM refund r
+                WHERE r.cashier_id = 7
+                AND r.created_at BETWEEN TIMESTAMP '2024-01-01 09:00:00' AND TIMESTAMP '2024-01-01 17:00:00'""");
+        assertNoTableScan("SELECT r.id FROM refund r WHERE r.branch_id = 1");
+        assertNoTableScan("SELECT r.id FROM refund r WHERE r.shift_report_id = 5");
+    }
+
+    @Test
+    void testInventoryLookupsShareOneIndex() {
+        assertUsesIndex("idx_inventory_branch_product",
+                "SELECT i.id FROM inventory i WHERE i.product_id = 10 AND i.branch_id = 1");
+        assertNoTableScan("SELECT i.id FROM inventory i WHERE i.branch_id = 1");
+    }
+
+    @Test
+    void testShiftReportQueriesUseIndexes() {
+        // findTopByCashierAndShiftEndIsNullOrderByShiftStartDesc: H2 only matches the
+        // cashier prefix here, which the foreign key index serves just as well
+        assertNoTableScan("""
+                SELECT s.id FROM shift_report s
+                WHERE s.cashier_id = 7 AND s.shift_end IS NULL
+                ORDER BY s.shift_start DESC FETCH FIRST 1 ROWS ONLY""");
+        // findByCashierAndShiftStartBetween
+        assertUsesIndex("idx_shift_report_cashier_start", """
+                SELECT s.id FROM shift_report s
+                WHERE s.cashier_id = 7
+                AND s.shift_start BETWEEN TIMESTAMP '2024-01-01 00:00:00' AND TIMESTAMP '2024-01-01 23:59:59'""");
+        assertNoTableScan("SELECT s.id FROM shift_report s WHERE s.branch_id = 1");
+    }
+
+    @Test
+    void testUserLookupsAvoidTableScans() {
+        // findByEmail is served by the unique constraint Hibernate declares for users.email
+        assertNoTableScan("SELECT u.id FROM users u WHERE u.email = 'user7@store.test'");
+
+        assertUsesIndex("idx_users_store_role",
+                "SELECT u.id FROM users u WHERE u.store_id = 1 AND u.role IN ('ROLE_BRANCH_CASHIER', 'ROLE_BRANCH_MANAGER')");
+        assertUsesIndex("idx_users_branch_role",
+                "SELECT u.id FROM users u WHERE u.branch_id = 2 AND u.role IN ('ROLE_CASHIER', 'ROLE_BRANCH_CASHIER')");
+        assertNoTableScan("SELECT u.id FROM users u WHERE u.branch_id = 2");
+    }
+}
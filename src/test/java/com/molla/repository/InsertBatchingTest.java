@@ -0,0 +1,121 @@
+package com.molla.repository;
+
+import com.molla.domain.PaymentType;
+import com.molla.domain.UserRole;
+import com.molla.model.Branch;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import com.molla.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Pins the statements of a checkout insert: ids come from pooled sequences, so an
+ * order and its items are written as one JDBC batch per table instead of one
+ * insert per row (at most two sequence calls per table when a pool runs out).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class InsertBatchingTest {
+
+    private static final int BASKET = 30;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private QueryCounter queries;
+    private Branch branch;
+    private User cashier;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        queries = new QueryCounter(entityManagerFactory);
+
+        Store store = new Store();
+        store.setBrand("Molla");
+        em.persist(store);
+        branch = Branch.builder().name("Main").store(store).build();
+        em.persist(branch);
+        cashier = user("cashier@store.test", UserRole.ROLE_BRANCH_CASHIER, store, branch);
+        for (int i = 0; i < BASKET; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setSku("SKU-" + i);
+            product.setSellingPrice(10.0);
+            product.setStore(store);
+            em.persist(product);
+            products.add(product);
+        }
+        em.flush();
+    }
+
+    private User user(String email, UserRole role, Store store, Branch branch) {
+        User user = new User();
+        user.setFullName(email);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole(role);
+        user.setStore(store);
+        user.setBranch(branch);
+        em.persist(user);
+        return user;
+    }
+
+    @Test
+    void testOrderWithItems_OneBatchPerTable() {
+        Order order = Order.builder()
+                .branch(branch).cashier(cashier).paymentType(PaymentType.CASH).totalAmount(300.0).build();
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : products) {
+            items.add(OrderItem.builder().order(order).product(product).quantity(1).price(10.0).totalPrice(10.0).build());
+        }
+        order.setOrderItems(items);
+
+        // 2 batched inserts + sequence calls for orders_seq and order_item_seq
+        queries.assertAtMost(6, () -> {
+            orderRepository.save(order);
+            em.flush();
+            return order;
+        });
+        em.clear();
+        assertEquals(BASKET, orderRepository.findById(order.getId()).orElseThrow().getOrderItems().size());
+    }
+
+    @Test
+    void testUserIdsComeFromSequence_InsertDeferredToFlush() {
+        // With IDENTITY every persist would run its insert immediately
+        List<User> users = queries.assertAtMost(2, () -> {
+            List<User> created = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                created.add(user("employee" + i + "@store.test", UserRole.ROLE_BRANCH_CASHIER, null, branch));
+            }
+            return created;
+        });
+        users.forEach(user -> assertNotNull(user.getId()));
+        queries.assertAtMost(1, () -> {
+            em.flush();
+            return users;
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.molla.repository;
+
+import com.molla.domain.OrderStatus;
+import com.molla.domain.PaymentType;
+import com.molla.payload.dto.OrderBasketDto;
+import com.molla.payload.dto.OrderSummaryDto;
+import com.molla.payload.dto.PaymentTypeTotalsDto;
+import com.molla.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The OrderSummaryDto constructor expressions: field mapping, left joins for
+ * orders without a cashier or customer, filters, ordering and limits; and the
+ * aggregate projections with their sums coalesced to zero.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class OrderRepositoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void insertOrders() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbc.update("INSERT INTO branch (id, name, store_id) VALUES (1, 'Main', 1), (2, 'Mall', 1)");
+        jdbc.update("INSERT INTO users (id, email, full_name, password, role, store_id, branch_id) "
+                + "VALUES (7, 'till7@x.test', 'Till Seven', 'secret', 'ROLE_BRANCH_CASHIER', 1, 1)");
+        jdbc.update("INSERT INTO customer (id, name) VALUES (3, 'Asha')");
+        // Branch 1: orders 1..7 an hour apart, odd ids by cashier 7 for customer 3 paid by card; order 8 is branch 2
+        for (long id = 1; id <= 7; id++) {
+            boolean odd = id % 2 == 1;
+            order(id, 1L, odd ? 7L : null, odd ? 3L : null, odd ? "CARD" : "CASH", DAY.plusHours(id));
+        }
+        order(8L, 2L, 7L, 3L, "CARD", DAY.plusHours(20));
+        jdbc.update("INSERT INTO order_item (id, order_id, quantity, price, total_price) "
+                + "VALUES (1, 1, 1, 5.0, 5.0), (2, 1, 2, 2.5, 5.0)");
+    }
+
+    private void order(Long id, Long branchId, Long cashierId, Long customerId, String paymentType, LocalDateTime createdAt) {
+        jdbc.update("INSERT INTO orders (id, branch_id, cashier_id, customer_id, payment_type, status, total_amount, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, 'COMPLETED', ?, ?)",
+                id, branchId, cashierId, customerId, paymentType, id * 10.0, Timestamp.valueOf(createdAt));
+    }
+
+    private static List<Long> ids(List<OrderSummaryDto> summaries) {
+        return summaries.stream().map(OrderSummaryDto::getId).toList();
+    }
+
+    @Test
+    void testSummary_MapsEveryField() {
+        List<OrderSummaryDto> summaries = orderRepository.findSummariesByBranch(1L, null, null, null, null);
+
+        assertEquals(List.of(7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(summaries));
+        OrderSummaryDto first = summaries.get(6);
+        assertEquals(new OrderSummaryDto(1L, 10.0, OrderStatus.COMPLETED, PaymentType.CARD, DAY.plusHours(1),
+                1L, 7L, "Till Seven", 3L, "Asha", 2), first);
+        OrderSummaryDto walkIn = summaries.get(5);
+        assertNull(walkIn.getCashierId());
+        assertNull(walkIn.getCustomerName());
+        assertEquals(0, walkIn.getItemCount());
+    }
+
+    @Test
+    void testSummaries_Filters() {
+        assertEquals(List.of(7L, 5L, 3L, 1L), ids(orderRepository.findSummariesByBranch(1L, 3L, null, null, null)));
+        assertEquals(List.of(6L, 4L, 2L),
+                ids(orderRepository.findSummariesByBranch(1L, null, null, PaymentType.CASH, OrderStatus.COMPLETED)));
+        assertEquals(List.of(8L, 7L, 5L, 3L, 1L), ids(orderRepository.findSummariesByCashierId(7L)));
+        assertEquals(List.of(8L, 7L, 5L, 3L, 1L), ids(orderRepository.findSummariesByCustomerId(3L)));
+        assertEquals(List.of(4L, 3L, 2L), ids(orderRepository.findSummariesByBranchIdAndCreatedAtBetween(
+                1L, DAY.plusHours(2), DAY.plusHours(4))));
+    }
+
+    @Test
+    void testRecentSummaries_NewestFiveInOneQuery() {
+        QueryCounter queries = new QueryCounter(entityManagerFactory);
+
+        List<OrderSummaryDto> recent = queries.assertAtMost(1,
+                () -> orderRepository.findRecentSummariesByBranchId(1L, PageRequest.of(0, 5)));
+
+        assertEquals(List.of(7L, 6L, 5L, 4L, 3L), ids(recent));
+    }
+
+    @Test
+    void testPagedSummaries_SortAndCount() {
+        Page<OrderSummaryDto> page = orderRepository.findSummariesByBranchId(1L,
+                PageRequest.of(1, 3, Sort.by("createdAt").ascending()));
+
+        assertEquals(List.of(4L, 5L, 6L), ids(page.getContent()));
+        assertEquals(7, page.getTotalElements());
+    }
+
+    @Test
+    void testAggregateProjections_MapFieldsAndZeroEmptySums() {
+        List<OrderBasketDto> baskets = orderRepository.findBaskets(DAY, DAY.plusHours(3)).stream()
+                .sorted(Comparator.comparing(OrderBasketDto::createdAt)).toList();
+
+        assertEquals(List.of(new OrderBasketDto(1L, DAY.plusHours(1), 3L, 10.0, 3L),
+                new OrderBasketDto(1L, DAY.plusHours(2), null, 20.0, 0L)), baskets);
+        assertEquals(List.of(new PaymentTypeTotalsDto(PaymentType.CASH, 3L, 120.0)),
+                orderRepository.sumTotalsByPaymentType(1L, DAY, DAY.plusHours(7)).stream()
+                        .filter(totals -> totals.paymentType() == PaymentType.CASH).toList());
+    }
+}
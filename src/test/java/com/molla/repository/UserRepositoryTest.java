@@ -0,0 +1,67 @@
+package com.molla.repository;
+
+import com.molla.domain.UserRole;
+import com.molla.payload.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class UserRepositoryTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void insertUsers() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        // Store 1: branch 1 has cashiers 1, 3, 5 and manager 4; user 2 is a cashier of store 2
+        jdbc.update("""
+                INSERT INTO users (id, email, full_name, password, role, store_id, branch_id) VALUES
+                (1, 'u1@x.test', 'User 1', 'secret', 'ROLE_BRANCH_CASHIER', 1, 1),
+                (2, 'u2@x.test', 'User 2', 'secret', 'ROLE_BRANCH_CASHIER', 2, 2),
+                (3, 'u3@x.test', 'User 3', 'secret', 'ROLE_CASHIER', 1, 1),
+                (4, 'u4@x.test', 'User 4', 'secret', 'ROLE_BRANCH_MANAGER', 1, 1),
+                (5, 'u5@x.test', 'User 5', 'secret', 'ROLE_BRANCH_CASHIER', 1, 1),
+                (6, 'u6@x.test', 'User 6', 'secret', 'ROLE_STORE_MANAGER', 1, NULL)""");
+    }
+
+    private static List<Long> ids(Page<UserDto> page) {
+        return page.getContent().stream().map(UserDto::getId).toList();
+    }
+
+    @Test
+    void filtersByRoleAndPagesInTheQuery() {
+        List<UserRole> cashiers = List.of(UserRole.ROLE_CASHIER, UserRole.ROLE_BRANCH_CASHIER);
+
+        Page<UserDto> first = userRepository.findEmployeesByBranchId(1L, cashiers, PageRequest.of(0, 2, Sort.by("id")));
+        Page<UserDto> second = userRepository.findEmployeesByBranchId(1L, cashiers, PageRequest.of(1, 2, Sort.by("id")));
+
+        assertEquals(List.of(1L, 3L), ids(first));
+        assertEquals(List.of(5L), ids(second));
+        assertEquals(3, first.getTotalElements());
+        assertEquals(1L, first.getContent().get(0).getStoreId());
+        assertEquals(1L, first.getContent().get(0).getBranchId());
+        assertNull(first.getContent().get(0).getPassword());
+
+        Page<UserDto> store = userRepository.findEmployeesByStoreId(1L, List.of(UserRole.values()),
+                PageRequest.of(0, 10, Sort.by("id")));
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L), ids(store));
+        assertNull(store.getContent().get(4).getBranchId());
+    }
+}
@@ -0,0 +1,210 @@
+package com.molla.rollup;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.event.RefundIssuedEvent;
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.payload.dto.SalesRollupRowDto;
+import com.molla.repository.SalesRollupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds yesterday's orders and a refund to the writer as their events, then
+ * compacts: the sums must not change while the delta rows fold into one row per
+ * branch, product and payment type, and a deleted order must drop out. Deltas
+ * are written in transactions of their own, so the test runs without one and
+ * clears the tables afterwards.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ SalesRollupWriter.class, OrderArchiveRepository.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SalesRollupWriterTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private SalesRollupWriter writer;
+
+    @Autowired
+    private SalesRollupRepository rollupRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void placeOrders() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        LocalDateTime morning = YESTERDAY.atTime(10, 0);
+        order(1L, PaymentType.CASH, morning, new OrderPlacedEvent.Line(1L, null, 2, 20.0),
+                new OrderPlacedEvent.Line(2L, null, 1, 5.0));
+        order(2L, PaymentType.CARD, morning.plusHours(2), new OrderPlacedEvent.Line(1L, null, 1, 10.0));
+        jdbc.update("INSERT INTO refund (id, order_id, branch_id, payment_type, amount, created_at) "
+                + "VALUES (1, 1, 1, 'CASH', 5, ?)", Timestamp.valueOf(morning.plusHours(3)));
+        writer.onRefundIssued(new RefundIssuedEvent(1L, 1L, 1L, null, PaymentType.CASH, morning.plusHours(3), 5.0));
+    }
+
+    private void order(Long id, PaymentType paymentType, LocalDateTime createdAt, OrderPlacedEvent.Line... lines) {
+        double total = 0;
+        jdbc.update("INSERT INTO orders (id, branch_id, payment_type, created_at) VALUES (?, 1, ?, ?)",
+                id, paymentType.name(), Timestamp.valueOf(createdAt));
+        for (OrderPlacedEvent.Line line : lines) {
+            jdbc.update("INSERT INTO order_item (id, order_id, product_id, quantity, total_price) "
+                            + "VALUES (?, ?, ?, ?, ?)",
+                    id * 100 + line.productId(), id, line.productId(), line.quantity(), line.amount());
+            total += line.amount();
+        }
+        jdbc.update("UPDATE orders SET total_amount = ? WHERE id = ?", total, id);
+        writer.onOrderPlaced(new OrderPlacedEvent(id, 1L, 1L, null, null, paymentType, createdAt, total,
+                List.of(lines)));
+    }
+
+    @AfterEach
+    void clearTables() {
+        for (String table : new String[]{"sales_rollup", "refund", "order_item", "orders", "product", "store", "users"}) {
+            jdbc.execute("DELETE FROM " + table);
+        }
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private SalesRollupRowDto yesterday() {
+        List<SalesRollupRowDto> days = rollupRepository.sumByDay(1L, YESTERDAY, YESTERDAY);
+        assertEquals(1, days.size());
+        return days.get(0);
+    }
+
+    private int rows(boolean compacted) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM sales_rollup WHERE compacted = ?", Integer.class, compacted);
+    }
+
+    @Test
+    void testDeltas_AddUpPerDay() {
+        SalesRollupRowDto day = yesterday();
+        assertEquals(4L, day.getQuantity());
+        assertEquals(35.0, day.getSalesAmount());
+        assertEquals(2L, day.getOrders());
+        assertEquals(5.0, day.getRefundAmount());
+        assertEquals(1L, day.getRefunds());
+        // Two order rows, three product rows and the refund
+        assertEquals(6, rows(false));
+    }
+
+    @Test
+    void testCompaction_KeepsSumsWithOneRowPerKey() {
+        assertEquals(List.of(TODAY.minusDays(2), YESTERDAY), writer.compact(TODAY));
+
+        SalesRollupRowDto day = yesterday();
+        assertEquals(4L, day.getQuantity());
+        assertEquals(35.0, day.getSalesAmount());
+        assertEquals(2L, day.getOrders());
+        assertEquals(5.0, day.getRefundAmount());
+        // Products 1 and 2 paid in cash, product 1 by card, orders and refunds per payment type
+        assertEquals(0, rows(false));
+        assertEquals(5, rows(true));
+        assertTrue(rollupRepository.findUncompactedDaysBefore(TODAY).isEmpty());
+
+        List<SalesRollupRowDto> byPayment = rollupRepository.sumByPaymentType(1L, YESTERDAY, YESTERDAY);
+        assertEquals(PaymentType.CASH, byPayment.get(0).getPaymentType());
+        assertEquals(25.0, byPayment.get(0).getSalesAmount());
+    }
+
+    @Test
+    void testCompaction_PicksUpDeletedOrders() {
+        jdbc.update("DELETE FROM order_item WHERE order_id = 2");
+        jdbc.update("DELETE FROM orders WHERE id = 2");
+        writer.compact(TODAY);
+
+        SalesRollupRowDto day = yesterday();
+        assertEquals(1L, day.getOrders());
+        assertEquals(25.0, day.getSalesAmount());
+        assertEquals(List.of(1L, 2L), rollupRepository.sumByProduct(1L, YESTERDAY, YESTERDAY,
+                PageRequest.of(0, 10)).stream()
+                .map(SalesRollupRowDto::getProductId).toList());
+    }
+
+    @Test
+    void testRecompute_SameDayConcurrentlyKeepsOneRowSet() throws Exception {
+        // The nightly compaction and a rebuild of the same day
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int t = 0; t < threads * 2; t++) {
+                runs.add(pool.submit(() -> writer.recompute(YESTERDAY)));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(5, rows(true));
+        assertEquals(2L, yesterday().getOrders());
+        assertEquals(35.0, yesterday().getSalesAmount());
+    }
+
+    @Test
+    void testDeltas_CommitNextToARequestPersistenceContext() {
+        // An order saved on the request's EntityManager (open-in-view) outside a transaction: the delta
+        // transaction commits on that EntityManager, and its flush hashes the items' product -> store -> admin
+        jdbc.update("DELETE FROM order_item");
+        jdbc.update("DELETE FROM orders");
+        jdbc.update("INSERT INTO users (id, email, full_name, password, role, store_id) "
+                + "VALUES (5, 'admin@x.test', 'Admin', 'secret', 'ROLE_STORE_ADMIN', 1)");
+        jdbc.update("INSERT INTO store (id, brand, store_admin_id) VALUES (1, 'Molla', 5)");
+        jdbc.update("INSERT INTO product (id, name, sku, store_id) VALUES (1, 'Tea', 'T-1', 1), (2, 'Milk', 'M-2', 1)");
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        try {
+            Order checkout = Order.builder().paymentType(PaymentType.CASH).totalAmount(4.0).build();
+            checkout.setOrderItems(new ArrayList<>(List.of(OrderItem.builder().order(checkout)
+                    .product(requestEntityManager.find(Product.class, 2L)).quantity(1).price(4.0).totalPrice(4.0)
+                    .build())));
+            requestEntityManager.getTransaction().begin();
+            requestEntityManager.persist(checkout);
+            requestEntityManager.getTransaction().commit();
+
+            writer.onOrderPlaced(new OrderPlacedEvent(checkout.getId(), 1L, 1L, null, null, PaymentType.CASH,
+                    TODAY.atTime(9, 0), 4.0, List.of(new OrderPlacedEvent.Line(2L, null, 1, 4.0))));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+
+        assertEquals(1L, rollupRepository.sumByDay(1L, TODAY, TODAY).get(0).getOrders());
+    }
+}
@@ -0,0 +1,106 @@
+package com.molla.search;
+
+import com.molla.model.Customer;
+import com.molla.util.EntityStreams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Customers are inserted directly, so the index sees them through its first
+ * load; later changes reach it through put/remove as CustomerServiceImpl does.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ CustomerSearchIndex.class, EntityStreams.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CustomerSearchIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CustomerSearchIndex index;
+
+    @BeforeEach
+    void insertCustomers() {
+        index.invalidate();
+        customer(1L, "José Álvarez", "Jose.Alvarez@example.com", "+1 (555) 010-2030");
+        customer(2L, "Ann Lee", "ann@example.com", "555-0199");
+        customer(3L, "Annabel Jones", null, "15550102030");
+        customer(4L, "Anne Lee-Smith", "ANN@example.com", null);
+    }
+
+    private void customer(Long id, String name, String email, String phone) {
+        jdbc.update("INSERT INTO customer (id, name, email, phone) VALUES (?, ?, ?, ?)", id, name, email, phone);
+    }
+
+    @AfterEach
+    void clearTable() {
+        jdbc.execute("DELETE FROM customer");
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).stream().map(Customer::getId).toList();
+    }
+
+    @Test
+    void findsByPhoneDigitsEmailAndNameTokens() {
+        // Customers 1 and 3 have the same digits: both exact, then by name; the last digits find both too
+        assertEquals(List.of(3L, 1L), ids("1-555-010-2030"));
+        assertEquals(List.of(3L, 1L), ids("2030"));
+        assertEquals(List.of(2L), ids("555 01"));
+
+        assertEquals(List.of(2L, 4L), ids("ann@example.com"));
+        assertEquals(List.of(1L), ids("jose.al"));
+
+        // Accents folded, every word a token prefix, ranked by name
+        assertEquals(List.of(1L), ids("jose alv"));
+        assertEquals(List.of(2L, 4L), ids("lee an"));
+        // Email prefixes rank above name prefixes
+        assertEquals(List.of(2L, 4L, 3L), ids("ann"));
+        assertTrue(ids("zed").isEmpty());
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        assertEquals(List.of(2L), ids("555 01"));
+
+        index.put(new Customer(2L, "Ann Lee", "ann.lee@example.com", "555-0777", null, null));
+        index.remove(4L);
+        index.put(new Customer(5L, "Bob Stone", null, "0777", null, null));
+
+        assertTrue(ids("555 01").isEmpty());
+        assertEquals(List.of(2L, 5L), ids("0777").stream().sorted().toList());
+        assertTrue(ids("ann@example.com").isEmpty());
+        assertEquals(List.of(2L), ids("ann.lee@"));
+        assertEquals(List.of(2L), ids("lee"));
+        assertEquals(List.of(5L), ids("bob"));
+    }
+
+    @Test
+    void groupsCustomersSharingPhoneOrEmail() {
+        customer(6L, "A. Lee", "other@example.com", "555 0199");
+
+        List<CustomerSearchIndex.DuplicateGroup> groups = index.duplicateGroups();
+
+        assertEquals(2, groups.size());
+        assertEquals(List.of(1L, 3L), groups.get(0).ids());
+        assertEquals(List.of("phone 15550102030"), groups.get(0).reasons());
+        // 2 and 4 share an email, 2 and 6 a phone
+        assertEquals(List.of(2L, 4L, 6L), groups.get(1).ids());
+        assertEquals(2, groups.get(1).reasons().size());
+    }
+}
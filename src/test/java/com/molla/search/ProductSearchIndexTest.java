@@ -0,0 +1,174 @@
+package com.molla.search;
+
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.payload.dto.ProductDto;
+import com.molla.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchIndex index;
+
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        store = new Store();
+        store.setId(1L);
+    }
+
+    private Product product(long id, String name, String brand, String sku) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setSku(sku);
+        product.setStore(store);
+        return product;
+    }
+
+    private ProductDto dto(long id, String name, String brand, String sku) {
+        ProductDto dto = new ProductDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setBrand(brand);
+        dto.setSku(sku);
+        dto.setStoreId(1L);
+        return dto;
+    }
+
+    private List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+
+    @Test
+    void testSearch_MatchesSubstringsAndRanks() {
+        when(productRepository.findByStoreId(1L)).thenReturn(List.of(
+                product(1L, "Organic Milk 1L", "Amul", "MILK-001"),
+                product(2L, "Milk Chocolate", "Cadbury", "CHOC-002"),
+                product(3L, "Buttermilk", "Amul", "BUT-003"),
+                product(4L, "Bread", "Milkyway Bakers", "BRD-004"),
+                product(5L, "Soap", "Dove", "SOAP-005")));
+
+        List<ProductDto> result = index.search(1L, "MILK");
+
+        // name prefix, word prefix, name substring, brand prefix
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(result));
+        assertEquals(List.of(5L), ids(index.search(1L, "soap-005")));
+        assertTrue(index.search(1L, "yogurt").isEmpty());
+    }
+
+    @Test
+    void testSearch_ShortQueryScansStore() {
+        when(productRepository.findByStoreId(1L)).thenReturn(List.of(
+                product(1L, "Tea", "Tata", "T-1"),
+                product(2L, "Coffee", "Nescafe", "C-2")));
+
+        assertEquals(List.of(1L), ids(index.search(1L, "te")));
+    }
+
+    @Test
+    void testPutAndRemove_KeepIndexInSync() {
+        when(productRepository.findByStoreId(1L)).thenReturn(List.of(product(1L, "Green Tea", "Lipton", "GT-1")));
+        assertEquals(List.of(1L), ids(index.search(1L, "green")));
+
+        index.put(dto(1L, "Black Tea", "Lipton", "GT-1"));
+        index.put(dto(2L, "Green Apple", "Fresh", "GA-2"));
+        assertEquals(List.of(2L), ids(index.search(1L, "green")));
+
+        assertEquals(2L, index.findBySku(1L, "GA-2").orElseThrow().getId());
+
+        index.remove(1L, 2L);
+        assertTrue(index.search(1L, "green").isEmpty());
+        assertTrue(index.findBySku(1L, "GA-2").isEmpty());
+        assertEquals(List.of(1L), ids(index.search(1L, "black")));
+        assertEquals("Black Tea", index.findBySku(1L, "GT-1").orElseThrow().getName());
+
+        // Store is loaded once and then maintained incrementally
+        verify(productRepository, times(1)).findByStoreId(1L);
+    }
+
+    @Test
+    void testLoad_WriteDuringLoadIsNotLost() {
+        // The product is saved while the store loads from a snapshot that predates it
+        when(productRepository.findByStoreId(1L))
+                .thenAnswer(invocation -> {
+                    index.put(dto(2L, "Green Apple", "Fresh", "GA-2"));
+                    return List.of(product(1L, "Green Tea", "Lipton", "GT-1"));
+                })
+                .thenReturn(List.of(product(1L, "Green Tea", "Lipton", "GT-1"),
+                        product(2L, "Green Apple", "Fresh", "GA-2")));
+
+        index.search(1L, "green");
+
+        assertEquals(List.of(1L, 2L), ids(index.search(1L, "green")));
+        verify(productRepository, times(2)).findByStoreId(1L);
+    }
+
+    @Test
+    void testLoad_WriteToAnotherStoreKeepsTheLoad() {
+        ProductDto otherStore = dto(9L, "Green Apple", "Fresh", "GA-9");
+        otherStore.setStoreId(2L);
+
+        when(productRepository.findByStoreId(1L)).thenAnswer(invocation -> {
+            index.put(otherStore);
+            index.remove(2L, 8L);
+            return List.of(product(1L, "Green Tea", "Lipton", "GT-1"));
+        });
+
+        index.search(1L, "green");
+
+        assertEquals(List.of(1L), ids(index.search(1L, "green")));
+        verify(productRepository, times(1)).findByStoreId(1L);
+    }
+
+    @Test
+    void testLoad_ConcurrentFirstUsesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findByStoreId(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return List.of(product(1L, "Green Tea", "Lipton", "GT-1"));
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<ProductDto>> first = pool.submit(() -> index.search(1L, "green"));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            // The store is mapped to the pending load before it starts, so this waits for it
+            Future<List<ProductDto>> second = pool.submit(() -> index.search(1L, "tea"));
+            release.countDown();
+
+            assertEquals(List.of(1L), ids(first.get()));
+            assertEquals(List.of(1L), ids(second.get()));
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(productRepository, times(1)).findByStoreId(1L);
+    }
+}
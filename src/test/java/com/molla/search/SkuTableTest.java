@@ -0,0 +1,94 @@
+package com.molla.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SkuTableTest {
+
+    @Test
+    public void testPutGetRemove() {
+        SkuTable table = new SkuTable();
+        for (int i = 0; i < 1000; i++) {
+            table.put("SKU-" + i, i + 1);
+        }
+        assertEquals(1000, table.size());
+        assertEquals(43L, table.get("SKU-42"));
+
+        table.put("SKU-42", 4242L);
+        assertEquals(4242L, table.get("SKU-42"));
+        assertEquals(1000, table.size());
+
+        for (int i = 0; i < 1000; i += 2) {
+            table.remove("SKU-" + i);
+        }
+        assertEquals(500, table.size());
+        assertEquals(SkuTable.MISSING, table.get("SKU-42"));
+        assertEquals(44L, table.get("SKU-43"));
+        assertEquals(SkuTable.MISSING, table.get("UNKNOWN"));
+    }
+
+    @Test
+    public void testChurnReusesTombstones() {
+        SkuTable table = new SkuTable();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                table.put("R" + round + "-" + i, i);
+            }
+            for (int i = 0; i < 100; i++) {
+                table.remove("R" + round + "-" + i);
+            }
+        }
+        assertEquals(0, table.size());
+        table.put("LAST", 7L);
+        assertEquals(7L, table.get("LAST"));
+    }
+
+    /**
+     * Scans from 4 threads over 100k skus all find their product. Lookup latency
+     * is measured in SkuLookupBenchmark, not here.
+     */
+    @Test
+    public void testConcurrentScans_FindEverySku() throws Exception {
+        int products = 100_000;
+        String[] skus = new String[products];
+        SkuTable table = new SkuTable(products);
+        for (int i = 0; i < products; i++) {
+            skus[i] = String.format("89%011d", i);
+            table.put(skus[i], i + 1);
+        }
+
+        int threads = 4;
+        int lookups = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int found = 0;
+                    for (int i = 0; i < lookups; i++) {
+                        int index = random.nextInt(products);
+                        if (table.get(skus[index]) == index + 1) {
+                            found++;
+                        }
+                    }
+                    return found;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(lookups, future.get());
+            }
+            assertEquals(SkuTable.MISSING, table.get("8900000000000X"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
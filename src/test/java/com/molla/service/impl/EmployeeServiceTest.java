@@ -1,6 +1,7 @@
 package com.molla.service.impl;
 
 import com.molla.domain.UserRole;
+import com.molla.mapper.UserMapper;
 import com.molla.model.Branch;
 import com.molla.model.Store;
 import com.molla.model.User;
@@ -15,13 +16,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -73,11 +77,17 @@ public class EmployeeServiceTest {
         bhumi.setBranch(branch);
     }
 
+    // The repository filters by role in SQL and returns projections
+    private PageImpl<UserDto> employees() {
+        return new PageImpl<>(Stream.of(cashier2, kaif, bhumi).map(UserMapper::toDto).toList());
+    }
+
     @Test
     void testFindBranchEmployees_ReturnsAllEmployees() throws Exception {
         // Arrange
-        when(branchRepository.findById(2L)).thenReturn(Optional.of(branch));
-        when(userRepository.findByBranchId(2L)).thenReturn(Arrays.asList(cashier2, kaif, bhumi));
+        when(branchRepository.existsById(2L)).thenReturn(true);
+        when(userRepository.findEmployeesByBranchId(eq(2L), eq(List.of(UserRole.values())), any(Pageable.class)))
+                .thenReturn(employees());
 
         // Act
         List<UserDto> result = employeeService.findBranchEmployees(2L, null);
@@ -92,8 +102,10 @@ public class EmployeeServiceTest {
     @Test
     void testFindBranchEmployees_FilterByRoleMismatch() throws Exception {
         // Arrange
-        when(branchRepository.findById(2L)).thenReturn(Optional.of(branch));
-        when(userRepository.findByBranchId(2L)).thenReturn(Arrays.asList(cashier2, kaif, bhumi));
+        when(branchRepository.existsById(2L)).thenReturn(true);
+        when(userRepository.findEmployeesByBranchId(eq(2L),
+                eq(List.of(UserRole.ROLE_CASHIER, UserRole.ROLE_BRANCH_CASHIER)), any(Pageable.class)))
+                .thenReturn(employees());
 
         // Act - request ROLE_CASHIER, but users are ROLE_BRANCH_CASHIER
         // FIX: Now we expect 3 because we aliased it!
@@ -106,8 +118,10 @@ public class EmployeeServiceTest {
     @Test
     void testFindBranchEmployees_FilterByRoleMatch() throws Exception {
         // Arrange
-        when(branchRepository.findById(2L)).thenReturn(Optional.of(branch));
-        when(userRepository.findByBranchId(2L)).thenReturn(Arrays.asList(cashier2, kaif, bhumi));
+        when(branchRepository.existsById(2L)).thenReturn(true);
+        when(userRepository.findEmployeesByBranchId(eq(2L), eq(List.of(UserRole.ROLE_BRANCH_CASHIER)),
+                any(Pageable.class)))
+                .thenReturn(employees());
 
         // Act
         List<UserDto> result = employeeService.findBranchEmployees(2L, UserRole.ROLE_BRANCH_CASHIER);
@@ -0,0 +1,54 @@
+package com.molla.service.impl;
+
+import com.molla.model.Order;
+import com.molla.model.OrderItem;
+import com.molla.model.Product;
+import com.molla.model.Store;
+import com.molla.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ShiftReportHelpersTest {
+
+    private static Product product(Long id, Store store) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setQuantity(100);
+        product.setStore(store);
+        return product;
+    }
+
+    private static OrderItem item(Product product, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    @Test
+    public void testTopSellingProducts_StoreAdminCycle() {
+        // product -> store -> admin -> store: hashing these entities used to overflow the stack
+        Store store = new Store();
+        store.setId(1L);
+        User admin = new User();
+        admin.setId(2L);
+        admin.setStore(store);
+        store.setStoreAdmin(admin);
+        Product milk = product(10L, store);
+        Product bread = product(11L, store);
+        Order first = new Order();
+        first.setOrderItems(List.of(item(milk, 2), item(bread, 5)));
+        Order second = new Order();
+        second.setOrderItems(List.of(item(milk, 4)));
+
+        List<Product> top = ShiftReportServiceImpl.getTopSellingProducts(List.of(first, second));
+
+        assertEquals(List.of(10L, 11L), top.stream().map(Product::getId).toList());
+        assertEquals(List.of(6, 5), top.stream().map(Product::getQuantity).toList());
+        assertEquals(100, milk.getQuantity());
+    }
+}
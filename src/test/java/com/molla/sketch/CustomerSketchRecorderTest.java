@@ -0,0 +1,128 @@
+package com.molla.sketch;
+
+import com.molla.archive.OrderArchiveRepository;
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Yesterday's orders of two branches of store 1 go to the recorder as their
+ * events: store-wide figures must count a customer of both branches once, reads
+ * must include unflushed orders, and rebuilding the day from the orders must
+ * give the same figures. Flushes commit on their own, so the test runs without a
+ * transaction and clears the tables afterwards.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ CustomerSketchRecorder.class, OrderArchiveRepository.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CustomerSketchRecorderTest {
+
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CustomerSketchRecorder recorder;
+
+    @BeforeEach
+    void placeOrders() {
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbc.update("INSERT INTO branch (id, store_id) VALUES (1, 1), (2, 1), (3, 2)");
+        LocalDateTime morning = YESTERDAY.atTime(9, 15);
+        order(1L, 1L, 1L, morning, 2, 20.0);
+        order(2L, 1L, 2L, morning.plusMinutes(20), 1, 5.0);
+        order(3L, 1L, 1L, morning.plusHours(3), 4, 40.0);
+        order(4L, 1L, null, morning.plusHours(3), 1, 3.0);
+        order(5L, 2L, 1L, morning.plusHours(1), 3, 30.0);
+        order(6L, 2L, 3L, morning.plusHours(8), 1, 12.0);
+        order(7L, 3L, 9L, morning, 5, 99.0);
+        assertEquals(5, recorder.flush());
+    }
+
+    private void order(Long id, Long branchId, Long customerId, LocalDateTime createdAt, int items, double total) {
+        jdbc.update("INSERT INTO orders (id, branch_id, customer_id, total_amount, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, branchId, customerId, total, Timestamp.valueOf(createdAt));
+        jdbc.update("INSERT INTO order_item (id, order_id, product_id, quantity, total_price) VALUES (?, ?, 1, ?, ?)",
+                id, id, items, total);
+        recorder.onOrderPlaced(new OrderPlacedEvent(id, branchId == 3L ? 2L : 1L, branchId, null, customerId,
+                PaymentType.CASH, createdAt, total, List.of(new OrderPlacedEvent.Line(1L, null, items, total))));
+    }
+
+    @AfterEach
+    void clearTables() {
+        for (String table : new String[]{"customer_sketch", "order_item", "orders", "branch"}) {
+            jdbc.execute("DELETE FROM " + table);
+        }
+        jdbc.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private BasketStats storeYesterday() {
+        Map<LocalDate, BasketStats> days = recorder.byDay(1L, null, YESTERDAY, YESTERDAY);
+        assertEquals(1, days.size());
+        return days.get(YESTERDAY);
+    }
+
+    @Test
+    void testStoreFigures_MergeBranchesAndHours() {
+        BasketStats store = storeYesterday();
+        assertEquals(6, store.orders());
+        assertEquals(1, store.anonymousOrders());
+        assertEquals(12, store.items());
+        assertEquals(110.0, store.amount(), 1e-9);
+        // Customer 1 bought in both branches
+        assertEquals(3, store.customers().estimate());
+        assertEquals(1.5, store.basketSizes().quantile(0.5), 1e-6);
+
+        BasketStats branch = recorder.byDay(null, 2L, YESTERDAY, YESTERDAY).get(YESTERDAY);
+        assertEquals(2, branch.orders());
+        assertEquals(2, branch.customers().estimate());
+        // Five branch-hours
+        assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM customer_sketch", Integer.class));
+    }
+
+    @Test
+    void testReads_IncludeUnflushedOrders() {
+        order(8L, 1L, 4L, YESTERDAY.atTime(9, 50), 1, 1.0);
+
+        BasketStats store = storeYesterday();
+        assertEquals(7, store.orders());
+        assertEquals(4, store.customers().estimate());
+
+        assertEquals(1, recorder.flush());
+        assertEquals(7, storeYesterday().orders());
+    }
+
+    @Test
+    void testRebuild_MatchesTheEventsAndDropsDeletedOrders() {
+        jdbc.update("DELETE FROM order_item WHERE order_id = 2");
+        jdbc.update("DELETE FROM orders WHERE id = 2");
+
+        assertEquals(5, recorder.rebuild(YESTERDAY));
+
+        BasketStats store = storeYesterday();
+        assertEquals(5, store.orders());
+        assertEquals(105.0, store.amount(), 1e-9);
+        assertEquals(2, store.customers().estimate());
+        assertTrue(recorder.byDay(null, 1L, YESTERDAY.minusDays(1), YESTERDAY.minusDays(1)).isEmpty());
+    }
+}
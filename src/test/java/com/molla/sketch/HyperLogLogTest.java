@@ -0,0 +1,63 @@
+package com.molla.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HyperLogLogTest {
+
+    private static HyperLogLog of(long fromId, long toId) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = fromId; id < toId; id++) {
+            sketch.add(id);
+        }
+        return sketch;
+    }
+
+    @Test
+    void testSmallCounts_AreNearlyExact() {
+        HyperLogLog sketch = of(1, 41);
+        // Repeat customers do not count twice
+        sketch.add(7);
+        sketch.add(7);
+
+        assertEquals(40, sketch.estimate(), 1);
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void testLargeCounts_WithinThreeStandardErrors() {
+        for (long n : new long[]{2_000, 10_000, 50_000, 1_000_000}) {
+            HyperLogLog sketch = of(1_000_000L * n, 1_000_000L * n + n);
+            assertEquals(n, sketch.estimate(), n * 3 * sketch.relativeError(), "estimate of " + n);
+        }
+    }
+
+    @Test
+    void testMerge_EstimatesTheUnion() {
+        // 30k customers over two branches, 10k of them visiting both
+        HyperLogLog branch1 = of(0, 20_000);
+        HyperLogLog branch2 = of(10_000, 30_000);
+        branch1.merge(branch2);
+
+        assertEquals(30_000, branch1.estimate(), 30_000 * 3 * branch1.relativeError());
+        assertEquals(of(0, 30_000), branch1);
+        assertThrows(IllegalArgumentException.class, () -> branch1.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void testEncoding_SparseUntilDenseIsSmaller() {
+        HyperLogLog few = of(1, 50);
+        byte[] sparse = few.toBytes();
+        assertTrue(sparse.length < 200, "sparse size " + sparse.length);
+        assertEquals(few, HyperLogLog.fromBytes(sparse));
+
+        HyperLogLog many = of(1, 100_000);
+        byte[] dense = many.toBytes();
+        assertEquals(2 + 4096 * 6 / 8, dense.length);
+        assertEquals(many, HyperLogLog.fromBytes(dense));
+        assertEquals(new HyperLogLog(), HyperLogLog.fromBytes(null));
+    }
+}
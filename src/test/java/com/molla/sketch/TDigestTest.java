@@ -0,0 +1,77 @@
+package com.molla.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TDigestTest {
+
+    private static double exact(double[] sorted, double q) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(q * sorted.length))];
+    }
+
+    /** Rank of value in sorted, as a fraction. */
+    private static double rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (index >= 0 ? index : -index - 1) / (double) sorted.length;
+    }
+
+    @Test
+    void testQuantiles_OfSkewedBasketValues() {
+        Random random = new Random(5);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, like basket values: most small, a long tail
+            values[i] = Math.exp(3 + random.nextGaussian());
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, digest.count());
+        for (double q : new double[]{0.01, 0.1, 0.5, 0.9, 0.99}) {
+            assertEquals(q, rank(values, digest.quantile(q)), 0.005, "rank of q" + q);
+        }
+        assertEquals(values[0], digest.quantile(0), 1e-9);
+        assertEquals(values[values.length - 1], digest.quantile(1), 1e-9);
+    }
+
+    @Test
+    void testFewValues_AreExact() {
+        TDigest digest = new TDigest();
+        for (int items : new int[]{1, 2, 2, 3, 8}) {
+            digest.add(items);
+        }
+        assertEquals(2, digest.quantile(0.5), 1e-9);
+        assertEquals(1, digest.quantile(0), 1e-9);
+        assertEquals(8, digest.quantile(1), 1e-9);
+        assertTrue(Double.isNaN(new TDigest().quantile(0.5)));
+    }
+
+    @Test
+    void testMergeAndEncoding_KeepQuantiles() {
+        Random random = new Random(11);
+        double[] all = new double[24 * 500];
+        TDigest merged = new TDigest();
+        for (int hour = 0; hour < 24; hour++) {
+            TDigest digest = new TDigest();
+            for (int i = 0; i < 500; i++) {
+                double value = 1 + random.nextInt(hour + 2);
+                all[hour * 500 + i] = value;
+                digest.add(value);
+            }
+            // Every hour goes through its stored form, as the flushed rows do
+            merged.merge(TDigest.fromBytes(digest.toBytes()));
+        }
+        Arrays.sort(all);
+
+        assertEquals(all.length, merged.count());
+        assertEquals(exact(all, 0.5), merged.quantile(0.5), 1.0);
+        assertEquals(exact(all, 0.9), merged.quantile(0.9), 1.0);
+        assertTrue(merged.toBytes().length < 2000, "encoded size " + merged.toBytes().length);
+    }
+}
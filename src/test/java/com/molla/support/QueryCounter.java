@@ -0,0 +1,31 @@
+package com.molla.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while running a read path, so
+ * tests can pin the number of queries and fail on N+1 regressions.
+ * Requires hibernate.generate_statistics=true (set in application-test.properties).
+ */
+public class QueryCounter {
+
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public <T> T assertAtMost(long maxQueries, Supplier<T> action) {
+        statistics.clear();
+        T result = action.get();
+        long queries = statistics.getPrepareStatementCount();
+        assertTrue(queries <= maxQueries, "Expected at most " + maxQueries + " queries but " + queries + " were executed");
+        return result;
+    }
+}
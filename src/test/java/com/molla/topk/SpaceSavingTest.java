@@ -0,0 +1,83 @@
+package com.molla.topk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpaceSavingTest {
+
+    @Test
+    void testExact_WhileProductsFit() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.add(1, 5);
+        sketch.add(2, 7);
+        sketch.add(1, 4);
+        sketch.add(3, 1);
+
+        assertEquals(List.of(new SpaceSaving.Entry(1, 9, 0), new SpaceSaving.Entry(2, 7, 0)), sketch.top(2));
+        assertEquals(17, sketch.total());
+    }
+
+    /** Skewed sales over 5,000 products into 100 counters: the real best sellers come out on top. */
+    @Test
+    void testHeavyHitters_OnSkewedSales() {
+        Random random = new Random(3);
+        SpaceSaving sketch = new SpaceSaving(100);
+        Map<Long, Long> truth = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Zipf-like: product k sells about 1/k as often as product 1
+            long product = (long) Math.floor(Math.pow(5000, random.nextDouble()));
+            int quantity = 1 + random.nextInt(3);
+            sketch.add(product, quantity);
+            truth.merge(product, (long) quantity, Long::sum);
+        }
+
+        long threshold = sketch.total() / sketch.capacity();
+        List<SpaceSaving.Entry> top = sketch.top(100);
+        for (SpaceSaving.Entry entry : top) {
+            long actual = truth.getOrDefault(entry.productId(), 0L);
+            assertTrue(entry.count() >= actual);
+            assertTrue(entry.count() - entry.error() <= actual);
+            assertTrue(entry.error() <= threshold);
+        }
+        truth.forEach((product, actual) -> {
+            if (actual > threshold) {
+                assertTrue(top.stream().anyMatch(entry -> entry.productId() == product), "missed " + product);
+            }
+        });
+        assertEquals(List.of(1L, 2L, 3L), top.subList(0, 3).stream().map(SpaceSaving.Entry::productId).toList());
+    }
+
+    @Test
+    void testMerge_KeepsBoundsAcrossDays() {
+        Random random = new Random(9);
+        List<SpaceSaving> days = new ArrayList<>();
+        Map<Long, Long> truth = new HashMap<>();
+        for (int d = 0; d < 7; d++) {
+            SpaceSaving day = new SpaceSaving(50);
+            for (int i = 0; i < 20_000; i++) {
+                long product = (long) Math.floor(Math.pow(2000, random.nextDouble())) + d % 2;
+                day.add(product, 1);
+                truth.merge(product, 1L, Long::sum);
+            }
+            days.add(day);
+        }
+
+        SpaceSaving week = SpaceSaving.merge(50, days);
+
+        assertEquals(140_000, week.total());
+        for (SpaceSaving.Entry entry : week.top(50)) {
+            long actual = truth.getOrDefault(entry.productId(), 0L);
+            assertTrue(entry.count() >= actual, "undercounted " + entry);
+            assertTrue(entry.count() - entry.error() <= actual, "error too small for " + entry);
+        }
+        assertEquals(List.of(1L, 2L), week.top(2).stream().map(SpaceSaving.Entry::productId).sorted().toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.molla.topk;
+
+import com.molla.domain.PaymentType;
+import com.molla.event.OrderPlacedEvent;
+import com.molla.repository.SalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TopProductsTrackerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 11);
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 9);
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private static OrderPlacedEvent order(long storeId, long branchId, LocalDate day, OrderPlacedEvent.Line... lines) {
+        return new OrderPlacedEvent(1L, storeId, branchId, null, null, PaymentType.CASH, day.atTime(12, 0), 0.0,
+                List.of(lines));
+    }
+
+    private static OrderPlacedEvent.Line line(long productId, int quantity) {
+        return new OrderPlacedEvent.Line(productId, null, quantity, quantity * 10.0);
+    }
+
+    private static List<Long> ids(TopProductsTracker.Result result) {
+        return result.products().stream().map(SpaceSaving.Entry::productId).toList();
+    }
+
+    @Test
+    void testRebuildFromRollups_ThenLiveOrders() {
+        when(salesRollupRepository.sumQuantityByDayBranchAndProduct(TODAY.minusDays(7))).thenReturn(List.of(
+                new Object[]{MONDAY, 1L, 10L, 7L, 30L},
+                new Object[]{TODAY, 1L, 10L, 8L, 5L},
+                new Object[]{TODAY, 2L, 10L, 9L, 4L}));
+        TopProductsTracker tracker = new TopProductsTracker(salesRollupRepository, transactionManager, 20, true);
+        assertEquals(3, tracker.rebuild(TODAY));
+
+        tracker.onOrderPlaced(order(10L, 2L, TODAY, line(9L, 3), line(8L, 1)));
+
+        assertEquals(List.of(8L), ids(tracker.top(TopProductsTracker.Scope.BRANCH, 1L,
+                TopProductsTracker.Period.TODAY, TODAY, 10)));
+        TopProductsTracker.Result storeToday = tracker.top(TopProductsTracker.Scope.STORE, 10L,
+                TopProductsTracker.Period.TODAY, TODAY, 10);
+        assertEquals(List.of(9L, 8L), ids(storeToday));
+        assertEquals(7L, storeToday.products().get(0).count());
+        assertEquals(13L, storeToday.totalQuantity());
+
+        TopProductsTracker.Result storeWeek = tracker.top(TopProductsTracker.Scope.STORE, 10L,
+                TopProductsTracker.Period.WEEK, TODAY, 1);
+        assertEquals(MONDAY, storeWeek.from());
+        assertEquals(List.of(7L), ids(storeWeek));
+    }
+
+    @Test
+    void testUnknownBranch_IsEmpty() {
+        TopProductsTracker tracker = new TopProductsTracker(salesRollupRepository, transactionManager, 20, true);
+        TopProductsTracker.Result result = tracker.top(TopProductsTracker.Scope.BRANCH, 5L,
+                TopProductsTracker.Period.WEEK, TODAY, 10);
+        assertEquals(0, result.totalQuantity());
+        assertEquals(List.of(), result.products());
+    }
+}
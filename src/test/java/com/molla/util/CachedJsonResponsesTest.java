@@ -0,0 +1,37 @@
+package com.molla.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CachedJsonResponsesTest {
+
+    private final CachedJsonResponses responses = new CachedJsonResponses(new ObjectMapper());
+
+    @Test
+    public void testSameCachedInstance_ReusesSerializedBody() {
+        List<String> cached = List.of("Tea", "Coffee");
+
+        ResponseEntity<byte[]> first = responses.ok("categoriesByStore", 1L, cached);
+        ResponseEntity<byte[]> second = responses.ok("categoriesByStore", 1L, cached);
+
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals("[\"Tea\",\"Coffee\"]", new String(first.getBody()));
+    }
+
+    @Test
+    public void testETagFollowsContent() {
+        String etag = responses.ok("categoriesByStore", 1L, List.of("Tea")).getHeaders().getETag();
+
+        // Rebuilt after an eviction with the same content: same ETag
+        assertEquals(etag, responses.ok("categoriesByStore", 1L, List.of("Tea")).getHeaders().getETag());
+        assertNotEquals(etag, responses.ok("categoriesByStore", 1L, List.of("Milk")).getHeaders().getETag());
+    }
+}
@@ -0,0 +1,53 @@
+package com.molla.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonArrayStreamsTest {
+
+    private final JsonArrayStreams streams = new JsonArrayStreams(new ObjectMapper());
+
+    @Test
+    void testWritesElementsAsOneArray() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = streams.ok(action -> {
+            for (int i = 1; i <= 3; i++) {
+                action.accept(Map.of("id", i));
+            }
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEmptySource_WritesEmptyArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streams.ok(action -> { }).getBody().writeTo(out);
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFailureHalfway_LeavesArrayOpen() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingResponseBody body = streams.ok(action -> {
+            action.accept(Map.of("id", 1));
+            throw new IllegalStateException("cursor lost");
+        }).getBody();
+
+        assertThrows(IllegalStateException.class, () -> body.writeTo(out));
+        // A client must not mistake a cut-off list for a complete one
+        assertEquals("[{\"id\":1}", out.toString(StandardCharsets.UTF_8));
+    }
+}